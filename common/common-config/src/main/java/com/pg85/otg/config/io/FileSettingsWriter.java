@@ -7,8 +7,12 @@ import com.pg85.otg.util.logging.LogLevel;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -27,7 +31,9 @@ public final class FileSettingsWriter
 	}
 	
 	/**
-	 * Writes the configuration settings to the given file. If writing fails,
+	 * Writes the configuration settings to the given file. If the file
+	 * already has the same contents it is left untouched, so unchanged
+	 * configs aren't rewritten on every startup. If writing fails,
 	 * the error is logged.
 	 *
 	 * @param config	 The configuration to write to disk.
@@ -59,35 +65,65 @@ public final class FileSettingsWriter
 	}
 
 	/**
-	 * Writes the settings map to the file.
+	 * Writes the settings map to the file, unless the file already
+	 * contains exactly the same text.
 	 * @param settingsMap The settings map.
 	 * @throws IOException If an IO error occurs.
 	 */
 	private void write(SettingsMap settingsMap) throws IOException
 	{
-		BufferedWriter writer = null;
-		try
+		StringWriter stringWriter = new StringWriter();
+		BufferedWriter writer = new BufferedWriter(stringWriter);
+		for (RawSettingValue entry : settingsMap.getRawSettings())
 		{
-			File directory = file.getParentFile();
-			if (!directory.exists() && !directory.mkdirs())
-			{
-				throw new IOException("Could not create directory '" + file.getParentFile() + "'");
-			}
+			writeEntry(writer, entry);
+		}
+		writer.flush();
+		// Same (platform default) encoding FileWriter used.
+		byte[] contents = stringWriter.toString().getBytes();
 
-			writer = new BufferedWriter(new FileWriter(file));
-			for (RawSettingValue entry : settingsMap.getRawSettings())
-			{
-				writeEntry(writer, entry);
-			}
+		if (isUnchanged(contents))
+		{
+			return;
+		}
+
+		File directory = file.getParentFile();
+		if (!directory.exists() && !directory.mkdirs())
+		{
+			throw new IOException("Could not create directory '" + file.getParentFile() + "'");
+		}
+
+		OutputStream stream = null;
+		try
+		{
+			stream = new FileOutputStream(file);
+			stream.write(contents);
 		} finally
 		{
-			if (writer != null)
+			if (stream != null)
 			{
-				writer.close();
+				stream.close();
 			}
 		}
 	}
 
+	private boolean isUnchanged(byte[] contents)
+	{
+		if (!this.file.isFile() || this.file.length() != contents.length)
+		{
+			return false;
+		}
+		try
+		{
+			return Arrays.equals(Files.readAllBytes(this.file.toPath()), contents);
+		}
+		catch (IOException e)
+		{
+			// Just write the file
+			return false;
+		}
+	}
+
 	private void writeEntry(BufferedWriter writer, RawSettingValue value) throws IOException
 	{
 		switch (value.getType())
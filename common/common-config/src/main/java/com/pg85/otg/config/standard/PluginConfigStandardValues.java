@@ -20,4 +20,6 @@ public class PluginConfigStandardValues extends Settings
 	public static final Setting<Boolean> LOG_PERFORMANCE = booleanSetting("LogPerformance", false);
 	public static final Setting<Boolean> DEVELOPER_MODE = booleanSetting("DeveloperMode", false);
 	public static final Setting<Integer> WORKER_THREADS = intSetting("WorkerThreads", 0, 0, 10);
+	public static final Setting<Integer> BO4_DATA_CACHE_SIZE = intSetting("BO4DataCacheSize", 256, 0, 65536);
+	public static final Setting<Boolean> PRELOAD_CUSTOM_OBJECTS = booleanSetting("PreloadCustomObjects", false);
 }
@@ -136,7 +136,15 @@ public class WorldStandardValues extends Settings
 		NETHERFORTRESS_SPACING = intSetting("NetherFortressSpacing", 27, Integer.MIN_VALUE, Integer.MAX_VALUE),
 		NETHERFORTRESS_SEPARATION = intSetting("NetherFortressSeparation", 4, Integer.MIN_VALUE, Integer.MAX_VALUE),
 		NETHERFOSSIL_SPACING = intSetting("NetherFossilSpacing", 2, Integer.MIN_VALUE, Integer.MAX_VALUE),
-		NETHERFOSSIL_SEPARATION = intSetting("NetherFossilSeparation", 1, Integer.MIN_VALUE, Integer.MAX_VALUE)
+		NETHERFOSSIL_SEPARATION = intSetting("NetherFossilSeparation", 1, Integer.MIN_VALUE, Integer.MAX_VALUE),
+		NOISE_COLUMN_CACHE_SIZE = intSetting("NoiseColumnCacheSize", 4096, 256, 1048576),
+		BIOME_CACHE_SIZE = intSetting("BiomeCacheSize", 1024, 64, 65536),
+		BIOME_LAYER_CACHE_SIZE = intSetting("BiomeLayerCacheSize", 25, 16, 65536),
+		BIOME_LAYER_CACHE_MAX_SIZE = intSetting("BiomeLayerCacheMaxSize", 1024, 16, 1048576),
+		SHADOW_CHUNK_CACHE_SIZE = intSetting("ShadowChunkCacheSize", 512, 16, 16384),
+		SHADOW_CHUNK_QUEUE_SIZE = intSetting("ShadowChunkQueueSize", 512, 16, 16384),
+		SHADOW_COLUMN_CACHE_SIZE = intSetting("ShadowColumnCacheSize", 1024, 16, 65536),
+		SHADOW_STRUCTURE_CACHE_SIZE = intSetting("ShadowStructureCacheSize", 2048, 64, 65536)
 	;
 	
 	public static final Setting<Long>
@@ -156,6 +164,7 @@ public class WorldStandardValues extends Settings
 		REMOVE_SURFACE_STONE = booleanSetting("RemoveSurfaceStone", false),
 		USE_OLD_BO3_STRUCTURE_RARITY = booleanSetting("UseOldBO3StructureRarity", true),				
 		DECORATION_BOUNDS_CHECK = booleanSetting("DecorationBoundsCheck", true),
+		BIOME_LAYER_CACHE_TWO_WAY = booleanSetting("BiomeLayerCacheTwoWay", false),
 		DISABLE_OREGEN = booleanSetting("DisableOreGen", false),
 
 		OLD_GROUP_RARITY = booleanSetting("OldGroupRarity", true), //TODO: for 1.16 1.0, switch this to false --Authvin
@@ -15,6 +15,7 @@ import com.pg85.otg.customobject.structures.CustomStructureCache;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.interfaces.IModLoadedChecker;
 import com.pg85.otg.interfaces.IPluginConfig;
+import com.pg85.otg.presets.CustomObjectPreloader;
 import com.pg85.otg.presets.LocalPresetLoader;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
@@ -119,6 +120,7 @@ public abstract class OTGEngine
 		this.customObjectResourcesManager = new CustomObjectResourcesManager();
 		this.customObjectManager = new CustomObjectManager(
 			getPluginConfig().getDeveloperModeEnabled(), 
+			getPluginConfig().getBO4DataCacheSize(), 
 			this.logger, 
 			this.otgRootFolder, 
 			getPresetsDirectory(), 
@@ -135,6 +137,13 @@ public abstract class OTGEngine
 		// Load presets
 
 		this.presetLoader.loadPresetsFromDisk(this.biomeResourcesManager, this.logger);
+
+		// Preload custom objects in the background, developer mode reloads them anyway.
+
+		if(this.pluginConfig.getPreloadCustomObjects() && !this.pluginConfig.getDeveloperModeEnabled())
+		{
+			CustomObjectPreloader.preloadCustomObjects(this.presetLoader, this.otgRootFolder, this.logger, this.customObjectManager, this.customObjectResourcesManager, this.modLoadedChecker);
+		}
 	}
 
 	private void unpackDefaultPresetAndExamples(File presetsDir)
@@ -49,6 +49,8 @@ public final class PluginConfig extends PluginConfigBase
 		this.decorationEnabled = reader.getSetting(PluginConfigStandardValues.DECORATION_ENABLED, logger);
 		this.developerMode = reader.getSetting(PluginConfigStandardValues.DEVELOPER_MODE, logger);
 		this.workerThreads = reader.getSetting(PluginConfigStandardValues.WORKER_THREADS, logger);
+		this.bo4DataCacheSize = reader.getSetting(PluginConfigStandardValues.BO4_DATA_CACHE_SIZE, logger);
+		this.preloadCustomObjects = reader.getSetting(PluginConfigStandardValues.PRELOAD_CUSTOM_OBJECTS, logger);
 	}
 
 	@Override
@@ -70,6 +72,20 @@ public final class PluginConfig extends PluginConfigBase
 			"base terrain and BO4 generation. Higher values may not result in better ",
 			"performance, experiment to see what works best for your cpu."
 		);
+
+		writer.putSetting(PluginConfigStandardValues.BO4_DATA_CACHE_SIZE, this.bo4DataCacheSize,
+			"The amount of memory in MB used to keep BO4Data blocks loaded after spawning,",
+			"so spawning the same BO4Data again doesn't need to read its file. Set to 0 to",
+			"always read BO4Data files when spawning, using as little memory as possible.",
+			"Defaults to: 256"
+		);
+
+		writer.putSetting(PluginConfigStandardValues.PRELOAD_CUSTOM_OBJECTS, this.preloadCustomObjects,
+			"Loads all BO2/BO3/BO4 objects used by presets in the background on startup,",
+			"so they don't have to be loaded while generating chunks. Uses more memory.",
+			"Has no effect in developer mode.",
+			"Defaults to: false"
+		);
 		
 		writer.header2("Logging");
 
@@ -19,6 +19,8 @@ public abstract class PluginConfigBase extends ConfigFile implements IPluginConf
 	protected LogLevels logLevel;
 	protected ConfigMode settingsMode;
 	protected int workerThreads;
+	protected int bo4DataCacheSize;
+	protected boolean preloadCustomObjects;
 	protected boolean developerMode;
 	protected boolean logCustomObjects;
 	protected boolean logStructurePlotting;
@@ -47,6 +49,18 @@ public abstract class PluginConfigBase extends ConfigFile implements IPluginConf
 		return this.workerThreads;
 	}
 
+	@Override
+	public int getBO4DataCacheSize()
+	{
+		return this.bo4DataCacheSize;
+	}
+
+	@Override
+	public boolean getPreloadCustomObjects()
+	{
+		return this.preloadCustomObjects;
+	}
+
 	@Override
 	public boolean getDeveloperModeEnabled()
 	{
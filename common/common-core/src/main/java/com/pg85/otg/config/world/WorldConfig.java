@@ -236,6 +236,18 @@ public class WorldConfig extends WorldConfigBase
 		this.waterLevelMax = reader.getSetting(WorldStandardValues.WATER_LEVEL_MAX, logger);
 		this.waterLevelMin = reader.getSetting(WorldStandardValues.WATER_LEVEL_MIN, logger);
 
+		// Performance
+
+		this.noiseColumnCacheSize = reader.getSetting(WorldStandardValues.NOISE_COLUMN_CACHE_SIZE, logger);
+		this.biomeCacheSize = reader.getSetting(WorldStandardValues.BIOME_CACHE_SIZE, logger);
+		this.biomeLayerCacheSize = reader.getSetting(WorldStandardValues.BIOME_LAYER_CACHE_SIZE, logger);
+		this.biomeLayerCacheMaxSize = reader.getSetting(WorldStandardValues.BIOME_LAYER_CACHE_MAX_SIZE, logger);
+		this.biomeLayerCacheTwoWay = reader.getSetting(WorldStandardValues.BIOME_LAYER_CACHE_TWO_WAY, logger);
+		this.shadowChunkCacheSize = reader.getSetting(WorldStandardValues.SHADOW_CHUNK_CACHE_SIZE, logger);
+		this.shadowChunkQueueSize = reader.getSetting(WorldStandardValues.SHADOW_CHUNK_QUEUE_SIZE, logger);
+		this.shadowColumnCacheSize = reader.getSetting(WorldStandardValues.SHADOW_COLUMN_CACHE_SIZE, logger);
+		this.shadowStructureCacheSize = reader.getSetting(WorldStandardValues.SHADOW_STRUCTURE_CACHE_SIZE, logger);
+
 		// FromImageMode
 
 		this.imageOrientation = reader.getSetting(WorldStandardValues.IMAGE_ORIENTATION, logger);		
@@ -737,6 +749,56 @@ public class WorldConfig extends WorldConfigBase
 			"Values above 0 will lead to large cliffs/overhangs, floating islands, and/or a cavern world depending on other settings.",
 			"Values less than 0 will make terrain volatility more 'spiky' but lessen the likelihood of overhangs and floating terrain."
 		);
+
+		writer.header1("Performance",
+			"The settings in this section control caches used during world generation.",
+			"Larger caches use more memory, but can speed up generation when many threads are generating chunks."
+		);
+
+		writer.putSetting(WorldStandardValues.NOISE_COLUMN_CACHE_SIZE, this.noiseColumnCacheSize,
+			"The amount of terrain noise columns (4x4 block areas) cached for the world, shared by all generation threads.",
+			"Each cached column uses roughly 300 bytes of memory. Defaults to: 4096"
+		);
+
+		writer.putSetting(WorldStandardValues.BIOME_CACHE_SIZE, this.biomeCacheSize,
+			"The amount of chunks (and of 32x32 block regions) whose biomes are cached for the world,",
+			"shared by base terrain generation, carvers and decoration. Defaults to: 1024"
+		);
+
+		writer.putSetting(WorldStandardValues.BIOME_LAYER_CACHE_SIZE, this.biomeLayerCacheSize,
+			"The size of the cache of the first (lowest resolution) biome layer, per generation thread.",
+			"Each layer below it gets a 4x larger cache, up to BiomeLayerCacheMaxSize. Defaults to: 25"
+		);
+
+		writer.putSetting(WorldStandardValues.BIOME_LAYER_CACHE_MAX_SIZE, this.biomeLayerCacheMaxSize,
+			"The maximum size of a biome layer's cache, per generation thread. Layer caches that keep",
+			"evicting entries grow up to this size. Use higher values for high GenerationDepth and large",
+			"area requests such as maps and pregeneration. Defaults to: 1024"
+		);
+
+		writer.putSetting(WorldStandardValues.BIOME_LAYER_CACHE_TWO_WAY, this.biomeLayerCacheTwoWay,
+			"Set this to true to let each biome layer cache entry share its slot with one other entry,",
+			"so fewer entries are evicted by collisions, at the cost of slightly slower lookups. Defaults to: false"
+		);
+
+		writer.putSetting(WorldStandardValues.SHADOW_CHUNK_CACHE_SIZE, this.shadowChunkCacheSize,
+			"Forge only: The amount of chunks whose base terrain is generated ahead of time by worker threads",
+			"(WorkerThreads in OTG.ini) or for BO4's, and kept until worldgen needs them. Defaults to: 512"
+		);
+
+		writer.putSetting(WorldStandardValues.SHADOW_CHUNK_QUEUE_SIZE, this.shadowChunkQueueSize,
+			"Forge only: The maximum amount of chunks waiting for a worker thread, chunks closest to the",
+			"chunks being generated are handled first. Defaults to: 512"
+		);
+
+		writer.putSetting(WorldStandardValues.SHADOW_COLUMN_CACHE_SIZE, this.shadowColumnCacheSize,
+			"Forge only: The amount of block columns in ungenerated chunks cached for BO4's. Defaults to: 1024"
+		);
+
+		writer.putSetting(WorldStandardValues.SHADOW_STRUCTURE_CACHE_SIZE, this.shadowStructureCacheSize,
+			"Forge only: The amount of chunks for which the distance to vanilla structures is cached, used to",
+			"decide which chunks can be generated ahead of time. Defaults to: 2048"
+		);
 		
 		writer.header1("Blocks");
 		
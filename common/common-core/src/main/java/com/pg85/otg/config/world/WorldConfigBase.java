@@ -100,6 +100,18 @@ abstract class WorldConfigBase extends ConfigFile implements IWorldConfig
 	protected int waterLevelMin;
 	protected int waterLevelMax;
 
+	// Performance
+
+	protected int noiseColumnCacheSize;
+	protected int biomeCacheSize;
+	protected int biomeLayerCacheSize;
+	protected int biomeLayerCacheMaxSize;
+	protected boolean biomeLayerCacheTwoWay;
+	protected int shadowChunkCacheSize;
+	protected int shadowChunkQueueSize;
+	protected int shadowColumnCacheSize;
+	protected int shadowStructureCacheSize;
+
 	// FromImageMode
 	
 	protected ImageOrientation imageOrientation;
@@ -927,6 +939,60 @@ abstract class WorldConfigBase extends ConfigFile implements IWorldConfig
 	{
 		return this.waterLevelMin;
 	}
+
+	@Override
+	public int getNoiseColumnCacheSize()
+	{
+		return this.noiseColumnCacheSize;
+	}
+
+	@Override
+	public int getBiomeCacheSize()
+	{
+		return this.biomeCacheSize;
+	}
+
+	@Override
+	public int getBiomeLayerCacheSize()
+	{
+		return this.biomeLayerCacheSize;
+	}
+
+	@Override
+	public int getBiomeLayerCacheMaxSize()
+	{
+		return this.biomeLayerCacheMaxSize;
+	}
+
+	@Override
+	public boolean getBiomeLayerCacheTwoWay()
+	{
+		return this.biomeLayerCacheTwoWay;
+	}
+
+	@Override
+	public int getShadowChunkCacheSize()
+	{
+		return this.shadowChunkCacheSize;
+	}
+
+	@Override
+	public int getShadowChunkQueueSize()
+	{
+		return this.shadowChunkQueueSize;
+	}
+
+	@Override
+	public int getShadowColumnCacheSize()
+	{
+		return this.shadowColumnCacheSize;
+	}
+
+	@Override
+	public int getShadowStructureCacheSize()
+	{
+		return this.shadowStructureCacheSize;
+	}
 	
 	@Override
 	public ArrayList<String> getWorldBiomes()
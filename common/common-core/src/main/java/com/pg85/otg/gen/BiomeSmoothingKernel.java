@@ -0,0 +1,85 @@
+package com.pg85.otg.gen;
+
+import com.pg85.otg.interfaces.IBiomeConfig;
+
+/**
+ * Precomputed smoothing data for a single biome, used by OTGChunkGenerator when blending
+ * biome height/volatility/CHC settings for a noise column. Holds the biome's settings in a
+ * packed array and its smoothing weight at every offset, so blending doesn't have to query
+ * the biome config and recalculate weights for every cell of the smoothing area.
+ */
+final class BiomeSmoothingKernel
+{
+	// Packed layout, used both for a biome's own settings and for blended settings.
+	static final int HEIGHT = 0;
+	static final int VOLATILITY = 1;
+	static final int VOLATILITY_1 = 2;
+	static final int VOLATILITY_2 = 3;
+	static final int FRACTURE_HORIZONTAL = 4;
+	static final int FRACTURE_VERTICAL = 5;
+	static final int VOLATILITY_WEIGHT_1 = 6;
+	static final int VOLATILITY_WEIGHT_2 = 7;
+	static final int MAX_AVERAGE_DEPTH = 8;
+	static final int MAX_AVERAGE_HEIGHT = 9;
+	static final int CHC = 10;
+
+	final double[] settings;
+	// False if all CHC values are 0, in which case the biome adds nothing to blended CHC.
+	final boolean hasCHC;
+	private final float[] weights;
+	private final int weightRadius;
+	private final int weightSize;
+	// Blended settings for a column whose entire smoothing area is this biome.
+	private volatile double[] uniformBlend;
+
+	BiomeSmoothingKernel(IBiomeConfig config, int noiseSizeY, int maxRadius, float[] biomeWeightTable)
+	{
+		this.settings = new double[CHC + noiseSizeY + 1];
+		this.settings[HEIGHT] = config.getBiomeHeight();
+		this.settings[VOLATILITY] = config.getBiomeVolatility();
+		this.settings[VOLATILITY_1] = config.getVolatility1();
+		this.settings[VOLATILITY_2] = config.getVolatility2();
+		this.settings[FRACTURE_HORIZONTAL] = config.getFractureHorizontal();
+		this.settings[FRACTURE_VERTICAL] = config.getFractureVertical();
+		this.settings[VOLATILITY_WEIGHT_1] = config.getVolatilityWeight1();
+		this.settings[VOLATILITY_WEIGHT_2] = config.getVolatilityWeight2();
+		this.settings[MAX_AVERAGE_DEPTH] = config.getMaxAverageDepth();
+		this.settings[MAX_AVERAGE_HEIGHT] = config.getMaxAverageHeight();
+		boolean hasCHC = false;
+		for (int y = 0; y < noiseSizeY + 1; y++)
+		{
+			this.settings[CHC + y] = config.getCHCData(y);
+			hasCHC |= Double.doubleToRawLongBits(this.settings[CHC + y]) != 0L;
+		}
+		this.hasCHC = hasCHC;
+
+		// Weights depend only on the offset and this biome's height.
+		float height = config.getBiomeHeight();
+		this.weightRadius = maxRadius;
+		this.weightSize = maxRadius * 2 + 1;
+		this.weights = new float[this.weightSize * this.weightSize];
+		for (int x = -maxRadius; x <= maxRadius; x++)
+		{
+			for (int z = -maxRadius; z <= maxRadius; z++)
+			{
+				// This is required to prevent seams when height goes below -2
+				this.weights[(x + maxRadius) + (z + maxRadius) * this.weightSize] = Math.abs(biomeWeightTable[x + 32 + (z + 32) * 65] / (height + 2.0F));
+			}
+		}
+	}
+
+	float getWeight(int x, int z)
+	{
+		return this.weights[(x + this.weightRadius) + (z + this.weightRadius) * this.weightSize];
+	}
+
+	double[] getUniformBlend()
+	{
+		return this.uniformBlend;
+	}
+
+	void setUniformBlend(double[] blend)
+	{
+		this.uniformBlend = blend;
+	}
+}
@@ -0,0 +1,70 @@
+package com.pg85.otg.gen;
+
+import java.util.Random;
+
+import com.pg85.otg.constants.Constants;
+import com.pg85.otg.util.gen.GeneratingChunk;
+
+/**
+ * Per-thread scratch buffers used by OTGChunkGenerator, so that generating
+ * base terrain for a chunk doesn't allocate anything on the heap. All buffers
+ * are flat primitive arrays, sized once for the world's noise dimensions.
+ */
+final class ChunkGenerationContext
+{
+	final int noiseSize;
+
+	// Noise column sampling, see OTGChunkGenerator.sampleNoiseColumn
+	final double[] interpolation;
+	final double[] lower;
+	final double[] upper;
+	final boolean[] lowerMask;
+	final boolean[] upperMask;
+	// Output of generateNoiseColumn before it's cached / copied to its destination
+	final double[] column;
+	// Blended biome settings, see BiomeSmoothingKernel for the layout
+	final double[] blend;
+
+	// Noise columns for the two x planes of the chunk being filled, each plane holding
+	// (noiseSizeZ + 1) columns of noiseSize values, see OTGChunkGenerator.populateNoise.
+	final double[] noiseData;
+	final int[] waterLevel = new int[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
+	// Jigsaw structures / junctions near each noise cell of the chunk being filled
+	final StructureDensityCells structureCells;
+	final StructureDensityCells junctionCells;
+
+	// Surface / ground block noise
+	final double[] biomeBlocksNoise = new double[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
+	final double[] singleBiomeBlocksNoise = new double[1];
+	int lastBiomeBlocksNoiseX = Integer.MAX_VALUE;
+	int lastBiomeBlocksNoiseZ = Integer.MAX_VALUE;
+	double lastBiomeBlocksNoise = 0;
+
+	private GeneratingChunk generatingChunk;
+
+	ChunkGenerationContext(int noiseSizeX, int noiseSizeY, int noiseSizeZ)
+	{
+		int noiseSize = noiseSizeY + 1;
+		this.noiseSize = noiseSize;
+		this.interpolation = new double[noiseSize];
+		this.lower = new double[noiseSize];
+		this.upper = new double[noiseSize];
+		this.lowerMask = new boolean[noiseSize];
+		this.upperMask = new boolean[noiseSize];
+		this.column = new double[noiseSize];
+		this.blend = new double[BiomeSmoothingKernel.CHC + noiseSize];
+		this.noiseData = new double[2 * (noiseSizeZ + 1) * noiseSize];
+		this.structureCells = new StructureDensityCells(noiseSizeX, noiseSizeY, noiseSizeZ);
+		this.junctionCells = new StructureDensityCells(noiseSizeX, noiseSizeY, noiseSizeZ);
+	}
+
+	// The platform passes the same Random for every chunk of a region, only re-create when it changes.
+	GeneratingChunk getGeneratingChunk(Random random, int heightCap)
+	{
+		if (this.generatingChunk == null || this.generatingChunk.random != random || this.generatingChunk.heightCap != heightCap)
+		{
+			this.generatingChunk = new GeneratingChunk(random, this.waterLevel, this.biomeBlocksNoise, heightCap);
+		}
+		return this.generatingChunk;
+	}
+}
@@ -0,0 +1,58 @@
+package com.pg85.otg.gen;
+
+import java.util.Arrays;
+
+import com.pg85.otg.constants.Constants;
+import com.pg85.otg.util.ChunkCoordinate;
+import com.pg85.otg.util.gen.ChunkBuffer;
+import com.pg85.otg.util.materials.LocalMaterialData;
+import com.pg85.otg.util.materials.LocalMaterials;
+
+/**
+ * ChunkBuffer holding a single column of a chunk, see
+ * OTGChunkGenerator.populateNoiseColumn. Blocks outside the column
+ * are air and writes to them are ignored.
+ */
+final class ColumnChunkBuffer extends ChunkBuffer
+{
+	private final ChunkCoordinate chunkCoord;
+	private final int internalX;
+	private final int internalZ;
+	private final LocalMaterialData[] blocks;
+
+	ColumnChunkBuffer(ChunkCoordinate chunkCoord, int internalX, int internalZ, LocalMaterialData[] blocks)
+	{
+		this.chunkCoord = chunkCoord;
+		this.internalX = internalX;
+		this.internalZ = internalZ;
+		this.blocks = blocks;
+		Arrays.fill(blocks, LocalMaterials.AIR);
+	}
+
+	@Override
+	public ChunkCoordinate getChunkCoordinate()
+	{
+		return this.chunkCoord;
+	}
+
+	@Override
+	public void setBlock(int blockX, int blockY, int blockZ, LocalMaterialData material)
+	{
+		if(isInColumn(blockX, blockY, blockZ))
+		{
+			this.blocks[blockY] = material;
+		}
+	}
+
+	@Override
+	public LocalMaterialData getBlock(int blockX, int blockY, int blockZ)
+	{
+		return isInColumn(blockX, blockY, blockZ) ? this.blocks[blockY] : LocalMaterials.AIR;
+	}
+
+	private boolean isInColumn(int blockX, int blockY, int blockZ)
+	{
+		// Surface generators pass internal or world coordinates, same as for chunks.
+		return (blockX & 0xF) == this.internalX && (blockZ & 0xF) == this.internalZ && blockY >= 0 && blockY < Constants.WORLD_HEIGHT;
+	}
+}
@@ -37,8 +37,6 @@ import java.util.Random;
  */
 public class OTGChunkDecorator implements IChunkDecorator
 {
-	private final Random rand;
-
 	// Locking objects / checks to prevent decorate running on multiple threads,
 	// or when the world is waiting for an opportunity to save.
 	// TODO: Is this still required for 1.16?
@@ -46,13 +44,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 	private int decorating = 0;
 	private boolean saving;
 	private boolean saveRequired;
-	private Object asynChunkDecorationLock = new Object();
 
-	public OTGChunkDecorator()
-	{
-		this.rand = new Random();
-	}
-	
 	@Override
 	public boolean getIsSaveRequired()
 	{
@@ -147,21 +139,17 @@ public class OTGChunkDecorator implements IChunkDecorator
 
 		// Get the random generator
 		long resourcesSeed = worldGenRegion.getSeed();
-		this.rand.setSeed(resourcesSeed);
-		long l1 = this.rand.nextLong() / 2L * 2L + 1L;
-		long l2 = this.rand.nextLong() / 2L * 2L + 1L;
-		this.rand.setSeed(chunkCoord.getChunkX() * l1 + chunkCoord.getChunkZ() * l2 ^ resourcesSeed);
+		// Decoration can run on multiple threads, so each chunk gets its own random.
+		Random rand = new Random(resourcesSeed);
+		long l1 = rand.nextLong() / 2L * 2L + 1L;
+		long l2 = rand.nextLong() / 2L * 2L + 1L;
+		rand.setSeed(chunkCoord.getChunkX() * l1 + chunkCoord.getChunkZ() * l2 ^ resourcesSeed);
 
 		// Use BO4 logic for BO4 worlds
 		if(worldGenRegion.getWorldConfig().getCustomStructureType() == CustomStructureType.BO4)
 		{
-			// BO4 Plotting cannot currently be done in a thread-safe/non-blocking way,
-			// Paper may try to do async chunkgen, so lock here. This will ofcourse 
-			// slow down any multithreaded chunk decoration implementation.
-			synchronized(asynChunkDecorationLock)
-			{
-				plotAndSpawnBO4s(structureCache, worldGenRegion, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX(), chunkCoord.getChunkZ()), chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
-			}
+			// The plotter handles its own locking, see CustomStructurePlotter.
+			plotAndSpawnBO4s(structureCache, worldGenRegion, rand, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX(), chunkCoord.getChunkZ()), chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
 		}
 
 		if(
@@ -170,7 +158,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 			worldGenRegion.getWorldConfig().getBO3AtSpawn().trim().length() > 0
 		)
 		{
-			handleBO3AtSpawn(worldGenRegion, chunkCoord, worldGenRegion.getWorldConfig().getBO3AtSpawn(), worldGenRegion.getPresetFolderName(), otgRootFolder, structureCache, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
+			handleBO3AtSpawn(worldGenRegion, rand, chunkCoord, worldGenRegion.getWorldConfig().getBO3AtSpawn(), worldGenRegion.getPresetFolderName(), otgRootFolder, structureCache, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
 		}
 		
 		long startTimeAll = System.currentTimeMillis();
@@ -180,7 +168,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 			long startTime = System.currentTimeMillis();
 			if (res instanceof ICustomObjectResource)
 			{
-				((ICustomObjectResource)res).processForChunkDecoration(structureCache, worldGenRegion, this.rand, otgRootFolder, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
+				((ICustomObjectResource)res).processForChunkDecoration(structureCache, worldGenRegion, rand, otgRootFolder, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
 				if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE) && (System.currentTimeMillis() - startTime) > 50)
 				{
 					logger.log(LogLevel.WARN, LogCategory.PERFORMANCE, "Warning: Processing resource " + res.toString() + " in biome " + biomeConfig.getName() + " took " + (System.currentTimeMillis() - startTime) + " Ms.");
@@ -188,7 +176,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 			}
 			else if (res instanceof ICustomStructureResource)
 			{
-				((ICustomStructureResource)res).processForChunkDecoration(structureCache, worldGenRegion, this.rand, otgRootFolder, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
+				((ICustomStructureResource)res).processForChunkDecoration(structureCache, worldGenRegion, rand, otgRootFolder, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
 				if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE) && (System.currentTimeMillis() - startTime) > 50)
 				{
 					logger.log(LogLevel.WARN, LogCategory.PERFORMANCE, "Warning: Processing resource " + res.toString() + " in biome " + biomeConfig.getName() + " took " + (System.currentTimeMillis() - startTime) + " Ms.");
@@ -196,7 +184,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 			}
 			else if (res instanceof IBasicResource)
 			{
-				((IBasicResource)res).processForChunkDecoration(worldGenRegion, this.rand, logger, materialReader);
+				((IBasicResource)res).processForChunkDecoration(worldGenRegion, rand, logger, materialReader);
 				if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE) && (System.currentTimeMillis() - startTime) > 50)
 				{
 					logger.log(LogLevel.WARN, LogCategory.PERFORMANCE, "Warning: Processing resource " + res.toString() + " in biome " + biomeConfig.getName() + " took " + (System.currentTimeMillis() - startTime) + " Ms.");
@@ -232,15 +220,15 @@ public class OTGChunkDecorator implements IChunkDecorator
 		FrozenSurfaceHelper.freezeChunk(worldGenRegion, chunkCoord);
 	}
 
-	private void plotAndSpawnBO4s(CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, ChunkCoordinate chunkCoord, ChunkCoordinate chunkBeingDecorated, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager customObjectResourcesManager, IModLoadedChecker modLoadedChecker)
+	private void plotAndSpawnBO4s(CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random rand, ChunkCoordinate chunkCoord, ChunkCoordinate chunkBeingDecorated, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager customObjectResourcesManager, IModLoadedChecker modLoadedChecker)
 	{
 		// Plot and spawn BO4's for all chunks that may have blocks spawned on them while decorating this chunk, 
 		// so we can be sure those chunks have had a chance to plot+spawn bo4's before other resources.
 
-		structureCache.plotBo4Structures(worldGenRegion, this.rand, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);		
-		structureCache.plotBo4Structures(worldGenRegion, this.rand, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + 1, chunkCoord.getChunkZ()), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);		
-		structureCache.plotBo4Structures(worldGenRegion, this.rand, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() , chunkCoord.getChunkZ() + 1), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);			
-		structureCache.plotBo4Structures(worldGenRegion, this.rand, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + 1, chunkCoord.getChunkZ() + 1), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);	
+		structureCache.plotBo4Structures(worldGenRegion, rand, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);		
+		structureCache.plotBo4Structures(worldGenRegion, rand, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + 1, chunkCoord.getChunkZ()), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);		
+		structureCache.plotBo4Structures(worldGenRegion, rand, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() , chunkCoord.getChunkZ() + 1), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);			
+		structureCache.plotBo4Structures(worldGenRegion, rand, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + 1, chunkCoord.getChunkZ() + 1), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);	
 
 		spawnBO4(structureCache, worldGenRegion, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
 		spawnBO4(structureCache, worldGenRegion, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + 1, chunkCoord.getChunkZ()), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);	
@@ -253,7 +241,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 		structureCache.spawnBo4Chunk(worldGenRegion, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
 	}
 	
-	private void handleBO3AtSpawn(IWorldGenRegion worldGenRegion, ChunkCoordinate targetChunk, String bo3AtSpawn, String presetFolderName, Path otgRootFolder, CustomStructureCache structureCache, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager customObjectResourcesManager, IModLoadedChecker modLoadedChecker)
+	private void handleBO3AtSpawn(IWorldGenRegion worldGenRegion, Random rand, ChunkCoordinate targetChunk, String bo3AtSpawn, String presetFolderName, Path otgRootFolder, CustomStructureCache structureCache, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager customObjectResourcesManager, IModLoadedChecker modLoadedChecker)
 	{	
 		// If a BO3AtSpawn has been defined, spawn it.
 		CustomObject customObject = customObjectManager.getGlobalObjects().getObjectByName(
@@ -289,7 +277,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 				((BO3)customObject).spawnForced(
 					structureCache,
 					worldGenRegion,
-					this.rand,
+					rand,
 					Rotation.NORTH,
 					targetChunk.getBlockX() + 16 + ((BO3)customObject).getXOffset(Rotation.NORTH),
 					y,
@@ -2,7 +2,10 @@ package com.pg85.otg.gen;
 
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
@@ -13,7 +16,6 @@ import com.pg85.otg.gen.carver.Carver;
 import com.pg85.otg.gen.carver.CaveCarver;
 import com.pg85.otg.gen.carver.RavineCarver;
 import com.pg85.otg.gen.noise.OctavePerlinNoiseSampler;
-import com.pg85.otg.gen.noise.PerlinNoiseSampler;
 import com.pg85.otg.gen.noise.legacy.NoiseGeneratorPerlinMesaBlocks;
 import com.pg85.otg.interfaces.IBiome;
 import com.pg85.otg.interfaces.IBiomeConfig;
@@ -30,9 +32,9 @@ import com.pg85.otg.util.gen.JigsawStructureData;
 import com.pg85.otg.util.helpers.MathHelper;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
+import com.pg85.otg.util.materials.LocalMaterialData;
 import it.unimi.dsi.fastutil.HashCommon;
 import it.unimi.dsi.fastutil.objects.ObjectList;
-import it.unimi.dsi.fastutil.objects.ObjectListIterator;
 
 /**
  * Generates the base terrain, sets stone/ground/surface blocks and does SurfaceAndGroundControl, generates caves and canyons.
@@ -87,23 +89,20 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 	private final int noiseSizeY;
 	private final int noiseSizeZ = 4;
 
-	private final ThreadLocal<NoiseCache> noiseCache;
+	private final NoiseCache noiseCache;
+	private final ThreadLocal<ChunkGenerationContext> generationContext;
+	// Smoothing data per biome, only written on init.
+	private final Map<IBiomeConfig, BiomeSmoothingKernel> smoothingKernels = new IdentityHashMap<>();
 	private final NoiseGeneratorPerlinMesaBlocks biomeBlocksNoiseGen;
 	// Carvers
 	private final Carver caves;
 	private final Carver ravines;
-	// Biome blocks noise
-	// TODO: Use new noise?
-	private ThreadLocal<double[]> biomeBlocksNoise = ThreadLocal.withInitial(() -> new double[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE]);
-	private ThreadLocal<Integer> lastX = ThreadLocal.withInitial(() -> Integer.MAX_VALUE);
-	private ThreadLocal<Integer> lastZ = ThreadLocal.withInitial(() -> Integer.MAX_VALUE);
-	private ThreadLocal<Double> lastNoise = ThreadLocal.withInitial(() -> 0d);
 
 	public OTGChunkGenerator(Preset preset, long seed, ILayerSource biomeProvider, IBiome[] biomesById, ILogger logger)
 	{
 		this.preset = preset;
 		this.seed = seed;
-		this.cachedBiomeProvider = new CachedBiomeProvider(this.seed, biomeProvider, biomesById, logger);
+		this.cachedBiomeProvider = new CachedBiomeProvider(this.seed, biomeProvider, biomesById, preset.getWorldConfig().getBiomeCacheSize(), logger);
 
 		// Setup noises
 		Random random = new Random(seed);
@@ -115,7 +114,24 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 		this.upperInterpolatedNoise = new OctavePerlinNoiseSampler(random, IntStream.rangeClosed(-15, 0));
 		this.depthNoise = new OctavePerlinNoiseSampler(random, IntStream.rangeClosed(-15, 0));
 
-		this.noiseCache = ThreadLocal.withInitial(() -> new NoiseCache(128, this.noiseSizeY + 1));
+		this.noiseCache = new NoiseCache(preset.getWorldConfig().getNoiseColumnCacheSize(), this.noiseSizeY + 1);
+		this.generationContext = ThreadLocal.withInitial(() -> new ChunkGenerationContext(this.noiseSizeX, this.noiseSizeY, this.noiseSizeZ));
+
+		int maxSmoothRadius = 0;
+		for (IBiome biome : biomesById)
+		{
+			if (biome != null)
+			{
+				maxSmoothRadius = Math.max(maxSmoothRadius, Math.max(biome.getBiomeConfig().getSmoothRadius(), biome.getBiomeConfig().getCHCSmoothRadius()));
+			}
+		}
+		for (IBiome biome : biomesById)
+		{
+			if (biome != null && !this.smoothingKernels.containsKey(biome.getBiomeConfig()))
+			{
+				this.smoothingKernels.put(biome.getBiomeConfig(), new BiomeSmoothingKernel(biome.getBiomeConfig(), this.noiseSizeY, maxSmoothRadius, BIOME_WEIGHT_TABLE));
+			}
+		}
 
 		this.biomeBlocksNoiseGen = new NoiseGeneratorPerlinMesaBlocks(random, 4);
 
@@ -173,74 +189,179 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 		return yOffset * density;
 	}
 
-	private double sampleNoise(int x, int y, int z, double horizontalScale, double verticalScale, double horizontalStretch, double verticalStretch, double volatility1, double volatility2, double volatilityWeight1, double volatilityWeight2)
+	private void sampleNoiseColumn(double[] noiseColumn, ChunkGenerationContext buffers, int x, int z, double horizontalScale, double verticalScale, double horizontalStretch, double verticalStretch, double volatility1, double volatility2, double volatilityWeight1, double volatilityWeight2)
 	{
 		// The algorithm for noise generation varies slightly here as it calculates the interpolation first and then the interpolated noise to avoid sampling noise that will never be used.
 		// The end result is ~2x faster terrain generation.
-
-		double delta = getInterpolationNoise(x, y, z, horizontalStretch, verticalStretch);
-
-		if (delta < volatilityWeight1)
+		// Each noise is sampled for the whole column at once, octave by octave, so per-octave work is done once per column instead of once per y.
+
+		int length = this.noiseSizeY + 1;
+		double[] delta = buffers.interpolation;
+		double[] lower = buffers.lower;
+		double[] upper = buffers.upper;
+		boolean[] lowerMask = buffers.lowerMask;
+		boolean[] upperMask = buffers.upperMask;
+		Arrays.fill(delta, 0.0D);
+		Arrays.fill(lower, 0.0D);
+		Arrays.fill(upper, 0.0D);
+
+		this.interpolationNoise.sampleColumn(delta, null, length, x, z, horizontalStretch, verticalStretch, 8, true);
+		for (int y = 0; y < length; y++)
 		{
-			return getInterpolatedNoise(this.lowerInterpolatedNoise, x, y, z, horizontalScale, verticalScale) / 512.0D * volatility1;
+			delta[y] = (delta[y] / 10.0D + 1.0D) / 2.0D;
+			lowerMask[y] = delta[y] < volatilityWeight1 || !(delta[y] > volatilityWeight2);
+			upperMask[y] = !(delta[y] < volatilityWeight1);
 		}
-		else if (delta > volatilityWeight2)
+
+		this.lowerInterpolatedNoise.sampleColumn(lower, lowerMask, length, x, z, horizontalScale, verticalScale, Constants.CHUNK_SIZE, false);
+		this.upperInterpolatedNoise.sampleColumn(upper, upperMask, length, x, z, horizontalScale, verticalScale, Constants.CHUNK_SIZE, false);
+
+		for (int y = 0; y < length; y++)
 		{
-			return getInterpolatedNoise(this.upperInterpolatedNoise, x, y, z, horizontalScale, verticalScale) / 512.0D * volatility2;
-		} else {
-			// TODO: should probably use clamping here to prevent weird artifacts
-			return MathHelper.lerp(
-				delta,
-				getInterpolatedNoise(this.lowerInterpolatedNoise, x, y, z, horizontalScale, verticalScale) / 512.0D * volatility1,
-				getInterpolatedNoise(this.upperInterpolatedNoise, x, y, z, horizontalScale, verticalScale) / 512.0D * volatility2);
+			if (delta[y] < volatilityWeight1)
+			{
+				noiseColumn[y] = lower[y] / 512.0D * volatility1;
+			}
+			else if (delta[y] > volatilityWeight2)
+			{
+				noiseColumn[y] = upper[y] / 512.0D * volatility2;
+			} else {
+				// TODO: should probably use clamping here to prevent weird artifacts
+				noiseColumn[y] = MathHelper.lerp(delta[y], lower[y] / 512.0D * volatility1, upper[y] / 512.0D * volatility2);
+			}
 		}
 	}
 
-	private double getInterpolationNoise(int x, int y, int z, double horizontalStretch, double verticalStretch)
+	private boolean isUniformArea(IBiomeConfig[] biomes, IBiomeConfig center)
 	{
-		double interpolation = 0.0D;
-		double amplitude = 1.0D;		
-		PerlinNoiseSampler interpolationSampler;
-		for (int i = 0; i < 8; i++)
+		for (IBiomeConfig biome : biomes)
 		{
-			interpolationSampler = this.interpolationNoise.getOctave(i);
-			if (interpolationSampler != null)
+			if (biome != center)
 			{
-				interpolation += interpolationSampler.sample(OctavePerlinNoiseSampler.maintainPrecision((double) x * horizontalStretch * amplitude), OctavePerlinNoiseSampler.maintainPrecision((double) y * verticalStretch * amplitude), OctavePerlinNoiseSampler.maintainPrecision((double) z * horizontalStretch * amplitude), verticalStretch * amplitude, (double) y * verticalStretch * amplitude) / amplitude;
+				return false;
 			}
-
-			amplitude /= 2.0D;
 		}
+		return true;
+	}
 
-		return (interpolation / 10.0D + 1.0D) / 2.0D;
+	private BiomeSmoothingKernel getSmoothingKernel(IBiomeConfig biome)
+	{
+		BiomeSmoothingKernel kernel = this.smoothingKernels.get(biome);
+		if (kernel == null)
+		{
+			// Shouldn't happen, all biomes are indexed on init. Smooth radii are capped at 32.
+			kernel = new BiomeSmoothingKernel(biome, this.noiseSizeY, 32, BIOME_WEIGHT_TABLE);
+		}
+		return kernel;
 	}
 
-	private double getInterpolatedNoise(OctavePerlinNoiseSampler sampler, int x, int y, int z, double horizontalScale, double verticalScale)
+	/**
+	 * Blends the height/volatility/CHC settings of all biomes in the smoothing area
+	 * around a column, using the packed layout of BiomeSmoothingKernel.
+	 */
+	private void blendBiomes(double[] blend, IBiomeConfig[] biomes, int areaSize, int radius, IBiomeConfig center)
 	{
-		double noise = 0.0D;
-		double amplitude = 1.0D;
-		double scaledX;
-		double scaledY;
-		double scaledZ;
-		double scaledVerticalScale;
-		PerlinNoiseSampler perlinNoiseSampler;
-		for (int i = 0; i < Constants.CHUNK_SIZE; ++i)
-		{
-			scaledX = OctavePerlinNoiseSampler.maintainPrecision((double) x * horizontalScale * amplitude);
-			scaledY = OctavePerlinNoiseSampler.maintainPrecision((double) y * verticalScale * amplitude);
-			scaledZ = OctavePerlinNoiseSampler.maintainPrecision((double) z * horizontalScale * amplitude);
-			scaledVerticalScale = verticalScale * amplitude;
-			
-			perlinNoiseSampler = sampler.getOctave(i);
-			if (perlinNoiseSampler != null)
+		float height = 0; // depth
+		float volatility = 0; // scale
+		double volatility1 = 0;
+		double volatility2 = 0;
+		double horizontalFracture = 0;
+		double verticalFracture = 0;
+		double volatilityWeight1 = 0;
+		double volatilityWeight2 = 0;
+		double maxAverageDepth = 0;
+		double maxAverageHeight = 0;
+		float weight = 0;
+		
+		IBiomeConfig biome;
+		IBiomeConfig lastBiome = null;
+		BiomeSmoothingKernel kernel = null;
+		double[] settings;
+		float weightAt;
+		int cacheX;
+		int cacheZ;
+		int smoothRadius = center.getSmoothRadius();
+		for (int x1 = -smoothRadius; x1 <= smoothRadius; ++x1)
+		{
+			cacheX = x1 + radius;
+			for (int z1 = -smoothRadius; z1 <= smoothRadius; ++z1)
 			{
-				noise += perlinNoiseSampler.sample(scaledX, scaledY, scaledZ, scaledVerticalScale, (double) y * scaledVerticalScale) / amplitude;
+				cacheZ = z1 + radius;
+				biome = biomes[cacheX * areaSize + cacheZ];
+				if (biome != lastBiome)
+				{
+					lastBiome = biome;
+					kernel = getSmoothingKernel(biome);
+				}
+				settings = kernel.settings;
+				// TODO: vanilla reduces the weight by half when the depth here is greater than the center depth, but OTG doesn't do that?
+				weightAt = kernel.getWeight(x1, z1);
+
+				weight += weightAt;
+
+				height += (float) settings[BiomeSmoothingKernel.HEIGHT] * weightAt;
+				volatility += (float) settings[BiomeSmoothingKernel.VOLATILITY] * weightAt;
+				volatility1 += settings[BiomeSmoothingKernel.VOLATILITY_1] * weightAt;
+				volatility2 += settings[BiomeSmoothingKernel.VOLATILITY_2] * weightAt;
+				horizontalFracture += settings[BiomeSmoothingKernel.FRACTURE_HORIZONTAL] * weightAt;
+				verticalFracture += settings[BiomeSmoothingKernel.FRACTURE_VERTICAL] * weightAt;
+				volatilityWeight1 += settings[BiomeSmoothingKernel.VOLATILITY_WEIGHT_1] * weightAt;
+				volatilityWeight2 += settings[BiomeSmoothingKernel.VOLATILITY_WEIGHT_2] * weightAt;
+				maxAverageDepth += settings[BiomeSmoothingKernel.MAX_AVERAGE_DEPTH] * weightAt;
+				maxAverageHeight += settings[BiomeSmoothingKernel.MAX_AVERAGE_HEIGHT] * weightAt;
 			}
+		}
+
+		// CHC Smoothing
+		int chcEnd = BiomeSmoothingKernel.CHC + this.noiseSizeY + 1;
+		Arrays.fill(blend, BiomeSmoothingKernel.CHC, chcEnd, 0.0D);
+		double chcWeight = 0;
+		int chcSmoothRadius = center.getCHCSmoothRadius();
+		for (int x1 = -chcSmoothRadius; x1 <= chcSmoothRadius; ++x1)
+		{
+			cacheX = x1 + radius;
+			for (int z1 = -chcSmoothRadius; z1 <= chcSmoothRadius; ++z1)
+			{
+				cacheZ = z1 + radius;
+				biome = biomes[cacheX * areaSize + cacheZ];
+				if (biome != lastBiome)
+				{
+					lastBiome = biome;
+					kernel = getSmoothingKernel(biome);
+				}
+				weightAt = kernel.getWeight(x1, z1);
+
+				chcWeight += weightAt;
 
-			amplitude /= 2.0D;
+				// Biomes without CHC would only add 0's
+				if (kernel.hasCHC)
+				{
+					settings = kernel.settings;
+					for (int i = BiomeSmoothingKernel.CHC; i < chcEnd; i++)
+					{
+						blend[i] += settings[i] * weightAt;
+					}
+				}
+			}
 		}
 
-		return noise;
+		// Normalize biome data
+		blend[BiomeSmoothingKernel.HEIGHT] = height / weight;
+		blend[BiomeSmoothingKernel.VOLATILITY] = volatility / weight;
+		blend[BiomeSmoothingKernel.VOLATILITY_1] = volatility1 / weight;
+		blend[BiomeSmoothingKernel.VOLATILITY_2] = volatility2 / weight;
+		blend[BiomeSmoothingKernel.FRACTURE_HORIZONTAL] = horizontalFracture / weight;
+		blend[BiomeSmoothingKernel.FRACTURE_VERTICAL] = verticalFracture / weight;
+		blend[BiomeSmoothingKernel.VOLATILITY_WEIGHT_1] = volatilityWeight1 / weight;
+		blend[BiomeSmoothingKernel.VOLATILITY_WEIGHT_2] = volatilityWeight2 / weight;
+		blend[BiomeSmoothingKernel.MAX_AVERAGE_DEPTH] = maxAverageDepth / weight;
+		blend[BiomeSmoothingKernel.MAX_AVERAGE_HEIGHT] = maxAverageHeight / weight;
+
+		// Normalize CHC
+		for (int i = BiomeSmoothingKernel.CHC; i < chcEnd; i++)
+		{
+			blend[i] /= chcWeight;
+		}
 	}
 
 	private double getExtraHeightAt(int x, int z, double maxAverageDepth, double maxAverageHeight)
@@ -278,102 +399,58 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 	public void getNoiseColumn(double[] buffer, int x, int z)
 	{
 		// TODO: check only for edges
-		this.noiseCache.get().get(buffer, x, z);
+		this.noiseCache.get(buffer, 0, x, z);
+	}
+
+	public long getNoiseCacheHits()
+	{
+		return this.noiseCache.hits.sum();
+	}
+
+	public long getNoiseCacheMisses()
+	{
+		return this.noiseCache.misses.sum();
 	}
 
 	private void generateNoiseColumn(double[] noiseColumn, int noiseX, int noiseZ)
 	{
 		IBiomeConfig center = this.cachedBiomeProvider.getNoiseBiomeConfig(noiseX, noiseZ, true);
+		ChunkGenerationContext buffers = this.generationContext.get();
 
 		final int usedYSections = this.preset.getWorldConfig().getWorldHeightScale() / 8 + 1;
-		float height = 0; // depth
-		float volatility = 0; // scale
-		double volatility1 = 0;
-		double volatility2 = 0;
-		double horizontalFracture = 0;
-		double verticalFracture = 0;
-		double volatilityWeight1 = 0;
-		double volatilityWeight2 = 0;
-		double maxAverageDepth = 0;
-		double maxAverageHeight = 0;
-		double[] chc = new double[this.noiseSizeY + 1];
-		float weight = 0;
-		
+
 		int radius = Math.max(center.getSmoothRadius(), center.getCHCSmoothRadius());
 		int areaSize = radius * 2 + 1;
 		IBiomeConfig biomes[] = this.cachedBiomeProvider.getNoiseBiomeConfigsForRegion(noiseX - radius, noiseZ - radius, areaSize);
-		IBiomeConfig biome;
-		float heightAt;
-		float weightAt;
-		int cacheX;
-		int cacheZ;
-		for (int x1 = -center.getSmoothRadius(); x1 <= center.getSmoothRadius(); ++x1)
-		{
-			cacheX = x1 + radius;
-			for (int z1 = -center.getSmoothRadius(); z1 <= center.getSmoothRadius(); ++z1)
-			{
-				cacheZ = z1 + radius;
-				biome = biomes[cacheX * areaSize + cacheZ];
-				heightAt = biome.getBiomeHeight();
-				// TODO: vanilla reduces the weight by half when the depth here is greater than the center depth, but OTG doesn't do that?
-				weightAt = BIOME_WEIGHT_TABLE[x1 + 32 + (z1 + 32) * 65] / (heightAt + 2.0F);
-				weightAt = Math.abs(weightAt); // This is required to prevent seams when height goes below -2
-
-				weight += weightAt;
-
-				height += heightAt * weightAt;
-				volatility += biome.getBiomeVolatility() * weightAt;
-				volatility1 += biome.getVolatility1() * weightAt;
-				volatility2 += biome.getVolatility2() * weightAt;
-				horizontalFracture += biome.getFractureHorizontal() * weightAt;
-				verticalFracture += biome.getFractureVertical() * weightAt;
-				volatilityWeight1 += biome.getVolatilityWeight1() * weightAt;
-				volatilityWeight2 += biome.getVolatilityWeight2() * weightAt;
-				maxAverageDepth += biome.getMaxAverageDepth() * weightAt;
-				maxAverageHeight += biome.getMaxAverageHeight() * weightAt;
-			}
-		}
 
-		// CHC Smoothing
-		double chcWeight = 0;
-		for (int x1 = -center.getCHCSmoothRadius(); x1 <= center.getCHCSmoothRadius(); ++x1)
+		// Columns inside a biome (the majority) have the same smoothing area every time,
+		// so blend it once per biome and reuse the result.
+		double[] blend;
+		if (isUniformArea(biomes, center))
 		{
-			cacheX = x1 + radius;
-			for (int z1 = -center.getCHCSmoothRadius(); z1 <= center.getCHCSmoothRadius(); ++z1)
+			BiomeSmoothingKernel centerKernel = getSmoothingKernel(center);
+			blend = centerKernel.getUniformBlend();
+			if (blend == null)
 			{
-				cacheZ = z1 + radius;
-				biome = biomes[cacheX * areaSize + cacheZ];
-
-				heightAt = biome.getBiomeHeight();
-				weightAt = BIOME_WEIGHT_TABLE[x1 + 32 + (z1 + 32) * 65] / (heightAt + 2.0F);
-				weightAt = Math.abs(weightAt);
-
-				chcWeight += weightAt;
-
-				for (int y = 0; y < this.noiseSizeY + 1; y++)
-				{
-					chc[y] += biome.getCHCData(y) * weightAt;
-				}
+				blend = new double[BiomeSmoothingKernel.CHC + this.noiseSizeY + 1];
+				blendBiomes(blend, biomes, areaSize, radius, center);
+				centerKernel.setUniformBlend(blend);
 			}
+		} else {
+			blend = buffers.blend;
+			blendBiomes(blend, biomes, areaSize, radius, center);
 		}
 
-		// Normalize biome data
-		height /= weight;
-		volatility /= weight;
-		volatility1 /= weight;
-		volatility2 /= weight;
-		horizontalFracture /= weight;
-		verticalFracture /= weight;
-		volatilityWeight1 /= weight;
-		volatilityWeight2 /= weight;
-		maxAverageDepth /= weight;
-		maxAverageHeight /= weight;
-
-		// Normalize CHC
-		for (int y = 0; y < this.noiseSizeY + 1; y++)
-		{
-			chc[y] /= chcWeight;
-		}
+		float height = (float) blend[BiomeSmoothingKernel.HEIGHT]; // depth
+		float volatility = (float) blend[BiomeSmoothingKernel.VOLATILITY]; // scale
+		double volatility1 = blend[BiomeSmoothingKernel.VOLATILITY_1];
+		double volatility2 = blend[BiomeSmoothingKernel.VOLATILITY_2];
+		double horizontalFracture = blend[BiomeSmoothingKernel.FRACTURE_HORIZONTAL];
+		double verticalFracture = blend[BiomeSmoothingKernel.FRACTURE_VERTICAL];
+		double volatilityWeight1 = blend[BiomeSmoothingKernel.VOLATILITY_WEIGHT_1];
+		double volatilityWeight2 = blend[BiomeSmoothingKernel.VOLATILITY_WEIGHT_2];
+		double maxAverageDepth = blend[BiomeSmoothingKernel.MAX_AVERAGE_DEPTH];
+		double maxAverageHeight = blend[BiomeSmoothingKernel.MAX_AVERAGE_HEIGHT];
 
 		// Vary the height with more noise
 		float extraHeight = (float) (getExtraHeightAt(noiseX, noiseZ, maxAverageDepth, maxAverageHeight) * 0.2);
@@ -385,9 +462,11 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 		// Factor in y sections
 		height = usedYSections * (2.0f + height + extraHeight) / 4.0f;
 		
+		double horizontalScale = WORLD_GEN_CONSTANT * horizontalFracture;
+		double verticalScale = WORLD_GEN_CONSTANT * verticalFracture;
+		sampleNoiseColumn(noiseColumn, buffers, noiseX, noiseZ, horizontalScale, verticalScale, horizontalScale / 80, verticalScale / 160, volatility1, volatility2, volatilityWeight1, volatilityWeight2);
+
 		double falloff;
-		double horizontalScale;
-		double verticalScale;
 		double noise;
 		for (int y = 0; y <= this.noiseSizeY; ++y)
 		{
@@ -398,9 +477,7 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 				falloff *= 4.0;
 			}
 
-			horizontalScale = WORLD_GEN_CONSTANT * horizontalFracture;
-			verticalScale = WORLD_GEN_CONSTANT * verticalFracture;
-			noise = sampleNoise(noiseX, y, noiseZ, horizontalScale, verticalScale, horizontalScale / 80, verticalScale / 160, volatility1, volatility2, volatilityWeight1, volatilityWeight2);
+			noise = noiseColumn[y];
 
 			if (!center.disableBiomeHeight())
 			{
@@ -415,7 +492,7 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 			}
 
 			// Add chc data
-			noise += chc[y];
+			noise += blend[BiomeSmoothingKernel.CHC + y];
 
 			// Store value
 			noiseColumn[y] = noise;
@@ -428,13 +505,12 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 	{
 		ILogger logger = OTG.getEngine().getLogger();
 
-		ObjectListIterator<JigsawStructureData> structureIterator = structures.iterator();
-		ObjectListIterator<JigsawStructureData> junctionsIterator = junctions.iterator();
-
 		long startTime = System.currentTimeMillis();
-		
+
+		ChunkGenerationContext context = this.generationContext.get();
+
 		// Fill waterLevel array, used when placing stone/ground/surface blocks.
-		int[] waterLevel = new int[256];
+		int[] waterLevel = context.waterLevel;
 
 		int blockX = chunkCoord.getBlockX();
 		int blockZ = chunkCoord.getBlockZ();
@@ -449,20 +525,44 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 			}
 		}
 
-		// TODO: this double[][][] is probably really bad for performance
-		double[][][] noiseData = new double[2][this.noiseSizeZ + 1][this.noiseSizeY + 1];
+		// Bucket structures and junctions by the noise cells they can add density to, getNoiseWeight
+		// is 0 outside of a 24 block cube so most entries don't affect most blocks of the chunk.
+		StructureDensityCells structureCells = context.structureCells;
+		StructureDensityCells junctionCells = context.junctionCells;
+		structureCells.clear();
+		junctionCells.clear();
+		JigsawStructureData structure;
+		int structureBaseY;
+		for (int i = 0; i < structures.size(); i++)
+		{
+			structure = structures.get(i);
+			structureBaseY = structure.minY + (structure.useDelta ? structure.delta : 0);
+			structureCells.add(i, structure.minX - 11 - blockX, structure.maxX + 11 - blockX, structureBaseY - 12, structureBaseY + 11, structure.minZ - 11 - blockZ, structure.maxZ + 11 - blockZ);
+		}
+		JigsawStructureData junction;
+		for (int i = 0; i < junctions.size(); i++)
+		{
+			junction = junctions.get(i);
+			junctionCells.add(i, junction.sourceX - 12 - blockX, junction.sourceX + 11 - blockX, junction.groundY - 12, junction.groundY + 11, junction.sourceZ - 12 - blockZ, junction.sourceZ + 11 - blockZ);
+		}
+
+		// Flat noise data for the x0 and x1 planes, each plane is (noiseSizeZ + 1) columns of noiseSize values.
+		// The planes are swapped by swapping their offsets, x0 and x1 columns are found at x0 / x1 + noiseZ * noiseSize.
+		double[] noiseData = context.noiseData;
+		int noiseSize = context.noiseSize;
+		int x0 = 0;
+		int x1 = (this.noiseSizeZ + 1) * noiseSize;
 		// Max smoothing radius is 32, so area covered is 32+5+32=69 (noise/biome coords, so *4)
 	
 		// Initialize noise data on the x0 column.
 		for (int noiseZ = 0; noiseZ < this.noiseSizeZ + 1; ++noiseZ)
 		{
-			noiseData[0][noiseZ] = new double[this.noiseSizeY + 1];
-			this.getNoiseColumn(
-				noiseData[0][noiseZ], 
+			this.noiseCache.get(
+				noiseData,
+				x0 + noiseZ * noiseSize,
 				chunkCoord.getChunkX() * this.noiseSizeX, 
 				chunkCoord.getChunkZ() * this.noiseSizeZ + noiseZ 
 			);
-			noiseData[1][noiseZ] = new double[this.noiseSizeY + 1];
 		}
 
 		IBiomeConfig biomeConfig;
@@ -495,19 +595,27 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 		int structureX;
 		int structureY;
 		int structureZ;
-		JigsawStructureData structure;
-		JigsawStructureData junction;
+		int cell;
+		int structureCount;
+		int[] structureEntries;
+		int junctionCount;
+		int[] junctionEntries;
 		int sourceX;
 		int sourceY;
 		int sourceZ;
-		double[][] xColumn;
+		int x0z0Column;
+		int x0z1Column;
+		int x1z0Column;
+		int x1z1Column;
+		int xPlane;
 		for (int noiseX = 0; noiseX < this.noiseSizeX; ++noiseX)
 		{
 			// Initialize noise data on the x1 column
 			for (noiseZ = 0; noiseZ < this.noiseSizeZ + 1; ++noiseZ)
 			{
-				this.getNoiseColumn(
-					noiseData[1][noiseZ], 
+				this.noiseCache.get(
+					noiseData,
+					x1 + noiseZ * noiseSize,
 					chunkCoord.getChunkX() * this.noiseSizeX + noiseX + 1, 
 					chunkCoord.getChunkZ() * this.noiseSizeZ + noiseZ 
 				);
@@ -516,19 +624,30 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 			// [0, 4] -> z noise chunks
 			for (noiseZ = 0; noiseZ < this.noiseSizeZ; ++noiseZ)
 			{
+				x0z0Column = x0 + noiseZ * noiseSize;
+				x0z1Column = x0z0Column + noiseSize;
+				x1z0Column = x1 + noiseZ * noiseSize;
+				x1z1Column = x1z0Column + noiseSize;
+
 				// [0, 32] -> y noise chunks
 				for (int noiseY = this.noiseSizeY - 1; noiseY >= 0; --noiseY)
 				{
 					// Lower samples
-					x0z0y0 = noiseData[0][noiseZ][noiseY];
-					x0z1y0 = noiseData[0][noiseZ + 1][noiseY];
-					x1z0y0 = noiseData[1][noiseZ][noiseY];
-					x1z1y0 = noiseData[1][noiseZ + 1][noiseY];
+					x0z0y0 = noiseData[x0z0Column + noiseY];
+					x0z1y0 = noiseData[x0z1Column + noiseY];
+					x1z0y0 = noiseData[x1z0Column + noiseY];
+					x1z1y0 = noiseData[x1z1Column + noiseY];
 					// Upper samples
-					x0z0y1 = noiseData[0][noiseZ][noiseY + 1];
-					x0z1y1 = noiseData[0][noiseZ + 1][noiseY + 1];
-					x1z0y1 = noiseData[1][noiseZ][noiseY + 1];
-					x1z1y1 = noiseData[1][noiseZ + 1][noiseY + 1];
+					x0z0y1 = noiseData[x0z0Column + noiseY + 1];
+					x0z1y1 = noiseData[x0z1Column + noiseY + 1];
+					x1z0y1 = noiseData[x1z0Column + noiseY + 1];
+					x1z1y1 = noiseData[x1z1Column + noiseY + 1];
+
+					cell = structureCells.getCell(noiseX, noiseY, noiseZ);
+					structureCount = structureCells.getCount(cell);
+					structureEntries = structureCells.getEntries(cell);
+					junctionCount = junctionCells.getCount(cell);
+					junctionEntries = junctionCells.getEntries(cell);
 
 					// [0, 8] -> y noise pieces
 					for (int pieceY = 8 - 1; pieceY >= 0; --pieceY)
@@ -567,40 +686,36 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 
 								biomeConfig = biomes[localX * 16 + localZ].getBiomeConfig();
 
+								density = density / 2.0D - density * density * density / 24.0D;
+
 								// TODO: make this bigger and look better
-								// Iterate through structures to add density
-								structureX = 0;
-								structureY = 0;
-								structureZ = 0;
-								for(density = density / 2.0D - density * density * density / 24.0D; structureIterator.hasNext(); density += getNoiseWeight(structureX, structureY, structureZ) * 0.8D)
+								// Iterate through structures near this cell to add density
+								for (int i = 0; i < structureCount; i++)
 								{
-									structure = structureIterator.next();
+									structure = structures.get(structureEntries[i]);
 									structureX = Math.max(0, Math.max(structure.minX - realX, realX - structure.maxX));
 									structureY = realY - (structure.minY + (structure.useDelta ? structure.delta : 0));
 									structureZ = Math.max(0, Math.max(structure.minZ - realZ, realZ - structure.maxZ));
+									density += getNoiseWeight(structureX, structureY, structureZ) * 0.8D;
 								}
-								structureIterator.back(structures.size());
 
-								// Iterate through jigsawws to add density
-								while(junctionsIterator.hasNext())
+								// Iterate through jigsaws near this cell to add density
+								for (int i = 0; i < junctionCount; i++)
 								{
-									junction = junctionsIterator.next();
+									junction = junctions.get(junctionEntries[i]);
 									sourceX = realX - junction.sourceX;
 									sourceY = realY - junction.groundY;
 									sourceZ = realZ - junction.sourceZ;
 									density += getNoiseWeight(sourceX, sourceY, sourceZ) * 0.4D;
 								}
-								junctionsIterator.back(junctions.size());
 
 								if (density > 0.0)
 								{
-									buffer.setBlock(localX, realY, localZ, biomeConfig.getStoneBlockReplaced(realY));
-									buffer.setHighestBlockForColumn(pieceX + noiseX * 4, noiseZ * 4 + pieceZ, realY);
+									buffer.setBaseTerrainBlock(localX, realY, localZ, biomeConfig.getStoneBlockReplaced(realY));
 								}
 								else if (realY < waterLevel[localX * 16 + localZ] && realY > biomeConfig.getWaterLevelMin())
 								{
-									buffer.setBlock(localX, realY, localZ, biomeConfig.getWaterBlockReplaced(realY));
-									buffer.setHighestBlockForColumn(pieceX + noiseX * 4, noiseZ * 4 + pieceZ, realY);
+									buffer.setBaseTerrainBlock(localX, realY, localZ, biomeConfig.getWaterBlockReplaced(realY));
 								}
 							}
 						}
@@ -609,69 +724,130 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 			}
 
 			// Reuse noise data from the previous column for speed
-			xColumn = noiseData[0];
-			noiseData[0] = noiseData[1];
-			noiseData[1] = xColumn;
+			xPlane = x0;
+			x0 = x1;
+			x1 = xPlane;
 		}
 
-		doSurfaceAndGroundControl(biomes, random, worldHeightCap, this.seed, buffer, waterLevel);
+		buffer.finishBaseTerrain();
+
+		doSurfaceAndGroundControl(context, biomes, random, worldHeightCap, this.seed, buffer);
 		
 		if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE) && (System.currentTimeMillis() - startTime) > 50)
 		{
-			logger.log(LogLevel.WARN, LogCategory.PERFORMANCE, "Warning: Terrain generation for chunk at " + (chunkCoord.getBlockX() + DecorationArea.DECORATION_OFFSET) + " ~ " + (chunkCoord.getBlockZ() + DecorationArea.DECORATION_OFFSET) + " took " + (System.currentTimeMillis() - startTime) + " Ms.");
+			logger.log(LogLevel.WARN, LogCategory.PERFORMANCE, "Warning: Terrain generation for chunk at " + (chunkCoord.getBlockX() + DecorationArea.DECORATION_OFFSET) + " ~ " + (chunkCoord.getBlockZ() + DecorationArea.DECORATION_OFFSET) + " took " + (System.currentTimeMillis() - startTime) + " Ms. Noise cache hits/misses: " + getNoiseCacheHits() + "/" + getNoiseCacheMisses() + ". Biome cache hits/misses: " + this.cachedBiomeProvider.getBiomeCacheHits() + "/" + this.cachedBiomeProvider.getBiomeCacheMisses());
+		}
+	}
+
+	/**
+	 * Generates the base terrain and surface / ground blocks for a single column,
+	 * without generating the rest of its chunk. Used to check terrain in unloaded
+	 * chunks (BO4's), so noise affecting structures are ignored, same as for shadowgen.
+	 * Noise columns are shared with chunk generation via the noise cache.
+	 * 
+	 * Heights match the generated chunk, blocks placed by SAGC using the random
+	 * (bedrock, surface depth) may differ slightly.
+	 * 
+	 * @param blocks Receives the blocks of the column, at least Constants.WORLD_HEIGHT long.
+	 */
+	public void populateNoiseColumn(int worldHeightCap, Random random, int blockX, int blockZ, LocalMaterialData[] blocks)
+	{
+		ChunkGenerationContext context = this.generationContext.get();
+		ChunkCoordinate chunkCoord = ChunkCoordinate.fromBlockCoords(blockX, blockZ);
+		int localX = blockX & 15;
+		int localZ = blockZ & 15;
+		ColumnChunkBuffer buffer = new ColumnChunkBuffer(chunkCoord, localX, localZ, blocks);
+
+		IBiome biome = this.cachedBiomeProvider.getBiomesForChunk(chunkCoord)[localX * Constants.CHUNK_SIZE + localZ];
+		IBiomeConfig biomeConfig = biome.getBiomeConfig();
+		int waterLevel = biomeConfig.getWaterLevelMax();
+
+		// Fetch the 4 noise columns surrounding the column, see populateNoise.
+		double[] noiseData = context.noiseData;
+		int noiseSize = context.noiseSize;
+		int noiseX = chunkCoord.getChunkX() * this.noiseSizeX + (localX >> 2);
+		int noiseZ = chunkCoord.getChunkZ() * this.noiseSizeZ + (localZ >> 2);
+		int x0z0Column = 0;
+		int x0z1Column = noiseSize;
+		int x1z0Column = noiseSize * 2;
+		int x1z1Column = noiseSize * 3;
+		this.noiseCache.get(noiseData, x0z0Column, noiseX, noiseZ);
+		this.noiseCache.get(noiseData, x0z1Column, noiseX, noiseZ + 1);
+		this.noiseCache.get(noiseData, x1z0Column, noiseX + 1, noiseZ);
+		this.noiseCache.get(noiseData, x1z1Column, noiseX + 1, noiseZ + 1);
+
+		double xLerp = (double) (localX & 3) / 4.0;
+		double zLerp = (double) (localZ & 3) / 4.0;
+		int realY;
+		double yLerp;
+		double z0;
+		double z1;
+		double density;
+		for (int noiseY = this.noiseSizeY - 1; noiseY >= 0; --noiseY)
+		{
+			for (int pieceY = 8 - 1; pieceY >= 0; --pieceY)
+			{
+				realY = noiseY * 8 + pieceY;
+				yLerp = (double) pieceY / 8.0;
+
+				// Same interpolation order as populateNoise, so the results are identical.
+				z0 = MathHelper.lerp(xLerp, MathHelper.lerp(yLerp, noiseData[x0z0Column + noiseY], noiseData[x0z0Column + noiseY + 1]), MathHelper.lerp(yLerp, noiseData[x1z0Column + noiseY], noiseData[x1z0Column + noiseY + 1]));
+				z1 = MathHelper.lerp(xLerp, MathHelper.lerp(yLerp, noiseData[x0z1Column + noiseY], noiseData[x0z1Column + noiseY + 1]), MathHelper.lerp(yLerp, noiseData[x1z1Column + noiseY], noiseData[x1z1Column + noiseY + 1]));
+				density = MathHelper.clamp(MathHelper.lerp(zLerp, z0, z1) / 200.0D, -1.0D, 1.0D);
+				density = density / 2.0D - density * density * density / 24.0D;
+
+				if (density > 0.0)
+				{
+					buffer.setBaseTerrainBlock(localX, realY, localZ, biomeConfig.getStoneBlockReplaced(realY));
+				}
+				else if (realY < waterLevel && realY > biomeConfig.getWaterLevelMin())
+				{
+					buffer.setBaseTerrainBlock(localX, realY, localZ, biomeConfig.getWaterBlockReplaced(realY));
+				}
+			}
 		}
+
+		// Only the entries for this column are used by SAGC.
+		context.waterLevel[localX * Constants.CHUNK_SIZE + localZ] = waterLevel;
+		context.biomeBlocksNoise[localX + localZ * Constants.CHUNK_SIZE] = getBiomeBlocksNoiseValue(blockX, blockZ);
+		biomeConfig.doSurfaceAndGroundControl(this.seed, context.getGeneratingChunk(random, worldHeightCap), buffer, blockX, blockZ, biome);
 	}
 
 	public void carve(ChunkBuffer chunk, long seed, int chunkX, int chunkZ, BitSet carvingMask, boolean cavesEnabled, boolean ravinesEnabled)
 	{
-		// TODO: it should be possible to cache these carver graphs to make larger carvers more efficient and easier to use
+		// Carver paths are cached per start chunk, so each chunk only has to
+		// carve the parts of its neighbours' caves / ravines that reach it.
 		if(cavesEnabled || ravinesEnabled)
 		{
-			Random random = new Random();
 			for (int localChunkX = chunkX - 8; localChunkX <= chunkX + 8; ++localChunkX)
 			{
 				for (int localChunkZ = chunkZ - 8; localChunkZ <= chunkZ + 8; ++localChunkZ)
 				{
-					setCarverSeed(random, seed, localChunkX, localChunkZ);
-					
-					if(cavesEnabled && this.caves.isStartChunk(random, localChunkX, localChunkZ))
+					if(cavesEnabled)
 					{
-						this.caves.carve(this, chunk, random, localChunkX, localChunkZ, chunkX, chunkZ, carvingMask, this.cachedBiomeProvider);
+						this.caves.carve(this, chunk, this.caves.getPath(seed, localChunkX, localChunkZ), chunkX, chunkZ, carvingMask, this.cachedBiomeProvider);
 					}
-					
-					setCarverSeed(random, seed, localChunkX, localChunkZ);
-					
-					if(ravinesEnabled && this.ravines.isStartChunk(random, localChunkX, localChunkZ))
+					if(ravinesEnabled)
 					{
-						this.ravines.carve(this, chunk, random, localChunkX, localChunkZ, chunkX, chunkZ, carvingMask, this.cachedBiomeProvider);
+						this.ravines.carve(this, chunk, this.ravines.getPath(seed, localChunkX, localChunkZ), chunkX, chunkZ, carvingMask, this.cachedBiomeProvider);
 					}
 				}
 			}
 		}
 	}
 
-	private long setCarverSeed(Random random, long seed, int x, int z)
-	{
-		random.setSeed(seed);
-		long i = random.nextLong();
-		long j = random.nextLong();
-		long k = (long) x * i ^ (long) z * j ^ seed;
-		random.setSeed(k);
-		return k;
-	}
-
 	public int getNoiseSizeY()
 	{
 		return noiseSizeY;
 	}
 
-	private void doSurfaceAndGroundControl(IBiome[] biomes, Random random, int heightCap, long worldSeed, ChunkBuffer chunkBuffer, int[] waterLevel)
+	private void doSurfaceAndGroundControl(ChunkGenerationContext context, IBiome[] biomes, Random random, int heightCap, long worldSeed, ChunkBuffer chunkBuffer)
 	{
 		// Process surface and ground blocks for each column in the chunk
 		ChunkCoordinate chunkCoord = chunkBuffer.getChunkCoordinate();		
 		double d1 = 0.03125D;
-		this.biomeBlocksNoise.set(this.biomeBlocksNoiseGen.getRegion(this.biomeBlocksNoise.get(), chunkCoord.getBlockX(), chunkCoord.getBlockZ(), Constants.CHUNK_SIZE, Constants.CHUNK_SIZE, d1 * 2.0D, d1 * 2.0D, 1.0D));
-		GeneratingChunk generatingChunk = new GeneratingChunk(random, waterLevel, this.biomeBlocksNoise.get(), heightCap);
+		this.biomeBlocksNoiseGen.getRegion(context.biomeBlocksNoise, chunkCoord.getBlockX(), chunkCoord.getBlockZ(), Constants.CHUNK_SIZE, Constants.CHUNK_SIZE, d1 * 2.0D, d1 * 2.0D, 1.0D);
+		GeneratingChunk generatingChunk = context.getGeneratingChunk(random, heightCap);
 		IBiome biome;
 		for (int x = 0; x < Constants.CHUNK_SIZE; x++)
 		{
@@ -687,57 +863,78 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 	// Used by sagc for generating surface/ground block patterns
 	public double getBiomeBlocksNoiseValue(int blockX, int blockZ)
 	{
-		double noise = this.lastNoise.get();
-		if (this.lastX.get() != blockX || this.lastZ.get() != blockZ)
+		ChunkGenerationContext context = this.generationContext.get();
+		double noise = context.lastBiomeBlocksNoise;
+		if (context.lastBiomeBlocksNoiseX != blockX || context.lastBiomeBlocksNoiseZ != blockZ)
 		{
 			double d1 = 0.03125D;
-			noise = this.biomeBlocksNoiseGen.getRegion(new double[1], blockX, blockZ, 1, 1, d1 * 2.0D, d1 * 2.0D, 1.0D)[0];
-			this.lastX.set(blockX);
-			this.lastZ.set(blockZ);
-			this.lastNoise.set(noise);
+			noise = this.biomeBlocksNoiseGen.getRegion(context.singleBiomeBlocksNoise, blockX, blockZ, 1, 1, d1 * 2.0D, d1 * 2.0D, 1.0D)[0];
+			context.lastBiomeBlocksNoiseX = blockX;
+			context.lastBiomeBlocksNoiseZ = blockZ;
+			context.lastBiomeBlocksNoise = noise;
 		}
 		return noise;
 	}
 
+	/**
+	 * Noise column cache shared by all threads generating this world, so neighbouring
+	 * chunks generated on different threads don't sample the same border columns twice.
+	 * Columns are spread over lock stripes by key hash. Each stripe is a small
+	 * set-associative table that evicts the least recently used column in a set.
+	 * Columns are generated outside of the stripe lock, threads only hold it for the copy.
+	 */
 	private class NoiseCache
 	{
-		private final long[] keys;
-		private final double[] values;
-		private final int mask;
+		private static final int STRIPES = 64;
+		private static final int WAYS = 4;
+
+		private final NoiseCacheStripe[] stripes;
+		private final int setMask;
+		private final int noiseSize;
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
 
 		private NoiseCache(int size, int noiseSize)
 		{
 			size = MathHelper.smallestEncompassingPowerOfTwo(size);
-			this.mask = size - 1;
-
-			this.keys = new long[size];
-			Arrays.fill(this.keys, Long.MIN_VALUE);
-			this.values = new double[size * noiseSize];
+			int sets = Math.max(1, size / (STRIPES * WAYS));
+			this.setMask = sets - 1;
+			this.noiseSize = noiseSize;
+			this.stripes = new NoiseCacheStripe[STRIPES];
+			for (int i = 0; i < STRIPES; i++)
+			{
+				this.stripes[i] = new NoiseCacheStripe(sets * WAYS, noiseSize);
+			}
 		}
 
-		public double[] get(double[] buffer, int noiseX, int noiseZ)
+		public void get(double[] buffer, int offset, int noiseX, int noiseZ)
 		{
 			long key = key(noiseX, noiseZ);
-			int idx = hash(key) & this.mask;
+			int hash = hash(key);
+			NoiseCacheStripe stripe = this.stripes[hash & (STRIPES - 1)];
+			int set = (hash >>> 6) & this.setMask;
 
-			// if the entry here has a key that matches ours, we have a cache hit
-			if (this.keys[idx] == key)
+			synchronized (stripe)
 			{
-				// Copy values into buffer
-				System.arraycopy(this.values, idx * buffer.length, buffer, 0, buffer.length);
-			} else {
-				// cache miss: sample and put the result into our cache entry
+				if (stripe.get(key, set, buffer, offset, this.noiseSize))
+				{
+					this.hits.increment();
+					return;
+				}
+			}
 
-				// Sample the noise column to store the new values
-				generateNoiseColumn(buffer, noiseX, noiseZ);
+			// cache miss: sample and put the result into our cache entry
+			this.misses.increment();
 
-				// Create copy of the array
-				System.arraycopy(buffer, 0, this.values, idx * buffer.length, buffer.length);
+			// Sample the noise column to store the new values
+			double[] column = generationContext.get().column;
+			generateNoiseColumn(column, noiseX, noiseZ);
+			System.arraycopy(column, 0, buffer, offset, this.noiseSize);
 
-				this.keys[idx] = key;
+			synchronized (stripe)
+			{
+				stripe.put(key, set, column, this.noiseSize);
 			}
-
-			return buffer;
 		}
 
 		private int hash(long key)
@@ -750,4 +947,62 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 			return MathHelper.toLong(x, z);
 		}
 	}
+
+	// Only accessed while holding the stripe's monitor, see NoiseCache.
+	private static class NoiseCacheStripe
+	{
+		private final long[] keys;
+		private final long[] lastUsed;
+		private final double[] values;
+		private long tick;
+
+		private NoiseCacheStripe(int size, int noiseSize)
+		{
+			this.keys = new long[size];
+			Arrays.fill(this.keys, Long.MIN_VALUE);
+			this.lastUsed = new long[size];
+			this.values = new double[size * noiseSize];
+		}
+
+		private boolean get(long key, int set, double[] buffer, int offset, int noiseSize)
+		{
+			int start = set * NoiseCache.WAYS;
+			for (int idx = start; idx < start + NoiseCache.WAYS; idx++)
+			{
+				// if the entry here has a key that matches ours, we have a cache hit
+				if (this.keys[idx] == key)
+				{
+					// Copy values into buffer
+					System.arraycopy(this.values, idx * noiseSize, buffer, offset, noiseSize);
+					this.lastUsed[idx] = ++this.tick;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void put(long key, int set, double[] buffer, int noiseSize)
+		{
+			// Replace the least recently used entry in the set. Another thread may have
+			// generated the same column in the meantime, in which case we overwrite it.
+			int start = set * NoiseCache.WAYS;
+			int target = start;
+			for (int idx = start; idx < start + NoiseCache.WAYS; idx++)
+			{
+				if (this.keys[idx] == key)
+				{
+					target = idx;
+					break;
+				}
+				if (this.lastUsed[idx] < this.lastUsed[target])
+				{
+					target = idx;
+				}
+			}
+
+			System.arraycopy(buffer, 0, this.values, target * noiseSize, noiseSize);
+			this.keys[target] = key;
+			this.lastUsed[target] = ++this.tick;
+		}
+	}
 }
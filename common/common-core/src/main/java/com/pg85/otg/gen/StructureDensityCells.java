@@ -0,0 +1,90 @@
+package com.pg85.otg.gen;
+
+import java.util.Arrays;
+
+/**
+ * Buckets jigsaw structures / junctions by the noise cells of a chunk they
+ * can add density to, so OTGChunkGenerator.populateNoise only has to look
+ * at the entries near each block instead of at every entry for every block.
+ * Entries are list indices, added in list order so each cell's entries are
+ * visited in the same order as the original list.
+ */
+final class StructureDensityCells
+{
+	private static final int CELL_WIDTH = 4;
+	private static final int CELL_HEIGHT = 8;
+
+	private final int noiseSizeX;
+	private final int noiseSizeY;
+	private final int noiseSizeZ;
+	private final int[] counts;
+	private final int[][] entries;
+
+	StructureDensityCells(int noiseSizeX, int noiseSizeY, int noiseSizeZ)
+	{
+		this.noiseSizeX = noiseSizeX;
+		this.noiseSizeY = noiseSizeY;
+		this.noiseSizeZ = noiseSizeZ;
+		this.counts = new int[noiseSizeX * noiseSizeY * noiseSizeZ];
+		this.entries = new int[this.counts.length][];
+		for (int i = 0; i < this.entries.length; i++)
+		{
+			this.entries[i] = new int[4];
+		}
+	}
+
+	void clear()
+	{
+		Arrays.fill(this.counts, 0);
+	}
+
+	/**
+	 * Adds entry to every cell intersecting the given block area. X/Z are
+	 * relative to the chunk's lowest block coordinates, all bounds inclusive.
+	 */
+	void add(int entry, int minX, int maxX, int minY, int maxY, int minZ, int maxZ)
+	{
+		minX = Math.max(minX, 0);
+		maxX = Math.min(maxX, this.noiseSizeX * CELL_WIDTH - 1);
+		minY = Math.max(minY, 0);
+		maxY = Math.min(maxY, this.noiseSizeY * CELL_HEIGHT - 1);
+		minZ = Math.max(minZ, 0);
+		maxZ = Math.min(maxZ, this.noiseSizeZ * CELL_WIDTH - 1);
+		if (minX > maxX || minY > maxY || minZ > maxZ)
+		{
+			return;
+		}
+
+		int cell;
+		for (int noiseX = minX / CELL_WIDTH; noiseX <= maxX / CELL_WIDTH; noiseX++)
+		{
+			for (int noiseZ = minZ / CELL_WIDTH; noiseZ <= maxZ / CELL_WIDTH; noiseZ++)
+			{
+				for (int noiseY = minY / CELL_HEIGHT; noiseY <= maxY / CELL_HEIGHT; noiseY++)
+				{
+					cell = getCell(noiseX, noiseY, noiseZ);
+					if (this.counts[cell] == this.entries[cell].length)
+					{
+						this.entries[cell] = Arrays.copyOf(this.entries[cell], this.entries[cell].length * 2);
+					}
+					this.entries[cell][this.counts[cell]++] = entry;
+				}
+			}
+		}
+	}
+
+	int getCell(int noiseX, int noiseY, int noiseZ)
+	{
+		return (noiseX * this.noiseSizeZ + noiseZ) * this.noiseSizeY + noiseY;
+	}
+
+	int getCount(int cell)
+	{
+		return this.counts[cell];
+	}
+
+	int[] getEntries(int cell)
+	{
+		return this.entries[cell];
+	}
+}
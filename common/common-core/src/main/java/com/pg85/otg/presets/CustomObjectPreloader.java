@@ -0,0 +1,151 @@
+package com.pg85.otg.presets;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.pg85.otg.config.ConfigFunction;
+import com.pg85.otg.config.biome.BiomeConfig;
+import com.pg85.otg.customobject.CustomObject;
+import com.pg85.otg.customobject.CustomObjectManager;
+import com.pg85.otg.customobject.config.CustomObjectResourcesManager;
+import com.pg85.otg.customobject.resource.ICustomObjectResource;
+import com.pg85.otg.interfaces.IBiomeConfig;
+import com.pg85.otg.interfaces.ICustomStructureGen;
+import com.pg85.otg.interfaces.ILogger;
+import com.pg85.otg.interfaces.IMaterialReader;
+import com.pg85.otg.interfaces.IModLoadedChecker;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
+
+/**
+ * Loads the BO2/BO3/BO4 objects used by each preset's biomes (resources,
+ * CustomStructure and BO3AtSpawn) on background threads, so chunk generation
+ * doesn't have to load them. Objects are loaded via CustomObjectCollection,
+ * so a generation thread requesting an object that is being preloaded waits
+ * for it instead of loading it again. Branches are still loaded when spawning.
+ */
+public class CustomObjectPreloader
+{
+	private static final int PROGRESS_STEPS = 10;
+
+	/**
+	 * Starts preloading and returns immediately, progress is logged as
+	 * objects are loaded.
+	 */
+	public static void preloadCustomObjects(LocalPresetLoader presetLoader, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	{
+		List<Preset> presets = presetLoader.getAllPresets();
+		List<String[]> objects = new ArrayList<String[]>();
+		for(Preset preset : presets)
+		{
+			for(String objectName : getObjectNames(preset))
+			{
+				objects.add(new String[] { preset.getFolderName(), objectName });
+			}
+		}
+		if(objects.isEmpty())
+		{
+			return;
+		}
+
+		int total = objects.size();
+		logger.log(LogLevel.INFO, LogCategory.MAIN, "Preloading " + total + " custom objects for " + presets.size() + " presets.");
+
+		// Leave a core for the server thread.
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "OTG-Preloader-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+
+		long startTime = System.currentTimeMillis();
+		AtomicInteger loaded = new AtomicInteger();
+		AtomicInteger failed = new AtomicInteger();
+		int progressStep = Math.max(1, total / PROGRESS_STEPS);
+		for(String[] object : objects)
+		{
+			String presetFolderName = object[0];
+			String objectName = object[1];
+			executor.submit(() -> {
+				try
+				{
+					IMaterialReader materialReader = presetLoader.getMaterialReader(presetFolderName);
+					CustomObject customObject = customObjectManager.getGlobalObjects().getObjectByName(objectName, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+					if(customObject == null)
+					{
+						// CustomObjectCollection logs the reason.
+						failed.incrementAndGet();
+					}
+				} catch(RuntimeException ex) {
+					failed.incrementAndGet();
+					if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+					{
+						logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not preload " + objectName + " for preset " + presetFolderName + ": " + ex);
+						logger.printStackTrace(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, ex);
+					}
+				}
+
+				int done = loaded.incrementAndGet();
+				if(done == total)
+				{
+					logger.log(LogLevel.INFO, LogCategory.MAIN, "Preloaded " + total + " custom objects (" + failed.get() + " could not be loaded) in " + (System.currentTimeMillis() - startTime) + " Ms.");
+				} else if(done % progressStep == 0) {
+					logger.log(LogLevel.INFO, LogCategory.MAIN, "Preloaded " + done + "/" + total + " custom objects.");
+				}
+			});
+		}
+		// Threads exit once all queued objects are loaded.
+		executor.shutdown();
+	}
+
+	private static List<String> getObjectNames(Preset preset)
+	{
+		List<String> objectNames = new ArrayList<String>();
+		HashSet<String> lowerCaseNames = new HashSet<String>();
+
+		String bo3AtSpawn = preset.getWorldConfig().getBO3AtSpawn();
+		if(bo3AtSpawn != null && bo3AtSpawn.trim().length() > 0)
+		{
+			addObjectName(bo3AtSpawn.trim(), objectNames, lowerCaseNames);
+		}
+
+		for(IBiomeConfig biomeConfig : preset.getAllBiomeConfigs())
+		{
+			for (ConfigFunction<IBiomeConfig> res : ((BiomeConfig)biomeConfig).getResourceQueue())
+			{
+				if (res instanceof ICustomObjectResource)
+				{
+					for(String objectName : ((ICustomObjectResource)res).getObjectNames())
+					{
+						addObjectName(objectName, objectNames, lowerCaseNames);
+					}
+				}
+			}
+			for(ICustomStructureGen structureGen : biomeConfig.getCustomStructures())
+			{
+				String objectName;
+				for(int i = 0; (objectName = structureGen.getObjectName(i)) != null; i++)
+				{
+					addObjectName(objectName, objectNames, lowerCaseNames);
+				}
+			}
+		}
+		return objectNames;
+	}
+
+	private static void addObjectName(String objectName, List<String> objectNames, HashSet<String> lowerCaseNames)
+	{
+		if(lowerCaseNames.add(objectName.toLowerCase()))
+		{
+			objectNames.add(objectName);
+		}
+	}
+}
@@ -8,6 +8,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
 import com.pg85.otg.config.biome.BiomeConfig;
@@ -104,38 +107,74 @@ public abstract class LocalPresetLoader
 	{
 		if(this.presetsDir.exists() && this.presetsDir.isDirectory())
 		{
-			for(File presetDir : this.presetsDir.listFiles())
-			{
-				if(presetDir.isDirectory())
+			long startTime = System.currentTimeMillis();
+			
+			// Presets are loaded in parallel, but added in directory order so
+			// duplicate packed presets are always resolved the same way.
+			File[] presetDirs = this.presetsDir.listFiles();
+			List<ForkJoinTask<Preset>> tasks = new ArrayList<ForkJoinTask<Preset>>(presetDirs.length);
+			ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), presetDirs.length)));
+			try {
+				for(File presetDir : presetDirs)
 				{
-					for(File file : presetDir.listFiles())
+					ForkJoinTask<Preset> task = null;
+					if(presetDir.isDirectory())
 					{
-						if(file.getName().equals(Constants.WORLD_CONFIG_FILE))
+						for(File file : presetDir.listFiles())
 						{
-							Preset preset = loadPreset(presetDir.toPath(), biomeResourcesManager, logger);
-							this.presets.put(preset.getFolderName(), preset);
-							this.aliasMap.put(preset.getShortPresetName(), preset.getFolderName());
-							break;
+							if(file.getName().equals(Constants.WORLD_CONFIG_FILE))
+							{
+								task = pool.submit(() -> loadPreset(presetDir.toPath(), biomeResourcesManager, logger));
+								break;
+							}
 						}
 					}
+					else if (presetDir.getName().endsWith(".preset"))
+					{
+						task = pool.submit(() -> PackedPresetLoader.loadPresetFromPack(presetDir));
+					}
+					tasks.add(task);
 				}
-				else if (presetDir.getName().endsWith(".preset")) {
-					try {
-						Preset preset = PackedPresetLoader.loadPresetFromPack(presetDir);
-						if (this.presets.containsKey(preset.getFolderName())) {
-							logger.log(LogLevel.WARN, LogCategory.MAIN, String.format("Multiple preset formats exist for %s, discarding packed preset in favor of original", preset.getShortPresetName()));
-							continue;
-						}
+				
+				for(int i = 0; i < presetDirs.length; i++)
+				{
+					File presetDir = presetDirs[i];
+					ForkJoinTask<Preset> task = tasks.get(i);
+					if(task == null)
+					{
+						continue;
+					}
+					if(presetDir.isDirectory())
+					{
+						Preset preset = task.join();
 						this.presets.put(preset.getFolderName(), preset);
 						this.aliasMap.put(preset.getShortPresetName(), preset.getFolderName());
-					} catch (Exception e) {
-						StringWriter sw = new StringWriter();
-						PrintWriter pw = new PrintWriter(sw);
-						e.printStackTrace(pw);
-						String stackTrace = sw.toString();
-						logger.log(LogLevel.ERROR, LogCategory.MAIN, String.format("Unable to load packed preset %s: %s", presetDir.getName(), stackTrace));
+					} else {
+						try {
+							Preset preset = task.get();
+							if (this.presets.containsKey(preset.getFolderName())) {
+								logger.log(LogLevel.WARN, LogCategory.MAIN, String.format("Multiple preset formats exist for %s, discarding packed preset in favor of original", preset.getShortPresetName()));
+								continue;
+							}
+							this.presets.put(preset.getFolderName(), preset);
+							this.aliasMap.put(preset.getShortPresetName(), preset.getFolderName());
+						} catch (Exception e) {
+							Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+							StringWriter sw = new StringWriter();
+							PrintWriter pw = new PrintWriter(sw);
+							cause.printStackTrace(pw);
+							String stackTrace = sw.toString();
+							logger.log(LogLevel.ERROR, LogCategory.MAIN, String.format("Unable to load packed preset %s: %s", presetDir.getName(), stackTrace));
+						}
 					}
 				}
+			} finally {
+				pool.shutdown();
+			}
+			
+			if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+			{
+				logger.log(LogLevel.INFO, LogCategory.PERFORMANCE, "Loaded " + this.presets.size() + " presets in " + (System.currentTimeMillis() - startTime) + " Ms.");
 			}
 		}
 	}
@@ -149,6 +188,7 @@ public abstract class LocalPresetLoader
 			biomesDirectory = new File(presetDir.toString(), Constants.LEGACY_WORLD_BIOMES_FOLDER);
 		}
 		String presetFolderName = presetDir.toFile().getName();
+		long startTime = System.currentTimeMillis();
 		
 		SettingsMap worldConfigSettings = FileSettingsReader.read(presetFolderName, worldConfigFile, logger);
 		WorldConfig worldConfig = new WorldConfig(presetDir, worldConfigSettings, addBiomesFromDirRecursive(biomesDirectory), biomeResourcesManager, logger, getMaterialReader(presetFolderName), presetFolderName);
@@ -157,6 +197,11 @@ public abstract class LocalPresetLoader
 		// use shortPresetName to register the biomes, instead of presetName
 		ArrayList<BiomeConfig> biomeConfigs = loadBiomeConfigs(worldConfig.getShortPresetName(), worldConfig.getMajorVersion(), presetDir, biomesDirectory.toPath(), worldConfig, biomeResourcesManager, logger, getMaterialReader(presetFolderName));
 
+		if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+		{
+			logger.log(LogLevel.INFO, LogCategory.PERFORMANCE, "Loaded preset " + presetFolderName + " (" + biomeConfigs.size() + " biomes) in " + (System.currentTimeMillis() - startTime) + " Ms.");
+		}
+
 		return new Preset(presetDir, worldConfig.getShortPresetName(), worldConfig, biomeConfigs);
 	}
 	
@@ -221,28 +266,48 @@ public abstract class LocalPresetLoader
 
 	private ArrayList<BiomeConfig> readAndWriteSettings(IWorldConfig worldConfig, Map<String, BiomeConfigStub> biomeConfigStubs, Path presetDir, String presetShortName, int presetMajorVersion, boolean write, IConfigFunctionProvider biomeResourcesManager, ILogger logger, IMaterialReader materialReader)
 	{
-		ArrayList<BiomeConfig> biomeConfigs = new ArrayList<BiomeConfig>();
-
+		// Inheritance, merges mobs from other stubs so do this before reading any settings.
 		for (BiomeConfigStub biomeConfigStub : biomeConfigStubs.values())
 		{
-			// Inheritance
 			processMobInheritance(biomeConfigStubs, biomeConfigStub, 0, logger);
+		}
 
-			// Settings reading
-			BiomeConfig biomeConfig = new BiomeConfig(biomeConfigStub.getBiomeName(), biomeConfigStub, presetDir, biomeConfigStub.getSettings(), worldConfig, presetShortName, presetMajorVersion, biomeResourcesManager, logger, materialReader);
-			biomeConfigs.add(biomeConfig);
-
-			// Settings writing
-			if(write)
+		// Biome configs only depend on their own stub, so fork them when 
+		// loading presets in parallel. Results are kept in stub order.
+		boolean fork = ForkJoinTask.inForkJoinPool();
+		List<ForkJoinTask<BiomeConfig>> tasks = new ArrayList<ForkJoinTask<BiomeConfig>>(biomeConfigStubs.size());
+		for (BiomeConfigStub biomeConfigStub : biomeConfigStubs.values())
+		{
+			ForkJoinTask<BiomeConfig> task = ForkJoinTask.adapt(() -> readAndWriteSettings(worldConfig, biomeConfigStub, presetDir, presetShortName, presetMajorVersion, write, biomeResourcesManager, logger, materialReader));
+			if(fork)
 			{
-				Path writeFile = biomeConfigStub.getPath();
-				FileSettingsWriter.writeToFile(biomeConfig.getSettingsAsMap(), writeFile.toFile(), worldConfig.getSettingsMode(), logger);
+				task.fork();
 			}
+			tasks.add(task);
 		}
 
+		ArrayList<BiomeConfig> biomeConfigs = new ArrayList<BiomeConfig>(tasks.size());
+		for (ForkJoinTask<BiomeConfig> task : tasks)
+		{
+			biomeConfigs.add(fork ? task.join() : task.invoke());
+		}
 		return biomeConfigs;
 	}
 
+	private BiomeConfig readAndWriteSettings(IWorldConfig worldConfig, BiomeConfigStub biomeConfigStub, Path presetDir, String presetShortName, int presetMajorVersion, boolean write, IConfigFunctionProvider biomeResourcesManager, ILogger logger, IMaterialReader materialReader)
+	{
+		// Settings reading
+		BiomeConfig biomeConfig = new BiomeConfig(biomeConfigStub.getBiomeName(), biomeConfigStub, presetDir, biomeConfigStub.getSettings(), worldConfig, presetShortName, presetMajorVersion, biomeResourcesManager, logger, materialReader);
+
+		// Settings writing
+		if(write)
+		{
+			Path writeFile = biomeConfigStub.getPath();
+			FileSettingsWriter.writeToFile(biomeConfig.getSettingsAsMap(), writeFile.toFile(), worldConfig.getSettingsMode(), logger);
+		}
+		return biomeConfig;
+	}
+
 	private void processSettings(IWorldConfig worldConfig, ArrayList<BiomeConfig> biomeConfigs)
 	{
 		for(BiomeConfig biomeConfig : biomeConfigs)
@@ -12,131 +12,186 @@ import com.pg85.otg.util.minecraft.TreeType;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Represents a collection of custom objects. Those objects can be loaded from a
  * directory, or can be loaded manually and then added to this collection.
- *
+ * 
+ * Object files are indexed by lower case name once per preset. Lookups don't
+ * lock, each object is loaded by the first thread asking for it and only
+ * threads asking for the same object wait for it to load.
  */
 public class CustomObjectCollection
 {
-	private Object indexingFilesLock = new Object();
+	// Only used while indexing folders.
+	private final Object indexingFilesLock = new Object();
 	
-	private ArrayList<CustomObject> objectsGlobalObjects = new ArrayList<CustomObject>();
-	private HashMap<String, CustomObject> objectsByNameGlobalObjects = new HashMap<String, CustomObject>();
-	private ArrayList<String> objectsNotFoundGlobalObjects = new ArrayList<String>();
+	// Lower case name -> object, or null if it couldn't be found or loaded.
+	private final ConcurrentHashMap<String, ObjectLoadTask> objectsByNameGlobalObjects = new ConcurrentHashMap<String, ObjectLoadTask>();
+	// Preset objects, falling back to GlobalObjects.
+	private final ConcurrentHashMap<String, ConcurrentHashMap<String, ObjectLoadTask>> objectsByNamePerPreset = new ConcurrentHashMap<String, ConcurrentHashMap<String, ObjectLoadTask>>();
 
-	private HashMap<String, ArrayList<CustomObject>> objectsPerPreset = new HashMap<String, ArrayList<CustomObject>>();
-	private HashMap<String, HashMap<String, CustomObject>> objectsByNamePerPreset = new HashMap<String, HashMap<String, CustomObject>>();
-	private HashMap<String, ArrayList<String>> objectsNotFoundPerPreset = new HashMap<String, ArrayList<String>>();
+	// Lower case name -> file
+	private volatile Map<String, File> customObjectFilesGlobalObjects = null;
+	private volatile Map<String, File> globalTemplates = null;
+	private final ConcurrentHashMap<String, Map<String, File>> customObjectFilesPerPreset = new ConcurrentHashMap<String, Map<String, File>>();
+	private final ConcurrentHashMap<String, Map<String, File>> boTemplateFilesPerPreset = new ConcurrentHashMap<String, Map<String, File>>();
 
-	private HashMap<String, File> customObjectFilesGlobalObjects = null;
-	private HashMap<String, File> globalTemplates = null;
-	private HashMap<String, HashMap<String, File>> customObjectFilesPerPreset = new HashMap<String, HashMap<String, File>>();
-	private HashMap<String, HashMap<String, File>> boTemplateFilesPerPreset = new HashMap<>();
-
-	public CustomObject loadObject(File file, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	/**
+	 * Loads an object the first time it is requested, other threads
+	 * requesting the same object wait for it.
+	 */
+	private static class ObjectLoadTask extends FutureTask<CustomObject>
 	{
-		synchronized(this.indexingFilesLock)
+		// Only set while this task is being run by the thread that claimed it.
+		private final AtomicReference<Thread> loadingThread = new AtomicReference<Thread>();
+
+		private ObjectLoadTask(Callable<CustomObject> loader)
 		{
-			CustomObject object = null;
-			// Try to load single file
-			if (file.isFile())
+			super(loader);
+		}
+
+		/**
+		 * Errors while loading are logged once and cached as null, like
+		 * objects that couldn't be found.
+		 */
+		ObjectLoadTask(String name, ILogger logger, Callable<CustomObject> loader)
+		{
+			super(() ->
 			{
-				// Get name and extension
-				String fileName = file.getName();
-				int index = fileName.lastIndexOf('.');
-				// If we come across a directory descend into it without enabling
-				// the objects
-				if (index != -1)
-				{
-					String objectType = fileName.substring(index + 1, fileName.length());
-					String objectName = fileName.substring(0, index);
-	
-					// Get the object
-					CustomObjectLoader loader = customObjectManager.getObjectLoaders().get(objectType.toLowerCase());
-					if (loader != null)
+				try {
+					return loader.call();
+				} catch(RuntimeException ex) {
+					if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 					{
-						object = loader.loadFromFile(objectName, file, logger);
-	
-						if (presetFolderName != null)
-						{
-							ArrayList<CustomObject> presetObjects = this.objectsPerPreset.get(presetFolderName);
-							if (presetObjects == null)
-							{
-								presetObjects = new ArrayList<CustomObject>();
-								this.objectsPerPreset.put(presetFolderName, presetObjects);
-							}
-							presetObjects.add(object);
-						} else {
-							this.objectsGlobalObjects.add(object);
-						}
-	
-						if (!object.onEnable(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker) || !object.loadChecks(modLoadedChecker))
-						{
-							// Remove the object
-							removeLoadedObject(presetFolderName, object);
-							
-							// Try bo4
-							loader = customObjectManager.getObjectLoaders().get("bo4");
-							if (loader != null)
-							{
-								object = loader.loadFromFile(objectName, file, logger);
-								if (presetFolderName != null)
-								{
-									ArrayList<CustomObject> presetObjects = this.objectsPerPreset.get(presetFolderName);
-									if (presetObjects == null)
-									{
-										presetObjects = new ArrayList<CustomObject>();
-										this.objectsPerPreset.put(presetFolderName, presetObjects);
-									}
-									presetObjects.add(object);
-								} else {
-									this.objectsGlobalObjects.add(object);
-								}
-
-								if (!object.onEnable(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker) || !object.loadChecks(modLoadedChecker))
-								{
-									// Remove the object
-									removeLoadedObject(presetFolderName, object);
-									return null;
-								}
-							}
-						}
+						logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not load BO2/BO3 " + name + ": " + ex);
+						logger.printStackTrace(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, ex);
 					}
+					return null;
 				}
-			} else {
-				logger.log(LogLevel.FATAL, LogCategory.CUSTOM_OBJECTS, "Given path does not exist: " + file.getAbsolutePath());
-				throw new RuntimeException("Given path does not exist: " + file.getAbsolutePath());
+			});
+		}
+
+		static ObjectLoadTask of(CustomObject object)
+		{
+			ObjectLoadTask task = new ObjectLoadTask(() -> object);
+			task.run();
+			return task;
+		}
+
+		@Override
+		public void run()
+		{
+			// Only the thread that claims the task runs it, so loadingThread
+			// is never overwritten or cleared by a thread that lost the race.
+			Thread currentThread = Thread.currentThread();
+			if(!this.loadingThread.compareAndSet(null, currentThread))
+			{
+				return;
+			}
+			try {
+				super.run();
+			} finally {
+				this.loadingThread.set(null);
 			}
-			return object;
 		}
-	}
 
-	private void removeLoadedObject(String presetFolderName, CustomObject object)
-	{
-		if (presetFolderName != null)
+		CustomObject getObject(String name, ILogger logger)
 		{
-			HashMap<String, CustomObject> presetObjectsByName = this.objectsByNamePerPreset.get(presetFolderName);
-			if(presetObjectsByName != null)
+			if(!isDone())
 			{
-				presetObjectsByName.remove(object.getName());
-				if (presetObjectsByName.size() == 0)
+				if(this.loadingThread.get() == Thread.currentThread())
 				{
-					this.objectsByNamePerPreset.remove(presetFolderName, presetObjectsByName);
+					// Object (indirectly) requested itself while loading, f.e. via InheritBO3.
+					if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+					{
+						logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "BO2/BO3 " + name + " references itself while loading, ignoring.");
+					}
+					return null;
 				}
+				// Does nothing if another thread is already loading the object.
+				run();
 			}
 			
-			ArrayList<CustomObject> worldObjects = this.objectsPerPreset.get(presetFolderName);
-			worldObjects.remove(object);
-			if (worldObjects.size() == 0)
+			boolean interrupted = false;
+			try {
+				while(true)
+				{
+					try {
+						return get();
+					}
+					catch (InterruptedException e)
+					{
+						interrupted = true;
+					}
+				}
+			}
+			catch (ExecutionException e)
+			{
+				if(e.getCause() instanceof RuntimeException)
+				{
+					throw (RuntimeException)e.getCause();
+				}
+				throw new RuntimeException(e.getCause());
+			} finally {
+				if(interrupted)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	public CustomObject loadObject(File file, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	{
+		CustomObject object = null;
+		// Try to load single file
+		if (file.isFile())
+		{
+			// Get name and extension
+			String fileName = file.getName();
+			int index = fileName.lastIndexOf('.');
+			// If we come across a directory descend into it without enabling
+			// the objects
+			if (index != -1)
 			{
-				this.objectsPerPreset.remove(presetFolderName, worldObjects);
+				String objectType = fileName.substring(index + 1, fileName.length());
+				String objectName = fileName.substring(0, index);
+
+				// Get the object
+				CustomObjectLoader loader = customObjectManager.getObjectLoaders().get(objectType.toLowerCase());
+				if (loader != null)
+				{
+					object = loader.loadFromFile(objectName, file, logger);
+
+					if (!object.onEnable(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker) || !object.loadChecks(modLoadedChecker))
+					{
+						object = null;
+						
+						// Try bo4
+						loader = customObjectManager.getObjectLoaders().get("bo4");
+						if (loader != null)
+						{
+							object = loader.loadFromFile(objectName, file, logger);
+							if (!object.onEnable(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker) || !object.loadChecks(modLoadedChecker))
+							{
+								return null;
+							}
+						}
+					}
+				}
 			}
 		} else {
-			this.objectsGlobalObjects.remove(object);
+			logger.log(LogLevel.FATAL, LogCategory.CUSTOM_OBJECTS, "Given path does not exist: " + file.getAbsolutePath());
+			throw new RuntimeException("Given path does not exist: " + file.getAbsolutePath());
 		}
+		return object;
 	}
 
 	/**
@@ -147,25 +202,15 @@ public class CustomObjectCollection
 	 */
 	void addLoadedGlobalObject(CustomObject object)
 	{
-		synchronized(this.indexingFilesLock)
-		{
-			String name = object.getName();
-			if (!this.objectsByNameGlobalObjects.containsKey(name.toLowerCase()))
-			{
-				this.objectsByNameGlobalObjects.put(name.toLowerCase(), object);
-				this.objectsGlobalObjects.add(object);
-			}
-		}
+		this.objectsByNameGlobalObjects.putIfAbsent(object.getName().toLowerCase(), ObjectLoadTask.of(object));
 	}
 
 	void addGlobalObjectFile(String name, File file)
 	{
-		synchronized(this.indexingFilesLock)
+		Map<String, File> customObjectFiles = this.customObjectFilesGlobalObjects;
+		if (customObjectFiles != null)
 		{
-			if (this.customObjectFilesGlobalObjects != null && !this.customObjectFilesGlobalObjects.containsKey(name.toLowerCase()))
-			{
-				this.customObjectFilesGlobalObjects.put(name.toLowerCase(), file);
-			}
+			customObjectFiles.putIfAbsent(name.toLowerCase(), file);
 		}
 	}
 
@@ -173,13 +218,13 @@ public class CustomObjectCollection
 	{
 		synchronized(this.indexingFilesLock)
 		{
-			this.objectsGlobalObjects.clear();
 			this.objectsByNameGlobalObjects.clear();
-			this.objectsNotFoundGlobalObjects.clear();
-			
-			this.objectsPerPreset.clear();
 			this.objectsByNamePerPreset.clear();
-			this.objectsNotFoundPerPreset.clear();	
+			// Vanilla objects are only added when indexing
+			if (this.customObjectFilesGlobalObjects != null)
+			{
+				addTreeObjects();
+			}
 		}
 	}
 	
@@ -187,13 +232,8 @@ public class CustomObjectCollection
 	{
 		synchronized(indexingFilesLock)
 		{
-			this.objectsGlobalObjects.clear();
 			this.objectsByNameGlobalObjects.clear();
-			this.objectsNotFoundGlobalObjects.clear();
-	
-			this.objectsPerPreset.clear();
 			this.objectsByNamePerPreset.clear();
-			this.objectsNotFoundPerPreset.clear();
 	
 			this.customObjectFilesGlobalObjects = null;
 			this.globalTemplates = null;
@@ -204,7 +244,7 @@ public class CustomObjectCollection
 
 	public ArrayList<String> getAllBONamesForPreset(String presetFolderName, ILogger logger, Path otgRootPath)
 	{
-		HashMap<String, File> files = this.customObjectFilesPerPreset.get(presetFolderName);
+		Map<String, File> files = this.customObjectFilesPerPreset.get(presetFolderName);
 		if (files == null)
 		{
 			indexPresetObjectsFolder(presetFolderName, logger, otgRootPath);
@@ -215,7 +255,7 @@ public class CustomObjectCollection
 
 	public ArrayList<String> getTemplatesForPreset(String presetFolderName, ILogger logger, Path otgRootPath)
 	{
-		HashMap<String, File> files = this.boTemplateFilesPerPreset.get(presetFolderName);
+		Map<String, File> files = this.boTemplateFilesPerPreset.get(presetFolderName);
 		if (files == null)
 		{
 			indexPresetObjectsFolder(presetFolderName, logger, otgRootPath);
@@ -226,7 +266,7 @@ public class CustomObjectCollection
 
 	public File getTemplateFileForPreset(String presetFolderName, String templateName, ILogger logger, Path otgRootPath)
 	{
-		HashMap<String, File> files = this.boTemplateFilesPerPreset.get(presetFolderName);
+		Map<String, File> files = this.boTemplateFilesPerPreset.get(presetFolderName);
 		if (files == null)
 		{
 			indexPresetObjectsFolder(presetFolderName, logger, otgRootPath);
@@ -241,9 +281,10 @@ public class CustomObjectCollection
 		{
 			indexGlobalObjectsFolder(logger, otgRootPath);
 		}
-		return this.customObjectFilesGlobalObjects == null
+		Map<String, File> customObjectFiles = this.customObjectFilesGlobalObjects;
+		return customObjectFiles == null
 				? null
-				: new ArrayList<>(this.customObjectFilesGlobalObjects.keySet());
+				: new ArrayList<>(customObjectFiles.keySet());
 	}
 
 	public ArrayList<String> getGlobalTemplates(ILogger logger, Path otgRootPath)
@@ -252,31 +293,28 @@ public class CustomObjectCollection
 		{
 			indexGlobalObjectsFolder(logger, otgRootPath);
 		}
-		return this.globalTemplates == null
+		Map<String, File> templates = this.globalTemplates;
+		return templates == null
 				? null
-				: new ArrayList<>(this.globalTemplates.keySet());
+				: new ArrayList<>(templates.keySet());
 	}
 
 	// Adds an object to a preset, if it has been loaded
 	// Does not add the object if the preset's BO's have not yet been indexed
 	public void addObjectToPreset(String presetFolderName, String objectName, File boFile, CustomObject object)
 	{
-		HashMap<String, CustomObject> objectsByName = this.objectsByNamePerPreset.get(presetFolderName);
-		if (objectsByName != null) objectsByName.put(objectName.toLowerCase(), object);
-		HashMap<String, File> customObjectFiles = this.customObjectFilesPerPreset.get(presetFolderName);
+		Map<String, ObjectLoadTask> objectsByName = this.objectsByNamePerPreset.get(presetFolderName);
+		if (objectsByName != null) objectsByName.put(objectName.toLowerCase(), ObjectLoadTask.of(object));
+		Map<String, File> customObjectFiles = this.customObjectFilesPerPreset.get(presetFolderName);
 		if (customObjectFiles != null) customObjectFiles.put(objectName.toLowerCase(), boFile);
 	}
 	
-	public CustomObject getObjectByName(String name, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	void indexGlobalObjectsFolder(ILogger logger, Path otgRootFolder)
 	{
-		synchronized(this.indexingFilesLock)
+		if (this.customObjectFilesGlobalObjects != null)
 		{
-			return getObjectByName(name, presetFolderName, true, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+			return;
 		}
-	}
-	
-	void indexGlobalObjectsFolder(ILogger logger, Path otgRootFolder)
-	{
 		synchronized(this.indexingFilesLock)
 		{
 			if (this.customObjectFilesGlobalObjects == null)
@@ -285,18 +323,18 @@ public class CustomObjectCollection
 				{
 					logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "Indexing GlobalObjects folder.");
 				}
-				this.customObjectFilesGlobalObjects = new HashMap<String, File>();
-				this.globalTemplates = new HashMap<>();
+				HashMap<String, File> customObjectFiles = new HashMap<String, File>();
+				HashMap<String, File> templateFiles = new HashMap<String, File>();
 				if (new File(otgRootFolder + File.separator + Constants.GLOBAL_OBJECTS_FOLDER).exists())
 				{
-					indexAllCustomObjectFilesInDir(new File(otgRootFolder + File.separator + Constants.GLOBAL_OBJECTS_FOLDER), this.customObjectFilesGlobalObjects, this.globalTemplates, logger);
+					indexAllCustomObjectFilesInDir(new File(otgRootFolder + File.separator + Constants.GLOBAL_OBJECTS_FOLDER), customObjectFiles, templateFiles, logger);
 				}
 	
 				// Add vanilla custom objects
-				for (TreeType type : TreeType.values())
-				{
-					addLoadedGlobalObject(new TreeObject(type));
-				}
+				addTreeObjects();
+
+				this.globalTemplates = new ConcurrentHashMap<String, File>(templateFiles);
+				this.customObjectFilesGlobalObjects = new ConcurrentHashMap<String, File>(customObjectFiles);
 				if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 				{
 					logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "GlobalObjects folder indexed.");
@@ -304,35 +342,44 @@ public class CustomObjectCollection
 			}
 		}
 	}
+
+	private void addTreeObjects()
+	{
+		for (TreeType type : TreeType.values())
+		{
+			addLoadedGlobalObject(new TreeObject(type));
+		}
+	}
 	
 	void indexPresetObjectsFolder(String presetFolderName, ILogger logger, Path otgRootFolder)
 	{
+		if (presetFolderName == null || this.customObjectFilesPerPreset.containsKey(presetFolderName))
+		{
+			return;
+		}
 		synchronized(this.indexingFilesLock)
 		{
-			if (presetFolderName != null && !this.customObjectFilesPerPreset.containsKey(presetFolderName))
+			if (!this.customObjectFilesPerPreset.containsKey(presetFolderName))
 			{
 				if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 				{
 					logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "Indexing Objects folder for preset " + presetFolderName);
 				}
 				HashMap<String, File> presetCustomObjectFiles = new HashMap<String, File>();
-				this.customObjectFilesPerPreset.put(presetFolderName, presetCustomObjectFiles);
 				HashMap<String, File> templateFiles = new HashMap<String, File>();
-				this.boTemplateFilesPerPreset.put(presetFolderName, templateFiles);
-				if (presetFolderName != null)
+				// TODO: Rename folders
+				String objectsFolderName = 
+					new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + Constants.WORLD_OBJECTS_FOLDER).exists() ? Constants.WORLD_OBJECTS_FOLDER :
+					new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + Constants.LEGACY_WORLD_OBJECTS_FOLDER).exists() ? Constants.LEGACY_WORLD_OBJECTS_FOLDER : null
+				;					
+				if(objectsFolderName != null)
 				{
-					// TODO: Rename folders
-					String objectsFolderName = 
-						new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + Constants.WORLD_OBJECTS_FOLDER).exists() ? Constants.WORLD_OBJECTS_FOLDER :
-						new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + Constants.LEGACY_WORLD_OBJECTS_FOLDER).exists() ? Constants.LEGACY_WORLD_OBJECTS_FOLDER : null
-					;					
-					if(objectsFolderName != null)
-					{
-						indexAllCustomObjectFilesInDir(
-						new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + objectsFolderName),
-						presetCustomObjectFiles, templateFiles, logger);
-					}
+					indexAllCustomObjectFilesInDir(
+					new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + objectsFolderName),
+					presetCustomObjectFiles, templateFiles, logger);
 				}
+				this.boTemplateFilesPerPreset.put(presetFolderName, new ConcurrentHashMap<String, File>(templateFiles));
+				this.customObjectFilesPerPreset.put(presetFolderName, new ConcurrentHashMap<String, File>(presetCustomObjectFiles));
 				if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 				{
 					logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "Objects folder for preset " + presetFolderName + " indexed.");
@@ -342,158 +389,106 @@ public class CustomObjectCollection
 	}
 	
 	/**
-	 * Gets the object with the given name.
+	 * Gets the object with the given name, searching the preset's
+	 * Objects folder first and then the GlobalObjects folder.
 	 * 
 	 * @param name Name of the object.
 	 * @return The object, or null if not found.
 	 */
-	private CustomObject getObjectByName(String name, String presetFolderName, boolean searchGlobalObjects, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	public CustomObject getObjectByName(String name, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		synchronized(this.indexingFilesLock)
+		String lowerCaseName = name.toLowerCase();
+
+		// Index GlobalObjects first, so vanilla objects are registered.
+		indexGlobalObjectsFolder(logger, otgRootFolder);
+
+		if (presetFolderName == null)
 		{
-			// OTG.log(LogMarker.INFO, "getObjectByName " + presetFolderName != null ? presetFolderName : "");
-	
-			CustomObject object = null;
-	
-			// Check if the object has been cached
-	
-			if (presetFolderName != null)
-			{
-				HashMap<String, CustomObject> presetObjectsByName = this.objectsByNamePerPreset.get(presetFolderName);
-				if (presetObjectsByName != null)
-				{
-					object = presetObjectsByName.get(name.toLowerCase());
-				}
-			}
-	
-			boolean bSearchedPresetObjects = false;
-	
-			if (object == null && presetFolderName != null)
-			{
-				ArrayList<String> presetObjectsNotFoundByName = this.objectsNotFoundPerPreset.get(presetFolderName);
-				if (presetObjectsNotFoundByName != null && presetObjectsNotFoundByName.contains(name))
-				{
-					// TODO: If a user adds a new object while the game is running, it won't be picked up, even when developermode:true.
-					bSearchedPresetObjects = true;
-				}
-			}
-	
-			// Only check the GlobalObjects if the preset's Objects directory has already been searched
-			if (object == null && searchGlobalObjects && (presetFolderName == null || bSearchedPresetObjects))
-			{
-				object = this.objectsByNameGlobalObjects.get(name.toLowerCase());
-			}
-	
-			if (object != null)
-			{
-				return object;
-			}
-	
-			// Check if the object has been queried before but could not be found
-	
-			boolean bSearchedGlobalObjects = false;
-	
-			if (this.objectsNotFoundGlobalObjects != null && this.objectsNotFoundGlobalObjects.contains(name))
+			return getGlobalObject(name, lowerCaseName, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+		}
+
+		ConcurrentHashMap<String, ObjectLoadTask> presetObjectsByName = this.objectsByNamePerPreset.get(presetFolderName);
+		if (presetObjectsByName == null)
+		{
+			presetObjectsByName = new ConcurrentHashMap<String, ObjectLoadTask>();
+			ConcurrentHashMap<String, ObjectLoadTask> existing = this.objectsByNamePerPreset.putIfAbsent(presetFolderName, presetObjectsByName);
+			if (existing != null)
 			{
-				// TODO: If a user adds a new object while the game is running, it won't be picked up, even when developermode:true.
-				bSearchedGlobalObjects = true;
+				presetObjectsByName = existing;
 			}
-	
-			if ((!searchGlobalObjects || bSearchedGlobalObjects) && (presetFolderName == null || bSearchedPresetObjects))
-			{
-				return null;
-			}
-	
-			// Index GlobalObjects and preset's Objects directories
-	
-			indexGlobalObjectsFolder(logger, otgRootFolder);
-			indexPresetObjectsFolder(presetFolderName, logger, otgRootFolder);
-	
-			// Search preset Objects
-	
-			if (presetFolderName != null && !bSearchedPresetObjects)
+		}
+
+		ObjectLoadTask task = presetObjectsByName.get(lowerCaseName);
+		if (task == null)
+		{
+			ObjectLoadTask newTask = new ObjectLoadTask(name, logger, () ->
 			{
-				HashMap<String, File> presetCustomObjectFiles = this.customObjectFilesPerPreset.get(presetFolderName);
-				if (presetCustomObjectFiles != null)
+				// Search preset Objects
+				indexPresetObjectsFolder(presetFolderName, logger, otgRootFolder);
+				Map<String, File> presetCustomObjectFiles = this.customObjectFilesPerPreset.get(presetFolderName);
+				File searchForFile = presetCustomObjectFiles != null ? presetCustomObjectFiles.get(lowerCaseName) : null;
+				if (searchForFile != null)
 				{
-					File searchForFile = presetCustomObjectFiles.get(name.toLowerCase());
-					if (searchForFile != null)
+					CustomObject object = loadObject(searchForFile, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+					if (object == null && logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 					{
-						object = loadObject(searchForFile, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-						if (object != null)
-						{
-							HashMap<String, CustomObject> presetObjectsByName = this.objectsByNamePerPreset.get(presetFolderName);
-							if (presetObjectsByName == null)
-							{
-								presetObjectsByName = new HashMap<String, CustomObject>();
-								this.objectsByNamePerPreset.put(presetFolderName, presetObjectsByName);
-							}
-							presetObjectsByName.put(name.toLowerCase(), object);
-							return object;
-						} else {
-							if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
-							{
-								logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not load BO2/BO3, it likely contains errors: " + searchForFile);
-							}
-							return null;
-						}
+						logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not load BO2/BO3, it likely contains errors: " + searchForFile);
 					}
+					return object;
 				}
-	
-				// Not found
-				ArrayList<String> presetObjectsNotFound = this.objectsNotFoundPerPreset.get(presetFolderName);
-				if (presetObjectsNotFound == null)
+				
+				// Search GlobalObjects
+				CustomObject object = getGlobalObject(name, lowerCaseName, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+				if (object == null && logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 				{
-					presetObjectsNotFound = new ArrayList<String>();
-					this.objectsNotFoundPerPreset.put(presetFolderName, presetObjectsNotFound);
+					logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not find BO2/BO3 " + name + " in GlobalObjects and Objects directory for preset " + presetFolderName + ".");
 				}
-				presetObjectsNotFound.add(name);
+				return object;
+			});
+			task = presetObjectsByName.putIfAbsent(lowerCaseName, newTask);
+			if (task == null)
+			{
+				task = newTask;
 			}
+		}
+		return task.getObject(name, logger);
+	}
 	
-			// Search GlobalObjects
-	
-			if (searchGlobalObjects && !bSearchedGlobalObjects)
+	private CustomObject getGlobalObject(String name, String lowerCaseName, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	{
+		ObjectLoadTask task = this.objectsByNameGlobalObjects.get(lowerCaseName);
+		if (task == null)
+		{
+			ObjectLoadTask newTask = new ObjectLoadTask(name, logger, () ->
 			{
-				object = this.objectsByNameGlobalObjects.get(name.toLowerCase());
-	
-				if (object != null)
-				{
-					return object;
-				}
-	
-				File searchForFile = this.customObjectFilesGlobalObjects.get(name.toLowerCase());
-	
+				Map<String, File> customObjectFiles = this.customObjectFilesGlobalObjects;
+				File searchForFile = customObjectFiles != null ? customObjectFiles.get(lowerCaseName) : null;
 				if (searchForFile != null)
 				{
-					object = loadObject(searchForFile, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-	
-					if (object != null)
+					CustomObject object = loadObject(searchForFile, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+					if (object == null && logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 					{
-						this.objectsByNameGlobalObjects.put(name.toLowerCase(), object);
-						return object;
-					} else {
-						if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
-						{
-							logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not load BO2/BO3, it probably contains errors: " + searchForFile);
-						}
-						return null;
+						logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not load BO2/BO3, it probably contains errors: " + searchForFile);
 					}
+					return object;
 				}
-	
-				// Not Found
-				this.objectsNotFoundGlobalObjects.add(name);
-			}
-	
-			if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+				// Preset lookups log this themselves
+				if (presetFolderName == null && logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+				{
+					logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not find BO2/BO3 " + name + " in GlobalObjects directory.");
+				}
+				return null;
+			});
+			task = this.objectsByNameGlobalObjects.putIfAbsent(lowerCaseName, newTask);
+			if (task == null)
 			{
-				logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not find BO2/BO3 " + name + " in GlobalObjects " + (presetFolderName != null ? "and Objects" : "") + " directory " + (presetFolderName != null ? "for preset " + presetFolderName : "") + ".");
+				task = newTask;
 			}
-	
-			return null;
 		}
+		return task.getObject(name, logger);
 	}
 
-	private void indexAllCustomObjectFilesInDir(File searchDir, HashMap<String, File> customObjectFiles, HashMap<String, File> templateFiles, ILogger logger)
+	private void indexAllCustomObjectFilesInDir(File searchDir, Map<String, File> customObjectFiles, Map<String, File> templateFiles, ILogger logger)
 	{
 		if (searchDir.exists())
 		{
@@ -20,6 +20,7 @@ import com.pg85.otg.customobject.structures.StructuredCustomObject;
 import com.pg85.otg.customobject.util.BoundingBox;
 import com.pg85.otg.exceptions.InvalidConfigException;
 import com.pg85.otg.interfaces.IBiomeConfig;
+import com.pg85.otg.interfaces.IChunkView;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.interfaces.IMaterialReader;
 import com.pg85.otg.interfaces.IModLoadedChecker;
@@ -294,7 +295,9 @@ public class BO4 implements StructuredCustomObject
 		BO4BlockFunction[] blocks = config.getBlocks(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
 		if(blocks != null)
 		{
-			for (BO4BlockFunction block : config.getBlocks(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker))
+			// All blocks are placed in chunkCoord, look up the chunk only once.
+			IChunkView chunkView = worldGenRegion.getChunkView(chunkCoord.getChunkX(), chunkCoord.getChunkZ());
+			for (BO4BlockFunction block : blocks)
 			{
 				if(block instanceof BO4RandomBlockFunction)
 				{
@@ -414,7 +417,7 @@ public class BO4 implements StructuredCustomObject
 										// ReplaceAbove is not affected by sagc
 										blockToQueueForSpawn.material = replaceAboveMaterial;								
 									}
-									setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+									setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 								} else {
 									outOfBounds = true;
 								}
@@ -447,7 +450,7 @@ public class BO4 implements StructuredCustomObject
 							{
 								if(blockY < Constants.WORLD_HEIGHT)
 								{
-									sourceBlockMaterial = worldGenRegion.getMaterial(x + newBlock.x, blockY, z + newBlock.z);
+									sourceBlockMaterial = getMaterial(worldGenRegion, chunkView, x + newBlock.x, blockY, z + newBlock.z);
 									
 									if(sourceBlockMaterial != null)
 									{								
@@ -473,7 +476,7 @@ public class BO4 implements StructuredCustomObject
 													blockToQueueForSpawn.material = LocalMaterials.DIRT;
 												}
 											}
-											setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+											setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 										} else {
 											outOfBounds = true;
 										}
@@ -508,18 +511,18 @@ public class BO4 implements StructuredCustomObject
 								if(blockToQueueForSpawn.material.equals(bo3GroundBlock))
 								{
 									blockToQueueForSpawn.material = biomeConfig.getGroundBlockAtHeight(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z);
-									setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+									setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 									continue;
 								}
 								else if(blockToQueueForSpawn.material.equals(bo3StoneBlock))
 								{
 									blockToQueueForSpawn.material = biomeConfig.getStoneBlockReplaced(blockToQueueForSpawn.y);
-									setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+									setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 									continue;
 								}
 								else if(blockToQueueForSpawn.material.equals(bo3SurfaceBlock))
 								{
-									blockAbove = worldGenRegion.getMaterial(blockToQueueForSpawn.x, blockToQueueForSpawn.y + 1, blockToQueueForSpawn.z);
+									blockAbove = chunkView.getMaterial(blockToQueueForSpawn.x & 0xF, blockToQueueForSpawn.y + 1, blockToQueueForSpawn.z & 0xF);
 									if(blockAbove != null && (blockAbove.isSolid() || blockAbove.isLiquid()))
 									{
 										blockToQueueForSpawn.material = biomeConfig.getGroundBlockAtHeight(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z);																	
@@ -536,7 +539,7 @@ public class BO4 implements StructuredCustomObject
 											blockToQueueForSpawn.material = doBiomeConfigReplaceBlocks ? newBlock.material.parseWithBiomeAndHeight(biomeConfig.biomeConfigsHaveReplacement(), biomeConfig.getReplaceBlocks(), blockToQueueForSpawn.y) : newBlock.material;
 										}
 									}
-									setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+									setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 									continue;
 								}
 							}
@@ -545,16 +548,16 @@ public class BO4 implements StructuredCustomObject
 							if(
 								spawnUnderWater && 
 								blockToQueueForSpawn.material.isMaterial(LocalMaterials.TORCH) && 
-								worldGenRegion.getMaterial(blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z).isLiquid()
+								chunkView.getMaterial(blockToQueueForSpawn.x & 0xF, blockToQueueForSpawn.y, blockToQueueForSpawn.z & 0xF).isLiquid()
 							)
 							{
 								continue;
 							}
 							if(doBiomeConfigReplaceBlocks)
 							{
-								setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn, biomeConfig.getReplaceBlocks());
+								setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn, biomeConfig.getReplaceBlocks());
 							} else {
-								setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+								setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 							}
 						} else {
 							outOfBounds = true;
@@ -607,7 +610,7 @@ public class BO4 implements StructuredCustomObject
 								destChunk = ChunkCoordinate.fromBlockCoords(blockToQueueForSpawn.x, blockToQueueForSpawn.z);
 								if(chunkCoord.equals(destChunk))
 								{
-										setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+										setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 								} else {
 									outOfBounds = true;
 								}
@@ -639,7 +642,7 @@ public class BO4 implements StructuredCustomObject
 							{
 								if(blockY < Constants.WORLD_HEIGHT)
 								{
-									sourceBlockMaterial = worldGenRegion.getMaterial(x + block.x, blockY, z + block.z);
+									sourceBlockMaterial = getMaterial(worldGenRegion, chunkView, x + block.x, blockY, z + block.z);
 									
 									if(sourceBlockMaterial != null)
 									{
@@ -665,7 +668,7 @@ public class BO4 implements StructuredCustomObject
 													blockToQueueForSpawn.material = LocalMaterials.DIRT;
 												}
 											}
-											setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+											setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 										} else {
 											outOfBounds = true;
 										}
@@ -700,18 +703,18 @@ public class BO4 implements StructuredCustomObject
 								if(blockToQueueForSpawn.material.equals(bo3GroundBlock))
 								{
 									blockToQueueForSpawn.material = biomeConfig.getGroundBlockAtHeight(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z);
-									setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+									setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 									continue;
 								}
 								else if(blockToQueueForSpawn.material.equals(bo3StoneBlock))
 								{
 									blockToQueueForSpawn.material = biomeConfig.getStoneBlockReplaced(blockToQueueForSpawn.y);
-									setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+									setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 									continue;
 								}
 								else if(blockToQueueForSpawn.material.equals(bo3SurfaceBlock))
 								{
-									blockAbove = worldGenRegion.getMaterial(blockToQueueForSpawn.x, blockToQueueForSpawn.y + 1, blockToQueueForSpawn.z);
+									blockAbove = chunkView.getMaterial(blockToQueueForSpawn.x & 0xF, blockToQueueForSpawn.y + 1, blockToQueueForSpawn.z & 0xF);
 									if(blockAbove != null && (blockAbove.isSolid() || blockAbove.isLiquid()))
 									{
 										blockToQueueForSpawn.material = biomeConfig.getGroundBlockAtHeight(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z);																	
@@ -728,7 +731,7 @@ public class BO4 implements StructuredCustomObject
 											blockToQueueForSpawn.material = doBiomeConfigReplaceBlocks ? block.material.parseWithBiomeAndHeight(biomeConfig.biomeConfigsHaveReplacement(), biomeConfig.getReplaceBlocks(), blockToQueueForSpawn.y) : block.material;
 										}
 									}
-									setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+									setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 									continue;
 								}
 							}
@@ -737,16 +740,16 @@ public class BO4 implements StructuredCustomObject
 							if(
 								spawnUnderWater && 
 								blockToQueueForSpawn.material.isMaterial(LocalMaterials.TORCH) && 
-								worldGenRegion.getMaterial(blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z).isLiquid()
+								chunkView.getMaterial(blockToQueueForSpawn.x & 0xF, blockToQueueForSpawn.y, blockToQueueForSpawn.z & 0xF).isLiquid()
 							)
 							{
 								continue;
 							}
 							if(doBiomeConfigReplaceBlocks)
 							{
-								setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn, biomeConfig.getReplaceBlocks());
+								setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn, biomeConfig.getReplaceBlocks());
 							} else {
-								setBlock(worldGenRegion, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
+								setBlock(worldGenRegion, chunkView, blockToQueueForSpawn.x, blockToQueueForSpawn.y, blockToQueueForSpawn.z, blockToQueueForSpawn.material, blockToQueueForSpawn.nbt, isStructureAtSpawn);
 							}
 						} else {
 							outOfBounds = true;
@@ -771,16 +774,26 @@ public class BO4 implements StructuredCustomObject
 		return true;
 	}
 	
-	private void setBlock(IWorldGenRegion worldGenRegion, int x, int y, int z, LocalMaterialData material, NamedBinaryTag metaDataTag, boolean isStructureAtSpawn)
+	private LocalMaterialData getMaterial(IWorldGenRegion worldGenRegion, IChunkView chunkView, int x, int y, int z)
 	{
-		setBlock(worldGenRegion, x, y, z, material, metaDataTag, isStructureAtSpawn, null);
+		if(x >> 4 == chunkView.getChunkX() && z >> 4 == chunkView.getChunkZ())
+		{
+			return chunkView.getMaterial(x & 0xF, y, z & 0xF);
+		}
+		return worldGenRegion.getMaterial(x, y, z);
+	}
+
+	// x and z are world coordinates inside the chunk of the chunkView.
+	private void setBlock(IWorldGenRegion worldGenRegion, IChunkView chunkView, int x, int y, int z, LocalMaterialData material, NamedBinaryTag metaDataTag, boolean isStructureAtSpawn)
+	{
+		setBlock(worldGenRegion, chunkView, x, y, z, material, metaDataTag, isStructureAtSpawn, null);
 	}
 	
-	private void setBlock(IWorldGenRegion worldGenRegion, int x, int y, int z, LocalMaterialData material, NamedBinaryTag metaDataTag, boolean isStructureAtSpawn, ReplaceBlockMatrix replaceBlocks)
+	private void setBlock(IWorldGenRegion worldGenRegion, IChunkView chunkView, int x, int y, int z, LocalMaterialData material, NamedBinaryTag metaDataTag, boolean isStructureAtSpawn, ReplaceBlockMatrix replaceBlocks)
 	{
 		if(worldGenRegion.getPluginConfig().getDeveloperModeEnabled())
 		{
-			LocalMaterialData worldMaterial = worldGenRegion.getMaterial(x, y, z);
+			LocalMaterialData worldMaterial = chunkView.getMaterial(x & 0xF, y, z & 0xF);
 			if(
 				worldMaterial.isMaterial(LocalMaterials.GOLD_BLOCK) ||
 				worldMaterial.isMaterial(LocalMaterials.IRON_BLOCK) ||
@@ -803,17 +816,12 @@ public class BO4 implements StructuredCustomObject
 					material.isMaterial(LocalMaterials.EMERALD_BLOCK)
 				)
 				{
-					worldGenRegion.setBlock(x, y, z, LocalMaterials.GLOWSTONE);
+					chunkView.setBlock(x & 0xF, y, z & 0xF, LocalMaterials.GLOWSTONE);
 					return;
 				}
 			}
 		}
-		if(replaceBlocks != null)
-		{
-			worldGenRegion.setBlock(x, y, z, material, metaDataTag, replaceBlocks);
-		} else {
-			worldGenRegion.setBlock(x, y, z, material, metaDataTag);
-		}
+		chunkView.setBlock(x & 0xF, y, z & 0xF, material, metaDataTag, replaceBlocks);
 	}
 
 	@Override
@@ -35,7 +35,9 @@ import com.pg85.otg.util.logging.LogLevel;
 import com.pg85.otg.util.materials.LocalMaterialData;
 import com.pg85.otg.util.minecraft.DefaultStructurePart;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -44,7 +46,6 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.zip.DataFormatException;
 
 public class BO4Config extends CustomObjectConfigFile
@@ -294,33 +295,18 @@ public class BO4Config extends CustomObjectConfigFile
 		{
 			if(this.isBO4Data && fromFile)
 			{
-				BO4Config bo4Config = null;
-				try
-				{
-					bo4Config = new BO4Config(this.reader, false, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-				}
-				catch (InvalidConfigException e)
+				BO4Config bo4Config = getBO4DataWithBlocks(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+				if(bo4Config == null)
 				{
 					if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 					{
-						logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Error fetching smoothing heightmap for BO4 " + start.getName() + ": " + e.getMessage());
+						logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Error fetching smoothing heightmap for BO4Data " + start.getName());
 					}
-				}
-				if(bo4Config != null)
-				{
-					try {
-						bo4Config.readFromBO4DataFile(true, logger, materialReader);
-					} catch (InvalidConfigException e) {
-						if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
-						{
-							logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Error fetching smoothing heightmap for BO4Data " + start.getName() + ": " + e.getMessage());
-						}
-						this.heightMap = new BO4BlockFunction[16][16];
-						return this.heightMap;
-					}
-					this.heightMap = bo4Config.getSmoothingHeightMap(start, false, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+					this.heightMap = new BO4BlockFunction[16][16];
 					return this.heightMap;
 				}
+				this.heightMap = bo4Config.getSmoothingHeightMap(start, false, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+				return this.heightMap;
 			}
 			
 			this.heightMap = new BO4BlockFunction[16][16];
@@ -406,40 +392,86 @@ public class BO4Config extends CustomObjectConfigFile
 		return this.heightMap;
 	}
 
-	BO4BlockFunction[] getBlocks(String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
-	{
-		return getBlocks(true, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-	}
-	
-	private BO4BlockFunction[] getBlocks(boolean fromFile, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	/**
+	 * BO4Data files are loaded without blocks, this returns a copy of this config
+	 * with blocks loaded from the BO4Data file. Copies are kept in the BO4DataCache
+	 * so that spawning this BO4 again doesn't need to read the file.
+	 */
+	private BO4Config getBO4DataWithBlocks(String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		if(fromFile && this.isBO4Data)
+		BO4DataCache cache = customObjectManager.getBO4DataCache();
+		BO4Config bo4Config = cache.get(this, logger);
+		if(bo4Config != null)
 		{
-			BO4Config bo4Config = null;
-			try
+			return bo4Config;
+		}
+
+		try
+		{
+			bo4Config = new BO4Config(this.reader, false, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+			bo4Config.readFromBO4DataFile(true, logger, materialReader);
+		}
+		catch (InvalidConfigException e)
+		{
+			if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 			{
-				bo4Config = new BO4Config(this.reader, false, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+				logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, " Error fetching blocks for BO4Data " + this.getName() + ": " + e.getMessage());
 			}
-			catch (InvalidConfigException e)
+			return null;
+		}
+		cache.put(this, bo4Config);
+		return bo4Config;
+	}
+
+	/**
+	 * Estimated memory used by this config's block arrays, in bytes.
+	 * Materials are shared between configs and not counted.
+	 */
+	long getBlockDataSize()
+	{
+		// Array headers and references, per column and per block
+		long size = 16 + 16 * (16 + 4 * 16);
+		if(this.blocks == null)
+		{
+			return size;
+		}
+		int blockCount = this.blocksMaterial.length;
+		size += 5 * 16 + blockCount * (2 + 8 * 4 + 1);
+		for(int x = 0; x < this.xSize; x++)
+		{
+			for(int z = 0; z < this.zSize; z++)
 			{
-				if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+				if(this.blocks[x][z] != null)
 				{
-					logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, " Error fetching blocks for BO4 " + this.getName() + ": " + e.getMessage());
+					size += 16;
 				}
 			}
-			if(bo4Config != null)
+		}
+		for(int i = 0; i < blockCount; i++)
+		{
+			if(this.blocksMetaDataName[i] != null)
 			{
-				try {
-					bo4Config.readFromBO4DataFile(true, logger, materialReader);
-				} catch (InvalidConfigException e) {
-					if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
-					{
-						logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, " Error fetching blocks for BO4Data " + this.getName() + ": " + e.getMessage());
-					}
-					return null;
-				}
-				return bo4Config.getBlocks(false, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+				size += 40 + 2 * this.blocksMetaDataName[i].length();
 			}
+			if(this.randomBlocksBlocks[i] != null)
+			{
+				size += 4 * 16 + this.randomBlocksBlocks[i].length * (3 * 4 + 1);
+			}
+		}
+		return size;
+	}
+
+	BO4BlockFunction[] getBlocks(String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	{
+		return getBlocks(true, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+	}
+	
+	private BO4BlockFunction[] getBlocks(boolean fromFile, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	{
+		if(fromFile && this.isBO4Data)
+		{
+			BO4Config bo4Config = getBO4DataWithBlocks(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+			return bo4Config != null ? bo4Config.getBlocks(false, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker) : null;
 		}
 		
 		BO4BlockFunction[] blocksOTGPlus = new BO4BlockFunction[this.blocksMaterial.length];
@@ -1359,12 +1391,17 @@ public class BO4Config extends CustomObjectConfigFile
 		}
 	}
 
-	private int bo4DataVersion = 4;
-	void writeToStream(DataOutput stream, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker) throws IOException
+	// Version 5+ BO4Data files are not compressed, so they can be mapped and read
+	// without inflating the whole file first. See writeBlocksToStream.
+	static final int BO4_DATA_VERSION = 6;
+	void writeToStream(DataOutput stream, long sourceHash, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker) throws IOException
 	{		
-		stream.writeInt(this.bo4DataVersion);
+		stream.writeInt(BO4_DATA_VERSION);
 		// Version 3 added fixedRotation
 		// Version 4 changed all enumerators to ordinals (instead of strings)
+		// Version 5 added the block palettes and column index, and is no longer compressed
+		// Version 6 added the hash of the BO4 file, see BO4Data.getSourceHash
+		stream.writeLong(sourceHash);
 		stream.writeByte(this.fixedRotation == null ? 0xff : this.fixedRotation.ordinal());
 		stream.writeInt(this.minimumSizeTop);
 		stream.writeInt(this.minimumSizeBottom);
@@ -1437,170 +1474,103 @@ public class BO4Config extends CustomObjectConfigFile
 			func.writeToStream(stream);
 		}
 
-		BO4BlockFunction[] blocks = getBlocks(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-		stream.writeBoolean(blocks.length > 0);  // hasBlocks
-		if (blocks.length > 0) {
-			ArrayList<LocalMaterialData> materials = new ArrayList<>();
-			ArrayList<String> metaDataNames = new ArrayList<>();
-			int randomBlockCount = 0;
-			for (BO4BlockFunction block : blocks) {
-				if (block instanceof BO4RandomBlockFunction) {
-					randomBlockCount++;
-					for (LocalMaterialData material : ((BO4RandomBlockFunction) block).blocks) {
-						if (!materials.contains(material)) {
-							materials.add(material);
-						}
+		writeBlocksToStream(stream, getBlocks(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker));
+	}
+
+	/**
+	 * Writes the blocks section of a BO4Data file:
+	 * - The metadata name and material palettes.
+	 * - An index with an offset, block count and random block count for each column.
+	 * - The blocks for each column, non-random blocks first.
+	 * Offsets are relative to the end of the index, so blocks can be read per column.
+	 */
+	private void writeBlocksToStream(DataOutput stream, BO4BlockFunction[] blocks) throws IOException
+	{
+		ArrayList<String> metaDataNames = new ArrayList<String>();
+		ArrayList<LocalMaterialData> materials = new ArrayList<LocalMaterialData>();
+		HashSet<String> metaDataNamesSet = new HashSet<String>();
+		HashSet<LocalMaterialData> materialsSet = new HashSet<LocalMaterialData>();
+		// Indexed x * zSize + z
+		ArrayList<ArrayList<BO4BlockFunction>> columnBlocks = new ArrayList<ArrayList<BO4BlockFunction>>(this.xSize * this.zSize);
+		ArrayList<ArrayList<BO4BlockFunction>> columnRandomBlocks = new ArrayList<ArrayList<BO4BlockFunction>>(this.xSize * this.zSize);
+		for(int i = 0; i < this.xSize * this.zSize; i++)
+		{
+			columnBlocks.add(new ArrayList<BO4BlockFunction>());
+			columnRandomBlocks.add(new ArrayList<BO4BlockFunction>());
+		}
+		for(BO4BlockFunction block : blocks)
+		{
+			if(block instanceof BO4RandomBlockFunction)
+			{
+				columnRandomBlocks.get(block.x * this.zSize + block.z).add(block);
+				for(int i = 0; i < ((BO4RandomBlockFunction)block).blocks.length; i++)
+				{
+					if(((BO4RandomBlockFunction)block).blocks[i] != null && materialsSet.add(((BO4RandomBlockFunction)block).blocks[i]))
+					{
+						materials.add(((BO4RandomBlockFunction)block).blocks[i]);
+					}
+					if(((BO4RandomBlockFunction)block).metaDataNames[i] != null && metaDataNamesSet.add(((BO4RandomBlockFunction)block).metaDataNames[i]))
+					{
+						metaDataNames.add(((BO4RandomBlockFunction)block).metaDataNames[i]);
 					}
 				}
-
-				if (block.material != null && !materials.contains(block.material)) {
+			} else {
+				columnBlocks.get(block.x * this.zSize + block.z).add(block);
+				if(block.material != null && materialsSet.add(block.material))
+				{
 					materials.add(block.material);
 				}
-				if (block.nbtName != null && !metaDataNames.contains(block.nbtName)) {
+				if(block.nbtName != null && metaDataNamesSet.add(block.nbtName))
+				{
 					metaDataNames.add(block.nbtName);
 				}
 			}
+		}
 
-			metaDataNames.add(0, null);
-			materials.add(0, null);
-
-			String[] metaDataNamesArr = metaDataNames.toArray(new String[0]);
-			LocalMaterialData[] blocksArr = materials.toArray(new LocalMaterialData[0]);
-
-			stream.writeShort(blocksArr.length);
-			for (int i = 1; i < blocksArr.length; i++) {
-				StreamHelper.writeStringToStream(stream, blocksArr[i].getName());
-			}
-
-			int bitsPerBlock = 32 - Integer.numberOfLeadingZeros(blocksArr.length);
-
-
-			// TODO: This assumes that loading blocks in a different order won't matter, which may not be true?
-			// Anything that spawns on top, entities/spawners etc, should be spawned last tho, so shouldn't be a problem?
-
-			// TODO: is it possible to use values we already have?
-			int minX = Integer.MAX_VALUE;
-			int maxX = Integer.MIN_VALUE;
-			int minY = Integer.MAX_VALUE;
-			int maxY = Integer.MIN_VALUE;
-			int minZ = Integer.MAX_VALUE;
-			int maxZ = Integer.MIN_VALUE;
-			for (BO4BlockFunction block : blocks) {
-				if (block.x < minX) {
-					minX = block.x;
-				}
-				if (block.x > maxX) {
-					maxX = block.x;
-				}
-				if (block.y < minY) {
-					minY = block.y;
-				}
-				if (block.y > maxY) {
-					maxY = block.y;
-				}
-				if (block.z < minZ) {
-					minZ = block.z;
-				}
-				if (block.z > maxZ) {
-					maxZ = block.z;
-				}
-			}
-
-			maxX += 1;
-			maxY += 1;
-			maxZ += 1;
-
-			stream.writeShort(minX);
-			stream.writeShort(maxX);
-			stream.writeShort(minY);
-			stream.writeShort(maxY);
-			stream.writeShort(minZ);
-			stream.writeShort(maxZ);
-
-			// Convert the blocks to a 1-dimensional array
-//		int sizeX = xSize - this.getminX();
-			int sizeX = maxX - minX;
-			int sizeY = maxY - minY;
-//		int sizeZ = this.zSize - this.getminZ();
-			int sizeZ = maxZ - minZ;
-			List<BO4BlockFunction> blocksFlat = Arrays.asList(new BO4BlockFunction[sizeX * sizeY * sizeZ]);
-
-			for (BO4BlockFunction block : blocks) {
-				int normX = block.x - minX;
-				int normY = block.y - minY;
-				int normZ = block.z - minZ;
-				int idx = (normZ * sizeX * sizeY) + (normY * sizeX) + normX;
-//			System.out.printf("%d %d %d : %d%n", normX, normY, normZ, idx);
-				blocksFlat.set(idx, block);
-			}
-
-			// Pack them to the stream
-			long currentLong = 0;
-			int bitpos = 0;
-			for (BO4BlockFunction block : blocksFlat) {
-				int material = 0;
-				if (block != null) {
-					material = materials.indexOf(block.material);
-					if (material == -1) {
-						material = 0;  // 0 will always be null
-					}
-				}
+		String[] metaDataNamesArr = metaDataNames.toArray(new String[0]);
+		LocalMaterialData[] blocksArr = materials.toArray(new LocalMaterialData[0]);
+		stream.writeShort(metaDataNamesArr.length);
+		for(String metaDataName : metaDataNamesArr)
+		{
+			StreamHelper.writeStringToStream(stream, metaDataName);
+		}
+		stream.writeShort(blocksArr.length);
+		for(LocalMaterialData material : blocksArr)
+		{
+			StreamHelper.writeStringToStream(stream, material.getName());
+		}
 
-				currentLong |= ((long) material << bitpos);
-				bitpos += bitsPerBlock;
-				if ((bitpos + bitsPerBlock) >= 64) {  // will the next block overflow?
-					// write the long to the stream
-					stream.writeLong(currentLong);
-					// reset the state
-					bitpos = 0;
-					currentLong = 0;
+		// Write the column data first so we know the offsets for the index.
+		ByteArrayOutputStream columnData = new ByteArrayOutputStream();
+		DataOutputStream columnStream = new DataOutputStream(columnData);
+		int[][] columnOffsets = new int[this.xSize][this.zSize];
+		for(int x = 0; x < this.xSize; x++)
+		{
+			for(int z = 0; z < this.zSize; z++)
+			{
+				columnOffsets[x][z] = columnStream.size();
+				for(BO4BlockFunction block : columnBlocks.get(x * this.zSize + z))
+				{
+					block.writeToStream(metaDataNamesArr, blocksArr, columnStream);
 				}
-			}
-
-			// TODO: rewrite this for v4
-			stream.writeInt(randomBlockCount);
-			int randomBlockIndex = 0;
-			if (randomBlockCount > 0) {
-				for (int x = this.getminX(); x < xSize; x++) {
-					for (int z = this.getminZ(); z < zSize; z++) {
-						List<BO4BlockFunction> blocksInColumn = new ArrayList<>();
-						for (BO4BlockFunction blockFunction : blocks) {
-							if (blockFunction instanceof BO4RandomBlockFunction) {
-								if (blockFunction.x == x && blockFunction.z == z) {
-									blocksInColumn.add(blockFunction);
-								}
-							}
-						}
-						stream.writeShort(blocksInColumn.size());
-						if (!blocksInColumn.isEmpty()) {
-							for (BO4BlockFunction blockFunction : blocksInColumn) {
-								blockFunction.writeToStream(metaDataNamesArr, blocksArr, stream);
-								randomBlockIndex++;
-							}
-						}
-						if (randomBlockIndex == randomBlockCount) {
-							break;
-						}
-					}
-					if (randomBlockIndex == randomBlockCount) {
-						break;
-					}
+				for(BO4BlockFunction block : columnRandomBlocks.get(x * this.zSize + z))
+				{
+					block.writeToStream(metaDataNamesArr, blocksArr, columnStream);
 				}
 			}
+		}
+		columnStream.flush();
 
-			// Write NBT details
-			List<BO4BlockFunction> nbtBlocks = Arrays.stream(blocks)
-					.filter(b -> (b != null) && (b.nbtName != null))
-					.collect(Collectors.toList());
-
-			stream.writeInt(nbtBlocks.size());
-			for (BO4BlockFunction block : nbtBlocks) {
-				stream.writeShort(block.x);
-				stream.writeShort(block.y);
-				stream.writeShort(block.z);
-				stream.writeUTF(block.nbtName);
+		for(int x = 0; x < this.xSize; x++)
+		{
+			for(int z = 0; z < this.zSize; z++)
+			{
+				stream.writeInt(columnOffsets[x][z]);
+				stream.writeShort(columnBlocks.get(x * this.zSize + z).size());
+				stream.writeShort(columnRandomBlocks.get(x * this.zSize + z).size());
 			}
 		}
+		stream.write(columnData.toByteArray());
 	}
 
 	private BO4Config readFromBO4DataFile(boolean getBlocks, ILogger logger, IMaterialReader materialReader) throws InvalidConfigException
@@ -1614,13 +1584,21 @@ public class BO4Config extends CustomObjectConfigFile
 			try
 			{
 				bufferCompressed = fis.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, fis.getChannel().size());
-				byte[] compressedBytes = new byte[(int) fis.getChannel().size()];
-				bufferCompressed.get(compressedBytes);
-				try {
-					byte[] decompressedBytes = com.pg85.otg.util.CompressionUtils.decompress(compressedBytes);
-					bufferDecompressed = ByteBuffer.wrap(decompressedBytes);
-				} catch (DataFormatException e1) {
-					e1.printStackTrace();
+				// Version 5+ files aren't compressed and can be read directly from the
+				// mapped file, older files start with a zlib header.
+				int fileVersion = bufferCompressed.getInt(0);
+				if(fileVersion >= 5 && fileVersion <= BO4_DATA_VERSION)
+				{
+					bufferDecompressed = bufferCompressed;
+				} else {
+					byte[] compressedBytes = new byte[(int) fis.getChannel().size()];
+					bufferCompressed.get(compressedBytes);
+					try {
+						byte[] decompressedBytes = com.pg85.otg.util.CompressionUtils.decompress(compressedBytes);
+						bufferDecompressed = ByteBuffer.wrap(decompressedBytes);
+					} catch (DataFormatException e1) {
+						e1.printStackTrace();
+					}
 				}
 
 				//buffer.get(data, 0, remaining);
@@ -1657,12 +1635,22 @@ public class BO4Config extends CustomObjectConfigFile
 					}
 					throw new InvalidConfigException("Could not read BO4Data file " + this.reader.getName() + ", it is outdated. Delete and re-export BO4Data files to fix this, or delete and reinstall your OTG preset.");
 				}
+				// Version 6 added the hash of the BO4 file, only used when exporting
+				if(bo4DataVersion > 5)
+				{
+					bufferDecompressed.getLong();
+				}
 				// Version 3 added fixedRotation
-				if(bo4DataVersion > 2)
+				if(bo4DataVersion == 3)
 				{
 					String rotationString = StreamHelper.readStringFromBuffer(bufferDecompressed);
 					this.fixedRotation = Rotation.getRotation(rotationString);
 				}
+				else if(bo4DataVersion > 3)
+				{
+					int rotationOrdinal = bufferDecompressed.get() & 0xff;
+					this.fixedRotation = rotationOrdinal == 0xff ? null : Rotation.values()[rotationOrdinal];
+				}
 				
 				int minimumSizeTop = bufferDecompressed.getInt();
 				int minimumSizeBottom = bufferDecompressed.getInt();
@@ -1894,24 +1882,62 @@ public class BO4Config extends CustomObjectConfigFile
 					}
 									
 					columnSizes = new short[this.xSize][this.zSize];
-							
-					// TODO: This assumes that loading blocks in a different order won't matter, which may not be true?
-					// Anything that spawns on top, entities/spawners etc, should be spawned last tho, so shouldn't be a problem?
-					int nonRandomBlockCount = bufferDecompressed.getInt();
-					int nonRandomBlockIndex = 0;
 					ArrayList<BO4BlockFunction> nonRandomBlocks = new ArrayList<BO4BlockFunction>();
-					if(nonRandomBlockCount > 0)
+					ArrayList<BO4RandomBlockFunction> randomBlocks = new ArrayList<BO4RandomBlockFunction>();
+					if(bo4DataVersion >= 5)
 					{
-						for(int x = this.getminX(); x < this.xSize; x++)
+						// Blocks are stored per column, the index holds the offset and block counts of each column.
+						int indexStart = bufferDecompressed.position();
+						int columnDataStart = indexStart + this.xSize * this.zSize * 8;
+						int columnOffset;
+						short blocksInColumnSize;
+						short randomBlocksInColumnSize;
+						for(int x = 0; x < this.xSize; x++)
 						{
-							for(int z = this.getminZ(); z < this.zSize; z++)
+							for(int z = 0; z < this.zSize; z++)
 							{
-								short blocksInColumnSize = bufferDecompressed.getShort();
+								bufferDecompressed.position(indexStart + (x * this.zSize + z) * 8);
+								columnOffset = bufferDecompressed.getInt();
+								blocksInColumnSize = bufferDecompressed.getShort();
+								randomBlocksInColumnSize = bufferDecompressed.getShort();
+								if(blocksInColumnSize == 0 && randomBlocksInColumnSize == 0)
+								{
+									continue;
+								}
+								bufferDecompressed.position(columnDataStart + columnOffset);
 								for(int j = 0; j < blocksInColumnSize; j++)
 								{
-									columnSizes[x][z]++;
 									nonRandomBlocks.add(BO4BlockFunction.fromStream(x, z, metaDataNames, blocksArr, this, bufferDecompressed, logger));
-									nonRandomBlockIndex++;
+								}
+								for(int j = 0; j < randomBlocksInColumnSize; j++)
+								{
+									randomBlocks.add(BO4RandomBlockFunction.fromStream(x, z, metaDataNames, blocksArr, this, bufferDecompressed, logger));
+								}
+								columnSizes[x][z] = (short)(blocksInColumnSize + randomBlocksInColumnSize);
+							}
+						}
+					} else {
+						// TODO: This assumes that loading blocks in a different order won't matter, which may not be true?
+						// Anything that spawns on top, entities/spawners etc, should be spawned last tho, so shouldn't be a problem?
+						int nonRandomBlockCount = bufferDecompressed.getInt();
+						int nonRandomBlockIndex = 0;
+						if(nonRandomBlockCount > 0)
+						{
+							for(int x = this.getminX(); x < this.xSize; x++)
+							{
+								for(int z = this.getminZ(); z < this.zSize; z++)
+								{
+									short blocksInColumnSize = bufferDecompressed.getShort();
+									for(int j = 0; j < blocksInColumnSize; j++)
+									{
+										columnSizes[x][z]++;
+										nonRandomBlocks.add(BO4BlockFunction.fromStream(x, z, metaDataNames, blocksArr, this, bufferDecompressed, logger));
+										nonRandomBlockIndex++;
+										if(nonRandomBlockCount == nonRandomBlockIndex)
+										{
+											break;
+										}
+									}
 									if(nonRandomBlockCount == nonRandomBlockIndex)
 									{
 										break;
@@ -1922,28 +1948,27 @@ public class BO4Config extends CustomObjectConfigFile
 									break;
 								}
 							}
-							if(nonRandomBlockCount == nonRandomBlockIndex)
-							{
-								break;
-							}
-						}
-					}				
+						}				
 									
-					int randomBlockCount = bufferDecompressed.getInt();
-					int randomBlockIndex = 0;
-					ArrayList<BO4RandomBlockFunction> randomBlocks = new ArrayList<BO4RandomBlockFunction>();
-					if(randomBlockCount > 0)
-					{
-						for(int x = this.getminX(); x < this.xSize; x++)
+						int randomBlockCount = bufferDecompressed.getInt();
+						int randomBlockIndex = 0;
+						if(randomBlockCount > 0)
 						{
-							for(int z = this.getminZ(); z < this.zSize; z++)
+							for(int x = this.getminX(); x < this.xSize; x++)
 							{
-								short blocksInColumnSize = bufferDecompressed.getShort();
-								for(int j = 0; j < blocksInColumnSize; j++)
+								for(int z = this.getminZ(); z < this.zSize; z++)
 								{
-									columnSizes[x][z]++;
-									randomBlocks.add(BO4RandomBlockFunction.fromStream(x, z, metaDataNames, blocksArr, this, bufferDecompressed, logger));
-									randomBlockIndex++;
+									short blocksInColumnSize = bufferDecompressed.getShort();
+									for(int j = 0; j < blocksInColumnSize; j++)
+									{
+										columnSizes[x][z]++;
+										randomBlocks.add(BO4RandomBlockFunction.fromStream(x, z, metaDataNames, blocksArr, this, bufferDecompressed, logger));
+										randomBlockIndex++;
+										if(randomBlockCount == randomBlockIndex)
+										{
+											break;
+										}
+									}
 									if(randomBlockCount == randomBlockIndex)
 									{
 										break;
@@ -1954,10 +1979,6 @@ public class BO4Config extends CustomObjectConfigFile
 									break;
 								}
 							}
-							if(randomBlockCount == randomBlockIndex)
-							{
-								break;
-							}
 						}
 					}
 									
@@ -1,7 +1,11 @@
 package com.pg85.otg.customobject.bo4;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import com.pg85.otg.customobject.CustomObjectManager;
 import com.pg85.otg.customobject.config.CustomObjectResourcesManager;
@@ -11,24 +15,104 @@ import com.pg85.otg.interfaces.IModLoadedChecker;
 
 public class BO4Data
 {
+	private static final String[] SOURCE_FILE_EXTENSIONS = new String[] { ".BO4", ".bo4", ".BO3", ".bo3" };
+
 	public static boolean bo4DataExists(BO4Config config)
 	{
-		String filePath = 
-			config.getFile().getAbsolutePath().endsWith(".BO4") ? config.getFile().getAbsolutePath().replace(".BO4", ".BO4Data") :
-			config.getFile().getAbsolutePath().endsWith(".bo4") ? config.getFile().getAbsolutePath().replace(".bo4", ".BO4Data") :
-			config.getFile().getAbsolutePath().endsWith(".BO3") ? config.getFile().getAbsolutePath().replace(".BO3", ".BO4Data") :
-			config.getFile().getAbsolutePath().endsWith(".bo3") ? config.getFile().getAbsolutePath().replace(".bo3", ".BO4Data") :
-			config.getFile().getAbsolutePath();
+		return getBO4DataFile(config.getFile()).exists();
+	}
+
+	/**
+	 * Returns the .BO4Data file for the given .BO4 / .BO3 file.
+	 */
+	public static File getBO4DataFile(File sourceFile)
+	{
+		String filePath =
+			sourceFile.getAbsolutePath().endsWith(".BO4") ? sourceFile.getAbsolutePath().replace(".BO4", ".BO4Data") :
+			sourceFile.getAbsolutePath().endsWith(".bo4") ? sourceFile.getAbsolutePath().replace(".bo4", ".BO4Data") :
+			sourceFile.getAbsolutePath().endsWith(".BO3") ? sourceFile.getAbsolutePath().replace(".BO3", ".BO4Data") :
+			sourceFile.getAbsolutePath().endsWith(".bo3") ? sourceFile.getAbsolutePath().replace(".bo3", ".BO4Data") :
+			sourceFile.getAbsolutePath();
+
+		return new File(filePath);
+	}
+
+	/**
+	 * Returns the .BO4 / .BO3 file the given .BO4Data file was exported from,
+	 * or null if it doesn't exist (anymore).
+	 */
+	public static File getSourceFile(File bo4DataFile)
+	{
+		String filePath = bo4DataFile.getAbsolutePath();
+		int index = filePath.lastIndexOf('.');
+		if(index == -1)
+		{
+			return null;
+		}
+		for(String extension : SOURCE_FILE_EXTENSIONS)
+		{
+			File sourceFile = new File(filePath.substring(0, index) + extension);
+			if(sourceFile.exists())
+			{
+				return sourceFile;
+			}
+		}
+		return null;
+	}
 
-		File file = new File(filePath);
-		return file.exists();
+	/**
+	 * Hashes the contents of a .BO4 / .BO3 file, the hash is stored in the
+	 * .BO4Data file so we can tell if it needs to be exported again.
+	 *
+	 * @return The hash, or 0 if the file could not be read.
+	 */
+	public static long getSourceHash(File sourceFile)
+	{
+		try
+		{
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(sourceFile.toPath()));
+			long hash = 0;
+			for(int i = 0; i < 8; i++)
+			{
+				hash = (hash << 8) | (digest[i] & 0xff);
+			}
+			// 0 is used for BO4Data files without a hash
+			return hash == 0 ? 1 : hash;
+		}
+		catch (IOException | NoSuchAlgorithmException e)
+		{
+			return 0;
+		}
+	}
+
+	/**
+	 * Checks if the .BO4Data file for the given .BO4 / .BO3 file exists and
+	 * was exported from a file with the given hash. BO4Data files from before
+	 * version 6 have no hash and are never up to date.
+	 */
+	public static boolean isBO4DataUpToDate(File sourceFile, long sourceHash)
+	{
+		File file = getBO4DataFile(sourceFile);
+		if(sourceHash == 0 || !file.exists())
+		{
+			return false;
+		}
+		try(DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 12)))
+		{
+			int version = stream.readInt();
+			return version >= 6 && version <= BO4Config.BO4_DATA_VERSION && stream.readLong() == sourceHash;
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
 	}
 
 	public static void generateBO4DataToStream(BO4Config config, DataOutputStream stream, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker, boolean compress) {
 		try {
 			ByteArrayOutputStream bos = new ByteArrayOutputStream();
 			DataOutputStream dos = new DataOutputStream(bos);
-			config.writeToStream(dos, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+			config.writeToStream(dos, getSourceHash(config.getFile()), presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
 			if (compress) {
 				byte[] compressedBytes = com.pg85.otg.util.CompressionUtils.compress(bos.toByteArray(), logger);
 				stream.write(compressedBytes, 0, compressedBytes.length);
@@ -42,39 +126,45 @@ public class BO4Data
 			e.printStackTrace();
 		}
 	}
-	
+
 	public static void generateBO4Data(BO4Config config, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		//write to disk
-		String filePath = 
-			config.getFile().getAbsolutePath().endsWith(".BO4") ? config.getFile().getAbsolutePath().replace(".BO4", ".BO4Data") :
-			config.getFile().getAbsolutePath().endsWith(".bo4") ? config.getFile().getAbsolutePath().replace(".bo4", ".BO4Data") :
-			config.getFile().getAbsolutePath().endsWith(".BO3") ? config.getFile().getAbsolutePath().replace(".BO3", ".BO4Data") :
-			config.getFile().getAbsolutePath().endsWith(".bo3") ? config.getFile().getAbsolutePath().replace(".bo3", ".BO4Data") :
-			config.getFile().getAbsolutePath();
+		if(!bo4DataExists(config))
+		{
+			writeBO4Data(config, getSourceHash(config.getFile()), presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+		}
+	}
 
-		File file = new File(filePath);
-		if(!file.exists())
+	/**
+	 * Writes the .BO4Data file for the given BO4, replacing any existing file.
+	 * The file is written to a temporary file first, so other threads and
+	 * interrupted exports never see a partially written file.
+	 *
+	 * @param sourceHash The hash of the .BO4 / .BO3 file, see getSourceHash.
+	 */
+	static boolean writeBO4Data(BO4Config config, long sourceHash, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	{
+		//write to disk
+		File file = getBO4DataFile(config.getFile());
+		File tempFile = new File(file.getAbsolutePath() + ".tmp");
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			DataOutputStream dos = new DataOutputStream(bos);
+			config.writeToStream(dos, sourceHash, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+			dos.close();
+			// BO4Data files aren't compressed since version 5, so they can be
+			// mapped and only the parts that are needed read when loading.
+			FileOutputStream fos = new FileOutputStream(tempFile);
+			bos.writeTo(fos);
+			fos.close();
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		}
+		catch (IOException e)
 		{
-			try {
-				ByteArrayOutputStream bos = new ByteArrayOutputStream();
-				DataOutputStream dos = new DataOutputStream(bos);
-				config.writeToStream(dos, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-				byte[] compressedBytes = com.pg85.otg.util.CompressionUtils.compress(bos.toByteArray(), logger);
-				dos.close();
-				FileOutputStream fos = new FileOutputStream(file);
-				DataOutputStream dos2 = new DataOutputStream(fos);
-				dos2.write(compressedBytes, 0, compressedBytes.length);
-				dos2.close();
-			}
-			catch (FileNotFoundException e)
-			{
-				e.printStackTrace();
-			}
-			catch (IOException e)
-			{
-				e.printStackTrace();
-			}
+			e.printStackTrace();
+			tempFile.delete();
+			return false;
 		}
 	}
 }
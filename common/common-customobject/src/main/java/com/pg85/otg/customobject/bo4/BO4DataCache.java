@@ -0,0 +1,113 @@
+package com.pg85.otg.customobject.bo4;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.pg85.otg.interfaces.ILogger;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
+
+/**
+ * Keeps the block data of recently used BO4Data files in memory, so spawning
+ * the same BO4 again doesn't have to read and decompress its file. BO4Data
+ * configs only load their blocks when spawning, to keep memory usage down for
+ * large presets, so the cache is limited by the estimated size of the block
+ * data it holds, evicting the least recently used files first.
+ *
+ * Entries are BO4Configs with their blocks loaded from the BO4Data file,
+ * keyed by the config they were loaded for. Cleared when custom objects are
+ * reloaded.
+ */
+public class BO4DataCache
+{
+	private static final int STATS_INTERVAL = 1024;
+
+	private final long maxSize;
+	private final LinkedHashMap<BO4Config, BO4Config> entries = new LinkedHashMap<BO4Config, BO4Config>(16, 0.75f, true);
+	private final HashMap<BO4Config, Long> entrySizes = new HashMap<BO4Config, Long>();
+	private long size = 0;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/**
+	 * @param maxSizeMB Maximum estimated size of the cached block data in MB, 0 disables caching.
+	 */
+	public BO4DataCache(int maxSizeMB)
+	{
+		this.maxSize = maxSizeMB * 1024l * 1024l;
+	}
+
+	/**
+	 * Returns the config with loaded blocks cached for the given BO4Data config,
+	 * or null if there is none.
+	 */
+	BO4Config get(BO4Config config, ILogger logger)
+	{
+		BO4Config loadedConfig;
+		synchronized(this.entries)
+		{
+			loadedConfig = this.entries.get(config);
+			if(loadedConfig != null)
+			{
+				this.hits++;
+				return loadedConfig;
+			}
+			this.misses++;
+			if(this.misses % STATS_INTERVAL == 0 && logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+			{
+				logger.log(LogLevel.INFO, LogCategory.PERFORMANCE, "BO4Data cache: " + this.entries.size() + " files, " + (this.size / 1024 / 1024) + "/" + (this.maxSize / 1024 / 1024) + " MB, hits " + this.hits + ", misses " + this.misses + ", evictions " + this.evictions);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Caches the given config with loaded blocks for the given BO4Data config,
+	 * evicting the least recently used files until the cache fits its maximum size.
+	 */
+	void put(BO4Config config, BO4Config loadedConfig)
+	{
+		long entrySize = loadedConfig.getBlockDataSize();
+		if(entrySize > this.maxSize)
+		{
+			return;
+		}
+		synchronized(this.entries)
+		{
+			// Another thread may have loaded this file in the meantime
+			if(this.entries.put(config, loadedConfig) != null)
+			{
+				this.size -= this.entrySizes.get(config).longValue();
+			}
+			this.entrySizes.put(config, Long.valueOf(entrySize));
+			this.size += entrySize;
+
+			Iterator<Map.Entry<BO4Config, BO4Config>> iterator = this.entries.entrySet().iterator();
+			Map.Entry<BO4Config, BO4Config> eldest;
+			while(this.size > this.maxSize && iterator.hasNext())
+			{
+				eldest = iterator.next();
+				if(eldest.getKey() == config)
+				{
+					continue;
+				}
+				this.size -= this.entrySizes.remove(eldest.getKey()).longValue();
+				iterator.remove();
+				this.evictions++;
+			}
+		}
+	}
+
+	public void clear()
+	{
+		synchronized(this.entries)
+		{
+			this.entries.clear();
+			this.entrySizes.clear();
+			this.size = 0;
+		}
+	}
+}
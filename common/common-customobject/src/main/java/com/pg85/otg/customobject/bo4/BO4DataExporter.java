@@ -0,0 +1,220 @@
+package com.pg85.otg.customobject.bo4;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.pg85.otg.constants.Constants;
+import com.pg85.otg.customobject.CustomObject;
+import com.pg85.otg.customobject.CustomObjectLoader;
+import com.pg85.otg.customobject.CustomObjectManager;
+import com.pg85.otg.customobject.config.CustomObjectResourcesManager;
+import com.pg85.otg.interfaces.ILogger;
+import com.pg85.otg.interfaces.IMaterialReader;
+import com.pg85.otg.interfaces.IModLoadedChecker;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
+
+/**
+ * Exports the BO4's of a preset as .BO4Data files. Only exports BO4's that
+ * have no .BO4Data file yet, or whose .BO4 / .BO3 file has changed since it
+ * was exported, see BO4Data.getSourceHash.
+ *
+ * BO4's are loaded from their .BO4 / .BO3 files directly (not via the
+ * CustomObjectCollection, which prefers .BO4Data files) and exported on a
+ * pool of worker threads.
+ */
+public class BO4DataExporter
+{
+	private final int threads;
+	private final String presetFolderName;
+	private final Path otgRootFolder;
+	private final ILogger logger;
+	private final CustomObjectManager customObjectManager;
+	private final IMaterialReader materialReader;
+	private final CustomObjectResourcesManager manager;
+	private final IModLoadedChecker modLoadedChecker;
+
+	private final AtomicInteger current = new AtomicInteger();
+	private final AtomicInteger exported = new AtomicInteger();
+	private volatile int total = 0;
+
+	public BO4DataExporter(int threads, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	{
+		this.threads = Math.max(1, threads);
+		this.presetFolderName = presetFolderName;
+		this.otgRootFolder = otgRootFolder;
+		this.logger = logger;
+		this.customObjectManager = customObjectManager;
+		this.materialReader = materialReader;
+		this.manager = manager;
+		this.modLoadedChecker = modLoadedChecker;
+	}
+
+	/**
+	 * Returns all .BO4 and .BO3 files in the preset's objects folder.
+	 */
+	public List<File> getSourceFiles()
+	{
+		ArrayList<File> sourceFiles = new ArrayList<File>();
+		File presetFolder = new File(this.otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + this.presetFolderName);
+		File objectsFolder = new File(presetFolder, Constants.WORLD_OBJECTS_FOLDER);
+		if(!objectsFolder.exists())
+		{
+			objectsFolder = new File(presetFolder, Constants.LEGACY_WORLD_OBJECTS_FOLDER);
+		}
+		addSourceFiles(objectsFolder, sourceFiles);
+		return sourceFiles;
+	}
+
+	private void addSourceFiles(File dir, List<File> sourceFiles)
+	{
+		File[] files = dir.listFiles();
+		if(files == null)
+		{
+			return;
+		}
+		for(File file : files)
+		{
+			if(file.isDirectory())
+			{
+				addSourceFiles(file, sourceFiles);
+			} else {
+				String fileName = file.getName().toLowerCase();
+				if(fileName.endsWith(".bo4") || fileName.endsWith(".bo3"))
+				{
+					sourceFiles.add(file);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the .BO4 / .BO3 file the given BO4 was loaded from, or null if
+	 * it was loaded from a .BO4Data file that has no source file.
+	 */
+	public static File getSourceFile(BO4 bo4)
+	{
+		File file = bo4.getConfig().getFile();
+		return bo4.getConfig().isBO4Data ? BO4Data.getSourceFile(file) : file;
+	}
+
+	public boolean isUpToDate(File sourceFile)
+	{
+		return BO4Data.isBO4DataUpToDate(sourceFile, BO4Data.getSourceHash(sourceFile));
+	}
+
+	/**
+	 * Loads a BO4 from a .BO4 / .BO3 file, without adding it to the loaded objects.
+	 *
+	 * @return The BO4, or null if the file is not a valid BO4 (or is a BO3).
+	 */
+	public BO4 loadBO4(File sourceFile)
+	{
+		String objectName = sourceFile.getName().substring(0, sourceFile.getName().lastIndexOf('.'));
+
+		// BO3's are only exported if they're BO4's with isOTGPlus:true, which fail to load as BO3.
+		if(sourceFile.getName().toLowerCase().endsWith(".bo3"))
+		{
+			CustomObjectLoader bo3Loader = this.customObjectManager.getObjectLoaders().get("bo3");
+			CustomObject bo3 = bo3Loader != null ? bo3Loader.loadFromFile(objectName, sourceFile, this.logger) : null;
+			if(bo3 != null && bo3.onEnable(this.presetFolderName, this.otgRootFolder, this.logger, this.customObjectManager, this.materialReader, this.manager, this.modLoadedChecker))
+			{
+				return null;
+			}
+		}
+
+		BO4 bo4 = new BO4(objectName, sourceFile);
+		if(!bo4.onEnable(this.presetFolderName, this.otgRootFolder, this.logger, this.customObjectManager, this.materialReader, this.manager, this.modLoadedChecker))
+		{
+			return null;
+		}
+		return bo4;
+	}
+
+	/**
+	 * Exports the .BO4Data file for a BO4 loaded with loadBO4.
+	 */
+	public boolean export(BO4 bo4, File sourceFile)
+	{
+		// Loading may have rewritten the source file (settings / comments),
+		// so hash it afterwards.
+		if(BO4Data.writeBO4Data(bo4.getConfig(), BO4Data.getSourceHash(sourceFile), this.presetFolderName, this.otgRootFolder, this.logger, this.customObjectManager, this.materialReader, this.manager, this.modLoadedChecker))
+		{
+			this.exported.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Exports all given files that aren't up to date, using the worker threads.
+	 * Blocks until all files have been exported.
+	 *
+	 * @return The amount of exported files.
+	 */
+	public int exportAll(List<File> sourceFiles) throws InterruptedException
+	{
+		this.total = sourceFiles.size();
+		this.current.set(0);
+		this.exported.set(0);
+
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+		for(File sourceFile : sourceFiles)
+		{
+			executor.execute(() -> {
+				try
+				{
+					if(!isUpToDate(sourceFile))
+					{
+						BO4 bo4 = loadBO4(sourceFile);
+						if(bo4 != null)
+						{
+							if(this.logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+							{
+								this.logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "Exporting .BO4Data for " + bo4.getName());
+							}
+							export(bo4, sourceFile);
+						}
+					}
+				}
+				catch (RuntimeException e)
+				{
+					this.logger.log(LogLevel.ERROR, LogCategory.MAIN, "Could not export .BO4Data for " + sourceFile.getName() + ": " + e.getMessage());
+				}
+				this.current.incrementAndGet();
+			});
+		}
+		executor.shutdown();
+		try
+		{
+			while(!executor.awaitTermination(1, TimeUnit.SECONDS)) { }
+		}
+		catch (InterruptedException e)
+		{
+			executor.shutdownNow();
+			throw e;
+		}
+		return this.exported.get();
+	}
+
+	public int getCurrent()
+	{
+		return this.current.get();
+	}
+
+	public int getTotal()
+	{
+		return this.total;
+	}
+
+	public int getExported()
+	{
+		return this.exported.get();
+	}
+}
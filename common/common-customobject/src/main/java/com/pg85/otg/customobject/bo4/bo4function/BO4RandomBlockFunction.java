@@ -266,7 +266,7 @@ public class BO4RandomBlockFunction extends BO4BlockFunction
 					{
 						if(metaDataNames[j] != null && metaDataNames[j].equals(this.metaDataNames[i]))
 						{
-							stream.writeShort(i);
+							stream.writeShort(j);
 							bFound = true;
 							break;
 						}
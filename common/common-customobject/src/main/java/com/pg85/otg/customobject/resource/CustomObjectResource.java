@@ -40,6 +40,12 @@ public class CustomObjectResource extends BiomeResourceBase implements ICustomOb
 		}
 	}
 	
+	@Override
+	public List<String> getObjectNames()
+	{
+		return this.objectNames;
+	}
+
 	@Override
 	public void spawnForChunkDecoration(CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random random, Path otgRootFolder, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
@@ -1,6 +1,7 @@
 package com.pg85.otg.customobject.resource;
 
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Random;
 
 import com.pg85.otg.customobject.CustomObjectManager;
@@ -18,5 +19,10 @@ public interface ICustomObjectResource
 		spawnForChunkDecoration(structureCache, worldGenRegion, random, otgRootFolder, customObjectManager, materialReader, manager, modLoadedChecker);
 	}
 
+	/**
+	 * Gets the names of the objects this resource can spawn, used to preload them.
+	 */
+	List<String> getObjectNames();
+
 	void spawnForChunkDecoration(CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random random, Path otgRootFolder, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker);
 }
@@ -65,6 +65,18 @@ public class TreeResource extends BiomeResourceBase implements ICustomObjectReso
 		}
 	}
 	
+	@Override
+	public List<String> getObjectNames()
+	{
+		List<String> objectNames = new ArrayList<String>();
+		for (String treeName : this.treeNames)
+		{
+			// Strip MinHeight/MaxHeight params, see loadTrees.
+			objectNames.add(treeName.contains("(") ? treeName.split("\\(")[0] : treeName);
+		}
+		return objectNames;
+	}
+
 	@Override
 	public void spawnForChunkDecoration(CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random random, Path otgRootFolder, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
@@ -26,10 +26,10 @@ import com.pg85.otg.util.logging.LogLevel;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 // TODO: spawners/particles/moddata for customobjects also use this, so not just structures. refactor?
 /**
@@ -58,11 +58,12 @@ public class CustomStructureCache
 	// WorldInfoChunks is persisted to disk, the bo4 plotter's structurecache (of plotted but
 	// not yet decorated branches) is assembled from WorldInfoChunks when loaded from disk.
 	// WorldInfoChunks is used as little as possible, due to its size and slowness.
+	// BO4 chunks are spawned outside the plotter's lock, so this is read concurrently.
 	private Map<ChunkCoordinate, StructureDataRegion> worldInfoChunks;
 	
 	public CustomStructureCache(String presetFolderName, Path worldSaveDir, long worldSeed, boolean isBO4Enabled, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		this.worldInfoChunks = new HashMap<ChunkCoordinate, StructureDataRegion>();
+		this.worldInfoChunks = new ConcurrentHashMap<ChunkCoordinate, StructureDataRegion>();
 		this.plotter = new CustomStructurePlotter();
 		this.bo3StructureCache = new FifoMap<ChunkCoordinate, BO3CustomStructure>(400);
 		this.worldSaveDir = worldSaveDir;
@@ -99,7 +100,11 @@ public class CustomStructureCache
 		if(chunkRegion == null)
 		{
 			chunkRegion = new StructureDataRegion();
-			this.worldInfoChunks.put(regionCoord, chunkRegion);
+			StructureDataRegion existingRegion = this.worldInfoChunks.putIfAbsent(regionCoord, chunkRegion);
+			if(existingRegion != null)
+			{
+				chunkRegion = existingRegion;
+			}
 		}
 		chunkRegion.setStructure(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ(), structure, requiresSave);
 	}
@@ -311,7 +316,7 @@ public class CustomStructureCache
 	{		
 		logger.log(LogLevel.INFO, LogCategory.MAIN, "Loading structure data");
 
-		this.worldInfoChunks = new HashMap<ChunkCoordinate, StructureDataRegion>();
+		this.worldInfoChunks = new ConcurrentHashMap<ChunkCoordinate, StructureDataRegion>();
 		
 		Map<CustomStructure, ArrayList<ChunkCoordinate>> loadedStructures = CustomStructureFileManager.loadStructureData(this.presetFolderName, this.worldSaveDir, this.worldSeed, this.isBO4Enabled, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
 		if(loadedStructures != null)
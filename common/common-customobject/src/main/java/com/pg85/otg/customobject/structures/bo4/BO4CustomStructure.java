@@ -279,18 +279,8 @@ public class BO4CustomStructure extends CustomStructure
 		// terrain to the BO3. This way BO3's won't float above the ground
 		// or spawn inside a hole with vertical walls.
 		smoothingAreaManager.calculateSmoothingAreas(this.objectsToSpawn, (BO4CustomStructureCoordinate)this.start, worldGenRegion, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-		
-		// Add the structure to the structure caches
-		
-		for(ChunkCoordinate chunkCoord : this.objectsToSpawn.keySet())
-		{
-			structureCache.addBo4ToStructureCache(chunkCoord, this);		
-		}
 
-		for(ChunkCoordinate chunkCoord : this.smoothingAreaManager.getSmoothingAreaChunkCoords())
-		{
-			structureCache.addBo4ToStructureCache(chunkCoord, this);
-		}
+		// The structure is added to the structure caches by the plotter, see addToStructureCache.
 
 		if(this.objectsToSpawn.size() > 0)
 		{
@@ -308,6 +298,36 @@ public class BO4CustomStructure extends CustomStructure
 		}
 	}
 
+	/**
+	 * Returns the chunks with branches or smoothing areas for this structure.
+	 */
+	ArrayList<ChunkCoordinate> getPlottedChunkCoords()
+	{
+		synchronized(this)
+		{
+			ArrayList<ChunkCoordinate> chunkCoords = new ArrayList<ChunkCoordinate>(this.objectsToSpawn.keySet());
+			chunkCoords.addAll(this.smoothingAreaManager.getSmoothingAreaChunkCoords());
+			return chunkCoords;
+		}
+	}
+
+	/**
+	 * Adds a fully plotted structure to the structure caches. Chunks are
+	 * spawned while holding the structure's monitor (see
+	 * CustomStructurePlotter.spawnBO4Chunk), so a chunk added here can't be
+	 * spawned, modifying objectsToSpawn, until all chunks have been added.
+	 */
+	void addToStructureCache(CustomStructureCache structureCache)
+	{
+		synchronized(this)
+		{
+			for(ChunkCoordinate chunkCoord : getPlottedChunkCoords())
+			{
+				structureCache.addBo4ToStructureCache(chunkCoord, this);
+			}
+		}
+	}
+
 	private boolean doStartChunkBlockChecks(IWorldGenRegion worldGenRegion, ChunkCoordinate chunkBeingDecorated, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker, boolean ignoreSpawnSettings)
 	{
 		// We may target unloaded/ungenerated chunks, so we'll use shadowgen when doing height/material checks for this chunk.
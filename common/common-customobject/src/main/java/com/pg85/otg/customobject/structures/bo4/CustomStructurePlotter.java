@@ -7,6 +7,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.pg85.otg.constants.Constants;
 import com.pg85.otg.customobject.CustomObjectManager;
@@ -31,6 +34,20 @@ import com.pg85.otg.util.gen.DecorationArea;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
 
+/**
+ * Plots BO4 structures for chunks being decorated.
+ * 
+ * Decoration may run on multiple threads. The per-chunk state (bo4StructureCache,
+ * plottedChunks) is stored per region and each region is locked separately, so
+ * spawning plotted structures and checking if a chunk has been plotted never
+ * wait on plotting elsewhere.
+ * 
+ * Plotting a chunk claims the regions that structures plotted for it can reach,
+ * in a fixed order, so chunks in distant regions are plotted in parallel. The
+ * frequency/group data is shared by all regions and has its own lock, see
+ * addSpawnedStructure. Structures whose optional branches reach outside the
+ * claimed regions are discarded and plotted again while holding all regions.
+ */
 public class CustomStructurePlotter
 {
 	// Structurecache holds plotted structures/branches/smoothing areas in undecorated chunks.
@@ -44,23 +61,66 @@ public class CustomStructurePlotter
 	private final Map<ChunkCoordinate, PlottedChunksRegion> plottedChunks; // Per region
 
 	// Used to find distance between structures and structure groups, only stores 1 chunk per structure in the 
-	// calculated center of the structure. Does not clean itself when used with the pre-generator and will become 
-	// slower as it fills up, use as little as possible! (can't clean itself because max radius for BO4 groups cannot be known)	
+	// calculated center of the structure. Does not clean itself when used with the pre-generator and will grow
+	// as it fills up (can't clean itself because max radius for BO4 groups cannot be known).
 	private final HashMap<String, ArrayList<ChunkCoordinate>> spawnedStructuresByName;  // structure name -> start chunk coords. Saved to disk.
 	private final HashMap<String, HashMap<ChunkCoordinate, Integer>> spawnedStructuresByGroup; // group name -> Map<ChunkCoord, Radius>. Saved to disk.	
+	// Spatial indexes for the above, used for distance checks. Rebuilt when loading.
+	private final HashMap<String, SpawnedStructuresGrid> spawnedStructuresByNameGrid;
+	private final HashMap<String, SpawnedStructuresGrid> spawnedStructuresByGroupGrid;
 
-	// Locking objects to ensure plotting code can
-	// never run multiple times asynchronously, or recursively.
-	private final Object processingLock = new Object();
-	private boolean processing = false;
-	//
+	// Guards spawnedStructuresByName/Group, their grids and BO4 timesSpawned.
+	private final Object spawnedStructuresLock = new Object();
+	// Plotting with region claims holds the read lock, plotting that needs
+	// all regions (structure at spawn, /otg spawn) holds the write lock.
+	private final ReentrantReadWriteLock plottingLock = new ReentrantReadWriteLock();
+	private final ConcurrentHashMap<ChunkCoordinate, ReentrantLock> regionPlottingLocks = new ConcurrentHashMap<ChunkCoordinate, ReentrantLock>();
 	
-	private boolean structurePlottedAtSpawn; // Used to make sure the structureatspawn is plotted first.
+	private volatile boolean structurePlottedAtSpawn; // Used to make sure the structureatspawn is plotted first.
 	
-	// Non-persistent caches (optimisations)
+	// Non-persistent caches (optimisations), guarded by themselves.
 	private final FifoMap<ChunkCoordinate, ArrayList<String>> structureNamesPerChunk;
 	private final FifoMap<ChunkCoordinate, Object> plottedChunksFastCache; // TODO: Technically we don't need a map, we need a FIFO list with unique entries.
 	
+	/**
+	 * The regions claimed for plotting a chunk, see plotStructures.
+	 */
+	private static class RegionClaim
+	{
+		private final int minChunkX;
+		private final int minChunkZ;
+		private final int maxChunkX;
+		private final int maxChunkZ;
+		// Set when a structure didn't fit inside the claimed regions.
+		private boolean exceeded;
+
+		RegionClaim(ChunkCoordinate minRegion, ChunkCoordinate maxRegion)
+		{
+			this.minChunkX = minRegion.getChunkX() * Constants.REGION_SIZE;
+			this.minChunkZ = minRegion.getChunkZ() * Constants.REGION_SIZE;
+			this.maxChunkX = (maxRegion.getChunkX() + 1) * Constants.REGION_SIZE - 1;
+			this.maxChunkZ = (maxRegion.getChunkZ() + 1) * Constants.REGION_SIZE - 1;
+		}
+
+		// Margin is the amount of chunks around each chunk that were checked for other structures.
+		boolean contains(List<ChunkCoordinate> chunkCoords, int margin)
+		{
+			for(ChunkCoordinate chunkCoord : chunkCoords)
+			{
+				if(
+					chunkCoord.getChunkX() - margin < this.minChunkX ||
+					chunkCoord.getChunkX() + margin > this.maxChunkX ||
+					chunkCoord.getChunkZ() - margin < this.minChunkZ ||
+					chunkCoord.getChunkZ() + margin > this.maxChunkZ
+				)
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	public CustomStructurePlotter()
 	{
 		// Non-persistent caches
@@ -70,8 +130,10 @@ public class CustomStructurePlotter
 		// Persistent caches
 		this.spawnedStructuresByName = new HashMap<String, ArrayList<ChunkCoordinate>>();
 		this.spawnedStructuresByGroup = new HashMap<String, HashMap<ChunkCoordinate, Integer>>();
-		this.bo4StructureCache = new HashMap<ChunkCoordinate, BO4CustomStructure[][]>();
-		this.plottedChunks = new HashMap<ChunkCoordinate, PlottedChunksRegion>(); 
+		this.spawnedStructuresByNameGrid = new HashMap<String, SpawnedStructuresGrid>();
+		this.spawnedStructuresByGroupGrid = new HashMap<String, SpawnedStructuresGrid>();
+		this.bo4StructureCache = new ConcurrentHashMap<ChunkCoordinate, BO4CustomStructure[][]>();
+		this.plottedChunks = new ConcurrentHashMap<ChunkCoordinate, PlottedChunksRegion>(); 
 	}
 
 	// Structure cache
@@ -80,7 +142,14 @@ public class CustomStructurePlotter
 	{
 		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();				
 		BO4CustomStructure[][] chunkRegion = bo4StructureCache.get(regionCoord);
-		return chunkRegion != null && chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] != null;
+		if(chunkRegion == null)
+		{
+			return false;
+		}
+		synchronized(chunkRegion)
+		{
+			return chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] != null;
+		}
 	}
 	
 	private void addToStructureCache(ChunkCoordinate chunkCoordinate, BO4CustomStructure structure)
@@ -91,9 +160,16 @@ public class CustomStructurePlotter
 		if(chunkRegion == null)
 		{
 			chunkRegion = new BO4CustomStructure[Constants.REGION_SIZE][Constants.REGION_SIZE];
-			this.bo4StructureCache.put(regionCoord, chunkRegion);
+			BO4CustomStructure[][] existingRegion = this.bo4StructureCache.putIfAbsent(regionCoord, chunkRegion);
+			if(existingRegion != null)
+			{
+				chunkRegion = existingRegion;
+			}
+		}
+		synchronized(chunkRegion)
+		{
+			chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] = structure;
 		}
-		chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] = structure;
 	}
 	
 	private void removeFromStructureCache(ChunkCoordinate chunkCoordinate)
@@ -103,7 +179,10 @@ public class CustomStructurePlotter
 		BO4CustomStructure[][] chunkRegion = this.bo4StructureCache.get(regionCoord);
 		if(chunkRegion != null)
 		{
-			chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] = null;
+			synchronized(chunkRegion)
+			{
+				chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] = null;
+			}
 		}
 		
 		// TODO: Remove region from bo4StructureCache if it's empty? Shouldn't matter too much, region shouldn't be saved if it's empty.
@@ -115,7 +194,10 @@ public class CustomStructurePlotter
 		BO4CustomStructure[][] chunkRegion = this.bo4StructureCache.get(regionCoord);
 		if(chunkRegion != null)
 		{
-			return chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()];
+			synchronized(chunkRegion)
+			{
+				return chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()];
+			}
 		}
 		return null;
 	}
@@ -126,7 +208,14 @@ public class CustomStructurePlotter
 	{
 		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();
 		PlottedChunksRegion chunkRegion = plottedChunks.get(regionCoord);
-		return chunkRegion != null && chunkRegion.getChunk(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ());
+		if(chunkRegion == null)
+		{
+			return false;
+		}
+		synchronized(chunkRegion)
+		{
+			return chunkRegion.getChunk(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ());
+		}
 	}
 	
 	private void addToPlottedChunks(ChunkCoordinate chunkCoordinate)
@@ -136,25 +225,39 @@ public class CustomStructurePlotter
 		if(chunkRegion == null)
 		{
 			chunkRegion = new PlottedChunksRegion();
-			this.plottedChunks.put(regionCoord, chunkRegion);
+			PlottedChunksRegion existingRegion = this.plottedChunks.putIfAbsent(regionCoord, chunkRegion);
+			if(existingRegion != null)
+			{
+				chunkRegion = existingRegion;
+			}
+		}
+		synchronized(chunkRegion)
+		{
+			chunkRegion.setChunk(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ());
 		}
-		chunkRegion.setChunk(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ());
 	}	
 	
 	// Used while calculating branches
 	public boolean isBo4ChunkPlotted(ChunkCoordinate chunkCoordinate)
 	{
 		// Check if any other structures are in this chunk
-		boolean bFound =
-			// TODO: Optimise this using regions, mark regions when completed so we can skip checks.
-			this.plottedChunksFastCache.containsKey(chunkCoordinate) || // Has been plotted recently, still cached (fast cache).
-			plottedChunksContainsKey(chunkCoordinate) // Has been plotted (slow cache).
-		;
-		if(bFound)
+		synchronized(this.plottedChunksFastCache)
+		{
+			if(this.plottedChunksFastCache.containsKey(chunkCoordinate)) // Has been plotted recently, still cached (fast cache).
+			{
+				return true;
+			}
+		}
+		// TODO: Optimise this using regions, mark regions when completed so we can skip checks.
+		if(plottedChunksContainsKey(chunkCoordinate)) // Has been plotted (slow cache).
 		{
-			this.plottedChunksFastCache.put(chunkCoordinate, null);
+			synchronized(this.plottedChunksFastCache)
+			{
+				this.plottedChunksFastCache.put(chunkCoordinate, null);
+			}
+			return true;
 		}
-		return bFound;
+		return false;
 	}
 
 	// Called for each structure start plotted, and each ObjectToSpawn / 
@@ -177,7 +280,11 @@ public class CustomStructurePlotter
 		BO4CustomStructure structureStart = getFromStructureCache(chunkCoordinate);
 		if (structureStart != null && structureStart.start != null)
 		{
-			structureStart.spawnInChunk(chunkCoordinate, structureCache, worldGenRegion, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+			// Neighbouring chunks may be decorated on other threads and spawn parts of the same structure.
+			synchronized(structureStart)
+			{
+				structureStart.spawnInChunk(chunkCoordinate, structureCache, worldGenRegion, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+			}
 		} else {
 			// TODO: When can structure.start be null? Should only be possible for bo3 structures?
 			if(structureStart != null && structureStart.start == null)
@@ -211,53 +318,159 @@ public class CustomStructurePlotter
 	private void setChunkOccupied(ChunkCoordinate chunkCoord)
 	{
 		// Add empty list as an optimisation, so null means not handled, emtpy means done
-		this.structureNamesPerChunk.put(chunkCoord, new ArrayList<String>());
+		putStructureNames(chunkCoord, new ArrayList<String>());
 		// Use separate cache for faster isChunkPopulated lookups, 
 		// no need to do containsKey + get == null, can just do containsKey
-		this.plottedChunksFastCache.put(chunkCoord, null);
+		synchronized(this.plottedChunksFastCache)
+		{
+			this.plottedChunksFastCache.put(chunkCoord, null);
+		}
+	}
+
+	private ArrayList<String> getStructureNames(ChunkCoordinate chunkCoord)
+	{
+		synchronized(this.structureNamesPerChunk)
+		{
+			return this.structureNamesPerChunk.get(chunkCoord);
+		}
+	}
+
+	private void putStructureNames(ChunkCoordinate chunkCoord, ArrayList<String> structureNames)
+	{
+		synchronized(this.structureNamesPerChunk)
+		{
+			this.structureNamesPerChunk.put(chunkCoord, structureNames);
+		}
 	}
 	
 	private ChunkCoordinate plotStructures(BO4 targetStructure, ArrayList<String> targetBiomes, CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random rand, ChunkCoordinate chunkCoord, boolean spawningStructureAtSpawn, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker, boolean force)
 	{
-		// Make sure the BO4 at spawn is plotted before anything else
-		// This isn't thread-safe so there's a race condition, shouldn't 
-		// cause problems though due to the lock later on.
-		if(!this.structurePlottedAtSpawn) 
+		// Chunks are usually plotted while plotting a neighbour, so
+		// check that first without waiting for other threads.
+		if(this.structurePlottedAtSpawn && isBo4ChunkPlotted(chunkCoord))
 		{
-			this.structurePlottedAtSpawn = true;
-			plotStructures(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, worldGenRegion.getSpawnChunk(), true, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+			return null;
 		}
-		
+
 		// This method can be called by /otg spawn and during chunkgeneration.
 		// When called during chunkgeneration, the chunk must be filled or invalidated before returning, so never cancel.
 		// When called by /otg spawn, skip this attempt to spawn and let chunk generation complete first.
-		// This method should never be called recursively.
-		// TODO: Make sure this never gets stuck, or abort and log a warning.
-		// TODO: Can this thread be paused without issues, for how long?
-		while(true)
+		if(targetStructure != null)
 		{
-			synchronized(this.processingLock)
+			if(!this.plottingLock.writeLock().tryLock())
 			{
-				if(!this.processing)
-				{				
-					this.processing = true;
-					break;
-				}				
-				else if(targetStructure != null)
-				{
-					return null;
-				}
-			}  		
+				return null;
+			}
 			try {
-				Thread.sleep(20);
+				plotStructureAtSpawn(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+				return plotStructuresInChunk(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, chunkCoord, spawningStructureAtSpawn, null, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+			} finally {
+				this.plottingLock.writeLock().unlock();
 			}
-			catch (InterruptedException e)
+		}
+
+		if(!this.structurePlottedAtSpawn)
+		{
+			this.plottingLock.writeLock().lock();
+			try {
+				plotStructureAtSpawn(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+			} finally {
+				this.plottingLock.writeLock().unlock();
+			}
+		}
+
+		// Structures plotted for this chunk must contain it, so they can't be
+		// further away than their size. Regions are always locked in the same
+		// order, so threads claiming overlapping regions can't deadlock.
+		int radius = getClaimRadius(structureCache, worldGenRegion, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+		ChunkCoordinate minRegion = ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() - radius, chunkCoord.getChunkZ() - radius).toRegionCoord();
+		ChunkCoordinate maxRegion = ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + radius, chunkCoord.getChunkZ() + radius).toRegionCoord();
+		RegionClaim claim = new RegionClaim(minRegion, maxRegion);
+		ArrayList<ReentrantLock> regionLocks = new ArrayList<ReentrantLock>();
+		for(int regionX = minRegion.getChunkX(); regionX <= maxRegion.getChunkX(); regionX++)
+		{
+			for(int regionZ = minRegion.getChunkZ(); regionZ <= maxRegion.getChunkZ(); regionZ++)
+			{
+				regionLocks.add(this.regionPlottingLocks.computeIfAbsent(ChunkCoordinate.fromChunkCoords(regionX, regionZ), regionCoord -> new ReentrantLock()));
+			}
+		}
+
+		this.plottingLock.readLock().lock();
+		int locked = 0;
+		try {
+			for(ReentrantLock regionLock : regionLocks)
+			{
+				regionLock.lock();
+				locked++;
+			}
+			ChunkCoordinate spawnChunk = plotStructuresInChunk(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, chunkCoord, spawningStructureAtSpawn, claim, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+			if(!claim.exceeded)
+			{
+				return spawnChunk;
+			}
+		} finally {
+			for(int i = locked - 1; i >= 0; i--)
+			{
+				regionLocks.get(i).unlock();
+			}
+			this.plottingLock.readLock().unlock();
+		}
+
+		// A structure reached outside the claimed regions, plot the chunk again while holding all regions.
+		this.plottingLock.writeLock().lock();
+		try {
+			return plotStructuresInChunk(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, chunkCoord, spawningStructureAtSpawn, null, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+		} finally {
+			this.plottingLock.writeLock().unlock();
+		}
+	}
+
+	// Only called while holding the write lock.
+	private void plotStructureAtSpawn(BO4 targetStructure, ArrayList<String> targetBiomes, CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random rand, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker, boolean force)
+	{
+		// Make sure the BO4 at spawn is plotted before anything else
+		if(!this.structurePlottedAtSpawn) 
+		{
+			this.structurePlottedAtSpawn = true;
+			plotStructuresInChunk(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, worldGenRegion.getSpawnChunk(), true, null, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+		}
+	}
+
+	/**
+	 * The largest minimum size (including smoothing areas) of the BO4's that
+	 * can be plotted for the given chunk, in chunks.
+	 */
+	private int getClaimRadius(CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, ChunkCoordinate chunkCoord, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	{
+		int radius = 0;
+		IBiomeConfig biomeConfig = worldGenRegion.getCachedBiomeProvider().getBiomeConfig(chunkCoord.getBlockX() + DecorationArea.BO_CHUNK_CENTER_X, chunkCoord.getBlockZ() + DecorationArea.BO_CHUNK_CENTER_Z);
+		for (ICustomStructureGen structureGen : biomeConfig.getCustomStructures())
+		{
+			for(IStructuredCustomObject structure : structureGen.getObjects(worldGenRegion.getPresetFolderName(), otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker))
 			{
-				e.printStackTrace();
-				throw new RuntimeException("This shouldn't happen, please ask for help on the OTG Discord or file an issue on the OTG github.");
+				if(structure instanceof BO4 && !((BO4)structure).isInvalidConfig)
+				{
+					BO4CustomStructureCoordinate structureCoord = new BO4CustomStructureCoordinate(worldGenRegion.getPresetFolderName(), structure, null, Rotation.NORTH, chunkCoord.getBlockX(), (short)0, chunkCoord.getBlockZ(), 0, false, false, null);
+					BO4CustomStructure structureStart = new BO4CustomStructure(worldGenRegion.getSeed(), structureCoord, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+					try {
+						Object[] topLeftAndLowerRightChunkCoordinates = structureStart.getMinimumSize(structureCache, worldGenRegion, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+						int structureLength = (Integer)topLeftAndLowerRightChunkCoordinates[1] + (Integer)topLeftAndLowerRightChunkCoordinates[3] + 1;
+						int structureWidth = (Integer)topLeftAndLowerRightChunkCoordinates[0] + (Integer)topLeftAndLowerRightChunkCoordinates[2] + 1;
+						radius = Math.max(radius, Math.max(structureLength, structureWidth));
+					}
+					catch (InvalidConfigException e)
+					{
+						((BO4)structure).isInvalidConfig = true;
+					}
+				}
 			}
 		}
+		return radius;
+	}
 
+	// Only called while holding the claimed regions, or the write lock if claim is null.
+	private ChunkCoordinate plotStructuresInChunk(BO4 targetStructure, ArrayList<String> targetBiomes, CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random rand, ChunkCoordinate chunkCoord, boolean spawningStructureAtSpawn, RegionClaim claim, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker, boolean force)
+	{
 		long startTime = System.currentTimeMillis();
 		if (!isBo4ChunkPlotted(chunkCoord))
 		{
@@ -505,7 +718,7 @@ public class CustomStructurePlotter
 														}
 													} else {
 														// When we get biomestructures here, size() == 0 means the chunk has been handled, null means it hasnt yet been cached at all
-														biomeStructures = this.structureNamesPerChunk.get(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + scanDistance), (chunkCoord.getChunkZ() + i)));															
+														biomeStructures = getStructureNames(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + scanDistance), (chunkCoord.getChunkZ() + i)));															
 														if(biomeStructures == null)
 														{
 															if(!isBo4ChunkPlotted(chunkCoord) && !worldGenRegion.chunkHasDefaultStructure(rand, chunkCoord))
@@ -532,7 +745,7 @@ public class CustomStructurePlotter
 															} else {
 																biomeStructures = new ArrayList<String>(); // Don't spawn anything here, there is a default structure.
 															}
-															this.structureNamesPerChunk.put(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + scanDistance), (chunkCoord.getChunkZ() + i)),biomeStructures);
+															putStructureNames(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + scanDistance), (chunkCoord.getChunkZ() + i)),biomeStructures);
 														}
 														if(biomeStructures != null)
 														{
@@ -596,7 +809,7 @@ public class CustomStructurePlotter
 														}
 													} else {
 														// When we get biomestructures here, size() == 0 means the chunk has been handled, null means it hasnt yet been cached at all
-														biomeStructures = this.structureNamesPerChunk.get(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() - scanDistance), (chunkCoord.getChunkZ() + i)));
+														biomeStructures = getStructureNames(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() - scanDistance), (chunkCoord.getChunkZ() + i)));
 														if(biomeStructures == null)
 														{
 															if(!isBo4ChunkPlotted(chunkCoord) && !worldGenRegion.chunkHasDefaultStructure(rand, chunkCoord))
@@ -622,7 +835,7 @@ public class CustomStructurePlotter
 															} else {
 																biomeStructures = new ArrayList<String>();
 															}
-															this.structureNamesPerChunk.put(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() - scanDistance), (chunkCoord.getChunkZ() + i)),biomeStructures);
+															putStructureNames(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() - scanDistance), (chunkCoord.getChunkZ() + i)),biomeStructures);
 														}
 														if(biomeStructures != null)
 														{
@@ -686,7 +899,7 @@ public class CustomStructurePlotter
 														}
 													} else {
 														// When we get biomestructures here, size() == 0 means the chunk has been handled, null means it hasnt yet been cached at all
-														biomeStructures = this.structureNamesPerChunk.get(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() + scanDistance)));
+														biomeStructures = getStructureNames(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() + scanDistance)));
 														if(biomeStructures == null)
 														{
 															if(!isBo4ChunkPlotted(chunkCoord) && !worldGenRegion.chunkHasDefaultStructure(rand, chunkCoord))
@@ -713,7 +926,7 @@ public class CustomStructurePlotter
 															} else {
 																biomeStructures = new ArrayList<String>();
 															}
-															this.structureNamesPerChunk.put(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() + scanDistance)),biomeStructures);
+															putStructureNames(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() + scanDistance)),biomeStructures);
 														}
 														if(biomeStructures != null)
 														{
@@ -776,7 +989,7 @@ public class CustomStructurePlotter
 														}
 													} else {
 														// When we get biomestructures here, size() == 0 means the chunk has been handled, null means it hasnt yet been cached at all
-														biomeStructures = this.structureNamesPerChunk.get(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() - scanDistance)));
+														biomeStructures = getStructureNames(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() - scanDistance)));
 														if(biomeStructures == null)
 														{
 															if(!isBo4ChunkPlotted(chunkCoord) && !worldGenRegion.chunkHasDefaultStructure(rand, chunkCoord))
@@ -802,7 +1015,7 @@ public class CustomStructurePlotter
 															} else {
 																biomeStructures = new ArrayList<String>();
 															}
-															this.structureNamesPerChunk.put(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() - scanDistance)),biomeStructures);
+															putStructureNames(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() - scanDistance)),biomeStructures);
 														}
 														if(biomeStructures != null)
 														{
@@ -926,64 +1139,23 @@ public class CustomStructurePlotter
 											structureCoord = new BO4CustomStructureCoordinate(worldGenRegion.getPresetFolderName(), ((BO4)currentStructureSpawning[0]), null, rotation, spawnCoordX * 16, (short)0, spawnCoordZ * 16, 0, false, false, null);
 											structureStart2 = new BO4CustomStructure(structureCache, worldGenRegion, structureCoord, spawningStructureAtSpawn, force, targetBiomes, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
 
-											if(structureStart2.isSpawned())
+											if(structureStart2.isSpawned() && claim != null && !claim.contains(structureStart2.getPlottedChunkCoords(), (int)Math.ceil(((BO4)currentStructureSpawning[0]).getConfig().smoothRadius / (double)16)))
+											{
+												// Optional branches reached outside the claimed regions, discard the structure.
+												claim.exceeded = true;
+												return null;
+											}
+
+											int structureCenterX = structureBBInsideAreaX + (int)Math.floor(((rotation == Rotation.NORTH || rotation == Rotation.SOUTH ? structureLeft + structureRight + 1 : structureBottom + structureTop + 1) / 2d));
+											int structureCenterZ = structureBBInsideAreaZ + (int)Math.floor(((rotation == Rotation.NORTH || rotation == Rotation.SOUTH ? structureTop + structureBottom + 1 : structureLeft + structureRight + 1) / 2d));
+											if(structureStart2.isSpawned() && addSpawnedStructure((BO4)currentStructureSpawning[0], spawnChunk, ChunkCoordinate.fromChunkCoords(structureCenterX, structureCenterZ)))
 											{
+												structureStart2.addToStructureCache(structureCache);
 												structureCache.addBo4ToStructureCache(spawnChunk, structureStart2);
 
-												BO4 structureCoordConfig = ((BO4)structureCoord.getObject(otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker));
-												
-												structureCoordConfig.getConfig().timesSpawned += 1;
 												if(logger.getLogCategoryEnabled(LogCategory.STRUCTURE_PLOTTING))
 												{
-													logger.log(LogLevel.INFO, LogCategory.STRUCTURE_PLOTTING, "Plotted structure " + structureCoordConfig.getName() + " at chunk " + spawnCoordX + " " + spawnCoordZ + " ("+ (spawnCoordX * 16) + " 100 " + (spawnCoordZ * 16) + ")");// + " biome " + biome3.getName());
-												}
-
-												if(((BO4)currentStructureSpawning[0]).getConfig().frequency > 0 || ((BO4)currentStructureSpawning[0]).getConfig().bo4Groups.size() > 0)
-												{
-													String bO3Name = ((BO4)currentStructureSpawning[0]).getName();
-													ChunkCoordinate bo4SpawnCoord = ChunkCoordinate.fromChunkCoords(spawnCoordX, spawnCoordZ);
-
-													ArrayList<ChunkCoordinate> chunkCoords = this.spawnedStructuresByName.get(bO3Name);
-													if(chunkCoords == null)
-													{
-														chunkCoords = new ArrayList<ChunkCoordinate>();
-														this.spawnedStructuresByName.put(bO3Name, chunkCoords);
-													}
-													chunkCoords.add(bo4SpawnCoord);
-
-													if(((BO4)currentStructureSpawning[0]).getConfig().bo4Groups.size() > 0)
-													{
-														int structureCenterX = structureBBInsideAreaX + (int)Math.floor(((rotation == Rotation.NORTH || rotation == Rotation.SOUTH ? structureLeft + structureRight + 1 : structureBottom + structureTop + 1) / 2d));
-														int structureCenterZ = structureBBInsideAreaZ + (int)Math.floor(((rotation == Rotation.NORTH || rotation == Rotation.SOUTH ? structureTop + structureBottom + 1 : structureLeft + structureRight + 1) / 2d));
-														ChunkCoordinate bo4CenterSpawnCoord = ChunkCoordinate.fromChunkCoords(structureCenterX, structureCenterZ);
-														
-														for(Entry<String, Integer> entry : ((BO4)currentStructureSpawning[0]).getConfig().bo4Groups.entrySet())
-														{
-															String bo4GroupName = entry.getKey();
-															int bo4GroupFrequency = entry.getValue().intValue();
-															if(bo4GroupFrequency > 0)
-															{
-																HashMap<ChunkCoordinate, Integer> spawnedStructures = this.spawnedStructuresByGroup.get(bo4GroupName);
-																if(spawnedStructures == null)
-																{
-																	spawnedStructures = new HashMap<ChunkCoordinate, Integer>();
-																	spawnedStructures.put(bo4CenterSpawnCoord, entry.getValue());
-																	this.spawnedStructuresByGroup.put(bo4GroupName, spawnedStructures);
-																} else {
-																	Integer frequency = spawnedStructures.get(bo4CenterSpawnCoord);
-																	if(frequency != null)
-																	{
-																		if(frequency.intValue() < bo4GroupFrequency)
-																		{
-																			spawnedStructures.put(bo4CenterSpawnCoord, entry.getValue().intValue());
-																		}
-																	} else {
-																		spawnedStructures.put(bo4CenterSpawnCoord, entry.getValue().intValue());
-																	}
-																}
-															}
-														}
-													}
+													logger.log(LogLevel.INFO, LogCategory.STRUCTURE_PLOTTING, "Plotted structure " + ((BO4)currentStructureSpawning[0]).getName() + " at chunk " + spawnCoordX + " " + spawnCoordZ + " ("+ (spawnCoordX * 16) + " 100 " + (spawnCoordZ * 16) + ")");// + " biome " + biome3.getName());
 												}
 
 												// Even though we made sure the structure's bounding box contained the current chunk,
@@ -1001,7 +1173,6 @@ public class CustomStructurePlotter
 												
 												if(structureCacheContainsKey(chunkCoord) || targetStructure != null)
 												{
-													this.processing = false;
 													return spawnChunk;
 												}
 												break;
@@ -1024,8 +1195,6 @@ public class CustomStructurePlotter
 		// Let plotter know the chunk is taken (fast cache, optimisation)
 		setChunkOccupied(chunkCoord);
 		
-		this.processing = false;
-		
 		if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE) && (System.currentTimeMillis() - startTime) > 50)
 		{
 			IBiomeConfig biomeConfig4 = worldGenRegion.getCachedBiomeProvider().getBiomeConfig(chunkCoord.getBlockX() + DecorationArea.BO_CHUNK_CENTER_X, chunkCoord.getBlockZ() + DecorationArea.BO_CHUNK_CENTER_Z);
@@ -1035,61 +1204,117 @@ public class CustomStructurePlotter
 		return null;
 	}
 
-	private boolean isBO4AllowedToSpawnAtByFrequency(ChunkCoordinate chunkCoord, BO4 BO3ToSpawn)
+	/**
+	 * Checks the structure's frequency and groups again, since structures may
+	 * have been plotted in other regions since it was checked before plotting,
+	 * and adds it to the spawned structures if it's still allowed to spawn.
+	 */
+	private boolean addSpawnedStructure(BO4 bo4, ChunkCoordinate bo4SpawnCoord, ChunkCoordinate bo4CenterSpawnCoord)
 	{
-		// Check if no other structure of the same type (filename) is within the minimum radius (BO3 frequency)
-		int radius = BO3ToSpawn.getConfig().frequency;
-		String bO3Name = BO3ToSpawn.getName();
-		if(radius > 0)
+		synchronized(this.spawnedStructuresLock)
 		{
-			float distanceBetweenStructures = 0;
-			
-			ArrayList<ChunkCoordinate> chunkCoords = spawnedStructuresByName.get(bO3Name);
-			if(chunkCoords != null)
+			if(!isBO4AllowedToSpawnAtByFrequency(bo4SpawnCoord, bo4))
 			{
-				// Check BO3 frequency
-					for(ChunkCoordinate cachedChunk : chunkCoords)
+				return false;
+			}
+
+			bo4.getConfig().timesSpawned += 1;
+			if(bo4.getConfig().frequency > 0 || bo4.getConfig().bo4Groups.size() > 0)
+			{
+				String bO3Name = bo4.getName();
+				ArrayList<ChunkCoordinate> chunkCoords = this.spawnedStructuresByName.get(bO3Name);
+				if(chunkCoords == null)
+				{
+					chunkCoords = new ArrayList<ChunkCoordinate>();
+					this.spawnedStructuresByName.put(bO3Name, chunkCoords);
+				}
+				chunkCoords.add(bo4SpawnCoord);
+				SpawnedStructuresGrid nameGrid = this.spawnedStructuresByNameGrid.get(bO3Name);
+				if(nameGrid == null)
 				{
-					// Find distance between two points
-					distanceBetweenStructures = (int)Math.floor(Math.sqrt(Math.pow(chunkCoord.getChunkX() - cachedChunk.getChunkX(), 2) + Math.pow(chunkCoord.getChunkZ() - cachedChunk.getChunkZ(), 2)));
-					if (distanceBetweenStructures <= radius)
+					nameGrid = new SpawnedStructuresGrid();
+					this.spawnedStructuresByNameGrid.put(bO3Name, nameGrid);
+				}
+				nameGrid.add(bo4SpawnCoord.getChunkX(), bo4SpawnCoord.getChunkZ(), 0);
+
+				for(Entry<String, Integer> entry : bo4.getConfig().bo4Groups.entrySet())
+				{
+					String bo4GroupName = entry.getKey();
+					int bo4GroupFrequency = entry.getValue().intValue();
+					if(bo4GroupFrequency > 0)
 					{
-						// Other BO3 of the same type is too nearby, cannot spawn here!
-						return false;
+						HashMap<ChunkCoordinate, Integer> spawnedStructures = this.spawnedStructuresByGroup.get(bo4GroupName);
+						SpawnedStructuresGrid groupGrid = this.spawnedStructuresByGroupGrid.get(bo4GroupName);
+						if(groupGrid == null)
+						{
+							groupGrid = new SpawnedStructuresGrid();
+							this.spawnedStructuresByGroupGrid.put(bo4GroupName, groupGrid);
+						}
+						if(spawnedStructures == null)
+						{
+							spawnedStructures = new HashMap<ChunkCoordinate, Integer>();
+							spawnedStructures.put(bo4CenterSpawnCoord, entry.getValue());
+							this.spawnedStructuresByGroup.put(bo4GroupName, spawnedStructures);
+							groupGrid.add(bo4CenterSpawnCoord.getChunkX(), bo4CenterSpawnCoord.getChunkZ(), bo4GroupFrequency);
+						} else {
+							Integer frequency = spawnedStructures.get(bo4CenterSpawnCoord);
+							if(frequency != null)
+							{
+								if(frequency.intValue() < bo4GroupFrequency)
+								{
+									spawnedStructures.put(bo4CenterSpawnCoord, entry.getValue().intValue());
+									// The entry with the smaller radius can stay, it can never fail a check this one passes.
+									groupGrid.add(bo4CenterSpawnCoord.getChunkX(), bo4CenterSpawnCoord.getChunkZ(), bo4GroupFrequency);
+								}
+							} else {
+								spawnedStructures.put(bo4CenterSpawnCoord, entry.getValue().intValue());
+								groupGrid.add(bo4CenterSpawnCoord.getChunkX(), bo4CenterSpawnCoord.getChunkZ(), bo4GroupFrequency);
+							}
+						}
 					}
-				}				
+				}
 			}
+			return true;
 		}
-		
-		// Check if no other structures that are a member of the same group as this BO3 are within the minimum radius (BO3Group frequency)
-		if(BO3ToSpawn.getConfig().bo4Groups.size() > 0)
+	}
+
+	private boolean isBO4AllowedToSpawnAtByFrequency(ChunkCoordinate chunkCoord, BO4 BO3ToSpawn)
+	{
+		// Structures are added to spawnedStructuresByName/Group by other threads, see addSpawnedStructure.
+		synchronized(this.spawnedStructuresLock)
 		{
-			float distanceBetweenStructures = 0;
-			int cachedChunkRadius = 0;
-			ChunkCoordinate cachedChunk = null;
-			for(Entry<String, Integer> entry : BO3ToSpawn.getConfig().bo4Groups.entrySet())
+			// Check if no other structure of the same type (filename) is within the minimum radius (BO3 frequency)
+			int radius = BO3ToSpawn.getConfig().frequency;
+			String bO3Name = BO3ToSpawn.getName();
+			if(radius > 0)
 			{
-				HashMap<ChunkCoordinate, Integer> spawnedStructure = spawnedStructuresByGroup.get(entry.getKey());
-				if(spawnedStructure != null)
+				// Check BO3 frequency
+				SpawnedStructuresGrid nameGrid = this.spawnedStructuresByNameGrid.get(bO3Name);
+				if(nameGrid != null && nameGrid.isStructureInRadius(chunkCoord.getChunkX(), chunkCoord.getChunkZ(), radius))
 				{
-					for(Entry<ChunkCoordinate, Integer> cachedChunkEntry : spawnedStructure.entrySet())
+					// Other BO3 of the same type is too nearby, cannot spawn here!
+					return false;
+				}
+			}
+		
+			// Check if no other structures that are a member of the same group as this BO3 are within the minimum radius (BO3Group frequency)
+			if(BO3ToSpawn.getConfig().bo4Groups.size() > 0)
+			{
+				SpawnedStructuresGrid groupGrid;
+				for(Entry<String, Integer> entry : BO3ToSpawn.getConfig().bo4Groups.entrySet())
+				{
+					// Uses the largest of both structures' group radius
+					groupGrid = this.spawnedStructuresByGroupGrid.get(entry.getKey());
+					if(groupGrid != null && groupGrid.isStructureInRadius(chunkCoord.getChunkX(), chunkCoord.getChunkZ(), entry.getValue().intValue()))
 					{
-						cachedChunk = cachedChunkEntry.getKey();
-						cachedChunkRadius = cachedChunkEntry.getValue().intValue();
-						radius = entry.getValue().intValue() >= cachedChunkRadius ? entry.getValue().intValue() : cachedChunkRadius;
-						// Find distance between two points
-						distanceBetweenStructures = (int)Math.floor(Math.sqrt(Math.pow(chunkCoord.getChunkX() - cachedChunk.getChunkX(), 2) + Math.pow(chunkCoord.getChunkZ() - cachedChunk.getChunkZ(), 2)));
-						if (distanceBetweenStructures <= radius)
-						{
-							// Other BO3 using a shared BO3Group is too nearby, cannot spawn here!
-							return false;
-						}
+						// Other BO3 using a shared BO3Group is too nearby, cannot spawn here!
+						return false;
 					}
 				}
 			}
-		}
 
-		return true;
+			return true;
+		}
 	}
 	
 	// Persistence
@@ -1107,12 +1332,22 @@ public class CustomStructurePlotter
 	
 	private void saveSpawnedStructures(Path worldSaveDir, String presetFolderName, ILogger logger)
 	{
-		CustomStructureFileManager.saveChunksMapFile(worldSaveDir, presetFolderName, this.spawnedStructuresByName, this.spawnedStructuresByGroup, logger);
+		synchronized(this.spawnedStructuresLock)
+		{
+			CustomStructureFileManager.saveChunksMapFile(worldSaveDir, presetFolderName, this.spawnedStructuresByName, this.spawnedStructuresByGroup, logger);
+		}
 	}
 	
 	private void loadSpawnedStructures(Path worldSaveDir, String presetFolderName, boolean isBO4Enabled, ILogger logger)
 	{
-		CustomStructureFileManager.loadChunksMapFile(worldSaveDir, presetFolderName, isBO4Enabled, this.spawnedStructuresByName, this.spawnedStructuresByGroup, logger);		
+		synchronized(this.spawnedStructuresLock)
+		{
+			CustomStructureFileManager.loadChunksMapFile(worldSaveDir, presetFolderName, isBO4Enabled, this.spawnedStructuresByName, this.spawnedStructuresByGroup, logger);		
+			this.spawnedStructuresByNameGrid.clear();
+			this.spawnedStructuresByNameGrid.putAll(SpawnedStructuresGrid.fromStructuresByName(this.spawnedStructuresByName));
+			this.spawnedStructuresByGroupGrid.clear();
+			this.spawnedStructuresByGroupGrid.putAll(SpawnedStructuresGrid.fromStructuresByGroup(this.spawnedStructuresByGroup));
+		}
 	}
 	
 	public void saveStructureCache(Path worldSaveDir, String presetFolderName, boolean isBO4Enabled, ILogger logger)
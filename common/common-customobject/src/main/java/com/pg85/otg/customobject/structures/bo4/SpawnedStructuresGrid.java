@@ -0,0 +1,147 @@
+package com.pg85.otg.customobject.structures.bo4;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.pg85.otg.util.ChunkCoordinate;
+
+/**
+ * Spatial index for the start / center chunks of spawned BO4's, used by
+ * CustomStructurePlotter for BO4 frequency and BO4 group distance checks.
+ * Chunks are bucketed into square cells, so looking for structures within
+ * a radius only visits the cells that overlap the radius, instead of every
+ * structure spawned in the world so far.
+ *
+ * Not persisted, rebuilt from the spawned structures data when it's loaded.
+ */
+class SpawnedStructuresGrid
+{
+	// 32x32 chunks per cell
+	private static final int CELL_SIZE_BITS = 5;
+
+	private final HashMap<ChunkCoordinate, Cell> cells = new HashMap<ChunkCoordinate, Cell>();
+	private int maxRadius = 0;
+
+	void add(int chunkX, int chunkZ, int radius)
+	{
+		ChunkCoordinate cellCoord = ChunkCoordinate.fromChunkCoords(chunkX >> CELL_SIZE_BITS, chunkZ >> CELL_SIZE_BITS);
+		Cell cell = this.cells.get(cellCoord);
+		if(cell == null)
+		{
+			cell = new Cell();
+			this.cells.put(cellCoord, cell);
+		}
+		cell.add(chunkX, chunkZ, radius);
+		if(radius > this.maxRadius)
+		{
+			this.maxRadius = radius;
+		}
+	}
+
+	/**
+	 * Checks if any structure lies within the given radius of the given chunk, or
+	 * within its own radius if that is larger. Distances are rounded down to whole
+	 * chunks, the same way BO4 frequency checks always have.
+	 */
+	boolean isStructureInRadius(int chunkX, int chunkZ, int radius)
+	{
+		int searchRadius = Math.max(radius, this.maxRadius);
+		int minCellX = (chunkX - searchRadius) >> CELL_SIZE_BITS;
+		int maxCellX = (chunkX + searchRadius) >> CELL_SIZE_BITS;
+		int minCellZ = (chunkZ - searchRadius) >> CELL_SIZE_BITS;
+		int maxCellZ = (chunkZ + searchRadius) >> CELL_SIZE_BITS;
+
+		// For large radii with few structures, checking every cell is cheaper than looking up every cell in the area.
+		if((long)(maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > this.cells.size())
+		{
+			for(Cell cell : this.cells.values())
+			{
+				if(cell.isStructureInRadius(chunkX, chunkZ, radius))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		Cell cell;
+		for(int cellX = minCellX; cellX <= maxCellX; cellX++)
+		{
+			for(int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++)
+			{
+				cell = this.cells.get(ChunkCoordinate.fromChunkCoords(cellX, cellZ));
+				if(cell != null && cell.isStructureInRadius(chunkX, chunkZ, radius))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	static HashMap<String, SpawnedStructuresGrid> fromStructuresByName(Map<String, ? extends Iterable<ChunkCoordinate>> structuresByName)
+	{
+		HashMap<String, SpawnedStructuresGrid> grids = new HashMap<String, SpawnedStructuresGrid>();
+		for(Map.Entry<String, ? extends Iterable<ChunkCoordinate>> entry : structuresByName.entrySet())
+		{
+			SpawnedStructuresGrid grid = new SpawnedStructuresGrid();
+			for(ChunkCoordinate chunkCoord : entry.getValue())
+			{
+				grid.add(chunkCoord.getChunkX(), chunkCoord.getChunkZ(), 0);
+			}
+			grids.put(entry.getKey(), grid);
+		}
+		return grids;
+	}
+
+	static HashMap<String, SpawnedStructuresGrid> fromStructuresByGroup(Map<String, ? extends Map<ChunkCoordinate, Integer>> structuresByGroup)
+	{
+		HashMap<String, SpawnedStructuresGrid> grids = new HashMap<String, SpawnedStructuresGrid>();
+		for(Map.Entry<String, ? extends Map<ChunkCoordinate, Integer>> entry : structuresByGroup.entrySet())
+		{
+			SpawnedStructuresGrid grid = new SpawnedStructuresGrid();
+			for(Map.Entry<ChunkCoordinate, Integer> chunkEntry : entry.getValue().entrySet())
+			{
+				grid.add(chunkEntry.getKey().getChunkX(), chunkEntry.getKey().getChunkZ(), chunkEntry.getValue().intValue());
+			}
+			grids.put(entry.getKey(), grid);
+		}
+		return grids;
+	}
+
+	private static class Cell
+	{
+		// x, z, radius for each structure
+		private int[] entries = new int[3 * 4];
+		private int size = 0;
+
+		private void add(int chunkX, int chunkZ, int radius)
+		{
+			if(this.size == this.entries.length)
+			{
+				int[] entries = new int[this.entries.length * 2];
+				System.arraycopy(this.entries, 0, entries, 0, this.size);
+				this.entries = entries;
+			}
+			this.entries[this.size++] = chunkX;
+			this.entries[this.size++] = chunkZ;
+			this.entries[this.size++] = radius;
+		}
+
+		private boolean isStructureInRadius(int chunkX, int chunkZ, int radius)
+		{
+			long distanceX;
+			long distanceZ;
+			for(int i = 0; i < this.size; i += 3)
+			{
+				distanceX = chunkX - this.entries[i];
+				distanceZ = chunkZ - this.entries[i + 1];
+				if((int)Math.floor(Math.sqrt(distanceX * distanceX + distanceZ * distanceZ)) <= Math.max(radius, this.entries[i + 2]))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
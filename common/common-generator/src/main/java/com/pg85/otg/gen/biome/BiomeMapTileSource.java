@@ -0,0 +1,52 @@
+package com.pg85.otg.gen.biome;
+
+import com.pg85.otg.gen.biome.layers.BiomeLayerData;
+import com.pg85.otg.gen.biome.layers.BiomeLayers;
+import com.pg85.otg.interfaces.IBiome;
+import com.pg85.otg.interfaces.ILayerSampler;
+import com.pg85.otg.interfaces.ILogger;
+import com.pg85.otg.interfaces.IMapTileSource;
+
+/**
+ * Provides biome colors for TiledMapRenderer, one pixel per noise biome
+ * (4x4 blocks). Tiles are sampled as one area, so each biome layer samples
+ * its parent's area once instead of each pixel going through every layer,
+ * see CachingLayerSampler.sample(int[], ...). Uses its own biome layers
+ * rather than CachedBiomeProvider, so rendering a map doesn't evict the
+ * biomes cached for world generation.
+ */
+public class BiomeMapTileSource implements IMapTileSource
+{
+	private final ILayerSampler sampler;
+	private final int[] colorsById;
+
+	public BiomeMapTileSource(ILayerSampler sampler, IBiome[] biomesById)
+	{
+		this.sampler = sampler;
+		this.colorsById = new int[biomesById.length];
+		for(int i = 0; i < biomesById.length; i++)
+		{
+			this.colorsById[i] = biomesById[i] != null ? biomesById[i].getBiomeConfig().getBiomeColor() : 0;
+		}
+	}
+
+	/**
+	 * Creates biome layers for the given preset data and seed, so maps can
+	 * be rendered without loading a world.
+	 */
+	public static BiomeMapTileSource create(long seed, BiomeLayerData data, IBiome[] biomesById, ILogger logger)
+	{
+		return new BiomeMapTileSource(BiomeLayers.create(seed, data, logger), biomesById);
+	}
+
+	@Override
+	public void getColors(int[] colors, int startX, int startZ, int sizeX, int sizeZ)
+	{
+		// Layer contexts and caches are per thread, so tiles can be sampled in parallel.
+		this.sampler.sample(colors, startX, startZ, sizeX, sizeZ);
+		for(int i = 0; i < sizeX * sizeZ; i++)
+		{
+			colors[i] = this.colorsById[colors[i]];
+		}
+	}
+}
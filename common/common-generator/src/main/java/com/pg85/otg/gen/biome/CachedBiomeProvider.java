@@ -1,51 +1,63 @@
 package com.pg85.otg.gen.biome;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 import com.pg85.otg.constants.Constants;
+import com.pg85.otg.gen.biome.layers.util.CachingLayerSampler;
 import com.pg85.otg.interfaces.IBiomeConfig;
 import com.pg85.otg.interfaces.IBiome;
 import com.pg85.otg.interfaces.ICachedBiomeProvider;
 import com.pg85.otg.interfaces.ILayerSource;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.util.ChunkCoordinate;
-import com.pg85.otg.util.FifoMap;
+import com.pg85.otg.util.SegmentedLongCache;
 import com.pg85.otg.util.helpers.MathHelper;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A cache used throughout an entire session, so that base
  * terrain generation, carvers and decoration can fetch biomes
- * more efficiently. 
+ * more efficiently. Safe to use from multiple generation threads,
+ * cached arrays are shared and must not be modified by callers.
  */
 public class CachedBiomeProvider implements ICachedBiomeProvider
 {
-	static int cacheHits = 0;
-	static int smallCacheHits = 0;
-	@SuppressWarnings("unused")
+	private static final int NOISE_REGION_SIZE = 8;
+	// Log biome layer cache statistics every time this many chunks have been cached.
+	private static final int LAYER_STATS_INTERVAL = 4096;
+
 	private final ILogger logger;
 	
 	private final long seed;
 	private final ILayerSource biomeProvider;
 	private final IBiome[] biomesById;
-	
-	private final Object lock = new Object();
-	private boolean locked = false;
-	private boolean locked2 = false;
-	private final FifoMap<ChunkCoordinate, IBiome[]> biomesCache = new FifoMap<>(256);
-	private final FifoMap<ChunkCoordinate, IBiomeConfig[]> biomeConfigsCache = new FifoMap<>(256);
-	
-	private final Object noiseLock = new Object();
-	private final FifoMap<ChunkCoordinate, IBiomeConfig[]> noiseBiomeConfigsCache = new FifoMap<>(1024);	
 
-	public CachedBiomeProvider(long seed, ILayerSource biomeProvider, IBiome[] biomesById, ILogger logger)
+	// Biomes per chunk, keyed by chunk coords.
+	private final SegmentedLongCache<ChunkBiomes> biomesCache;
+	// Noise biomes per 8x8 region of noise (4x4 block) cells, keyed by region coords.
+	private final SegmentedLongCache<IBiomeConfig[]> noiseBiomeConfigsCache;
+	// Biome cache misses at which layer statistics are next logged, claimed by one thread per interval.
+	private final AtomicLong nextLayerStatsMisses = new AtomicLong(LAYER_STATS_INTERVAL);
+
+	public CachedBiomeProvider(long seed, ILayerSource biomeProvider, IBiome[] biomesById, int cacheSize, ILogger logger)
 	{
 		this.seed = seed;
 		this.biomeProvider = biomeProvider;
 		this.biomesById = biomesById;
 		this.logger = logger;
+		this.biomesCache = new SegmentedLongCache<>(cacheSize);
+		this.noiseBiomeConfigsCache = new SegmentedLongCache<>(cacheSize);
+	}
+
+	public long getBiomeCacheHits()
+	{
+		return this.biomesCache.getHits() + this.noiseBiomeConfigsCache.getHits();
+	}
+
+	public long getBiomeCacheMisses()
+	{
+		return this.biomesCache.getMisses() + this.noiseBiomeConfigsCache.getMisses();
 	}
 
 	// Used by any method that can preemptively request a chunk of biomeconfigs,
@@ -54,37 +66,7 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 	@Override
 	public IBiomeConfig[] getBiomeConfigsForChunk(ChunkCoordinate chunkCoord)
 	{
-		IBiomeConfig[] biomeConfigs;
-		synchronized(this.lock)
-		{
-			this.locked = true;
-			biomeConfigs = this.biomeConfigsCache.get(chunkCoord);
-			if(biomeConfigs == null)
-			{
-				IBiome[] biomes = new IBiome[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
-				biomeConfigs = new IBiomeConfig[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
-				int biomeId;
-				IBiome biome;
-				for (int x = 0; x < Constants.CHUNK_SIZE; x++)
-				{
-					for (int z = 0; z < Constants.CHUNK_SIZE; z++)
-					{
-						// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
-						biomeId = BiomeInterpolator.getId(this.seed, x + chunkCoord.getBlockX(), 0, z + chunkCoord.getBlockZ(), this.biomeProvider);
-						biome = this.biomesById[biomeId];
-						biomes[x * Constants.CHUNK_SIZE + z] = biome;
-						biomeConfigs[x * Constants.CHUNK_SIZE + z] = biome.getBiomeConfig();
-					}
-				}
-				this.biomesCache.put(chunkCoord, biomes);
-				this.biomeConfigsCache.put(chunkCoord, biomeConfigs);
-			} else {
-				cacheHits++;
-				//logger.log(LogLevel.INFO, LogCategory.MAIN, "Cache hit " + cacheHits);
-			}
-		}
-		this.locked = false;
-		return biomeConfigs;		
+		return getChunkBiomes(chunkCoord.getChunkX(), chunkCoord.getChunkZ()).biomeConfigs;
 	}
 	
 	// Used by any method that can preemptively request a chunk of biomeconfigs,
@@ -92,37 +74,7 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 	@Override
 	public IBiome[] getBiomesForChunk(ChunkCoordinate chunkCoord)
 	{
-		IBiome[] biomes;
-		synchronized(this.lock)
-		{
-			this.locked = true;
-			biomes = this.biomesCache.get(chunkCoord);
-			if(biomes == null)
-			{
-				biomes = new IBiome[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
-				IBiomeConfig[]  biomeConfigs = new IBiomeConfig[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
-				int biomeId;
-				IBiome biome;
-				for (int x = 0; x < Constants.CHUNK_SIZE; x++)
-				{
-					for (int z = 0; z < Constants.CHUNK_SIZE; z++)
-					{
-						// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
-						biomeId = BiomeInterpolator.getId(this.seed,  x + chunkCoord.getBlockX(), 0, z + chunkCoord.getBlockZ(), this.biomeProvider);
-						biome = this.biomesById[biomeId];
-						biomes[x * Constants.CHUNK_SIZE + z] = biome;
-						biomeConfigs[x * Constants.CHUNK_SIZE + z] = biome.getBiomeConfig();
-					}
-				}
-				this.biomesCache.put(chunkCoord, biomes);
-				this.biomeConfigsCache.put(chunkCoord, biomeConfigs);
-			} else {
-				cacheHits++;
-				//logger.log(LogLevel.INFO, LogCategory.MAIN, "Cache hit " + cacheHits);
-			}
-		}
-		this.locked = false;
-		return biomes;
+		return getChunkBiomes(chunkCoord.getChunkX(), chunkCoord.getChunkZ()).biomes;
 	}
 	
 	@Override
@@ -131,25 +83,20 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 		IBiome[] biomes = new IBiome[widthHeightInBlocks * widthHeightInBlocks];
 		IBiome[] chunkBiomes;
 		int widthHeightInChunks = (int)Math.ceil(widthHeightInBlocks / 16f);
-		synchronized(this.lock)
+		for(int chunkX = 0; chunkX < widthHeightInChunks; chunkX++)
 		{
-			this.locked2 = true;
-			for(int chunkX = 0; chunkX < widthHeightInChunks; chunkX++)
+			for(int chunkZ = 0; chunkZ < widthHeightInChunks; chunkZ++)
 			{
-				for(int chunkZ = 0; chunkZ < widthHeightInChunks; chunkZ++)
+				chunkBiomes = getChunkBiomes(chunkCoord.getChunkX() + chunkX, chunkCoord.getChunkZ() + chunkZ).biomes;
+				for(int x = 0; x < Constants.CHUNK_SIZE; x++)
 				{
-					chunkBiomes = getBiomesForChunk(ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + chunkX, chunkCoord.getChunkZ() + chunkZ));
-					for(int x = 0; x < Constants.CHUNK_SIZE; x++)
+					for(int z = 0; z < Constants.CHUNK_SIZE; z++)
 					{
-						for(int z = 0; z < Constants.CHUNK_SIZE; z++)
-						{
-							biomes[(chunkX * Constants.CHUNK_SIZE + x) * widthHeightInBlocks + (chunkZ * Constants.CHUNK_SIZE + z)] = chunkBiomes[x * Constants.CHUNK_SIZE + z];
-						}
+						biomes[(chunkX * Constants.CHUNK_SIZE + x) * widthHeightInBlocks + (chunkZ * Constants.CHUNK_SIZE + z)] = chunkBiomes[x * Constants.CHUNK_SIZE + z];
 					}
 				}
 			}
 		}
-		this.locked2 = false;
 		return biomes;
 	}
 	
@@ -161,29 +108,70 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 	@Override
 	public IBiomeConfig getBiomeConfig(int x, int z, boolean cacheChunk)
 	{
-		ChunkCoordinate chunkCoord = ChunkCoordinate.fromBlockCoords(x, z);
-		// TODO: Do we want/need a lock here? Overhead of the lock would be big.
-		IBiomeConfig[] biomeConfigs = null;
-		if(!this.locked && !this.locked2)
+		int chunkX = x >> 4;
+		int chunkZ = z >> 4;
+		ChunkBiomes chunkBiomes = this.biomesCache.get(MathHelper.toLong(chunkX, chunkZ));
+		if(chunkBiomes == null)
 		{
-			biomeConfigs = this.biomeConfigsCache.get(chunkCoord);
+			if(!cacheChunk)
+			{
+				// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
+				return this.biomesById[BiomeInterpolator.getId(this.seed, x, 0, z, this.biomeProvider)].getBiomeConfig();
+			}
+			chunkBiomes = createChunkBiomes(chunkX, chunkZ);
 		}
-		int internalX = x - chunkCoord.getBlockX();
-		int internalZ = z - chunkCoord.getBlockZ();
-		if(biomeConfigs == null)
+		return chunkBiomes.biomeConfigs[(x & 15) * Constants.CHUNK_SIZE + (z & 15)];
+	}
+
+	private ChunkBiomes getChunkBiomes(int chunkX, int chunkZ)
+	{
+		ChunkBiomes chunkBiomes = this.biomesCache.get(MathHelper.toLong(chunkX, chunkZ));
+		if(chunkBiomes == null)
 		{
-			if(cacheChunk && !this.locked && !this.locked2)
+			chunkBiomes = createChunkBiomes(chunkX, chunkZ);
+		}
+		return chunkBiomes;
+	}
+
+	// Another thread may be creating the same chunk at the same time,
+	// the results are identical so whichever is cached last wins.
+	private ChunkBiomes createChunkBiomes(int chunkX, int chunkZ)
+	{
+		IBiome[] biomes = new IBiome[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
+		IBiomeConfig[] biomeConfigs = new IBiomeConfig[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
+		int[] biomeIds = new int[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
+		// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
+		BiomeInterpolator.getIds(this.seed, chunkX * Constants.CHUNK_SIZE, 0, chunkZ * Constants.CHUNK_SIZE, Constants.CHUNK_SIZE, this.biomeProvider, biomeIds);
+		IBiome biome;
+		for (int i = 0; i < biomeIds.length; i++)
+		{
+			biome = this.biomesById[biomeIds[i]];
+			biomes[i] = biome;
+			biomeConfigs[i] = biome.getBiomeConfig();
+		}
+		ChunkBiomes chunkBiomes = new ChunkBiomes(biomes, biomeConfigs);
+		this.biomesCache.put(MathHelper.toLong(chunkX, chunkZ), chunkBiomes);
+
+		if(this.logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+		{
+			long nextMisses = this.nextLayerStatsMisses.get();
+			if(this.biomesCache.getMisses() >= nextMisses && this.nextLayerStatsMisses.compareAndSet(nextMisses, nextMisses + LAYER_STATS_INTERVAL))
 			{
-				return getBiomeConfigsForChunk(chunkCoord)[internalX * Constants.CHUNK_SIZE + internalZ];
+				logLayerCacheStats();
 			}
-			// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
-			int biomeId = BiomeInterpolator.getId(this.seed,  x, 0, z, this.biomeProvider);
-			return this.biomesById[biomeId].getBiomeConfig();
-		} else {
-			smallCacheHits++;
-			//logger.log(LogLevel.INFO, LogCategory.MAIN, "Small cache hit " + cacheHits);
 		}
-		return biomeConfigs[internalX * Constants.CHUNK_SIZE + internalZ];
+
+		return chunkBiomes;
+	}
+
+	private void logLayerCacheStats()
+	{
+		if(this.biomeProvider.getSampler() instanceof CachingLayerSampler)
+		{
+			StringBuilder stats = new StringBuilder("Biome layer cache statistics, starting at the final layer:" + System.lineSeparator());
+			((CachingLayerSampler)this.biomeProvider.getSampler()).appendCacheStats(stats, 0);
+			this.logger.log(LogLevel.INFO, LogCategory.PERFORMANCE, stats.toString());
+		}
 	}
 
 	// These methods don't use the cache because the overhead
@@ -210,89 +198,53 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 	@Override
 	public IBiomeConfig[] getNoiseBiomeConfigsForRegion(int noiseStartX, int noiseStartZ, int widthHeight)
 	{
-		int regionSize = 8;
 		int regionStartX = noiseStartX >> 3;
 		int regionStartZ = noiseStartZ >> 3;
-		int cacheOffsetX = noiseStartX - (regionStartX << 3);
-		int cacheOffsetZ = noiseStartZ - (regionStartZ << 3);
-		int regionWidth = (int)Math.ceil((((regionStartX >> 3) + widthHeight) - (regionStartX >> 3)) / 8f);
-		int regionHeight = (int)Math.ceil((((regionStartZ >> 3) + widthHeight) - (regionStartZ >> 3)) / 8f);
+		int regionEndX = (noiseStartX + widthHeight - 1) >> 3;
+		int regionEndZ = (noiseStartZ + widthHeight - 1) >> 3;
 		IBiomeConfig[] biomeConfigs = new IBiomeConfig[widthHeight * widthHeight];
 
-		IBiome biome;
 		IBiomeConfig[] region;
-		ChunkCoordinate regionCoord;
-		List<ChunkCoordinate> regionsToHandle = new ArrayList<ChunkCoordinate>();
+		int[] regionIds = null;
 		int cacheX;
 		int cacheZ;
-		synchronized(this.noiseLock)
+		for(int regionX = regionStartX; regionX <= regionEndX; regionX++)
 		{
-			for(int regionX = regionStartX; regionX <= regionStartX + regionWidth; regionX++)
+			for(int regionZ = regionStartZ; regionZ <= regionEndZ; regionZ++)
 			{
-				for(int regionZ = regionStartZ; regionZ <= regionStartZ + regionHeight; regionZ++)
+				region = this.noiseBiomeConfigsCache.get(MathHelper.toLong(regionX, regionZ));
+				if(region == null)
 				{
-					regionCoord = ChunkCoordinate.fromChunkCoords(regionX, regionZ);
-					region = this.noiseBiomeConfigsCache.get(regionCoord);
-					if(region != null)
+					region = new IBiomeConfig[NOISE_REGION_SIZE * NOISE_REGION_SIZE];
+					if(regionIds == null)
 					{
-						for(int x = 0; x < regionSize; x++)
-						{
-							for(int z = 0; z < regionSize; z++)
-							{
-								cacheX = ((regionX - regionStartX) << 3) + x - cacheOffsetX;								
-								cacheZ = ((regionZ - regionStartZ) << 3) + z - cacheOffsetZ;
-								if(
-									cacheX < widthHeight && cacheX >= 0 &&
-									cacheZ < widthHeight && cacheZ >= 0
-								)
-								{
-									biomeConfigs[cacheX * widthHeight + cacheZ] = region[(x << 3) + z];
-									if(
-										cacheX == widthHeight - 1 &&
-										cacheZ == widthHeight - 1 &&
-										regionsToHandle.size() == 0 
-									)
-									{
-										return biomeConfigs;
-									}
-								}
-							}
-						}
-					} else {
-						regionsToHandle.add(regionCoord);
+						regionIds = new int[NOISE_REGION_SIZE * NOISE_REGION_SIZE];
+					}
+					// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
+					this.biomeProvider.getSampler().sample(regionIds, regionX << 3, regionZ << 3, NOISE_REGION_SIZE, NOISE_REGION_SIZE);
+					for(int i = 0; i < regionIds.length; i++)
+					{
+						region[i] = this.biomesById[regionIds[i]].getBiomeConfig();
 					}
+					this.noiseBiomeConfigsCache.put(MathHelper.toLong(regionX, regionZ), region);
 				}
-			}
-		}
-		Map<ChunkCoordinate, IBiomeConfig[]> regionsHandled = new HashMap<ChunkCoordinate, IBiomeConfig[]>();
-		for(ChunkCoordinate regionTohandle : regionsToHandle)
-		{
-			region = new IBiomeConfig[regionSize * regionSize];
-			for(int x = 0; x < regionSize; x++)
-			{
-				for(int z = 0; z < regionSize; z++)
+				for(int x = 0; x < NOISE_REGION_SIZE; x++)
 				{
-					// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
-					biome = this.biomesById[this.biomeProvider.getSampler().sample((regionTohandle.getChunkX() << 3) + x, (regionTohandle.getChunkZ() << 3) + z)];
-					region[(x << 3) + z] = biome.getBiomeConfig();
-					
-					// TODO: Abort and don't cache region if requested area is smaller than 8x8?
-					cacheX = ((regionTohandle.getChunkX() - regionStartX) << 3) + x - cacheOffsetX;
-					cacheZ = ((regionTohandle.getChunkZ() - regionStartZ) << 3) + z - cacheOffsetZ;
-					if(
-						cacheX < widthHeight && cacheX >= 0 &&
-						cacheZ < widthHeight && cacheZ >= 0
-					)
+					cacheX = (regionX << 3) + x - noiseStartX;
+					if(cacheX < 0 || cacheX >= widthHeight)
 					{
-						biomeConfigs[cacheX * widthHeight + cacheZ] = biome.getBiomeConfig();
+						continue;
+					}
+					for(int z = 0; z < NOISE_REGION_SIZE; z++)
+					{
+						cacheZ = (regionZ << 3) + z - noiseStartZ;
+						if(cacheZ >= 0 && cacheZ < widthHeight)
+						{
+							biomeConfigs[cacheX * widthHeight + cacheZ] = region[(x << 3) + z];
+						}
 					}
 				}
 			}
-			regionsHandled.put(regionTohandle, region);
-		}
-		synchronized(this.noiseLock)
-		{
-			this.noiseBiomeConfigsCache.putAll(regionsHandled);
 		}
 		return biomeConfigs;
 	}
@@ -314,6 +266,18 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 		return this.biomesById[this.biomeProvider.getSampler().sample(noiseX, noiseZ)];
 	}
 
+	private static class ChunkBiomes
+	{
+		private final IBiome[] biomes;
+		private final IBiomeConfig[] biomeConfigs;
+
+		private ChunkBiomes(IBiome[] biomes, IBiomeConfig[] biomeConfigs)
+		{
+			this.biomes = biomes;
+			this.biomeConfigs = biomeConfigs;
+		}
+	}
+
 	/**
 	 * Interpolates the given biome from biome coords (pos >> 2) to real coords.
 	 * This is required as a vanilla change in 1.15 changed biomes from being stored in real resolution, changing them to be
@@ -375,15 +339,107 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 			
 			return MathHelper.toLong(finalX, finalZ);
 		}
-	
-		private static double calcSquaredDistance(long seed, int x, int y, int z, double xFraction, double yFraction, double zFraction)
+
+		/**
+		 * Same as getId for every block of a size * size area at the given y, with ids
+		 * indexed x * size + z. The offsets of each lattice point are only calculated
+		 * once instead of for all 8 blocks they surround, and the biome layer is
+		 * sampled once for the area of cells the blocks can resolve to.
+		 */
+		public static void getIds(long seed, int startX, int y, int startZ, int size, ILayerSource biomeProvider, int[] ids)
+		{
+			int cellStartX = (startX - 2) >> 2;
+			int cellY = (y - 2) >> 2;
+			int cellStartZ = (startZ - 2) >> 2;
+			// Blocks resolve to one of the corners of the cell they're in
+			int cellsX = ((startX + size - 3) >> 2) + 2 - cellStartX;
+			int cellsZ = ((startZ + size - 3) >> 2) + 2 - cellStartZ;
+
+			// x, y, z offsets per lattice point, indexed ((x * 2 + y) * cellsZ + z) * 3
+			double[] offsets = new double[cellsX * 2 * cellsZ * 3];
+			long mixedSeed;
+			int idx;
+			for (int x = 0; x < cellsX; x++)
+			{
+				for (int lerpY = 0; lerpY < 2; lerpY++)
+				{
+					for (int z = 0; z < cellsZ; z++)
+					{
+						idx = ((x * 2 + lerpY) * cellsZ + z) * 3;
+						mixedSeed = mixLatticeSeed(seed, cellStartX + x, cellY + lerpY, cellStartZ + z);
+						offsets[idx] = distribute(mixedSeed);
+						mixedSeed = MathHelper.mixSeed(mixedSeed, seed);
+						offsets[idx + 1] = distribute(mixedSeed);
+						mixedSeed = MathHelper.mixSeed(mixedSeed, seed);
+						offsets[idx + 2] = distribute(mixedSeed);
+					}
+				}
+			}
+
+			int[] cellIds = new int[cellsX * cellsZ];
+			biomeProvider.getSampler().sample(cellIds, cellStartX, cellStartZ, cellsX, cellsZ);
+
+			double localY = (double) ((y - 2) & 3) / 4.0D;
+			int blockStartX;
+			int blockStartZ;
+			int chunkX;
+			int chunkZ;
+			double localX;
+			double localZ;
+			double maxDistance;
+			double distance;
+			int closest;
+			for (int x = 0; x < size; x++)
+			{
+				blockStartX = startX + x - 2;
+				chunkX = (blockStartX >> 2) - cellStartX;
+				localX = (double) (blockStartX & 3) / 4.0D;
+				for (int z = 0; z < size; z++)
+				{
+					blockStartZ = startZ + z - 2;
+					chunkZ = (blockStartZ >> 2) - cellStartZ;
+					localZ = (double) (blockStartZ & 3) / 4.0D;
+
+					maxDistance = Double.MAX_VALUE;
+					closest = Integer.MIN_VALUE;
+					for (int i = 0; i < 8; ++i)
+					{
+						boolean isX = (i & 4) == 0;
+						boolean isY = (i & 2) == 0;
+						boolean isZ = (i & 1) == 0;
+
+						idx = (((isX ? chunkX : chunkX + 1) * 2 + (isY ? 0 : 1)) * cellsZ + (isZ ? chunkZ : chunkZ + 1)) * 3;
+						distance =
+							square((isZ ? localZ : localZ - 1.0D) + offsets[idx + 2]) +
+							square((isY ? localY : localY - 1.0D) + offsets[idx + 1]) +
+							square((isX ? localX : localX - 1.0D) + offsets[idx])
+						;
+
+						if (maxDistance > distance)
+						{
+							maxDistance = distance;
+							closest = i;
+						}
+					}
+
+					ids[x * size + z] = cellIds[((closest & 4) == 0 ? chunkX : chunkX + 1) * cellsZ + ((closest & 1) == 0 ? chunkZ : chunkZ + 1)];
+				}
+			}
+		}
+
+		private static long mixLatticeSeed(long seed, int x, int y, int z)
 		{
 			long mixedSeed = MathHelper.mixSeed(seed, x);
 			mixedSeed = MathHelper.mixSeed(mixedSeed, y);
 			mixedSeed = MathHelper.mixSeed(mixedSeed, z);
 			mixedSeed = MathHelper.mixSeed(mixedSeed, x);
 			mixedSeed = MathHelper.mixSeed(mixedSeed, y);
-			mixedSeed = MathHelper.mixSeed(mixedSeed, z);
+			return MathHelper.mixSeed(mixedSeed, z);
+		}
+	
+		private static double calcSquaredDistance(long seed, int x, int y, int z, double xFraction, double yFraction, double zFraction)
+		{
+			long mixedSeed = mixLatticeSeed(seed, x, y, z);
 			double xOffset = distribute(mixedSeed);
 			mixedSeed = MathHelper.mixSeed(mixedSeed, seed);
 			double yOffset = distribute(mixedSeed);
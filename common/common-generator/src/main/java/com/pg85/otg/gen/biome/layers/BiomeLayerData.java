@@ -59,6 +59,9 @@ public class BiomeLayerData
 	public final Path presetDir;
 	public final String imageFile;
 	public final ImageOrientation imageOrientation;
+	public final int layerCacheSize;
+	public final int layerCacheMaxSize;
+	public final boolean layerCacheTwoWay;
 
 
     // TODO: The only reason we're cloning BiomeLayerData and NewBiomeData
@@ -83,6 +86,9 @@ public class BiomeLayerData
 		this.presetDir = data.presetDir;
 		this.imageFile = data.imageFile;
 		this.imageOrientation = data.imageOrientation;
+		this.layerCacheSize = data.layerCacheSize;
+		this.layerCacheMaxSize = data.layerCacheMaxSize;
+		this.layerCacheTwoWay = data.layerCacheTwoWay;
 
 		this.biomeMode = data.biomeMode;
 		this.generationDepth = data.generationDepth;
@@ -165,6 +171,9 @@ public class BiomeLayerData
 		this.presetDir = presetDir;
 		this.imageFile = worldConfig.getImageFile();
 		this.imageOrientation = worldConfig.getImageOrientation();
+		this.layerCacheSize = worldConfig.getBiomeLayerCacheSize();
+		this.layerCacheMaxSize = worldConfig.getBiomeLayerCacheMaxSize();
+		this.layerCacheTwoWay = worldConfig.getBiomeLayerCacheTwoWay();
 		
 		this.biomeMode = worldConfig.getBiomeMode();
 		this.generationDepth = worldConfig.getGenerationDepth();
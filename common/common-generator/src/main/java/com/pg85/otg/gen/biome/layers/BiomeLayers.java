@@ -231,7 +231,7 @@ public class BiomeLayers
 	// Create a sampler that can get a biome at a position
 	public static CachingLayerSampler create(long seed, BiomeLayerData data, ILogger logger)
 	{
-		LayerFactory<CachingLayerSampler> factory = build(data, salt -> new CachingLayerContext(25, seed, salt), logger);
+		LayerFactory<CachingLayerSampler> factory = build(data, salt -> new CachingLayerContext(data.layerCacheSize, data.layerCacheMaxSize, data.layerCacheTwoWay, seed, salt), logger);
 		return factory.make();
 	}
 }
@@ -111,6 +111,13 @@ public class FromImageLayer implements ParentedLayer
 		}
 	}
 
+	// Most cells come from the image, so the parent is only sampled when needed.
+	@Override
+	public void sampleArea(LayerSampleContext<?> context, ILayerSampler parent, int[] out, int startX, int startZ, int sizeX, int sizeZ)
+	{
+		sampleCells(context, parent, out, startX, startZ, sizeX, sizeZ);
+	}
+
 	@Override
 	public int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z)
 	{
@@ -2,6 +2,7 @@ package com.pg85.otg.gen.biome.layers;
 
 import com.pg85.otg.gen.biome.layers.type.ParentedLayer;
 import com.pg85.otg.gen.biome.layers.util.LayerSampleContext;
+import com.pg85.otg.gen.biome.layers.util.SampledArea;
 import com.pg85.otg.interfaces.ILayerSampler;
 
 class ScaleLayer implements ParentedLayer
@@ -18,6 +19,17 @@ class ScaleLayer implements ParentedLayer
 	  return y >> 1;
 	}
 
+	@Override
+	public void sampleArea(LayerSampleContext<?> context, ILayerSampler parent, int[] out, int startX, int startZ, int sizeX, int sizeZ)
+	{
+		// Each cell samples the parent at x / 2 and (x + 1) / 2
+		int parentStartX = this.transformX(startX);
+		int parentStartZ = this.transformZ(startZ);
+		int parentSizeX = this.transformX(startX + sizeX) - parentStartX + 1;
+		int parentSizeZ = this.transformZ(startZ + sizeZ) - parentStartZ + 1;
+		sampleCells(context, new SampledArea(parent, parentStartX, parentStartZ, parentSizeX, parentSizeZ), out, startX, startZ, sizeX, sizeZ);
+	}
+
 	public int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z)
 	{
 	  // Optimized ScaleLayer implementation from zoom-layer
@@ -19,4 +19,10 @@ public interface DiagonalCrossSamplingLayer extends ParentedLayer {
 			  parent.sample(x - 1, z - 1), // Northwest
 			  parent.sample(x, z));		// Center
 	}
+
+	@Override
+	default int getParentPadding()
+	{
+		return 1;
+	}
 }
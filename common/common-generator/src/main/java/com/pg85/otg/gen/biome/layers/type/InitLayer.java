@@ -11,9 +11,9 @@ public interface InitLayer
 {
 	default <R extends ILayerSampler> LayerFactory<R> create(LayerSampleContext<R> context)
 	{
-	  return () -> context.createSampler((x, z) -> {
-		 context.initSeed(x, z);
-		 return this.sample(context, x, z);
+	  return () -> context.createSampler((threadContext, x, z) -> {
+		 threadContext.initSeed(x, z);
+		 return this.sample(threadContext, x, z);
 	  });
 	}
 
@@ -1,8 +1,10 @@
 package com.pg85.otg.gen.biome.layers.type;
 
 import com.pg85.otg.gen.biome.layers.util.LayerFactory;
+import com.pg85.otg.gen.biome.layers.util.LayerOperator;
 import com.pg85.otg.gen.biome.layers.util.LayerRandomnessSource;
 import com.pg85.otg.gen.biome.layers.util.LayerSampleContext;
+import com.pg85.otg.gen.biome.layers.util.SampledArea;
 import com.pg85.otg.interfaces.ILayerSampler;
 
 public interface MergingLayer
@@ -12,9 +14,29 @@ public interface MergingLayer
 	  return () -> {
 		 R layerSampler = layer1.make();
 		 R layerSampler2 = layer2.make();
-		 return context.createSampler((x, z) -> {
-			context.initSeed(x, z);
-			return this.sample(context, layerSampler, layerSampler2, x, z);
+		 return context.createSampler(new LayerOperator()
+		 {
+			@Override
+			public int apply(LayerSampleContext<?> threadContext, int x, int z)
+			{
+				threadContext.initSeed(x, z);
+				return sample(threadContext, layerSampler, layerSampler2, x, z);
+			}
+
+			// The second layer is only sampled for some cells, so only the first layer's area is sampled at once.
+			@Override
+			public void apply(LayerSampleContext<?> threadContext, int[] out, int startX, int startZ, int sizeX, int sizeZ)
+			{
+				SampledArea area = new SampledArea(layerSampler, startX, startZ, sizeX, sizeZ);
+				for (int x = 0; x < sizeX; x++)
+				{
+					for (int z = 0; z < sizeZ; z++)
+					{
+						threadContext.initSeed(startX + x, startZ + z);
+						out[x * sizeZ + z] = sample(threadContext, area, layerSampler2, startX + x, startZ + z);
+					}
+				}
+			}
 		 }, layerSampler, layerSampler2);
 	  };
 	}
@@ -1,7 +1,9 @@
 package com.pg85.otg.gen.biome.layers.type;
 
 import com.pg85.otg.gen.biome.layers.util.LayerFactory;
+import com.pg85.otg.gen.biome.layers.util.LayerOperator;
 import com.pg85.otg.gen.biome.layers.util.LayerSampleContext;
+import com.pg85.otg.gen.biome.layers.util.SampledArea;
 import com.pg85.otg.interfaces.ILayerSampler;
 
 /**
@@ -13,12 +15,56 @@ public interface ParentedLayer
 	{
 	  return () -> {
 		 R layerSampler = parent.make();
-		 return context.createSampler((x, z) -> {
-			context.initSeed(x, z);
-			return this.sample(context, layerSampler, x, z);
+		 return context.createSampler(new LayerOperator()
+		 {
+			@Override
+			public int apply(LayerSampleContext<?> threadContext, int x, int z)
+			{
+				threadContext.initSeed(x, z);
+				return sample(threadContext, layerSampler, x, z);
+			}
+
+			@Override
+			public void apply(LayerSampleContext<?> threadContext, int[] out, int startX, int startZ, int sizeX, int sizeZ)
+			{
+				sampleArea(threadContext, layerSampler, out, startX, startZ, sizeX, sizeZ);
+			}
 		 }, layerSampler);
 	  };
 	}
 
 	int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z);
+
+	/**
+	 * The distance around x / z at which the parent is sampled.
+	 */
+	default int getParentPadding()
+	{
+		return 0;
+	}
+
+	/**
+	 * Samples the parent's area once, padded by getParentPadding, then
+	 * samples each cell of the area from it.
+	 */
+	default void sampleArea(LayerSampleContext<?> context, ILayerSampler parent, int[] out, int startX, int startZ, int sizeX, int sizeZ)
+	{
+		int padding = getParentPadding();
+		sampleCells(context, new SampledArea(parent, startX - padding, startZ - padding, sizeX + padding * 2, sizeZ + padding * 2), out, startX, startZ, sizeX, sizeZ);
+	}
+
+	/**
+	 * Samples each cell of the area, the same way as sampling them one by one.
+	 */
+	default void sampleCells(LayerSampleContext<?> context, ILayerSampler parent, int[] out, int startX, int startZ, int sizeX, int sizeZ)
+	{
+		for (int x = 0; x < sizeX; x++)
+		{
+			for (int z = 0; z < sizeZ; z++)
+			{
+				context.initSeed(startX + x, startZ + z);
+				out[x * sizeZ + z] = sample(context, parent, startX + x, startZ + z);
+			}
+		}
+	}
 }
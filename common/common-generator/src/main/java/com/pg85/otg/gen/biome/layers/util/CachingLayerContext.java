@@ -8,30 +8,49 @@ import com.pg85.otg.util.helpers.MathHelper;
 public class CachingLayerContext implements LayerSampleContext<CachingLayerSampler>
 {
 	private final int cacheCapacity;
+	private final int maxCacheCapacity;
+	private final boolean twoWayCache;
 	private final PerlinNoiseSampler noiseSampler;
 	private final long worldSeed;
 	private long localSeed;
 
-	public CachingLayerContext(int cacheCapacity, long seed, long salt)
+	public CachingLayerContext(int cacheCapacity, int maxCacheCapacity, boolean twoWayCache, long seed, long salt)
 	{
 	  this.worldSeed = addSalt(seed, salt);
 	  this.noiseSampler = new PerlinNoiseSampler(new Random(seed));
 	  this.cacheCapacity = cacheCapacity;
+	  this.maxCacheCapacity = maxCacheCapacity;
+	  this.twoWayCache = twoWayCache;
+	}
+
+	// Copy for a single thread, shares the immutable seed and noise but has its own local seed.
+	private CachingLayerContext(CachingLayerContext context)
+	{
+	  this.worldSeed = context.worldSeed;
+	  this.noiseSampler = context.noiseSampler;
+	  this.cacheCapacity = context.cacheCapacity;
+	  this.maxCacheCapacity = context.maxCacheCapacity;
+	  this.twoWayCache = context.twoWayCache;
+	}
+
+	CachingLayerContext forThread()
+	{
+	  return new CachingLayerContext(this);
 	}
 
 	public CachingLayerSampler createSampler(LayerOperator layerOperator)
 	{
-	  return new CachingLayerSampler(this.cacheCapacity, layerOperator);
+	  return new CachingLayerSampler(this.cacheCapacity, this.maxCacheCapacity, this.twoWayCache, layerOperator, this);
 	}
 
 	public CachingLayerSampler createSampler(LayerOperator layerOperator, CachingLayerSampler cachingLayerSampler)
 	{
-	  return new CachingLayerSampler(Math.min(1024, cachingLayerSampler.getCapacity() * 4), layerOperator);
+	  return new CachingLayerSampler(Math.min(this.maxCacheCapacity, cachingLayerSampler.getCapacity() * 4), this.maxCacheCapacity, this.twoWayCache, layerOperator, this, cachingLayerSampler);
 	}
 
 	public CachingLayerSampler createSampler(LayerOperator layerOperator, CachingLayerSampler cachingLayerSampler, CachingLayerSampler cachingLayerSampler2)
 	{
-	  return new CachingLayerSampler(Math.min(1024, Math.max(cachingLayerSampler.getCapacity(), cachingLayerSampler2.getCapacity()) * 4), layerOperator);
+	  return new CachingLayerSampler(Math.min(this.maxCacheCapacity, Math.max(cachingLayerSampler.getCapacity(), cachingLayerSampler2.getCapacity()) * 4), this.maxCacheCapacity, this.twoWayCache, layerOperator, this, cachingLayerSampler, cachingLayerSampler2);
 	}
 
 	public void initSeed(long x, long y)
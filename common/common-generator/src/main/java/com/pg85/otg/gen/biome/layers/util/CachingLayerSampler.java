@@ -1,21 +1,44 @@
 package com.pg85.otg.gen.biome.layers.util;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.pg85.otg.interfaces.ILayerSampler;
 import com.pg85.otg.util.helpers.MathHelper;
 
 import it.unimi.dsi.fastutil.HashCommon;
 
+/**
+ * Samples a layer, caching results per thread. Each thread also gets its own
+ * copy of the layer's context, so the layer's random state is never shared
+ * and a single sampler stack can be used by multiple threads.
+ */
 public final class CachingLayerSampler implements ILayerSampler
 {
+	// Thread caches report their statistics and resize after this many lookups.
+	private static final int STATS_INTERVAL = 4096;
+	// Areas with at least this many cells are sampled at once, see sample(int[], ...).
+	private static final int AREA_SAMPLE_MIN_CELLS = 256;
+
 	private final ThreadLocal<SamplerBiomeCache> cache;
 	private final int cacheCapacity;
+	private final CachingLayerSampler[] parents;
+
+	// Statistics for all threads, updated every STATS_INTERVAL lookups per thread.
+	private final LongAdder lookups = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final AtomicInteger largestCapacity;
 
-	CachingLayerSampler(int cacheCapacity, LayerOperator operator)
+	CachingLayerSampler(int cacheCapacity, int maxCacheCapacity, boolean twoWay, LayerOperator operator, CachingLayerContext context, CachingLayerSampler... parents)
 	{
-		this.cache = ThreadLocal.withInitial(() -> new SamplerBiomeCache(operator, cacheCapacity));
+		int capacity = MathHelper.smallestEncompassingPowerOfTwo(Math.min(cacheCapacity, maxCacheCapacity));
+		int maxCapacity = Math.max(capacity, MathHelper.smallestEncompassingPowerOfTwo(maxCacheCapacity));
+		this.cache = ThreadLocal.withInitial(() -> new SamplerBiomeCache(this, operator, context.forThread(), capacity, maxCapacity, twoWay));
 		this.cacheCapacity = cacheCapacity;
+		this.parents = parents;
+		this.largestCapacity = new AtomicInteger(capacity);
 	}
 
 	public int sample(int x, int z)
@@ -23,45 +46,160 @@ public final class CachingLayerSampler implements ILayerSampler
 		return this.cache.get().get(x, z);
 	}
 
+	/**
+	 * Large areas are sampled by the layer at once, sampling each parent
+	 * layer's area once instead of looking up each cell, and aren't cached.
+	 * Parent areas shrink with each zoom layer, and small areas, like a
+	 * chunk's biomes, are looked up in this thread's cache.
+	 */
+	@Override
+	public void sample(int[] out, int startX, int startZ, int sizeX, int sizeZ)
+	{
+		SamplerBiomeCache cache = this.cache.get();
+		if (sizeX * sizeZ >= AREA_SAMPLE_MIN_CELLS)
+		{
+			cache.operator.apply(cache.context, out, startX, startZ, sizeX, sizeZ);
+			return;
+		}
+		for (int x = 0; x < sizeX; x++)
+		{
+			for (int z = 0; z < sizeZ; z++)
+			{
+				out[x * sizeZ + z] = cache.get(startX + x, startZ + z);
+			}
+		}
+	}
+
 	public int getCapacity()
 	{
 		return this.cacheCapacity;
 	}
 
+	/**
+	 * Appends a line with cache statistics for this layer, followed by the
+	 * lines for its parent layers, indented by their distance to this layer.
+	 */
+	public void appendCacheStats(StringBuilder builder, int depth)
+	{
+		long lookups = this.lookups.sum();
+		long misses = this.misses.sum();
+		for (int i = 0; i < depth; i++)
+		{
+			builder.append("  ");
+		}
+		builder.append("Layer cache (size ").append(this.largestCapacity.get()).append("): hits ").append(lookups - misses);
+		builder.append(", misses ").append(misses).append(", evictions ").append(this.evictions.sum());
+		builder.append(System.lineSeparator());
+		for (CachingLayerSampler parent : this.parents)
+		{
+			parent.appendCacheStats(builder, depth + 1);
+		}
+	}
+
 	private static class SamplerBiomeCache {
-		private final long[] keys;
-		private final int[] values;
-		private final int mask;
+		private final CachingLayerSampler sampler;
 		private final LayerOperator operator;
-
-		private SamplerBiomeCache(LayerOperator operator, int size) {
+		private final CachingLayerContext context;
+		private final int maxSize;
+		private final boolean twoWay;
+		private long[] keys;
+		private int[] values;
+		// For two way caches, the most recently used way of each set.
+		private byte[] recentWays;
+		private int mask;
+
+		private int lookups;
+		private int misses;
+		private int evictions;
+
+		private SamplerBiomeCache(CachingLayerSampler sampler, LayerOperator operator, CachingLayerContext context, int size, int maxSize, boolean twoWay) {
+			this.sampler = sampler;
 			this.operator = operator;
+			this.context = context;
+			this.maxSize = maxSize;
+			this.twoWay = twoWay && size >= 2;
+			resize(size);
+		}
 
-			size = MathHelper.smallestEncompassingPowerOfTwo(size);
-			this.mask = size - 1;
-
+		private void resize(int size)
+		{
 			this.keys = new long[size];
 			Arrays.fill(this.keys, Long.MIN_VALUE);
 			this.values = new int[size];
+			if (this.twoWay)
+			{
+				this.mask = size / 2 - 1;
+				this.recentWays = new byte[size / 2];
+			} else {
+				this.mask = size - 1;
+			}
 		}
 
 		public int get(int x, int z) {
-			long key = key(x, z);
-			int idx = hash(key) & this.mask;
+			if (++this.lookups == STATS_INTERVAL)
+			{
+				report();
+			}
 
-			// if the entry here has a key that matches ours, we have a cache hit
-			if (this.keys[idx] == key)
+			long key = key(x, z);
+			int hash = hash(key);
+			int idx;
+			if (this.twoWay)
 			{
-				return this.values[idx];
+				int set = hash & this.mask;
+				idx = set << 1;
+				if (this.keys[idx] == key)
+				{
+					this.recentWays[set] = 0;
+					return this.values[idx];
+				}
+				if (this.keys[idx + 1] == key)
+				{
+					this.recentWays[set] = 1;
+					return this.values[idx + 1];
+				}
+				// Replace the least recently used way
+				idx += 1 - this.recentWays[set];
+				this.recentWays[set] = (byte) (idx & 1);
 			} else {
-				// cache miss: sample and put the result into our cache entry
+				idx = hash & this.mask;
+				// if the entry here has a key that matches ours, we have a cache hit
+				if (this.keys[idx] == key)
+				{
+					return this.values[idx];
+				}
+			}
+
+			// cache miss: sample and put the result into our cache entry
+			this.misses++;
+			if (this.keys[idx] != Long.MIN_VALUE)
+			{
+				this.evictions++;
+			}
 
-				int value = this.operator.apply(x, z);
-				this.keys[idx] = key;
-				this.values[idx] = value;
+			int value = this.operator.apply(this.context, x, z);
+			this.keys[idx] = key;
+			this.values[idx] = value;
 
-				return value;
+			return value;
+		}
+
+		// Publish statistics and grow the cache if collisions keep evicting
+		// entries, dropping its contents. Runs every STATS_INTERVAL lookups.
+		private void report()
+		{
+			this.sampler.lookups.add(this.lookups);
+			this.sampler.misses.add(this.misses);
+			this.sampler.evictions.add(this.evictions);
+			if (this.evictions > this.lookups / 8 && this.keys.length < this.maxSize)
+			{
+				int size = this.keys.length * 2;
+				resize(size);
+				this.sampler.largestCapacity.accumulateAndGet(size, Math::max);
 			}
+			this.lookups = 0;
+			this.misses = 0;
+			this.evictions = 0;
 		}
 
 		private int hash(long key)
@@ -2,5 +2,25 @@ package com.pg85.otg.gen.biome.layers.util;
 
 public interface LayerOperator
 {
-	int apply(int x, int z);
+	/**
+	 * @param context The calling thread's copy of the layer's context, the
+	 * only context that may be used for randomness while sampling.
+	 */
+	int apply(LayerSampleContext<?> context, int x, int z);
+
+	/**
+	 * Same as apply for every cell of the sizeX * sizeZ area starting at
+	 * startX / startZ, writing the results to out, indexed x * sizeZ + z.
+	 * Layers override this to sample their parent's area at once.
+	 */
+	default void apply(LayerSampleContext<?> context, int[] out, int startX, int startZ, int sizeX, int sizeZ)
+	{
+		for (int x = 0; x < sizeX; x++)
+		{
+			for (int z = 0; z < sizeZ; z++)
+			{
+				out[x * sizeZ + z] = apply(context, startX + x, startZ + z);
+			}
+		}
+	}
 }
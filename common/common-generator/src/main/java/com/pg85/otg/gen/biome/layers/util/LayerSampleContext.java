@@ -2,6 +2,12 @@ package com.pg85.otg.gen.biome.layers.util;
 
 import com.pg85.otg.interfaces.ILayerSampler;
 
+/**
+ * Creates the samplers for a layer and provides the layer's randomness.
+ * initSeed and nextInt change the context's state, so samplers hand each
+ * thread its own copy of the context via LayerOperator.apply, layers must
+ * only use that copy while sampling.
+ */
 public interface LayerSampleContext<R extends ILayerSampler> extends LayerRandomnessSource
 {
 	void initSeed(long x, long y);
@@ -0,0 +1,40 @@
+package com.pg85.otg.gen.biome.layers.util;
+
+import com.pg85.otg.interfaces.ILayerSampler;
+
+/**
+ * An area of a parent layer sampled at once, used by layers sampling a
+ * whole area. Cells outside the area are sampled from the parent.
+ */
+public class SampledArea implements ILayerSampler
+{
+	private final ILayerSampler parent;
+	private final int startX;
+	private final int startZ;
+	private final int sizeX;
+	private final int sizeZ;
+	private final int[] values;
+
+	public SampledArea(ILayerSampler parent, int startX, int startZ, int sizeX, int sizeZ)
+	{
+		this.parent = parent;
+		this.startX = startX;
+		this.startZ = startZ;
+		this.sizeX = sizeX;
+		this.sizeZ = sizeZ;
+		this.values = new int[sizeX * sizeZ];
+		parent.sample(this.values, startX, startZ, sizeX, sizeZ);
+	}
+
+	@Override
+	public int sample(int x, int z)
+	{
+		int areaX = x - this.startX;
+		int areaZ = z - this.startZ;
+		if (areaX < 0 || areaX >= this.sizeX || areaZ < 0 || areaZ >= this.sizeZ)
+		{
+			return this.parent.sample(x, z);
+		}
+		return this.values[areaX * this.sizeZ + areaZ];
+	}
+}
@@ -2,6 +2,7 @@ package com.pg85.otg.gen.carver;
 
 import java.util.BitSet;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.pg85.otg.constants.Constants;
 import com.pg85.otg.interfaces.IBiomeConfig;
@@ -17,8 +18,14 @@ import com.pg85.otg.util.materials.LocalMaterials;
 
 public abstract class Carver
 {
+	// Paths are cached for a 64x64 chunk window that wraps around, which
+	// covers the 17x17 start chunks checked per chunk and their neighbours.
+	private static final int PATH_CACHE_BITS = 6;
+	private static final int PATH_CACHE_MASK = (1 << PATH_CACHE_BITS) - 1;
+
 	protected final int heightLimit;
 	protected final IWorldConfig worldConfig;
+	private final AtomicReferenceArray<CarverPath> pathCache = new AtomicReferenceArray<CarverPath>(1 << (PATH_CACHE_BITS * 2));
 
 	public Carver(int heightLimit, IWorldConfig worldConfig)
 	{
@@ -184,7 +191,75 @@ public abstract class Carver
 		return f * f + g * g - h * h <= i * i;
 	}
 
-	public abstract boolean carve(ISurfaceGeneratorNoiseProvider noiseProvider, ChunkBuffer chunk, Random random, int chunkX, int chunkZ, int mainChunkX, int mainChunkZ, BitSet carvingMask, ICachedBiomeProvider cachedBiomeProvider);
+	/**
+	 * Returns the path of the caves / ravines started in the given chunk,
+	 * which is empty if the chunk is not a start chunk. Paths are cached,
+	 * so neighbouring chunks don't have to repeat the random walk.
+	 */
+	public CarverPath getPath(long seed, int chunkX, int chunkZ)
+	{
+		int index = (chunkX & PATH_CACHE_MASK) << PATH_CACHE_BITS | (chunkZ & PATH_CACHE_MASK);
+		CarverPath path = this.pathCache.get(index);
+		if(path == null || !path.isFor(seed, chunkX, chunkZ))
+		{
+			path = new CarverPath(seed, chunkX, chunkZ);
+			Random random = new Random();
+			setCarverSeed(random, seed, chunkX, chunkZ);
+			if(this.isStartChunk(random, chunkX, chunkZ))
+			{
+				this.addPath(path, random, chunkX, chunkZ);
+				path.trim();
+			}
+			// Threads racing for the same slot create identical paths, so
+			// it doesn't matter which one ends up in the cache.
+			this.pathCache.set(index, path);
+		}
+		return path;
+	}
+
+	/**
+	 * Carves the parts of the given path that are inside the main chunk.
+	 */
+	public boolean carve(ISurfaceGeneratorNoiseProvider noiseProvider, ChunkBuffer chunk, CarverPath path, int mainChunkX, int mainChunkZ, BitSet carvingMask, ICachedBiomeProvider cachedBiomeProvider)
+	{
+		if(!path.canReach(mainChunkX, mainChunkZ))
+		{
+			return false;
+		}
+
+		boolean carved = false;
+		int sphere = 0;
+		while(sphere < path.size())
+		{
+			if(
+				path.canBeCutOff(sphere) &&
+				!this.canCarveBranch(mainChunkX, mainChunkZ, path.getX(sphere), path.getZ(sphere), path.getBranch(sphere), path.getBranchCount(sphere), path.getWidth(sphere))
+			)
+			{
+				sphere = path.getTunnelEnd(sphere);
+				continue;
+			}
+			carved |= this.carveRegion(noiseProvider, path.getCache(sphere), chunk, path.getSeed(sphere), mainChunkX, mainChunkZ, path.getX(sphere), path.getY(sphere), path.getZ(sphere), path.getHorizontalRadius(sphere), path.getVerticalRadius(sphere), carvingMask, cachedBiomeProvider);
+			sphere++;
+		}
+		return carved;
+	}
+
+	private static long setCarverSeed(Random random, long seed, int x, int z)
+	{
+		random.setSeed(seed);
+		long i = random.nextLong();
+		long j = random.nextLong();
+		long k = (long) x * i ^ (long) z * j ^ seed;
+		random.setSeed(k);
+		return k;
+	}
+
+	/**
+	 * Adds the spheres of the caves / ravines started in the given chunk to
+	 * the path, random has been seeded for the chunk and used by isStartChunk.
+	 */
+	protected abstract void addPath(CarverPath path, Random random, int chunkX, int chunkZ);
 
 	public abstract boolean isStartChunk(Random random, int chunkX, int chunkZ);
 
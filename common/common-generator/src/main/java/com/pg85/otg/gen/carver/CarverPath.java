@@ -0,0 +1,199 @@
+package com.pg85.otg.gen.carver;
+
+import java.util.Arrays;
+
+import com.pg85.otg.constants.Constants;
+import com.pg85.otg.util.gen.DecorationArea;
+
+/**
+ * The carve spheres of all caves / ravines started in a chunk, in the order
+ * they are carved. The random walk that creates them only depends on the
+ * seed and the start chunk, so a path is created once and carved into every
+ * chunk it reaches, see Carver.getPath.
+ *
+ * Tunnels are cut off by Carver.canCarveBranch once they can't reach the
+ * chunk being carved anymore, so each tunnel sphere stores the inputs for
+ * that check and the index of the first sphere after the tunnel and its
+ * branches, which is where carving continues when the tunnel is cut off.
+ */
+public class CarverPath
+{
+	private static final int NO_CUT_OFF = -1;
+
+	final long seed;
+	final int chunkX;
+	final int chunkZ;
+
+	private int size = 0;
+	// x, y, z, horizontal radius and vertical radius of each sphere.
+	private double[] spheres = new double[0];
+	private long[] seeds = new long[0];
+	private float[][] caches = new float[0][];
+	// Branch, branch count and tunnel end of each sphere, see canCarveBranch.
+	private int[] branches = new int[0];
+	private float[] widths = new float[0];
+
+	// Area containing all spheres, including the margin used by carveRegion.
+	private double minX = Double.MAX_VALUE;
+	private double maxX = -Double.MAX_VALUE;
+	private double minZ = Double.MAX_VALUE;
+	private double maxZ = -Double.MAX_VALUE;
+
+	CarverPath(long seed, int chunkX, int chunkZ)
+	{
+		this.seed = seed;
+		this.chunkX = chunkX;
+		this.chunkZ = chunkZ;
+	}
+
+	boolean isFor(long seed, int chunkX, int chunkZ)
+	{
+		return this.seed == seed && this.chunkX == chunkX && this.chunkZ == chunkZ;
+	}
+
+	int size()
+	{
+		return this.size;
+	}
+
+	/**
+	 * Adds a sphere that is always carved (spherical caves).
+	 */
+	void addSphere(double x, double y, double z, double horizontalRadius, double verticalRadius, long seed, float[] cache)
+	{
+		addTunnelSphere(x, y, z, horizontalRadius, verticalRadius, seed, cache, 0, 0, 0);
+		this.branches[(this.size - 1) * 3 + 2] = NO_CUT_OFF;
+	}
+
+	/**
+	 * Adds a sphere of a tunnel, call endTunnel once the tunnel and its
+	 * branches have been added.
+	 */
+	void addTunnelSphere(double x, double y, double z, double horizontalRadius, double verticalRadius, long seed, float[] cache, int branch, int branchCount, float width)
+	{
+		if(this.size == this.seeds.length)
+		{
+			int capacity = Math.max(16, this.size * 2);
+			this.spheres = Arrays.copyOf(this.spheres, capacity * 5);
+			this.seeds = Arrays.copyOf(this.seeds, capacity);
+			this.caches = Arrays.copyOf(this.caches, capacity);
+			this.branches = Arrays.copyOf(this.branches, capacity * 3);
+			this.widths = Arrays.copyOf(this.widths, capacity);
+		}
+		int i = this.size;
+		this.spheres[i * 5] = x;
+		this.spheres[i * 5 + 1] = y;
+		this.spheres[i * 5 + 2] = z;
+		this.spheres[i * 5 + 3] = horizontalRadius;
+		this.spheres[i * 5 + 4] = verticalRadius;
+		this.seeds[i] = seed;
+		this.caches[i] = cache;
+		this.branches[i * 3] = branch;
+		this.branches[i * 3 + 1] = branchCount;
+		this.widths[i] = width;
+		this.size++;
+
+		this.minX = Math.min(this.minX, x - horizontalRadius * 2.0D);
+		this.maxX = Math.max(this.maxX, x + horizontalRadius * 2.0D);
+		this.minZ = Math.min(this.minZ, z - horizontalRadius * 2.0D);
+		this.maxZ = Math.max(this.maxZ, z + horizontalRadius * 2.0D);
+	}
+
+	/**
+	 * Marks the spheres from firstSphere up to lastSphere (exclusive) as
+	 * belonging to a tunnel that ends at the current size.
+	 */
+	void endTunnel(int firstSphere, int lastSphere)
+	{
+		for(int i = firstSphere; i < lastSphere; i++)
+		{
+			this.branches[i * 3 + 2] = this.size;
+		}
+	}
+
+	/**
+	 * Frees unused capacity, called once the path is complete.
+	 */
+	void trim()
+	{
+		if(this.size < this.seeds.length)
+		{
+			this.spheres = Arrays.copyOf(this.spheres, this.size * 5);
+			this.seeds = Arrays.copyOf(this.seeds, this.size);
+			this.caches = Arrays.copyOf(this.caches, this.size);
+			this.branches = Arrays.copyOf(this.branches, this.size * 3);
+			this.widths = Arrays.copyOf(this.widths, this.size);
+		}
+	}
+
+	/**
+	 * Checks if any sphere of this path can reach the given chunk, using the
+	 * same bounds as Carver.carveRegion.
+	 */
+	boolean canReach(int chunkX, int chunkZ)
+	{
+		double d = chunkX * Constants.CHUNK_SIZE + DecorationArea.CARVER_OFFSET;
+		double e = chunkZ * Constants.CHUNK_SIZE + DecorationArea.CARVER_OFFSET;
+		return this.size > 0 && this.maxX >= d - 16.0D && this.minX <= d + 16.0D && this.maxZ >= e - 16.0D && this.minZ <= e + 16.0D;
+	}
+
+	double getX(int sphere)
+	{
+		return this.spheres[sphere * 5];
+	}
+
+	double getY(int sphere)
+	{
+		return this.spheres[sphere * 5 + 1];
+	}
+
+	double getZ(int sphere)
+	{
+		return this.spheres[sphere * 5 + 2];
+	}
+
+	double getHorizontalRadius(int sphere)
+	{
+		return this.spheres[sphere * 5 + 3];
+	}
+
+	double getVerticalRadius(int sphere)
+	{
+		return this.spheres[sphere * 5 + 4];
+	}
+
+	long getSeed(int sphere)
+	{
+		return this.seeds[sphere];
+	}
+
+	float[] getCache(int sphere)
+	{
+		return this.caches[sphere];
+	}
+
+	boolean canBeCutOff(int sphere)
+	{
+		return this.branches[sphere * 3 + 2] != NO_CUT_OFF;
+	}
+
+	int getBranch(int sphere)
+	{
+		return this.branches[sphere * 3];
+	}
+
+	int getBranchCount(int sphere)
+	{
+		return this.branches[sphere * 3 + 1];
+	}
+
+	int getTunnelEnd(int sphere)
+	{
+		return this.branches[sphere * 3 + 2];
+	}
+
+	float getWidth(int sphere)
+	{
+		return this.widths[sphere];
+	}
+}
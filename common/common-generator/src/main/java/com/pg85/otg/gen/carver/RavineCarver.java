@@ -1,13 +1,9 @@
 package com.pg85.otg.gen.carver;
 
-import java.util.BitSet;
 import java.util.Random;
 
 import com.pg85.otg.constants.Constants;
-import com.pg85.otg.interfaces.ICachedBiomeProvider;
-import com.pg85.otg.interfaces.ISurfaceGeneratorNoiseProvider;
 import com.pg85.otg.interfaces.IWorldConfig;
-import com.pg85.otg.util.gen.ChunkBuffer;
 import com.pg85.otg.util.helpers.MathHelper;
 import com.pg85.otg.util.helpers.RandomHelper;
 
@@ -27,7 +23,7 @@ public class RavineCarver extends Carver
 	}
 
 	@Override
-	public boolean carve(ISurfaceGeneratorNoiseProvider noiseProvider, ChunkBuffer chunk, Random random, int chunkX, int chunkZ, int mainChunkX, int mainChunkZ, BitSet bitSet, ICachedBiomeProvider cachedBiomeProvider)
+	protected void addPath(CarverPath path, Random random, int chunkX, int chunkZ)
 	{
 		double x = chunkX * Constants.CHUNK_SIZE + random.nextInt(Constants.CHUNK_SIZE);
 		double z = chunkZ * Constants.CHUNK_SIZE + random.nextInt(Constants.CHUNK_SIZE);			
@@ -48,13 +44,13 @@ public class RavineCarver extends Carver
 		branchCount = branchCount - random.nextInt(branchCount / 4);		
 		double yawPitchRatio = worldConfig.getRavineDepth();
 
-		this.carveRavine(noiseProvider, chunk, random.nextLong(), mainChunkX, mainChunkZ, x, y, z, width, yaw, pitch, 0, branchCount, yawPitchRatio, bitSet, cachedBiomeProvider);
-		return true;
+		this.addRavine(path, random.nextLong(), x, y, z, width, yaw, pitch, 0, branchCount, yawPitchRatio);
 	}
 
-	private void carveRavine(ISurfaceGeneratorNoiseProvider noiseProvider, ChunkBuffer chunk, long seed, int mainChunkX, int mainChunkZ, double x, double y, double z, float width, float yaw, float pitch, int branchStartIndex, int branchCount, double yawPitchRatio, BitSet carvingMask, ICachedBiomeProvider cachedBiomeProvider)
+	private void addRavine(CarverPath path, long seed, double x, double y, double z, float width, float yaw, float pitch, int branchStartIndex, int branchCount, double yawPitchRatio)
 	{
 		Random random = new Random(seed);
+		int firstSphere = path.size();
 		float stretchFactor = 1.0F;
 
 		float[] heightToHorizontalStretchFactor = new float[1024];
@@ -94,13 +90,10 @@ public class RavineCarver extends Carver
 			yawChange += (random.nextFloat() - random.nextFloat()) * random.nextFloat() * 4.0F;
 			if (random.nextInt(4) != 0)
 			{
-				if (!this.canCarveBranch(mainChunkX, mainChunkZ, x, z, branchIndex, branchCount, width))
-				{
-					return;
-				}
-				this.carveRegion(noiseProvider, heightToHorizontalStretchFactor, chunk, seed, mainChunkX, mainChunkZ, x, y, z, currentYaw, currentPitch, carvingMask, cachedBiomeProvider);
+				path.addTunnelSphere(x, y, z, currentYaw, currentPitch, seed, heightToHorizontalStretchFactor, branchIndex, branchCount, width);
 			}
 		}
+		path.endTunnel(firstSphere, path.size());
 	}
 
 	@Override
@@ -157,6 +157,28 @@ public class OctavePerlinNoiseSampler
 		return this.octaves[this.octaves.length - 1 - index];
 	}
 
+	/**
+	 * Batched column sampling for the terrain generator. For every cell y in [0, length) whose
+	 * mask entry is null or true, adds the sum of getOctave(i).sample(...) / amplitude over the
+	 * first octaveCount octaves to out[y], with amplitude starting at 1 and halving per octave.
+	 * Octaves are walked once per column instead of once per cell, see PerlinNoiseSampler.sampleColumn.
+	 */
+	public void sampleColumn(double[] out, boolean[] mask, int length, int x, int z, double horizontalScale, double verticalScale, int octaveCount, boolean yOffsetFromScaledY)
+	{
+		double amplitude = 1.0D;
+		PerlinNoiseSampler sampler;
+		for (int i = 0; i < octaveCount; i++)
+		{
+			sampler = getOctave(i);
+			if (sampler != null)
+			{
+				sampler.sampleColumn(maintainPrecision((double) x * horizontalScale * amplitude), maintainPrecision((double) z * horizontalScale * amplitude), verticalScale, amplitude, yOffsetFromScaledY, out, mask, length);
+			}
+
+			amplitude /= 2.0D;
+		}
+	}
+
 	public double sample(double x, double y, double yScale, double yOffset)
 	{
 		return this.sample(x, y, 0.0D, yScale, yOffset, false);
@@ -64,7 +64,62 @@ public class PerlinNoiseSampler
 			d9 = 0.0D;
 		}
 
-		return this.sample(i, j, k, d3, d4 - d9, d5, d6, d7, d8);
+		return this.sample(this.permute(i), this.permute(i + 1), j, k, d3, d4 - d9, d5, d6, d7, d8);
+	}
+
+	/**
+	 * Samples every cell of a column at a fixed x/z in one pass, adding sample / amplitude to
+	 * out[y] for each y in [0, length) where mask is null or mask[y] is set. The x/z lattice
+	 * positions, smoothing and x permutations are computed once for the whole column.
+	 * 
+	 * Each cell is sampled exactly like sample(x, y * verticalScale * amplitude, z, yScale, yOffset)
+	 * with yScale = verticalScale * amplitude, so results are bit-identical to per-cell sampling.
+	 * yOffsetFromScaledY selects whether yOffset is (y * verticalScale) * amplitude or y * yScale,
+	 * both forms are used by the terrain generator and round differently.
+	 */
+	void sampleColumn(double x, double z, double verticalScale, double amplitude, boolean yOffsetFromScaledY, double[] out, boolean[] mask, int length)
+	{
+		double d0 = x + this.xOffset;
+		double d2 = z + this.zOffset;
+		int i = MathHelper.floor(d0);
+		int k = MathHelper.floor(d2);
+		double d3 = d0 - (double) i;
+		double d5 = d2 - (double) k;
+		double d6 = MathHelper.smoothstep(d3);
+		double d8 = MathHelper.smoothstep(d5);
+		int permutedX0 = this.permute(i);
+		int permutedX1 = this.permute(i + 1);
+		double yScale = verticalScale * amplitude;
+
+		double scaledY;
+		double offsetY;
+		double d1;
+		int j;
+		double d4;
+		double d7;
+		double d9;
+		for (int y = 0; y < length; y++)
+		{
+			if (mask != null && !mask[y])
+			{
+				continue;
+			}
+
+			scaledY = (double) y * verticalScale * amplitude;
+			offsetY = yOffsetFromScaledY ? scaledY : (double) y * yScale;
+			d1 = OctavePerlinNoiseSampler.maintainPrecision(scaledY) + this.yOffset;
+			j = MathHelper.floor(d1);
+			d4 = d1 - (double) j;
+			d7 = MathHelper.smoothstep(d4);
+			if (yScale != 0.0D)
+			{
+				d9 = (double) MathHelper.floor(Math.min(offsetY, d4) / yScale) * yScale;
+			} else {
+				d9 = 0.0D;
+			}
+
+			out[y] += this.sample(permutedX0, permutedX1, j, k, d3, d4 - d9, d5, d6, d7, d8) / amplitude;
+		}
 	}
 
 	private int permute(int idx)
@@ -72,12 +127,13 @@ public class PerlinNoiseSampler
 		return this.permutations[idx & 255] & 255;
 	}
 
-	private double sample(int sectionX, int sectionY, int sectionZ, double localX, double localY, double localZ, double smoothedX, double smoothedY, double smoothedZ)
+	// permutedX0 and permutedX1 are permute(sectionX) and permute(sectionX + 1), passed in so columns can reuse them.
+	private double sample(int permutedX0, int permutedX1, int sectionY, int sectionZ, double localX, double localY, double localZ, double smoothedX, double smoothedY, double smoothedZ)
 	{
-		int i = this.permute(sectionX) + sectionY;
+		int i = permutedX0 + sectionY;
 		int j = this.permute(i) + sectionZ;
 		int k = this.permute(i + 1) + sectionZ;
-		int l = this.permute(sectionX + 1) + sectionY;
+		int l = permutedX1 + sectionY;
 		int i1 = this.permute(l) + sectionZ;
 		int j1 = this.permute(l + 1) + sectionZ;
 		double d0 = grad(this.permute(j), localX, localY, localZ);
@@ -4,6 +4,7 @@ import com.pg85.otg.config.biome.BiomeResourceBase;
 import com.pg85.otg.constants.Constants;
 import com.pg85.otg.exceptions.InvalidConfigException;
 import com.pg85.otg.interfaces.IBiomeConfig;
+import com.pg85.otg.interfaces.IChunkView;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.interfaces.IMaterialReader;
 import com.pg85.otg.interfaces.IWorldGenRegion;
@@ -65,17 +66,12 @@ public class OreResource extends BiomeResourceBase implements IBasicResource
 	@Override
 	public void spawnForChunkDecoration(IWorldGenRegion worldGenRegion, Random random, ILogger logger, IMaterialReader materialReader)
 	{
-		// Override spawnForChunkDecoration so we can add a cache.
+		// Override spawnForChunkDecoration so we can count spawned ores.
+		// Heightmap heights are cached by the world gen region.
 		
 		// TODO: Remove this offset for 1.16?
 		int chunkX = worldGenRegion.getDecorationArea().getChunkBeingDecoratedCenterX();
 		int chunkZ = worldGenRegion.getDecorationArea().getChunkBeingDecoratedCenterZ();		
-		int startX = worldGenRegion.getDecorationArea().getLeft();
-		int startZ = worldGenRegion.getDecorationArea().getTop();
-		int width = worldGenRegion.getDecorationArea().getWidth();
-		int height = worldGenRegion.getDecorationArea().getHeight();
-		// use a byte since y is always between 0-255
-		byte[] highestBlocksCache = new byte[width * height];
 
 		int x;
 		int z;
@@ -88,7 +84,7 @@ public class OreResource extends BiomeResourceBase implements IBasicResource
 			}
 			x = chunkX + random.nextInt(Constants.CHUNK_SIZE);
 			z = chunkZ + random.nextInt(Constants.CHUNK_SIZE);
-			if(spawn(worldGenRegion, random, false, x, z, highestBlocksCache, width, height, startX, startZ))
+			if(spawn(worldGenRegion, random, false, x, z))
 			{
 				spawned++;
 			}
@@ -99,7 +95,7 @@ public class OreResource extends BiomeResourceBase implements IBasicResource
 		}
 	}
 	
-	public boolean spawn(IWorldGenRegion worldGenRegion, Random rand, boolean villageInChunk, int x, int z, byte[] highestBlocksCache, int width, int height, int startX, int startZ)
+	public boolean spawn(IWorldGenRegion worldGenRegion, Random rand, boolean villageInChunk, int x, int z)
 	{
 		if(worldGenRegion.getWorldConfig().isDisableOreGen())
 		{
@@ -137,6 +133,7 @@ public class OreResource extends BiomeResourceBase implements IBasicResource
 		double zDistanceToCenterFraction;
 		int highestSolidBlock;
 		boolean hasSpawned = false;
+		IChunkView chunkView = null;
 
 		// NumberOfBlocks determines the radius we try to place ore blobs in, each blob has a 
 		// random diameter between 0 and numberOfBlocks / 16, so numberOfBlocks does two things.
@@ -195,27 +192,24 @@ public class OreResource extends BiomeResourceBase implements IBasicResource
 							// Optimisation, don't look for highestblock if we're already looking below 63, default worlds have base terrain height at 63.
 							if(endWorldY > 63) 
 							{
-								highestSolidBlock = highestBlocksCache[(worldX - startX) * height + (worldZ - startZ)] & 0xFF; // byte to int conversion
-								if(highestSolidBlock == 0)  // 0 is default / unset.
+								highestSolidBlock = worldGenRegion.getHeightMapHeight(worldX, worldZ);
+								// Abort the column, OreGen shouldn't be used to spawn things in empty columns. If
+								// that's what you want, make a cloud generator or something, optimised for spawning in 
+								// air/void.
+								if(highestSolidBlock == -1)
 								{
-									highestSolidBlock = worldGenRegion.getHeightMapHeight(worldX, worldZ);
-									// TODO: This causes getHeightMapHeight to be called every time on a 0 height column, 
-									// can't use -1 tho since we're using byte arrays. At least we're aborting the column 
-									// immediately, since OreGen shouldn't be used to spawn things in empty columns. If
-									// that's what you want, make a cloud generator or something, optimised for spawning in 
-									// air/void.
-									if(highestSolidBlock == -1)
-									{
-										highestSolidBlock = (byte)0; // Reset
-										break;
-									}
-									highestBlocksCache[(worldX - startX) * height + (worldZ - startZ)] = (byte)highestSolidBlock;
+									break;
 								}
 								if(endWorldY > highestSolidBlock)
 								{
 									endWorldY = highestSolidBlock;
 								}
 							}
+							// Blobs rarely cross chunk borders, only look up a chunk when we enter it.
+							if(chunkView == null || chunkView.getChunkX() != worldX >> 4 || chunkView.getChunkZ() != worldZ >> 4)
+							{
+								chunkView = worldGenRegion.getChunkView(worldX >> 4, worldZ >> 4);
+							}
 							for (int worldY = startWorldY; worldY <= endWorldY; worldY++)
 							{
 								yDistanceToCenterFraction = ((double)worldY + 0.5D - yCenter) / yRadius;
@@ -223,9 +217,9 @@ public class OreResource extends BiomeResourceBase implements IBasicResource
 								// Add up all squared results, the result must be < 1.0D, otherwise it exceeded xzRadius/yRadius so exclude.
 								if (xDistanceToCenterFraction * xDistanceToCenterFraction + yDistanceToCenterFraction * yDistanceToCenterFraction + zDistanceToCenterFraction * zDistanceToCenterFraction < 1.0D)
 								{
-									if(this.sourceBlocks.contains(worldGenRegion.getMaterial(worldX, worldY, worldZ)))
+									if(this.sourceBlocks.contains(chunkView.getMaterial(worldX & 0xF, worldY, worldZ & 0xF)))
 									{
-										worldGenRegion.setBlock(worldX, worldY, worldZ, this.material);
+										chunkView.setBlock(worldX & 0xF, worldY, worldZ & 0xF, this.material);
 										hasSpawned = true;
 									}
 								}
@@ -0,0 +1,60 @@
+package com.pg85.otg.interfaces;
+
+import com.pg85.otg.util.biome.ReplaceBlockMatrix;
+import com.pg85.otg.util.materials.LocalMaterialData;
+import com.pg85.otg.util.nbt.NamedBinaryTag;
+
+/**
+ * Reads and writes the blocks of a single chunk of a world gen region, see
+ * IWorldGenRegion.getChunkView. The chunk is looked up once, blocks are
+ * addressed by their coordinates inside the chunk (0-15 for x and z), so
+ * code that places or checks many blocks in the same chunk (BO4's, ores)
+ * doesn't pay for a chunk lookup per block.
+ *
+ * Follows the same rules as IWorldGenRegion.getMaterial / setBlock: returns
+ * null / ignores writes for chunks outside the area being decorated, chunks
+ * that haven't been generated far enough and heights outside the world.
+ */
+public interface IChunkView
+{
+	int getChunkX();
+	int getChunkZ();
+	LocalMaterialData getMaterial(int internalX, int y, int internalZ);
+	void setBlock(int internalX, int y, int internalZ, LocalMaterialData material, NamedBinaryTag metaDataTag, ReplaceBlockMatrix replaceBlocksMatrix);
+	int getHighestBlockY(int internalX, int internalZ, boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow, boolean ignoreLeaves);
+
+	default void setBlock(int internalX, int y, int internalZ, LocalMaterialData material)
+	{
+		setBlock(internalX, y, internalZ, material, null, null);
+	}
+
+	/**
+	 * Places the given material in all blocks of the given box, bounds are
+	 * inclusive and inside the chunk.
+	 */
+	default void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, LocalMaterialData material, ReplaceBlockMatrix replaceBlocksMatrix)
+	{
+		for(int internalX = minX; internalX <= maxX; internalX++)
+		{
+			for(int internalZ = minZ; internalZ <= maxZ; internalZ++)
+			{
+				for(int y = minY; y <= maxY; y++)
+				{
+					setBlock(internalX, y, internalZ, material, null, replaceBlocksMatrix);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the blocks from minY to maxY (inclusive) of a column into
+	 * materials, starting at index 0.
+	 */
+	default void getMaterialColumn(int internalX, int internalZ, int minY, int maxY, LocalMaterialData[] materials)
+	{
+		for(int y = minY; y <= maxY; y++)
+		{
+			materials[y - minY] = getMaterial(internalX, y, internalZ);
+		}
+	}
+}
@@ -3,4 +3,19 @@ package com.pg85.otg.interfaces;
 public interface ILayerSampler
 {
 	int sample(int x, int z);
+
+	/**
+	 * Samples the sizeX * sizeZ area starting at startX / startZ,
+	 * writing the results to out, indexed x * sizeZ + z.
+	 */
+	default void sample(int[] out, int startX, int startZ, int sizeX, int sizeZ)
+	{
+		for (int x = 0; x < sizeX; x++)
+		{
+			for (int z = 0; z < sizeZ; z++)
+			{
+				out[x * sizeZ + z] = sample(startX + x, startZ + z);
+			}
+		}
+	}
 }
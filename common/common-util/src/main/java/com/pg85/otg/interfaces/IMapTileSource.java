@@ -0,0 +1,14 @@
+package com.pg85.otg.interfaces;
+
+/**
+ * Provides the pixel colors of a map, see TiledMapRenderer.
+ * Called by multiple render threads at once.
+ */
+public interface IMapTileSource
+{
+	/**
+	 * Writes the rgb colors of the sizeX * sizeZ pixels starting at
+	 * startX / startZ to colors, indexed x * sizeZ + z.
+	 */
+	void getColors(int[] colors, int startX, int startZ, int sizeX, int sizeZ);
+}
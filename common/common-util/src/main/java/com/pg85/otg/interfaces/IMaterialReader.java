@@ -4,6 +4,10 @@ import com.pg85.otg.exceptions.InvalidConfigException;
 import com.pg85.otg.util.materials.LocalMaterialData;
 import com.pg85.otg.util.materials.LocalMaterialTag;
 
+/**
+ * Reads materials and tags from config strings. Must be thread-safe,
+ * presets and biome configs are loaded in parallel.
+ */
 public interface IMaterialReader
 {
 	public LocalMaterialData readMaterial(String material) throws InvalidConfigException;	
@@ -17,6 +17,8 @@ public interface IPluginConfig
 {
 	public LogLevels getLogLevel();
 	public int getMaxWorkerThreads();
+	public int getBO4DataCacheSize();
+	public boolean getPreloadCustomObjects();
 	public boolean getDeveloperModeEnabled();
 	public boolean logCustomObjects();
 	public boolean logStructurePlotting();
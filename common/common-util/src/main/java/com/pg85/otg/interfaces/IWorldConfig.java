@@ -97,6 +97,18 @@ public interface IWorldConfig
 	public int getWaterLevelMax();
 	public int getWaterLevelMin();
 
+	// Performance
+
+	public int getNoiseColumnCacheSize();
+	public int getBiomeCacheSize();
+	public int getBiomeLayerCacheSize();
+	public int getBiomeLayerCacheMaxSize();
+	public boolean getBiomeLayerCacheTwoWay();
+	public int getShadowChunkCacheSize();
+	public int getShadowChunkQueueSize();
+	public int getShadowColumnCacheSize();
+	public int getShadowStructureCacheSize();
+
 	// FromImageMode
 
 	public ImageOrientation getImageOrientation();
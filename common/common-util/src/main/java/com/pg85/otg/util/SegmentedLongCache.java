@@ -0,0 +1,162 @@
+package com.pg85.otg.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.pg85.otg.util.helpers.MathHelper;
+
+/**
+ * Thread-safe, fixed size cache with primitive long keys, used where
+ * multiple generation threads share cached data (see CachedBiomeProvider).
+ *
+ * <p>Entries are spread over independently locked segments, so threads only
+ * contend when they hit the same segment. Each segment is set-associative:
+ * a key can only be stored in one small set of slots, and a put replaces
+ * the least recently used entry of that set. This approximates LRU without
+ * any per-entry allocation or bookkeeping outside the set.
+ *
+ * <p>Values are not copied. Callers must not modify cached values.
+ */
+public class SegmentedLongCache<V>
+{
+	private static final int SEGMENTS = 16;
+	private static final int WAYS = 4;
+
+	private final Segment[] segments;
+	private final int setMask;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param capacity Approximate maximum amount of entries, rounded
+	 * up to a power of two of at least 64.
+	 */
+	public SegmentedLongCache(int capacity)
+	{
+		capacity = MathHelper.smallestEncompassingPowerOfTwo(Math.max(capacity, SEGMENTS * WAYS));
+		int sets = capacity / (SEGMENTS * WAYS);
+		this.setMask = sets - 1;
+		this.segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++)
+		{
+			this.segments[i] = new Segment(sets * WAYS);
+		}
+	}
+
+	/**
+	 * Returns the value cached for the given key, or null if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key)
+	{
+		long hash = mix(key);
+		Segment segment = this.segments[(int) hash & (SEGMENTS - 1)];
+		int start = ((int) (hash >>> 32) & this.setMask) * WAYS;
+		Object value;
+		synchronized (segment)
+		{
+			value = segment.get(key, start);
+		}
+		if (value != null)
+		{
+			this.hits.increment();
+		} else {
+			this.misses.increment();
+		}
+		return (V) value;
+	}
+
+	/**
+	 * Caches the value for the given key, evicting the least recently
+	 * used entry of its set if the set is full.
+	 */
+	public void put(long key, V value)
+	{
+		if (value == null)
+		{
+			throw new IllegalArgumentException("Cannot cache null values");
+		}
+		long hash = mix(key);
+		Segment segment = this.segments[(int) hash & (SEGMENTS - 1)];
+		int start = ((int) (hash >>> 32) & this.setMask) * WAYS;
+		synchronized (segment)
+		{
+			segment.put(key, start, value);
+		}
+	}
+
+	public long getHits()
+	{
+		return this.hits.sum();
+	}
+
+	public long getMisses()
+	{
+		return this.misses.sum();
+	}
+
+	// Same as fastutil's HashCommon.mix, spreads xz keys over all bits.
+	private static long mix(long key)
+	{
+		long hash = key * 0x9E3779B97F4A7C15L;
+		hash ^= hash >>> 32;
+		return hash ^ (hash >>> 16);
+	}
+
+	private static class Segment
+	{
+		private final long[] keys;
+		private final long[] lastUsed;
+		// A null value marks an empty slot.
+		private final Object[] values;
+		private long tick;
+
+		private Segment(int size)
+		{
+			this.keys = new long[size];
+			this.lastUsed = new long[size];
+			this.values = new Object[size];
+		}
+
+		private Object get(long key, int start)
+		{
+			for (int idx = start; idx < start + WAYS; idx++)
+			{
+				if (this.keys[idx] == key && this.values[idx] != null)
+				{
+					this.lastUsed[idx] = ++this.tick;
+					return this.values[idx];
+				}
+			}
+			return null;
+		}
+
+		private void put(long key, int start, Object value)
+		{
+			// Replace the existing entry for this key if another thread put
+			// it in the meantime, else the least recently used (or empty) slot.
+			int target = start;
+			for (int idx = start; idx < start + WAYS; idx++)
+			{
+				if (this.keys[idx] == key && this.values[idx] != null)
+				{
+					target = idx;
+					break;
+				}
+				if (this.values[idx] == null)
+				{
+					if (this.values[target] != null)
+					{
+						target = idx;
+					}
+				}
+				else if (this.values[target] != null && this.lastUsed[idx] < this.lastUsed[target])
+				{
+					target = idx;
+				}
+			}
+			this.keys[target] = key;
+			this.values[target] = value;
+			this.lastUsed[target] = ++this.tick;
+		}
+	}
+}
@@ -19,6 +19,23 @@ public abstract class ChunkBuffer
 
 	public abstract LocalMaterialData getBlock(int blockX, int blockY, int blockZ);
 
+	/**
+	 * Places a stone / water block during the base terrain pass and updates
+	 * the highest block for the column. Platforms may write these blocks
+	 * straight into the chunk sections, skipping per-block heightmap updates
+	 * until finishBaseTerrain is called. Only use setBaseTerrainBlock until then.
+	 */
+	public void setBaseTerrainBlock(int blockX, int blockY, int blockZ, LocalMaterialData material)
+	{
+		setBlock(blockX, blockY, blockZ, material);
+		setHighestBlockForColumn(blockX, blockZ, blockY);
+	}
+
+	/**
+	 * Called after the base terrain pass, updates anything setBaseTerrainBlock skipped.
+	 */
+	public void finishBaseTerrain() { }
+
 	// TODO: Are these really necessary, can use heightmaps?
 	
 	private final short[] highestBlockHeight = new short[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
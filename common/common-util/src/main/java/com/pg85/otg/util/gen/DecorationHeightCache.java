@@ -0,0 +1,98 @@
+package com.pg85.otg.util.gen;
+
+import java.util.Arrays;
+
+import com.pg85.otg.constants.Constants;
+
+/**
+ * Caches the results of getHighestBlockYAt and getHeightMapHeight for the
+ * columns of a decoration area, so resources and custom objects querying
+ * the same columns don't have to scan them again. Each combination of
+ * getHighestBlockYAt flags has its own array, created when first used.
+ *
+ * Columns are invalidated when a block is placed in them. Code placing
+ * blocks without going through the world gen region (trees, vanilla
+ * features) has to clear the cache.
+ */
+public class DecorationHeightCache
+{
+	public static final int NOT_CACHED = Integer.MIN_VALUE;
+	// Flags use the first 32 keys, see getKey.
+	public static final int HEIGHTMAP_KEY = 32;
+
+	private final int startX;
+	private final int startZ;
+	private final int[][] heights = new int[HEIGHTMAP_KEY + 1][];
+	// Bit per key with an array, so invalidating a column only visits used arrays.
+	private long usedKeys = 0;
+
+	public DecorationHeightCache(int startChunkX, int startChunkZ)
+	{
+		this.startX = startChunkX * Constants.CHUNK_SIZE;
+		this.startZ = startChunkZ * Constants.CHUNK_SIZE;
+	}
+
+	public static int getKey(boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow, boolean ignoreLeaves)
+	{
+		return (findSolid ? 1 : 0) | (findLiquid ? 2 : 0) | (ignoreLiquid ? 4 : 0) | (ignoreSnow ? 8 : 0) | (ignoreLeaves ? 16 : 0);
+	}
+
+	/**
+	 * Returns the cached height for the given key and column, or NOT_CACHED.
+	 */
+	public int get(int key, int x, int z)
+	{
+		int[] heights = this.heights[key];
+		return heights == null ? NOT_CACHED : heights[getIndex(x, z)];
+	}
+
+	public void put(int key, int x, int z, int height)
+	{
+		int[] heights = this.heights[key];
+		if(heights == null)
+		{
+			heights = new int[DecorationArea.WIDTH * DecorationArea.HEIGHT];
+			Arrays.fill(heights, NOT_CACHED);
+			this.heights[key] = heights;
+			this.usedKeys |= 1l << key;
+		}
+		heights[getIndex(x, z)] = height;
+	}
+
+	/**
+	 * Invalidates a column after a block was placed in it. Blocks outside
+	 * the decoration area are ignored.
+	 */
+	public void invalidate(int x, int z)
+	{
+		int internalX = x - this.startX;
+		int internalZ = z - this.startZ;
+		if(internalX < 0 || internalX >= DecorationArea.WIDTH || internalZ < 0 || internalZ >= DecorationArea.HEIGHT)
+		{
+			return;
+		}
+		int index = internalX * DecorationArea.HEIGHT + internalZ;
+		long usedKeys = this.usedKeys;
+		while(usedKeys != 0)
+		{
+			this.heights[Long.numberOfTrailingZeros(usedKeys)][index] = NOT_CACHED;
+			usedKeys &= usedKeys - 1;
+		}
+	}
+
+	public void clear()
+	{
+		long usedKeys = this.usedKeys;
+		while(usedKeys != 0)
+		{
+			Arrays.fill(this.heights[Long.numberOfTrailingZeros(usedKeys)], NOT_CACHED);
+			usedKeys &= usedKeys - 1;
+		}
+	}
+
+	private int getIndex(int x, int z)
+	{
+		// Callers check isInAreaBeingDecorated first, same as DecorationBiomeCache.
+		return (x - this.startX) * DecorationArea.HEIGHT + (z - this.startZ);
+	}
+}
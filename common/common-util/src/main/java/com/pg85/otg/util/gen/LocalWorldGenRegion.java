@@ -1,6 +1,7 @@
 package com.pg85.otg.util.gen;
 
 import com.pg85.otg.interfaces.ICachedBiomeProvider;
+import com.pg85.otg.interfaces.IChunkView;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.interfaces.IPluginConfig;
 import com.pg85.otg.interfaces.IWorldConfig;
@@ -15,6 +16,7 @@ public abstract class LocalWorldGenRegion implements IWorldGenRegion
 	private final IWorldConfig worldConfig;
 	protected final ILogger logger;
 	protected final DecorationBiomeCache decorationBiomeCache;
+	protected final DecorationHeightCache decorationHeightCache;
 	protected final DecorationArea decorationArea;
 
 	/** Creates a LocalWorldGenRegion to be used during chunk decoration */
@@ -26,6 +28,7 @@ public abstract class LocalWorldGenRegion implements IWorldGenRegion
 		this.logger = logger;
 		this.decorationArea = new DecorationArea(ChunkCoordinate.fromChunkCoords(worldRegionCenterX, worldRegionCenterZ));
 		this.decorationBiomeCache = new DecorationBiomeCache(worldRegionCenterX, worldRegionCenterZ, cachedBiomeProvider);		
+		this.decorationHeightCache = new DecorationHeightCache(worldRegionCenterX, worldRegionCenterZ);
 	}
 	
 	/** Creates a LocalWorldGenRegion to be used outside of world generation. */	
@@ -39,6 +42,7 @@ public abstract class LocalWorldGenRegion implements IWorldGenRegion
 		// doing things outside of population, split up worldgenregion
 		// into separate classes, one for decoration, one for non-decoration.
 		this.decorationBiomeCache = null;
+		this.decorationHeightCache = null;
 		this.decorationArea = null;
 	}
 	
@@ -60,6 +64,28 @@ public abstract class LocalWorldGenRegion implements IWorldGenRegion
 		return this.presetFolderName;
 	}
 	
+	/**
+	 * Clears cached column heights, call this after placing blocks without
+	 * going through this region, f.e. when doing vanilla decoration.
+	 */
+	public void clearHeightCache()
+	{
+		if(this.decorationHeightCache != null)
+		{
+			this.decorationHeightCache.clear();
+		}
+	}
+
+	/**
+	 * Returns a view of the given chunk, forwarding to getMaterial / setBlock.
+	 * Platforms override this to look up the chunk only once.
+	 */
+	@Override
+	public IChunkView getChunkView(int chunkX, int chunkZ)
+	{
+		return new WorldGenRegionChunkView(this, chunkX, chunkZ);
+	}
+
 	@Override
 	public DecorationArea getDecorationArea()
 	{
@@ -0,0 +1,195 @@
+package com.pg85.otg.util.gen;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import javax.imageio.ImageIO;
+
+import com.pg85.otg.interfaces.IMapTileSource;
+
+/**
+ * Renders a map in tiles of TILE_SIZE * TILE_SIZE pixels on multiple threads.
+ * Each tile is written to disk as soon as it's rendered, so memory usage
+ * doesn't depend on the size of the map.
+ *
+ * Tiles are written to outputFolder/zoom/x/z.png. Full resolution tiles use
+ * zoom level getMaxZoom(). With zoom levels enabled, each lower level is
+ * created from the 4 tiles above it, down to level 0 which shows the whole
+ * map in one tile. Pixels are downscaled by picking the top-left pixel of
+ * each 2x2 area, so biome colors stay exact.
+ */
+public class TiledMapRenderer
+{
+	public static final int TILE_SIZE = 256;
+
+	private final IMapTileSource source;
+	private final int width;
+	private final int height;
+	private final int maxZoom;
+
+	public TiledMapRenderer(IMapTileSource source, int width, int height)
+	{
+		this.source = source;
+		this.width = width;
+		this.height = height;
+		int tiles = Math.max(getTileCount(width), getTileCount(height));
+		int maxZoom = 0;
+		while((1 << maxZoom) < tiles)
+		{
+			maxZoom++;
+		}
+		this.maxZoom = maxZoom;
+	}
+
+	public int getMaxZoom()
+	{
+		return this.maxZoom;
+	}
+
+	/**
+	 * Renders the map with its top-left pixel at startX / startZ.
+	 *
+	 * @param threads The amount of render threads, 0 to use all cores.
+	 * @param progress Called with the percentage of tiles done, each time it changes.
+	 */
+	public void render(Path outputFolder, int startX, int startZ, boolean zoomLevels, int threads, IntConsumer progress) throws IOException
+	{
+		int minZoom = zoomLevels ? 0 : this.maxZoom;
+		int totalTiles = 0;
+		for(int zoom = this.maxZoom; zoom >= minZoom; zoom--)
+		{
+			totalTiles += getTileCount(getLevelSize(this.width, zoom)) * getTileCount(getLevelSize(this.height, zoom));
+		}
+		int total = totalTiles;
+		AtomicInteger done = new AtomicInteger();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+		try
+		{
+			// Each level is created from the level above it, so levels are rendered in order.
+			for(int zoom = this.maxZoom; zoom >= minZoom; zoom--)
+			{
+				int levelZoom = zoom;
+				int levelWidth = getLevelSize(this.width, zoom);
+				int levelHeight = getLevelSize(this.height, zoom);
+				List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+				for(int tileX = 0; tileX < getTileCount(levelWidth); tileX++)
+				{
+					for(int tileZ = 0; tileZ < getTileCount(levelHeight); tileZ++)
+					{
+						int x = tileX;
+						int z = tileZ;
+						tasks.add(() -> {
+							int sizeX = Math.min(TILE_SIZE, levelWidth - x * TILE_SIZE);
+							int sizeZ = Math.min(TILE_SIZE, levelHeight - z * TILE_SIZE);
+							BufferedImage tile = levelZoom == this.maxZoom ? renderTile(startX + x * TILE_SIZE, startZ + z * TILE_SIZE, sizeX, sizeZ) : downscaleTiles(outputFolder, levelZoom + 1, x, z, sizeX, sizeZ);
+							File file = getTileFile(outputFolder, levelZoom, x, z);
+							Files.createDirectories(file.getParentFile().toPath());
+							ImageIO.write(tile, "png", file);
+
+							int tilesDone = done.incrementAndGet();
+							if(tilesDone * 100 / total != (tilesDone - 1) * 100 / total)
+							{
+								progress.accept(tilesDone * 100 / total);
+							}
+							return null;
+						});
+					}
+				}
+				for(Future<Void> future : executor.invokeAll(tasks))
+				{
+					future.get();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Map rendering was interrupted.");
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof IOException)
+			{
+				throw (IOException)e.getCause();
+			}
+			if(e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException)e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private BufferedImage renderTile(int startX, int startZ, int sizeX, int sizeZ)
+	{
+		int[] colors = new int[sizeX * sizeZ];
+		this.source.getColors(colors, startX, startZ, sizeX, sizeZ);
+
+		// Images are stored row by row, colors column by column.
+		int[] rgb = new int[sizeX * sizeZ];
+		for(int x = 0; x < sizeX; x++)
+		{
+			for(int z = 0; z < sizeZ; z++)
+			{
+				rgb[z * sizeX + x] = colors[x * sizeZ + z];
+			}
+		}
+		BufferedImage tile = new BufferedImage(sizeX, sizeZ, BufferedImage.TYPE_INT_RGB);
+		tile.setRGB(0, 0, sizeX, sizeZ, rgb, 0, sizeX);
+		return tile;
+	}
+
+	private BufferedImage downscaleTiles(Path outputFolder, int zoom, int tileX, int tileZ, int sizeX, int sizeZ) throws IOException
+	{
+		BufferedImage tile = new BufferedImage(sizeX, sizeZ, BufferedImage.TYPE_INT_RGB);
+		for(int i = 0; i < 4; i++)
+		{
+			int childX = tileX * 2 + (i & 1);
+			int childZ = tileZ * 2 + (i >> 1);
+			if(childX >= getTileCount(getLevelSize(this.width, zoom)) || childZ >= getTileCount(getLevelSize(this.height, zoom)))
+			{
+				// Outside the map
+				continue;
+			}
+			BufferedImage child = ImageIO.read(getTileFile(outputFolder, zoom, childX, childZ));
+			int offsetX = (i & 1) * TILE_SIZE / 2;
+			int offsetZ = (i >> 1) * TILE_SIZE / 2;
+			for(int x = 0; x < child.getWidth(); x += 2)
+			{
+				for(int z = 0; z < child.getHeight(); z += 2)
+				{
+					tile.setRGB(offsetX + x / 2, offsetZ + z / 2, child.getRGB(x, z));
+				}
+			}
+		}
+		return tile;
+	}
+
+	private int getLevelSize(int size, int zoom)
+	{
+		int scale = 1 << (this.maxZoom - zoom);
+		return (size + scale - 1) / scale;
+	}
+
+	private static int getTileCount(int size)
+	{
+		return (size + TILE_SIZE - 1) / TILE_SIZE;
+	}
+
+	public static File getTileFile(Path outputFolder, int zoom, int tileX, int tileZ)
+	{
+		return outputFolder.resolve(Integer.toString(zoom)).resolve(Integer.toString(tileX)).resolve(tileZ + ".png").toFile();
+	}
+}
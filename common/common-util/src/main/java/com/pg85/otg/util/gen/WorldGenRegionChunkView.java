@@ -0,0 +1,60 @@
+package com.pg85.otg.util.gen;
+
+import com.pg85.otg.constants.Constants;
+import com.pg85.otg.interfaces.IChunkView;
+import com.pg85.otg.interfaces.IWorldGenRegion;
+import com.pg85.otg.util.biome.ReplaceBlockMatrix;
+import com.pg85.otg.util.materials.LocalMaterialData;
+import com.pg85.otg.util.nbt.NamedBinaryTag;
+
+/**
+ * IChunkView that forwards every call to the world gen region's per-block
+ * methods. Used by regions that have no faster way to access a chunk.
+ */
+public class WorldGenRegionChunkView implements IChunkView
+{
+	private final IWorldGenRegion worldGenRegion;
+	private final int chunkX;
+	private final int chunkZ;
+	private final int blockX;
+	private final int blockZ;
+
+	public WorldGenRegionChunkView(IWorldGenRegion worldGenRegion, int chunkX, int chunkZ)
+	{
+		this.worldGenRegion = worldGenRegion;
+		this.chunkX = chunkX;
+		this.chunkZ = chunkZ;
+		this.blockX = chunkX * Constants.CHUNK_SIZE;
+		this.blockZ = chunkZ * Constants.CHUNK_SIZE;
+	}
+
+	@Override
+	public int getChunkX()
+	{
+		return this.chunkX;
+	}
+
+	@Override
+	public int getChunkZ()
+	{
+		return this.chunkZ;
+	}
+
+	@Override
+	public LocalMaterialData getMaterial(int internalX, int y, int internalZ)
+	{
+		return this.worldGenRegion.getMaterial(this.blockX + internalX, y, this.blockZ + internalZ);
+	}
+
+	@Override
+	public void setBlock(int internalX, int y, int internalZ, LocalMaterialData material, NamedBinaryTag metaDataTag, ReplaceBlockMatrix replaceBlocksMatrix)
+	{
+		this.worldGenRegion.setBlock(this.blockX + internalX, y, this.blockZ + internalZ, material, metaDataTag, replaceBlocksMatrix);
+	}
+
+	@Override
+	public int getHighestBlockY(int internalX, int internalZ, boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow, boolean ignoreLeaves)
+	{
+		return this.worldGenRegion.getHighestBlockYAt(this.blockX + internalX, this.blockZ + internalZ, findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);
+	}
+}
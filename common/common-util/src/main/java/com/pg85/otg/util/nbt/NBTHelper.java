@@ -16,7 +16,8 @@ import com.pg85.otg.util.logging.LogLevel;
 public class NBTHelper
 {
 	// A list of already loaded meta Tags. The path is the key, a NBT Tag is the value.
-	private static Map<String, NamedBinaryTag> LoadedTags = new HashMap<String, NamedBinaryTag>();
+	// Objects may be loaded on multiple threads, so the map is guarded by itself.
+	private static final Map<String, NamedBinaryTag> LoadedTags = new HashMap<String, NamedBinaryTag>();
 
 	private static NamedBinaryTag loadTileEntityFromNBT(String path, ILogger logger)
 	{
@@ -124,15 +125,19 @@ public class NBTHelper
 	{
 		String path = bo3Folder.getParent() + File.separator + name;
 
-		if (LoadedTags.containsKey(path))
+		synchronized(LoadedTags)
 		{
-			// Found a cached one
-			return LoadedTags.get(path);
+			if (LoadedTags.containsKey(path))
+			{
+				// Found a cached one
+				return LoadedTags.get(path);
+			}
 		}
 
+		// Files are read without holding the lock, if another thread read
+		// the same file in the meantime its tag is used.
 		NamedBinaryTag tag = loadTileEntityFromNBT(path, logger);
-		registerMetadata(path, tag);
-		return tag;
+		return registerMetadata(path, tag);
 	}
 
 	/**
@@ -143,15 +148,25 @@ public class NBTHelper
 	 */
 	private static NamedBinaryTag registerMetadata(String pathOnDisk, NamedBinaryTag metadata)
 	{
-		// Add it to the cache
-		LoadedTags.put(pathOnDisk, metadata);
-		// Return it
-		return metadata;
+		synchronized(LoadedTags)
+		{
+			if (LoadedTags.containsKey(pathOnDisk))
+			{
+				return LoadedTags.get(pathOnDisk);
+			}
+			// Add it to the cache
+			LoadedTags.put(pathOnDisk, metadata);
+			// Return it
+			return metadata;
+		}
 	}
 
 	public static void clearCache()
 	{
-		// Clean up the cache
-		LoadedTags.clear();
+		synchronized(LoadedTags)
+		{
+			// Clean up the cache
+			LoadedTags.clear();
+		}
 	}	
 }
@@ -1,31 +1,33 @@
 package com.pg85.otg.forge.commands;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Random;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CountDownLatch;
-import javax.imageio.ImageIO;
 
 import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.LongArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.pg85.otg.OTG;
 import com.pg85.otg.constants.Constants;
 import com.pg85.otg.forge.biome.OTGBiomeProvider;
+import com.pg85.otg.forge.commands.arguments.PresetArgument;
 import com.pg85.otg.forge.gen.ForgeChunkBuffer;
 import com.pg85.otg.forge.gen.OTGNoiseChunkGenerator;
 import com.pg85.otg.forge.materials.ForgeMaterialData;
-import com.pg85.otg.util.BlockPos2D;
+import com.pg85.otg.forge.presets.ForgePresetLoader;
+import com.pg85.otg.gen.biome.BiomeMapTileSource;
+import com.pg85.otg.interfaces.IMapTileSource;
+import com.pg85.otg.presets.Preset;
 import com.pg85.otg.util.ChunkCoordinate;
+import com.pg85.otg.util.gen.TiledMapRenderer;
 import com.pg85.otg.util.materials.LocalMaterials;
 
 import net.minecraft.block.BlockState;
@@ -41,22 +43,22 @@ public class MapCommand extends BaseCommand
 	
 	private static final String[] MAP_TYPES = new String[]
 	{ "biomes", "terrain" };
-	private static final Object queueLock = new Object();
-	private static final Object imgLock = new Object();
 	
 	public MapCommand() 
 	{
 		super("map");
 		this.helpMessage = "Generates an image of the biome or terrain layout.";
-		this.usage = "/otg map <biomes/terrain> [width] [height] [threads]";
+		this.usage = "/otg map <biomes/terrain> [width] [height] [threads] [preset] [seed]";
 		this.detailedHelp = new String[] { 
 				"<biomes/terrain>: The type of map to create.",
 				" - biomes: Creates an image using the color specified in each biome's config file.",
 				" - terrain: Creates an image using the colours of the blocks shaded to show the altitude of the terrain.",
 				"[width]: Image width in pixels.",
 				"[height]: Image height in pixels.",
-				"[threads]: The number of threads to use while rendering the image."
-				
+				"[threads]: The number of threads to use while rendering the image, 0 to use all cores.",
+				"[preset] [seed]: Biomes only, map a preset and seed without creating a world.",
+				"The map is saved as " + TiledMapRenderer.TILE_SIZE + "x" + TiledMapRenderer.TILE_SIZE + " tiles in a zoom/x/z.png folder structure,",
+				"zoom level 0 shows the whole map in a single tile."
 			};
 	}
 	
@@ -65,31 +67,43 @@ public class MapCommand extends BaseCommand
 	{
 		builder.then(Commands.literal("map")
 			.executes(
-				context -> map(context.getSource(), "", 2048, 2048, 0)
+				context -> map(context.getSource(), "", 2048, 2048, 0, null, 0)
 				).then(
 					Commands.argument("type", StringArgumentType.word()).executes(
-							context -> map(context.getSource(), StringArgumentType.getString(context, "type"), 2048, 2048, 1))
+							context -> map(context.getSource(), StringArgumentType.getString(context, "type"), 2048, 2048, 0, null, 0))
 							.suggests(this::suggestTypes
 					).then(
 						Commands.argument("width", IntegerArgumentType.integer(0)).executes(
-							(context) -> map(context.getSource(), StringArgumentType.getString(context, "type"), IntegerArgumentType.getInteger(context, "width"), IntegerArgumentType.getInteger(context, "width"), 1)
+							(context) -> map(context.getSource(), StringArgumentType.getString(context, "type"), IntegerArgumentType.getInteger(context, "width"), IntegerArgumentType.getInteger(context, "width"), 0, null, 0)
 						).then(
 							Commands.argument("height", IntegerArgumentType.integer(0)).executes(
-								(context) -> map(context.getSource(), StringArgumentType.getString(context, "type"), IntegerArgumentType.getInteger(context, "width"), IntegerArgumentType.getInteger(context, "height"), 1)
+								(context) -> map(context.getSource(), StringArgumentType.getString(context, "type"), IntegerArgumentType.getInteger(context, "width"), IntegerArgumentType.getInteger(context, "height"), 0, null, 0)
 							).then(
 								Commands.argument("threads", IntegerArgumentType.integer(0)).executes(
-									(context) -> map(context.getSource(), StringArgumentType.getString(context, "type"), IntegerArgumentType.getInteger(context, "width"), IntegerArgumentType.getInteger(context, "height"), IntegerArgumentType.getInteger(context, "threads"))
+									(context) -> map(context.getSource(), StringArgumentType.getString(context, "type"), IntegerArgumentType.getInteger(context, "width"), IntegerArgumentType.getInteger(context, "height"), IntegerArgumentType.getInteger(context, "threads"), null, 0)
+								).then(
+									Commands.argument("preset", StringArgumentType.string())
+									.suggests((context, suggestionBuilder) -> PresetArgument.suggest(context, suggestionBuilder, false)).then(
+										Commands.argument("seed", LongArgumentType.longArg()).executes(
+											(context) -> map(context.getSource(), StringArgumentType.getString(context, "type"), IntegerArgumentType.getInteger(context, "width"), IntegerArgumentType.getInteger(context, "height"), IntegerArgumentType.getInteger(context, "threads"), StringArgumentType.getString(context, "preset"), LongArgumentType.getLong(context, "seed"))
+										)
+									)
 								)))))
 		);
 	}
 	
-	private int map(CommandSource source, String type, int width, int height, int threads)
+	private int map(CommandSource source, String type, int width, int height, int threads, String presetName, long seed)
 	{
 		switch (type.toLowerCase())
 		{
 			case "biomes":
-				return mapBiomes(source, width, height, threads);
+				return mapBiomes(source, width, height, threads, presetName, seed);
 			case "terrain":
+				if(presetName != null)
+				{
+					source.sendSuccess(new StringTextComponent("Terrain maps can only be created in an OTG world."), false);
+					return 1;
+				}
 				return mapTerrain(source, width, height, threads);
 			default:
 				source.sendSuccess(new StringTextComponent(getUsage()), false);
@@ -97,41 +111,39 @@ public class MapCommand extends BaseCommand
 		}
 	}
 	
-	private static int mapBiomes(CommandSource source, int width, int height, int threads)
+	private static int mapBiomes(CommandSource source, int width, int height, int threads, String presetName, long seed)
 	{
-		if (
-			!(source.getLevel().getChunkSource().generator instanceof OTGNoiseChunkGenerator) || 
-			!(source.getLevel().getChunkSource().generator.getBiomeSource() instanceof OTGBiomeProvider)
-		)
+		ForgePresetLoader presetLoader = (ForgePresetLoader)OTG.getEngine().getPresetLoader();
+		IMapTileSource tileSource;
+		String fileName;
+		if(presetName != null)
 		{
-			source.sendSuccess(new StringTextComponent("Please run this command in an OTG world."), false);
-			return 1;
-		}
-		
-		BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-		
-		Instant start = Instant.now();
-		handleArea(width, height, img, source, (OTGNoiseChunkGenerator)source.getLevel().getChunkSource().generator, true, threads);
-		Instant finish = Instant.now();
-		Duration duration = Duration.between(start, finish); // Note: This is probably the least helpful time duration helper class I've ever seen ...
-		
-		String fileName = source.getServer().getWorldData().getLevelName() + " biomes.png";		
-		Path p = Paths.get(fileName);
-		try
-		{
-			ImageIO.write(img, "png", p.toAbsolutePath().toFile());
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
+			Preset preset = presetLoader.getPresetByShortNameOrFolderName(presetName);
+			if(preset == null)
+			{
+				source.sendSuccess(new StringTextComponent("Could not find preset " + presetName + "."), false);
+				return 1;
+			}
+			// Biome layers are created from the preset, no world needed.
+			tileSource = BiomeMapTileSource.create(seed, presetLoader.getPresetGenerationData().get(preset.getFolderName()), presetLoader.getGlobalIdMapping(preset.getFolderName()), OTG.getEngine().getLogger());
+			fileName = preset.getFolderName() + " " + seed + " biomes";
+		} else {
+			if (
+				!(source.getLevel().getChunkSource().generator instanceof OTGNoiseChunkGenerator) || 
+				!(source.getLevel().getChunkSource().generator.getBiomeSource() instanceof OTGBiomeProvider)
+			)
+			{
+				source.sendSuccess(new StringTextComponent("Please run this command in an OTG world."), false);
+				return 1;
+			}
+			OTGNoiseChunkGenerator generator = (OTGNoiseChunkGenerator)source.getLevel().getChunkSource().generator;
+			tileSource = new BiomeMapTileSource(((OTGBiomeProvider)generator.getBiomeSource()).getSampler(), presetLoader.getGlobalIdMapping(generator.getPreset().getFolderName()));
+			fileName = source.getServer().getWorldData().getLevelName() + " biomes";
 		}
 
-		String hours = "" + (duration.toHours() > 9 ? duration.toHours() : "0" + duration.toHours());
-		String minutes = "" + (duration.toMinutes() % 60 > 9 ? (duration.toMinutes() % 60) : "0" + (duration.toMinutes() % 60));
-		String seconds = "" + (duration.get(ChronoUnit.SECONDS) % 60 > 9 ? (duration.get(ChronoUnit.SECONDS) % 60) : "0" + (duration.get(ChronoUnit.SECONDS) % 60));
-		source.sendSuccess(new StringTextComponent("Finished mapping in " + hours + ":" + minutes + ":" + seconds + "! The resulting image is located at " + fileName + "."), true);
-		
-		return 0;
+		// mapBiomes uses biome coords, so 1 pixel for every 
+		// 4 blocks, not 1 pixel per block like mapTerrain.
+		return renderMap(source, tileSource, fileName, width, height, threads);
 	}
 	
 	private static int mapTerrain(CommandSource source, int width, int height, int threads)
@@ -145,71 +157,59 @@ public class MapCommand extends BaseCommand
 			return 1;
 		}
 		
-		BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-		
+		OTGNoiseChunkGenerator generator = (OTGNoiseChunkGenerator)source.getLevel().getChunkSource().generator;
+		Random random = source.getLevel().getRandom();
+		IMapTileSource tileSource = (colors, startX, startZ, sizeX, sizeZ) -> {
+			for (int chunkX = startX >> 4; chunkX <= (startX + sizeX - 1) >> 4; chunkX++)
+			{
+				for (int chunkZ = startZ >> 4; chunkZ <= (startZ + sizeZ - 1) >> 4; chunkZ++)
+				{
+					ForgeChunkBuffer chunk = generator.getChunkWithoutLoadingOrCaching(random, ChunkCoordinate.fromChunkCoords(chunkX, chunkZ));
+					for (int internalX = 0; internalX < Constants.CHUNK_SIZE; internalX++)
+					{
+						for (int internalZ = 0; internalZ < Constants.CHUNK_SIZE; internalZ++)
+						{
+							int x = chunkX * Constants.CHUNK_SIZE + internalX - startX;
+							int z = chunkZ * Constants.CHUNK_SIZE + internalZ - startZ;
+							if(x >= 0 && x < sizeX && z >= 0 && z < sizeZ)
+							{
+								colors[x * sizeZ + z] = getTerrainColor(chunk, internalX, internalZ);
+							}
+						}
+					}
+				}
+			}
+		};
+		return renderMap(source, tileSource, source.getServer().getWorldData().getLevelName() + " terrain", width, height, threads);
+	}
+
+	private static int renderMap(CommandSource source, IMapTileSource tileSource, String fileName, int width, int height, int threads)
+	{
 		Instant start = Instant.now();
-		handleArea(width, height, img, source, (OTGNoiseChunkGenerator)source.getLevel().getChunkSource().generator, false, threads);
-		Instant finish = Instant.now();
-		Duration duration = Duration.between(start, finish);		
-		
-		String fileName = source.getServer().getWorldData().getLevelName() + " terrain.png";		
-		Path p = Paths.get(fileName);
 		try
 		{
-			ImageIO.write(img, "png", p.toAbsolutePath().toFile());
+			// Send progress updates to let people know the server isn't dying
+			new TiledMapRenderer(tileSource, width, height).render(Paths.get(fileName).toAbsolutePath(), 0, 0, true, threads, 
+				percentage -> source.sendSuccess(new StringTextComponent(percentage + "% Done mapping"), true)
+			);
 		}
 		catch (IOException e)
 		{
 			e.printStackTrace();
+			source.sendSuccess(new StringTextComponent("Could not write map tiles to " + fileName + ", check the logs for details."), false);
+			return 1;
 		}
+		Instant finish = Instant.now();
+		Duration duration = Duration.between(start, finish); // Note: This is probably the least helpful time duration helper class I've ever seen ...
 
 		String hours = "" + (duration.toHours() > 9 ? duration.toHours() : "0" + duration.toHours());
 		String minutes = "" + (duration.toMinutes() % 60 > 9 ? (duration.toMinutes() % 60) : "0" + (duration.toMinutes() % 60));
 		String seconds = "" + (duration.get(ChronoUnit.SECONDS) % 60 > 9 ? (duration.get(ChronoUnit.SECONDS) % 60) : "0" + (duration.get(ChronoUnit.SECONDS) % 60));
-		source.sendSuccess(new StringTextComponent("Finished mapping in " + hours + ":" + minutes + ":" + seconds + "! The resulting image is located at " + fileName + "."), true);
+		source.sendSuccess(new StringTextComponent("Finished mapping in " + hours + ":" + minutes + ":" + seconds + "! The resulting tiles are located in " + fileName + ", " + fileName + "/0/0/0.png shows the whole map."), true);
 		
 		return 0;
 	}
 	
-	private static void handleArea(int width, int height, BufferedImage img, CommandSource source, OTGNoiseChunkGenerator generator, boolean mapBiomes, int threads)
-	{
-		// TODO: Optimise this, List<BlockPos2D> is lazy and handy for having workers pop a task 
-		// off a stack until it's empty, ofc it's not efficient or pretty and doesn't scale.
-		List<BlockPos2D> coordsToHandle = new ArrayList<BlockPos2D>(width * height);
-		if(mapBiomes)
-		{
-			for (int chunkX = 0; chunkX < (int)Math.ceil(width / 4f); chunkX++)
-			{
-				for (int chunkZ = 0; chunkZ < (int)Math.ceil(height / 4f); chunkZ++)
-				{
-					coordsToHandle.add(new BlockPos2D(chunkX, chunkZ));
-				}
-			}
-		} else {
-			for (int chunkX = 0; chunkX < (int)Math.ceil(width / 16f); chunkX++)
-			{
-				for (int chunkZ = 0; chunkZ < (int)Math.ceil(height / 16f); chunkZ++)
-				{
-					coordsToHandle.add(new BlockPos2D(chunkX, chunkZ));
-				}
-			}
-		}
-
-		CountDownLatch latch = new CountDownLatch(threads);
-		MapCommand outer = new MapCommand();
-		int totalSize = coordsToHandle.size();
-		for(int i = 0; i < threads; i++)
-		{
-			outer.new Worker(latch, source, generator, img, coordsToHandle, totalSize, mapBiomes, width, height).start();
-		}
-	
-		try {
-			latch.await();
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
-	}
-	
 	private static int shadeColor(int rgbColor, int percent)
 	{
 		int red = (rgbColor >> 16) & 0xFF;
@@ -226,150 +226,38 @@ public class MapCommand extends BaseCommand
 		return 65536 * red + 256 * green + blue;
 	}
 	
-	public class Worker implements Runnable
+	private static int getTerrainColor(ForgeChunkBuffer chunk, int internalX, int internalZ)
 	{
-		private Thread runner;		
-		private final int totalSize;
-		private final List<BlockPos2D> coordsToHandle;
-		private final CountDownLatch latch;
-		private final OTGNoiseChunkGenerator generator;
-		private final CommandSource source;
-		private final BufferedImage img;
-		private final int progressUpdate;
-		private final boolean mapBiomes;
-		private final int width;
-		private final int height;
+		HighestBlockInfo highestBlockInfo = getHighestBlockInfoInUnloadedChunk(chunk, internalX, internalZ);
 
-		public Worker(CountDownLatch latch, CommandSource source, OTGNoiseChunkGenerator generator, BufferedImage img, List<BlockPos2D> coordsToHandle, int totalSize, boolean mapBiomes, int width, int height)
-		{
-			this.latch = latch;
-			this.generator = generator;
-			this.source = source;
-			this.img = img;
-			this.progressUpdate = (int)Math.ceil(totalSize / 100f);
-			this.coordsToHandle = coordsToHandle;
-			this.totalSize = totalSize;
-			this.mapBiomes = mapBiomes;
-			this.width = width;
-			this.height = height;
-		}
-
-		public void start()
-		{
-			this.runner = new Thread(this);
-			this.runner.start();
-		}
-		
-		@Override
-		public void run()
-		{
-			//set the color
-			while(true)
-			{
-				BlockPos2D coords = null;
-				int sizeLeft;
-				synchronized(queueLock)
-				{
-					sizeLeft = this.coordsToHandle.size();
-					if(sizeLeft > 0)
-					{
-						coords = this.coordsToHandle.remove(sizeLeft - 1);
-					}
-				}
-				// Send a progress update to let people know the server isn't dying
-				if (sizeLeft % this.progressUpdate == 0)
-				{
-					this.source.sendSuccess(new StringTextComponent((int)Math.floor(100 - (((double)sizeLeft / this.totalSize) * 100)) + "% Done mapping"), true);
-				}
-				
-				if(coords != null)
-				{
-					if(this.mapBiomes)
-					{
-						getBiomePixel(coords);
-					} else {
-						getTerrainPixel(coords);
-					}
-				} else {
-					this.latch.countDown();
-					return;
-				}
-			}
-		}
-
-		private void getBiomePixel(BlockPos2D chunkCoords)
-		{
-			// mapBiomes uses biome coords, so 1 pixel for every 
-			// 4 blocks, not 1 pixel per block like mapTerrain.
-			for (int internalX = 0; internalX < Constants.CHUNK_SIZE; internalX++)
-			{
-				for (int internalZ = 0; internalZ < Constants.CHUNK_SIZE; internalZ++)
-				{
-					int noiseX = chunkCoords.x * Constants.CHUNK_SIZE + internalX;
-					int noiseZ = chunkCoords.z * Constants.CHUNK_SIZE + internalZ;
-					if(noiseX < this.width && noiseZ < this.height)
-					{
-						// TODO: Fetch biome data per chunk, not per column, probably very slow atm.
-						int biomeColor = this.generator.getCachedBiomeProvider().getNoiseBiomeConfig(noiseX, noiseZ, true).getBiomeColor();
-						synchronized(imgLock)
-						{
-							this.img.setRGB(noiseX, noiseZ, biomeColor);
-						}
-					}
-				}
-			}
-		}
-		
-		private void getTerrainPixel(BlockPos2D chunkCoords)
-		{
-			ForgeChunkBuffer chunk = this.generator.getChunkWithoutLoadingOrCaching(this.source.getLevel().getRandom(), ChunkCoordinate.fromChunkCoords(chunkCoords.x, chunkCoords.z));
-			HighestBlockInfo highestBlockInfo;
-			for (int internalX = 0; internalX < 16; internalX++)
-			{
-				for (int internalZ = 0; internalZ < 16; internalZ++)
-				{
-					int x = chunkCoords.x * 16 + internalX;
-					int z = chunkCoords.z * 16 + internalZ;
-					if(x < this.width && z < this.height)
-					{
-						highestBlockInfo = getHighestBlockInfoInUnloadedChunk(chunk, internalX, internalZ);
-
-						// Color depth relative to waterlevel
-						//int worldHeight = 255;
-						//int worldWaterLevel = 63;
-						//int min = worldWaterLevel - worldHeight;
-						//int max = worldWaterLevel + worldHeight;
-						// Color depth relative to 0-255
-						int min = 0;
-						int max = 255;
-						int range = max - min;
-						int distance = -min + highestBlockInfo.y;
-						float relativeDistance = (float)distance / (float)range;
-						int shadePercentage = (int)Math.floor(relativeDistance * 2 * 100);
-						int rgbColor = shadeColor(highestBlockInfo.material.internalBlock().getBlock().defaultMaterialColor().col, shadePercentage);
-						synchronized(imgLock)
-						{
-							this.img.setRGB(x, z, rgbColor);
-						}
-					}
-				}
-			}			
-		}
+		// Color depth relative to waterlevel
+		//int worldHeight = 255;
+		//int worldWaterLevel = 63;
+		//int min = worldWaterLevel - worldHeight;
+		//int max = worldWaterLevel + worldHeight;
+		// Color depth relative to 0-255
+		int min = 0;
+		int max = 255;
+		int range = max - min;
+		int distance = -min + highestBlockInfo.y;
+		float relativeDistance = (float)distance / (float)range;
+		int shadePercentage = (int)Math.floor(relativeDistance * 2 * 100);
+		return shadeColor(highestBlockInfo.material.internalBlock().getBlock().defaultMaterialColor().col, shadePercentage);
+	}
 
-		private HighestBlockInfo getHighestBlockInfoInUnloadedChunk(ForgeChunkBuffer chunk, int internalX, int internalZ)
+	private static HighestBlockInfo getHighestBlockInfoInUnloadedChunk(ForgeChunkBuffer chunk, int internalX, int internalZ)
+	{
+		// TODO: Just use heightmaps?
+		BlockState blockInChunk;
+		for (int y = chunk.getHighestBlockForColumn(internalX, internalZ); y >= 0; y--)
 		{
-			// TODO: Just use heightmaps?
-			BlockState blockInChunk;
-			for (int y = chunk.getHighestBlockForColumn(internalX, internalZ); y >= 0; y--)
+			blockInChunk = chunk.getChunk().getBlockState(new BlockPos(internalX, y, internalZ));
+			if (blockInChunk != null && blockInChunk.getBlock() != Blocks.AIR)
 			{
-				blockInChunk = chunk.getChunk().getBlockState(new BlockPos(internalX, y, internalZ));
-				if (blockInChunk != null && blockInChunk.getBlock() != Blocks.AIR)
-				{
-					return new HighestBlockInfo((ForgeMaterialData)ForgeMaterialData.ofBlockState(blockInChunk), y);					
-				}
+				return new HighestBlockInfo((ForgeMaterialData)ForgeMaterialData.ofBlockState(blockInChunk), y);					
 			}
-			return new HighestBlockInfo((ForgeMaterialData)LocalMaterials.AIR, 63);
 		}
+		return new HighestBlockInfo((ForgeMaterialData)LocalMaterials.AIR, 63);
 	}
 	
 	private CompletableFuture<Suggestions> suggestTypes(CommandContext<CommandSource> context,
@@ -378,7 +266,7 @@ public class MapCommand extends BaseCommand
 		return ISuggestionProvider.suggest(MAP_TYPES, builder);
 	}
 		
-	public class HighestBlockInfo
+	public static class HighestBlockInfo
 	{
 		public final ForgeMaterialData material;
 		public final int y;
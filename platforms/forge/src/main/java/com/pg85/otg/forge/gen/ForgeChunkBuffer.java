@@ -10,6 +10,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.chunk.ChunkPrimer;
 import net.minecraft.world.chunk.IChunk;
+import net.minecraft.world.gen.Heightmap;
 
 public class ForgeChunkBuffer extends ChunkBuffer
 {
@@ -34,6 +35,27 @@ public class ForgeChunkBuffer extends ChunkBuffer
 		this.chunk.setBlockState(this.mutable.set(internalX, blockY, internalZ), ((ForgeMaterialData) material).internalBlock(), false);
 	}
 
+	// Writes straight into the chunk section like vanilla's fillFromNoise, heightmaps are primed in finishBaseTerrain.
+	@Override
+	public void setBaseTerrainBlock(int internalX, int blockY, int internalZ, LocalMaterialData material)
+	{
+		BlockState blockState = ((ForgeMaterialData) material).internalBlock();
+		if(blockState.getLightEmission() > 0)
+		{
+			// Light sources have to be registered with the chunk.
+			setBlock(internalX, blockY, internalZ, material);
+		} else {
+			this.chunk.getOrCreateSection(blockY >> 4).setBlockState(internalX, blockY & 0xF, internalZ, blockState, false);
+		}
+		setHighestBlockForColumn(internalX, internalZ, blockY);
+	}
+
+	@Override
+	public void finishBaseTerrain()
+	{
+		Heightmap.primeHeightmaps(this.chunk, this.chunk.getStatus().heightmapsAfter());
+	}
+
 	@Override
 	public LocalMaterialData getBlock(int internalX, int blockY, int internalZ)
 	{
@@ -13,6 +13,7 @@ import com.pg85.otg.forge.util.ForgeNBTHelper;
 import com.pg85.otg.interfaces.IBiome;
 import com.pg85.otg.interfaces.IBiomeConfig;
 import com.pg85.otg.interfaces.ICachedBiomeProvider;
+import com.pg85.otg.interfaces.IChunkView;
 import com.pg85.otg.interfaces.IEntityFunction;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.interfaces.IWorldConfig;
@@ -20,6 +21,7 @@ import com.pg85.otg.util.ChunkCoordinate;
 import com.pg85.otg.util.FifoMap;
 import com.pg85.otg.util.biome.ReplaceBlockMatrix;
 import com.pg85.otg.util.nbt.NamedBinaryTag;
+import com.pg85.otg.util.gen.DecorationHeightCache;
 import com.pg85.otg.util.gen.LocalWorldGenRegion;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
@@ -42,6 +44,7 @@ import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.StringTextComponent;
 import net.minecraft.world.ISeedReader;
+import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.chunk.ChunkStatus;
 import net.minecraft.world.chunk.IChunk;
 import net.minecraft.world.gen.Heightmap.Type;
@@ -248,13 +251,34 @@ public class ForgeWorldGenRegion extends LocalWorldGenRegion
 			return -1;
 		}
 
+		return getCachedHighestBlockYAt(chunk, x, z, findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);
+	}	
+
+	// During decoration, columns are only scanned once until a block is placed in them.
+	private int getCachedHighestBlockYAt(IChunk chunk, int x, int z, boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow, boolean ignoreLeaves)
+	{
+		int key = 0;
+		if(this.decorationHeightCache != null)
+		{
+			key = DecorationHeightCache.getKey(findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);
+			int cachedY = this.decorationHeightCache.get(key, x, z);
+			if(cachedY != DecorationHeightCache.NOT_CACHED)
+			{
+				return cachedY;
+			}
+		}
+
 		// Get internal coordinates for block in chunk
 		int internalX = x & 0xF;
 		int internalZ = z & 0xF;	
 		int heightMapy = chunk.getHeight(Type.WORLD_SURFACE, internalX, internalZ);
-		
-		return getHighestBlockYAt(chunk, internalX, heightMapy, internalZ, findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);
-	}	
+		int highestY = getHighestBlockYAt(chunk, internalX, heightMapy, internalZ, findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);
+		if(this.decorationHeightCache != null)
+		{
+			this.decorationHeightCache.put(key, x, z, highestY);
+		}
+		return highestY;
+	}
 
 	protected int getHighestBlockYAt(IChunk chunk, int internalX, int heightMapY, int internalZ, boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow, boolean ignoreLeaves)
 	{
@@ -263,10 +287,11 @@ public class ForgeWorldGenRegion extends LocalWorldGenRegion
 		boolean isLiquid;
 		BlockState blockState;
 		Block block;
+		BlockPos.Mutable pos = new BlockPos.Mutable();
 		
 		for(int i = heightMapY; i >= 0; i--)
 		{
-			blockState = chunk.getBlockState(new BlockPos(internalX, i, internalZ));
+			blockState = chunk.getBlockState(pos.set(internalX, i, internalZ));
 			block = blockState.getBlock();
 			material = ForgeMaterialData.ofBlockState(blockState);
 			isLiquid = material.isLiquid();
@@ -328,6 +353,16 @@ public class ForgeWorldGenRegion extends LocalWorldGenRegion
 	@Override
 	public int getHeightMapHeight(int x, int z)
 	{
+		if(this.decorationHeightCache != null && this.decorationArea.isInAreaBeingDecorated(x, z))
+		{
+			int height = this.decorationHeightCache.get(DecorationHeightCache.HEIGHTMAP_KEY, x, z);
+			if(height == DecorationHeightCache.NOT_CACHED)
+			{
+				height = this.worldGenRegion.getHeight(Type.WORLD_SURFACE_WG, x, z);
+				this.decorationHeightCache.put(DecorationHeightCache.HEIGHTMAP_KEY, x, z, height);
+			}
+			return height;
+		}
 		return this.worldGenRegion.getHeight(Type.WORLD_SURFACE_WG, x, z); 
 	}
 
@@ -363,6 +398,10 @@ public class ForgeWorldGenRegion extends LocalWorldGenRegion
 			material = material.parseWithBiomeAndHeight(this.getWorldConfig().getBiomeConfigsHaveReplacement(), biomeConfig.getReplaceBlocks(), y);
 		}
 		this.worldGenRegion.setBlock(new BlockPos(x, y, z), ((ForgeMaterialData)material).internalBlock(), 3);
+		if(this.decorationHeightCache != null)
+		{
+			this.decorationHeightCache.invalidate(x, z);
+		}
 	}
 
 	@Override
@@ -413,6 +452,10 @@ public class ForgeWorldGenRegion extends LocalWorldGenRegion
 			BlockPos pos = new BlockPos(x, y, z);
 			// Notify world: (2 | 16) == update client, don't update observers
 			this.worldGenRegion.setBlock(pos, ((ForgeMaterialData)material).internalBlock(), 2 | 16);
+			if(this.decorationHeightCache != null)
+			{
+				this.decorationHeightCache.invalidate(x, z);
+			}
 
 			if (material.isLiquid())
 			{
@@ -430,6 +473,179 @@ public class ForgeWorldGenRegion extends LocalWorldGenRegion
 		}
 	}
 
+	@Override
+	public IChunkView getChunkView(int chunkX, int chunkZ)
+	{
+		// Decoration areas are chunk aligned, so checking one block is enough.
+		// TOOD: Don't use this.decorationArea == null for worldgenregions
+		// doing things outside of population, split up worldgenregion
+		// into separate classes, one for decoration, one for non-decoration.
+		boolean canWrite = this.decorationArea == null || this.decorationArea.isInAreaBeingDecorated(chunkX * Constants.CHUNK_SIZE, chunkZ * Constants.CHUNK_SIZE);
+		IChunk chunk = null;
+		if(canWrite)
+		{
+			chunk = this.worldGenRegion.hasChunk(chunkX, chunkZ) ? this.worldGenRegion.getChunk(chunkX, chunkZ) : null;
+		}
+
+		// Unloaded chunks outside the area being decorated can't be read
+		if(chunk != null && !chunk.getStatus().isOrAfter(ChunkStatus.LIQUID_CARVERS))
+		{
+			chunk = null;
+		}
+		return new ForgeChunkView(chunkX, chunkZ, chunk, canWrite);
+	}
+
+	/**
+	 * Reads blocks straight from the chunk's sections and writes them via the
+	 * region with a single mutable BlockPos, see IChunkView.
+	 */
+	private class ForgeChunkView implements IChunkView
+	{
+		private final int chunkX;
+		private final int chunkZ;
+		private final int blockX;
+		private final int blockZ;
+		// Null if the chunk can't be read
+		private final IChunk chunk;
+		private final boolean canWrite;
+		private final BlockPos.Mutable pos = new BlockPos.Mutable();
+
+		// Neighbouring blocks are often the same, so remember the last material lookup.
+		private BlockState lastBlockState;
+		private LocalMaterialData lastMaterial;
+
+		private ForgeChunkView(int chunkX, int chunkZ, IChunk chunk, boolean canWrite)
+		{
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+			this.blockX = chunkX * Constants.CHUNK_SIZE;
+			this.blockZ = chunkZ * Constants.CHUNK_SIZE;
+			this.chunk = chunk;
+			this.canWrite = canWrite;
+		}
+
+		@Override
+		public int getChunkX()
+		{
+			return this.chunkX;
+		}
+
+		@Override
+		public int getChunkZ()
+		{
+			return this.chunkZ;
+		}
+
+		@Override
+		public LocalMaterialData getMaterial(int internalX, int y, int internalZ)
+		{
+			if(this.chunk == null || y >= Constants.WORLD_HEIGHT || y < Constants.WORLD_DEPTH)
+			{
+				return null;
+			}
+			return getMaterial(getBlockState(this.chunk.getSections(), internalX, y, internalZ));
+		}
+
+		@Override
+		public void getMaterialColumn(int internalX, int internalZ, int minY, int maxY, LocalMaterialData[] materials)
+		{
+			ChunkSection[] sections = this.chunk != null ? this.chunk.getSections() : null;
+			for(int y = minY; y <= maxY; y++)
+			{
+				materials[y - minY] = sections == null || y >= Constants.WORLD_HEIGHT || y < Constants.WORLD_DEPTH ? null : getMaterial(getBlockState(sections, internalX, y, internalZ));
+			}
+		}
+
+		private BlockState getBlockState(ChunkSection[] sections, int internalX, int y, int internalZ)
+		{
+			ChunkSection section = sections[y >> 4];
+			return section == null ? Blocks.AIR.defaultBlockState() : section.getBlockState(internalX, y & 0xF, internalZ);
+		}
+
+		private LocalMaterialData getMaterial(BlockState blockState)
+		{
+			if(blockState != this.lastBlockState)
+			{
+				this.lastBlockState = blockState;
+				this.lastMaterial = ForgeMaterialData.ofBlockState(blockState);
+			}
+			return this.lastMaterial;
+		}
+
+		@Override
+		public void setBlock(int internalX, int y, int internalZ, LocalMaterialData material, NamedBinaryTag nbt, ReplaceBlockMatrix replaceBlocksMatrix)
+		{
+			if(!this.canWrite || y < Constants.WORLD_DEPTH || y >= Constants.WORLD_HEIGHT || material.isEmpty())
+			{
+				return;
+			}
+
+			if(replaceBlocksMatrix != null)
+			{
+				material = material.parseWithBiomeAndHeight(getWorldConfig().getBiomeConfigsHaveReplacement(), replaceBlocksMatrix, y);
+			}
+			setBlock(this.blockX + internalX, y, this.blockZ + internalZ, (ForgeMaterialData)material, nbt);
+		}
+
+		@Override
+		public void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, LocalMaterialData material, ReplaceBlockMatrix replaceBlocksMatrix)
+		{
+			if(!this.canWrite || material.isEmpty())
+			{
+				return;
+			}
+
+			LocalMaterialData layerMaterial;
+			for(int y = Math.max(minY, Constants.WORLD_DEPTH); y <= Math.min(maxY, Constants.WORLD_HEIGHT - 1); y++)
+			{
+				// Replacement only depends on height, so parse once per layer.
+				layerMaterial = replaceBlocksMatrix != null ? material.parseWithBiomeAndHeight(getWorldConfig().getBiomeConfigsHaveReplacement(), replaceBlocksMatrix, y) : material;
+				for(int internalX = minX; internalX <= maxX; internalX++)
+				{
+					for(int internalZ = minZ; internalZ <= maxZ; internalZ++)
+					{
+						setBlock(this.blockX + internalX, y, this.blockZ + internalZ, (ForgeMaterialData)layerMaterial, null);
+					}
+				}
+			}
+		}
+
+		private void setBlock(int x, int y, int z, ForgeMaterialData material, NamedBinaryTag nbt)
+		{
+			this.pos.set(x, y, z);
+			// Notify world: (2 | 16) == update client, don't update observers
+			ForgeWorldGenRegion.this.worldGenRegion.setBlock(this.pos, material.internalBlock(), 2 | 16);
+			if(ForgeWorldGenRegion.this.decorationHeightCache != null)
+			{
+				ForgeWorldGenRegion.this.decorationHeightCache.invalidate(x, z);
+			}
+
+			if (material.isLiquid())
+			{
+				ForgeWorldGenRegion.this.worldGenRegion.getLiquidTicks().scheduleTick(this.pos.immutable(), material.internalBlock().getFluidState().getType(), 0);
+			}
+			else if (material.isMaterial(LocalMaterials.COMMAND_BLOCK))
+			{
+				ForgeWorldGenRegion.this.worldGenRegion.getBlockTicks().scheduleTick(this.pos.immutable(), material.internalBlock().getBlock(), 0);
+			}
+
+			if (nbt != null)
+			{
+				attachNBT(x, y, z, nbt, ForgeWorldGenRegion.this.worldGenRegion.getBlockState(this.pos));
+			}
+		}
+
+		@Override
+		public int getHighestBlockY(int internalX, int internalZ, boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow, boolean ignoreLeaves)
+		{
+			if(this.chunk == null)
+			{
+				return -1;
+			}
+			return getCachedHighestBlockYAt(this.chunk, this.blockX + internalX, this.blockZ + internalZ, findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);
+		}
+	}
+
 	private void attachNBT(int x, int y, int z, NamedBinaryTag nbt, BlockState state)
 	{
 		CompoundNBT nms = ForgeNBTHelper.getNMSFromNBTTagCompound(nbt);
@@ -590,6 +806,9 @@ public class ForgeWorldGenRegion extends LocalWorldGenRegion
 			}
 			// Return true to prevent further attempts.
 			return true;
+		} finally {
+			// Trees are placed directly in the world
+			clearHeightCache();
 		}
 	}
 
@@ -779,12 +998,14 @@ public class ForgeWorldGenRegion extends LocalWorldGenRegion
 	public void placeDungeon(Random random, int x, int y, int z)
 	{
 		Feature.MONSTER_ROOM.configured(IFeatureConfig.NONE).place(this.worldGenRegion, this.chunkGenerator, random, new BlockPos(x, y, z));
+		clearHeightCache();
 	}
 
 	@Override
 	public void placeFossil(Random random, int x, int y, int z)
 	{
 		Feature.FOSSIL.configured(IFeatureConfig.NONE).place(this.worldGenRegion, this.chunkGenerator, random, new BlockPos(x, y, z));
+		clearHeightCache();
 	}
 	
 	@Override
@@ -801,6 +1022,10 @@ public class ForgeWorldGenRegion extends LocalWorldGenRegion
 	public void setBlockState(BlockPos blockpos, BlockState blockstate1, int i)
 	{
 		worldGenRegion.setBlock(blockpos, blockstate1, i);
+		if(this.decorationHeightCache != null)
+		{
+			this.decorationHeightCache.invalidate(blockpos.getX(), blockpos.getZ());
+		}
 	}
 
 	public BlockState getBlockState(BlockPos blockPos)
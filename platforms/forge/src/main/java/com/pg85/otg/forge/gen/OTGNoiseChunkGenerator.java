@@ -160,7 +160,7 @@ public final class OTGNoiseChunkGenerator extends NoiseChunkGenerator
 			this.dimConfigName = "";
 			this.dimConfig = null;
 		}	
-		this.shadowChunkGenerator = new ShadowChunkGenerator(OTG.getEngine().getPluginConfig().getMaxWorkerThreads());
+		this.shadowChunkGenerator = new ShadowChunkGenerator(OTG.getEngine().getPluginConfig().getMaxWorkerThreads(), this.preset.getWorldConfig());
 		this.internalGenerator = new OTGChunkGenerator(this.preset, seed, (ILayerSource) biomeProvider1,((ForgePresetLoader)OTG.getEngine().getPresetLoader()).getGlobalIdMapping(presetFolderName), OTG.getEngine().getLogger());
 		this.chunkDecorator = new OTGChunkDecorator();
 	}
@@ -581,6 +581,8 @@ public final class OTGNoiseChunkGenerator extends NoiseChunkGenerator
 			List<Integer> alreadyDecorated = new ArrayList<>();
 			this.chunkDecorator.decorate(this.preset.getFolderName(), chunkBeingDecorated, forgeWorldGenRegion, biome.getBiomeConfig(), getStructureCache(worldSaveFolder));
 			((ForgeBiome)biome).getBiomeBase().generate(structureManager, this, worldGenRegion, decorationSeed, sharedseedrandom, blockpos);
+			// Vanilla decoration doesn't go through the world gen region, so cached heights are outdated.
+			forgeWorldGenRegion.clearHeightCache();
 			alreadyDecorated.add(biome.getBiomeConfig().getOTGBiomeId());
 			// Attempt to decorate other biomes if ImprovedBiomeDecoration - Frank
 			if (getPreset().getWorldConfig().improvedBorderDecoration())
@@ -591,6 +593,7 @@ public final class OTGNoiseChunkGenerator extends NoiseChunkGenerator
 					if (!alreadyDecorated.contains(biome1.getBiomeConfig().getOTGBiomeId()))
 					{
 						((ForgeBiome)biome1).getBiomeBase().generate(structureManager, this, worldGenRegion, decorationSeed, sharedseedrandom, blockpos);
+						forgeWorldGenRegion.clearHeightCache();
 						alreadyDecorated.add(biome1.getBiomeConfig().getOTGBiomeId());						
 					}					
 				}
@@ -600,6 +603,7 @@ public final class OTGNoiseChunkGenerator extends NoiseChunkGenerator
 					if (!alreadyDecorated.contains(biome2.getBiomeConfig().getOTGBiomeId()))
 					{
 						((ForgeBiome)biome2).getBiomeBase().generate(structureManager, this, worldGenRegion, decorationSeed, sharedseedrandom, blockpos);
+						forgeWorldGenRegion.clearHeightCache();
 						alreadyDecorated.add(biome2.getBiomeConfig().getOTGBiomeId());
 					}					
 				}
@@ -609,6 +613,7 @@ public final class OTGNoiseChunkGenerator extends NoiseChunkGenerator
 					if (!alreadyDecorated.contains(biome3.getBiomeConfig().getOTGBiomeId()))
 					{
 						((ForgeBiome)biome3).getBiomeBase().generate(structureManager, this, worldGenRegion, decorationSeed, sharedseedrandom, blockpos);
+						forgeWorldGenRegion.clearHeightCache();
 						alreadyDecorated.add(biome3.getBiomeConfig().getOTGBiomeId());
 					}					
 				}
@@ -618,6 +623,7 @@ public final class OTGNoiseChunkGenerator extends NoiseChunkGenerator
 					if (!alreadyDecorated.contains(biome4.getBiomeConfig().getOTGBiomeId()))
 					{
 						((ForgeBiome)biome4).getBiomeBase().generate(structureManager, this, worldGenRegion, decorationSeed, sharedseedrandom, blockpos);
+						forgeWorldGenRegion.clearHeightCache();
 					}
 				}
 			}
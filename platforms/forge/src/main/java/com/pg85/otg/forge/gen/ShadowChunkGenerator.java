@@ -3,32 +3,45 @@ package com.pg85.otg.forge.gen;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
+import com.pg85.otg.OTG;
 import com.pg85.otg.forge.biome.ForgeBiome;
 import com.pg85.otg.forge.biome.OTGBiomeProvider;
 import com.pg85.otg.forge.materials.ForgeMaterialData;
 import com.pg85.otg.gen.OTGChunkGenerator;
 import com.pg85.otg.interfaces.IBiome;
 import com.pg85.otg.interfaces.ICachedBiomeProvider;
+import com.pg85.otg.interfaces.ILogger;
+import com.pg85.otg.interfaces.IWorldConfig;
 import com.pg85.otg.util.BlockPos2D;
 import com.pg85.otg.util.ChunkCoordinate;
 import com.pg85.otg.util.FifoMap;
 import com.pg85.otg.util.gen.JigsawStructureData;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
 import com.pg85.otg.util.materials.LocalMaterialData;
 import com.pg85.otg.util.materials.LocalMaterials;
 
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
-import net.minecraft.block.BlockState;
+import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.SharedSeedRandom;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.chunk.ChunkPrimer;
 import net.minecraft.world.chunk.ChunkStatus;
 import net.minecraft.world.chunk.IChunk;
@@ -48,9 +61,9 @@ import net.minecraftforge.registries.ForgeRegistries;
  * without using mc's world generation flow. OTG's chunkgenerator is
  * called internally to generate base terrain for dummy chunks in a
  * thread-safe/non-blocking way. Shadowgenned chunks are stored in a
- * fixed size FIFO cache, data is reused when base terraingen is requested
- * for those chunks via normal worldgen. Shadowgen is used for BO4's,
- * worker threads to speed up world generation and /otg mapterrain.
+ * FIFO cache (sized via the WorldConfig), data is reused when base terraingen
+ * is requested for those chunks via normal worldgen. Shadowgen is used for
+ * BO4's, worker threads to speed up world generation and /otg mapterrain.
  *
  * Shadowgen can only be done for chunks that don't contain vanilla structures,
  * since those structures may use density based smoothing applied during noisegen,
@@ -59,46 +72,75 @@ import net.minecraftforge.registries.ForgeRegistries;
  */
 public class ShadowChunkGenerator
 {
-	// TODO: Add a setting to the worldconfig for the size of these caches?
-	private final FifoMap<BlockPos2D, LocalMaterialData[]> unloadedBlockColumnsCache = new FifoMap<BlockPos2D, LocalMaterialData[]>(1024);
-	private final FifoMap<ChunkCoordinate, IChunk> unloadedChunksCache = new FifoMap<ChunkCoordinate, IChunk>(512);
-	private final FifoMap<ChunkCoordinate, Integer> hasVanillaStructureChunkCache = new FifoMap<ChunkCoordinate, Integer>(2048);
-	private final FifoMap<ChunkCoordinate, Integer> hasVanillaNoiseStructureChunkCache = new FifoMap<ChunkCoordinate, Integer>(2048);
-
+	// Worker threads are stopped when they've been idle for this long.
+	private static final long WORKER_KEEP_ALIVE_IN_MS = 30000;
+	// Chunks are prefetched up to this many chunks beyond the view distance.
+	private static final int PREFETCH_RADIUS_MARGIN = 2;
+
+	private final FifoMap<BlockPos2D, LocalMaterialData[]> unloadedBlockColumnsCache;
+	private final FifoMap<ChunkCoordinate, IChunk> unloadedChunksCache;
+	private final FifoMap<ChunkCoordinate, Integer> hasVanillaStructureChunkCache;
+	private final FifoMap<ChunkCoordinate, Integer> hasVanillaNoiseStructureChunkCache;
+
+	// Guards unloadedChunksCache, tasks and chunksBeingGenerated, waiting
+	// threads are notified whenever a task finishes.
 	private final Object workerLock = new Object();
 	private final int maxConcurrent;
-	private final Worker[] threads;
-	private boolean threadsInitialized = false;
-	private final LinkedList<ChunkCoordinate> chunksToLoad = new LinkedList<ChunkCoordinate>();
-	private final int maxQueueSize = 512;
-	private final ChunkCoordinate[] chunksBeingLoaded;
-	private final int waitTimeInMS = 25;
-	private final int idleTimeInMS = 50;
-	@SuppressWarnings("unused")
-	private int cacheHits = 0;
-	@SuppressWarnings("unused")
-	private int cacheMisses = 0;
-
-	public ShadowChunkGenerator(int maxConcurrentThreads)
+	private final int maxQueueSize;
+	private ThreadPoolExecutor executor;
+	// Queued and running tasks.
+	private final Map<ChunkCoordinate, ShadowChunkTask> tasks = new HashMap<ChunkCoordinate, ShadowChunkTask>();
+	// Chunks being generated by worldgen threads, which workers should skip.
+	private final Set<ChunkCoordinate> chunksBeingGenerated = new HashSet<ChunkCoordinate>();
+	private long taskCounter = 0;
+
+	// Set when the executor is created, used by tasks.
+	private ServerWorld serverWorld;
+	private ChunkGenerator chunkGenerator;
+	private OTGBiomeProvider biomeProvider;
+	private OTGChunkGenerator otgChunkGenerator;
+	private DimensionStructuresSettings dimensionStructuresSettings;
+	private int worldHeightCap;
+	private Random worldRandom;
+
+	private final LongAdder cacheHits = new LongAdder();
+	private final LongAdder cacheMisses = new LongAdder();
+	private final LongAdder waits = new LongAdder();
+	private final LongAdder waitTimeInNS = new LongAdder();
+	private final LongAdder cancelledTasks = new LongAdder();
+
+	public ShadowChunkGenerator(int maxConcurrentThreads, IWorldConfig worldConfig)
 	{
 		this.maxConcurrent = maxConcurrentThreads;
-		this.threads = new Worker[this.maxConcurrent];
-		// chunksBeingLoaded[maxConcurrent] means worldgen thread, not a worker thread.
-		this.chunksBeingLoaded = new ChunkCoordinate[this.maxConcurrent + 1];
+		this.maxQueueSize = worldConfig.getShadowChunkQueueSize();
+		this.unloadedBlockColumnsCache = new FifoMap<BlockPos2D, LocalMaterialData[]>(worldConfig.getShadowColumnCacheSize());
+		this.unloadedChunksCache = new FifoMap<ChunkCoordinate, IChunk>(worldConfig.getShadowChunkCacheSize());
+		this.hasVanillaStructureChunkCache = new FifoMap<ChunkCoordinate, Integer>(worldConfig.getShadowStructureCacheSize());
+		this.hasVanillaNoiseStructureChunkCache = new FifoMap<ChunkCoordinate, Integer>(worldConfig.getShadowStructureCacheSize());
 	}
 
 	// Called on world unload to stop threads and release resources.
 	public void stopWorkerThreads()
 	{
-		if(this.maxConcurrent > 0)
+		synchronized(this.workerLock)
 		{
-			for(int i = 0; i < this.maxConcurrent; i++)
+			if(this.executor != null)
 			{
-				if(this.threads[i] != null)
-				{
-					this.threads[i].stop();
-				}
+				this.executor.shutdownNow();
+				this.executor = null;
 			}
+			for(ShadowChunkTask task : this.tasks.values())
+			{
+				task.cancelled = true;
+			}
+			this.tasks.clear();
+			this.workerLock.notifyAll();
+		}
+
+		ILogger logger = OTG.getEngine().getLogger();
+		if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+		{
+			logger.log(LogLevel.INFO, LogCategory.PERFORMANCE, "Shadowgen cache hits/misses: " + getCacheHits() + "/" + getCacheMisses() + ", waits: " + getWaits() + " (" + (getWaitTimeInNS() / 1000000) + " Ms), cancelled: " + getCancelledTasks());
 		}
 	}
 
@@ -110,57 +152,113 @@ public class ShadowChunkGenerator
 	{
 		if(this.maxConcurrent > 0)
 		{
-			if(!this.threadsInitialized)
+			ChunkPos center = chunk.getPos();
+			synchronized(this.workerLock)
 			{
-				for(int i = 0; i < this.maxConcurrent; i++)
+				if(this.executor == null)
 				{
-					@SuppressWarnings("deprecation")
-					Worker thread = this.new Worker(i, this.unloadedChunksCache, this.chunksToLoad, this.chunksBeingLoaded, worldGenRegion.getLevel(), chunkGenerator, biomeProvider, otgChunkGenerator, dimensionStructuresSettings, worldHeightCap);
-					this.threads[i] = thread;
-					thread.start(worldGenRegion.getRandom());
+					this.serverWorld = worldGenRegion.getLevel();
+					this.chunkGenerator = chunkGenerator;
+					this.biomeProvider = biomeProvider;
+					this.otgChunkGenerator = otgChunkGenerator;
+					this.dimensionStructuresSettings = dimensionStructuresSettings;
+					this.worldHeightCap = worldHeightCap;
+					this.worldRandom = worldGenRegion.getRandom();
+					// Threads are only created when there is work and time out when idle.
+					this.executor = new ThreadPoolExecutor(this.maxConcurrent, this.maxConcurrent, WORKER_KEEP_ALIVE_IN_MS, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(), new WorkerThreadFactory());
+					this.executor.allowCoreThreadTimeOut(true);
 				}
-				this.threadsInitialized = true;
-			}
-			synchronized(this.workerLock)
-			{
-				if(this.chunksToLoad.size() == 0)
+
+				List<ChunkPos> generationCenters = getGenerationCenters(center);
+				int radius = this.serverWorld.getServer().getPlayerList().getViewDistance() + PREFETCH_RADIUS_MARGIN;
+				long maxDistance = (long)radius * radius;
+				reprioritizeQueuedTasks(generationCenters, maxDistance);
+
+				for(IChunk wgrChunk : worldGenRegion.cache)
 				{
-					//OTG.log(LogMarker.INFO, "Fetching chunks for async chunkgen");
-					for(IChunk wgrChunk : worldGenRegion.cache)
+					if(this.executor.getQueue().size() >= this.maxQueueSize)
+					{
+						break;
+					}
+					if(wgrChunk != chunk && !wgrChunk.getStatus().isOrAfter(ChunkStatus.NOISE))
 					{
 						ChunkCoordinate wgrChunkCoord = ChunkCoordinate.fromChunkCoords(wgrChunk.getPos().x, wgrChunk.getPos().z);
-						if(wgrChunk != chunk && !wgrChunk.getStatus().isOrAfter(ChunkStatus.NOISE))
+						long distance = getDistanceToNearest(generationCenters, wgrChunkCoord);
+						if(
+							distance <= maxDistance &&
+							!this.unloadedChunksCache.containsKey(wgrChunkCoord) &&
+							!this.tasks.containsKey(wgrChunkCoord) &&
+							!this.chunksBeingGenerated.contains(wgrChunkCoord)
+						)
 						{
-							if (!this.unloadedChunksCache.containsKey(wgrChunkCoord))
-							{
-								boolean bFound = false;
-								for(int i = 0; i < this.chunksBeingLoaded.length; i++)
-								{
-									if(this.chunksBeingLoaded[i] == wgrChunkCoord)
-									{
-										bFound = true;
-										break;
-									}
-								}
-								if(!bFound)
-								{
-									// TODO: Queue order shouldn't really matter bc
-									// of the way maxQueueSize is enforced here.
-									// Might affect cache hits/misses and waits tho, test?
-									this.chunksToLoad.addFirst(wgrChunkCoord);
-									if(this.chunksToLoad.size() == this.maxQueueSize)
-									{
-										break;
-									}
-								}
-							}
+							ShadowChunkTask task = new ShadowChunkTask(wgrChunkCoord, distance, this.taskCounter++);
+							this.tasks.put(wgrChunkCoord, task);
+							this.executor.execute(task);
 						}
-					};
+					}
 				}
 			}
 		}
 	}
 
+	// Chunks closest to a player or to the chunk being generated are likely to be requested first.
+	private List<ChunkPos> getGenerationCenters(ChunkPos generatingChunk)
+	{
+		List<ChunkPos> centers = new ArrayList<ChunkPos>();
+		centers.add(generatingChunk);
+		// The player list is changed by the server thread, so copy it first.
+		for(ServerPlayerEntity player : this.serverWorld.players().toArray(new ServerPlayerEntity[0]))
+		{
+			if(player != null)
+			{
+				centers.add(new ChunkPos(MathHelper.floor(player.getX()) >> 4, MathHelper.floor(player.getZ()) >> 4));
+			}
+		}
+		return centers;
+	}
+
+	private static long getDistanceToNearest(List<ChunkPos> centers, ChunkCoordinate chunkCoord)
+	{
+		long nearest = Long.MAX_VALUE;
+		for(ChunkPos center : centers)
+		{
+			long distanceX = chunkCoord.getChunkX() - center.x;
+			long distanceZ = chunkCoord.getChunkZ() - center.z;
+			nearest = Math.min(nearest, distanceX * distanceX + distanceZ * distanceZ);
+		}
+		return nearest;
+	}
+
+	/**
+	 * Re-queues queued tasks by their distance to the current generation
+	 * centers, and cancels tasks for chunks that have moved out of range,
+	 * for instance because the player who caused them moved away.
+	 * Must be called while holding workerLock.
+	 */
+	private void reprioritizeQueuedTasks(List<ChunkPos> centers, long maxDistance)
+	{
+		List<Runnable> queuedTasks = new ArrayList<Runnable>();
+		this.executor.getQueue().drainTo(queuedTasks);
+		for(Runnable runnable : queuedTasks)
+		{
+			ShadowChunkTask task = (ShadowChunkTask)runnable;
+			task.distance = getDistanceToNearest(centers, task.chunkCoord);
+			if(task.distance > maxDistance)
+			{
+				task.cancelled = true;
+				this.tasks.remove(task.chunkCoord);
+				this.cancelledTasks.increment();
+			} else {
+				this.executor.getQueue().add(task);
+			}
+		}
+		// Workers may have timed out while the queue was drained.
+		if(!this.executor.getQueue().isEmpty() && this.executor.getPoolSize() == 0)
+		{
+			this.executor.prestartCoreThread();
+		}
+	}
+
 	private ForgeChunkBuffer getUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random random, ChunkCoordinate chunkCoordinate)
 	{
 		ChunkPrimer chunk = new ChunkPrimer(new ChunkPos(chunkCoordinate.getChunkX(), chunkCoordinate.getChunkZ()), null);
@@ -179,76 +277,69 @@ public class ShadowChunkGenerator
 		return buffer;
 	}
 
+	/**
+	 * Returns the chunk if it was generated by a worker thread. If a worker
+	 * is generating the chunk, waits for it to finish. Otherwise returns null
+	 * and the calling thread claims the chunk, cancelling any queued task for
+	 * it. It must generate the chunk and call setChunkGenerated.
+	 */
 	public IChunk getChunkWithWait(ChunkCoordinate chunkCoord)
 	{
-		// Fetch the chunk if it is cached, otherwise check if no other thread
-		// is generating the chunk. If not, claim the chunk and generate it.
-		// If so, wait for the other thread to finish.
+		long waitStart = -1;
 		synchronized(this.workerLock)
 		{
-			IChunk cachedChunk = this.unloadedChunksCache.get(chunkCoord);
-			if(cachedChunk != null)
+			try
 			{
-				return cachedChunk;
-			} else {
-				// If a chunk is in unloadedChunksCache but is null, it's in a chunk that
-				// shouldn't be generated async due to a vanilla structure start nearby.
-				if(this.unloadedChunksCache.containsKey(chunkCoord))
+				while(true)
 				{
+					IChunk cachedChunk = this.unloadedChunksCache.get(chunkCoord);
+					if(cachedChunk != null)
+					{
+						return cachedChunk;
+					}
+
+					// If a chunk is in unloadedChunksCache but is null, it's in a chunk that
+					// shouldn't be generated async due to a vanilla structure start nearby.
 					this.unloadedChunksCache.remove(chunkCoord);
-					this.chunksToLoad.remove(chunkCoord);
-					// MaxConcurrent means worldgen thread, not a worker thread.
-					this.chunksBeingLoaded[this.maxConcurrent] = chunkCoord;
-					return null;
-				} else {
-					boolean bFound = false;
-					for(int i = 0; i < this.chunksBeingLoaded.length; i++)
+
+					ShadowChunkTask task = this.tasks.get(chunkCoord);
+					if(task == null || !task.running)
 					{
-						if(this.chunksBeingLoaded[i] == chunkCoord)
+						if(task != null)
 						{
-							bFound = true;
-							break;
+							// Worldgen got here first, no point in waiting for a worker.
+							task.cancelled = true;
+							this.tasks.remove(chunkCoord);
+							if(this.executor != null)
+							{
+								this.executor.remove(task);
+							}
+							this.cancelledTasks.increment();
 						}
+						this.chunksBeingGenerated.add(chunkCoord);
+						return null;
 					}
-					if(!bFound)
+
+					// A worker thread is generating the chunk, wait.
+					if(waitStart == -1)
 					{
-						this.chunksToLoad.remove(chunkCoord);
-						// MaxConcurrent means worldgen thread, not a worker thread.
-						this.chunksBeingLoaded[this.maxConcurrent] = chunkCoord;
-						return null;
+						waitStart = System.nanoTime();
+						this.waits.increment();
 					}
+					this.workerLock.wait();
 				}
 			}
-		}
-
-		// A worker thread is generating the chunk, wait.
-
-		while(true)
-		{
-			try {
-				//OTG.log(LogMarker.INFO, "Waiting for chunk");
-				// TODO: If a worker thread is stuck or crashed, this may wait indefinitely.
-				Thread.sleep(this.waitTimeInMS);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				this.chunksBeingGenerated.add(chunkCoord);
+				return null;
 			}
-			synchronized(this.workerLock)
+			finally
 			{
-				IChunk cachedChunk = this.unloadedChunksCache.get(chunkCoord);
-				if(cachedChunk != null)
+				if(waitStart != -1)
 				{
-					return cachedChunk;
-				} else {
-					// If a chunk is in unloadedChunksCache but is null, it's in a chunk that
-					// shouldn't be generated async due to a vanilla structure start nearby.
-					if(this.unloadedChunksCache.containsKey(chunkCoord))
-					{
-						this.unloadedChunksCache.remove(chunkCoord);
-						this.chunksToLoad.remove(chunkCoord);
-						// MaxConcurrent means worldgen thread, not a worker thread.
-						this.chunksBeingLoaded[this.maxConcurrent] = chunkCoord;
-						return null;
-					}
+					this.waitTimeInNS.add(System.nanoTime() - waitStart);
 				}
 			}
 		}
@@ -261,8 +352,7 @@ public class ShadowChunkGenerator
 		((ChunkPrimer)chunk).sections = ((ChunkPrimer)cachedChunk).sections;
 		((ChunkPrimer)chunk).heightmaps = ((ChunkPrimer)cachedChunk).heightmaps;
 		((ChunkPrimer)chunk).lights = ((ChunkPrimer)cachedChunk).lights;
-		this.cacheHits++;
-		//OTG.log(LogMarker.INFO, "Cache hit " + this.cacheHits);
+		this.cacheHits.increment();
 		synchronized(this.workerLock)
 		{
 			this.unloadedChunksCache.remove(chunkCoord);
@@ -271,16 +361,38 @@ public class ShadowChunkGenerator
 
 	public void setChunkGenerated(ChunkCoordinate chunkCoord)
 	{
-		this.cacheMisses++;
-		//OTG.log(LogMarker.INFO, "Cache miss " + + this.cacheMisses);
-		synchronized(workerLock)
+		this.cacheMisses.increment();
+		synchronized(this.workerLock)
 		{
-			// Zero index, so MaxConcurrent means worldgen thread, not a worker thread.
-			this.chunksBeingLoaded[this.maxConcurrent] = null;
-			this.chunksToLoad.remove(chunkCoord);
+			this.chunksBeingGenerated.remove(chunkCoord);
 		}
 	}
 
+	public long getCacheHits()
+	{
+		return this.cacheHits.sum();
+	}
+
+	public long getCacheMisses()
+	{
+		return this.cacheMisses.sum();
+	}
+
+	public long getWaits()
+	{
+		return this.waits.sum();
+	}
+
+	public long getWaitTimeInNS()
+	{
+		return this.waitTimeInNS.sum();
+	}
+
+	public long getCancelledTasks()
+	{
+		return this.cancelledTasks.sum();
+	}
+
 	// Vanilla structure detection (avoidance)
 	// Some vanilla structures use density based smoothing of terrain underneath, which is factored into noisegen.
 	// Unfortunately this requires fetching structure data in a non-thread-safe manner, so we can't do async
@@ -504,54 +616,47 @@ public class ShadowChunkGenerator
 	// BO4's / Smoothing Areas
 
 	// BO4's and smoothing areas may do material and height checks in unloaded chunks during decoration.
-	// Shadowgen is used to do this without causing cascades. Shadowgenned chunks are requested on-demand for the worldgen thread (BO4's).
+	// Shadowgen is used to do this without causing cascades. Shadowgenned columns are requested on-demand for the worldgen thread (BO4's), see OTGChunkGenerator.populateNoiseColumn.
 	// Async worker threads may also pre-emptively shadowgen and cache unloaded chunks, which speeds up base terrain generation but also BO4's.
-	// Note: BO4's are always processed on the worldgen thread, never on a worker thread, since they are not a part of base terrain generation.
+	// Note: BO4's and smoothing areas may be spawned by several decoration threads at once, so unloadedBlockColumnsCache is guarded by itself.
 
 	private LocalMaterialData[] getBlockColumnInUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random worldRandom, int x, int z)
 	{
 		BlockPos2D blockPos = new BlockPos2D(x, z);
-		ChunkCoordinate chunkCoord = ChunkCoordinate.fromBlockCoords(x, z);
-
-		// Get internal coordinates for block in chunk
-		byte blockX = (byte) (x &= 0xF);
-		byte blockZ = (byte) (z &= 0xF);
-
-		LocalMaterialData[] cachedColumn = this.unloadedBlockColumnsCache.get(blockPos);
-
-		if (cachedColumn != null)
+		LocalMaterialData[] blocksInColumn;
+		synchronized(this.unloadedBlockColumnsCache)
 		{
-			return cachedColumn;
+			blocksInColumn = this.unloadedBlockColumnsCache.get(blockPos);
 		}
-
-		IChunk chunk = this.getChunkWithWait(chunkCoord);
-		if (chunk == null)
+		if (blocksInColumn != null)
 		{
-			// Generate a chunk without loading/decorating it
-			chunk = getUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, chunkCoord).getChunk();
-			synchronized(this.workerLock)
-			{
-				this.unloadedChunksCache.put(chunkCoord, chunk);
-				// Zero index, so MaxConcurrent means worldgen thread, not a worker thread.
-				this.chunksBeingLoaded[this.maxConcurrent] = null;
-			}
+			return blocksInColumn;
 		}
 
-		cachedColumn = new LocalMaterialData[256];
-
-		LocalMaterialData[] blocksInColumn = new LocalMaterialData[256];
-		BlockState blockInChunk;
-		for (short y = 0; y < 256; y++)
+		blocksInColumn = new LocalMaterialData[256];
+		ChunkCoordinate chunkCoord = ChunkCoordinate.fromBlockCoords(x, z);
+		IChunk chunk;
+		synchronized(this.workerLock)
+		{
+			chunk = this.unloadedChunksCache.get(chunkCoord);
+		}
+		if (chunk != null)
 		{
-			blockInChunk = chunk.getBlockState(new BlockPos(blockX, y, blockZ));
-			if (blockInChunk != null)
+			// Use the chunk if a worker already generated it.
+			BlockPos.Mutable pos = new BlockPos.Mutable();
+			for (short y = 0; y < 256; y++)
 			{
-				blocksInColumn[y] = ForgeMaterialData.ofBlockState(blockInChunk);
-			} else {
-				break;
+				blocksInColumn[y] = ForgeMaterialData.ofBlockState(chunk.getBlockState(pos.set(x & 0xF, y, z & 0xF)));
 			}
+		} else {
+			// Only generate the requested column, BO4's probe many columns
+			// in chunks that won't be generated any time soon.
+			otgChunkGenerator.populateNoiseColumn(worldHeightCap, worldRandom, x, z, blocksInColumn);
+		}
+		synchronized(this.unloadedBlockColumnsCache)
+		{
+			this.unloadedBlockColumnsCache.put(blockPos, blocksInColumn);
 		}
-		this.unloadedBlockColumnsCache.put(blockPos, cachedColumn);
 
 		return blocksInColumn;
 	}
@@ -591,109 +696,83 @@ public class ShadowChunkGenerator
 		return height;
 	}
 
-	// Async Worker for generating chunks up to ChunkStatus.NOISE.
+	// Async task for generating a chunk up to ChunkStatus.NOISE.
 	// This is only used for chunks that don't require density based
 	// smoothing for vanilla structures, since that cannot be done
 	// in a thread-safe/non-blocking manner.
 
-	private class Worker implements Runnable
+	private class ShadowChunkTask implements Runnable, Comparable<ShadowChunkTask>
 	{
-		private Thread runner;
-		private boolean stop = false;
-		private Random worldRandom;
-
-		private final int index;
-		private final FifoMap<ChunkCoordinate, IChunk> unloadedChunksCache;
-		private final List<ChunkCoordinate> chunksToLoad;
-		private final ChunkCoordinate[] chunksBeingLoaded;
-		private final ServerWorld serverWorld;
-		private final ChunkGenerator chunkGenerator;
-		private final OTGBiomeProvider biomeProvider;
-		private final OTGChunkGenerator otgChunkGenerator;
-		private final DimensionStructuresSettings dimensionStructuresSettings;
-		private final int worldHeightCap;
-
-		Worker(int index, FifoMap<ChunkCoordinate, IChunk> unloadedChunksCache, List<ChunkCoordinate> chunksToLoad, ChunkCoordinate[] chunksBeingLoaded, ServerWorld serverWorld, ChunkGenerator chunkGenerator, OTGBiomeProvider biomeProvider, OTGChunkGenerator otgChunkGenerator, DimensionStructuresSettings dimensionStructuresSettings, int worldHeightCap)
-		{
-			this.index = index;
-			this.unloadedChunksCache = unloadedChunksCache;
-			this.chunksToLoad = chunksToLoad;
-			this.chunksBeingLoaded = chunksBeingLoaded;
-			this.serverWorld = serverWorld;
-			this.chunkGenerator = chunkGenerator;
-			this.biomeProvider  = biomeProvider;
-			this.otgChunkGenerator = otgChunkGenerator;
-			this.dimensionStructuresSettings = dimensionStructuresSettings;
-			this.worldHeightCap = worldHeightCap;
-		}
-
-		public void start(Random worldRandom)
+		private final ChunkCoordinate chunkCoord;
+		private final long order;
+		// Guarded by workerLock, only changed while the task isn't queued.
+		private long distance;
+		// Guarded by workerLock.
+		private boolean running = false;
+		private boolean cancelled = false;
+
+		ShadowChunkTask(ChunkCoordinate chunkCoord, long distance, long order)
 		{
-			this.runner = new Thread(this);
-			this.runner.start();
-			this.worldRandom = worldRandom;
+			this.chunkCoord = chunkCoord;
+			this.distance = distance;
+			this.order = order;
 		}
 
-		public void stop()
+		@Override
+		public int compareTo(ShadowChunkTask other)
 		{
-			this.stop = true;
+			int result = Long.compare(this.distance, other.distance);
+			return result != 0 ? result : Long.compare(this.order, other.order);
 		}
 
 		@Override
 		public void run()
 		{
-			// Process chunks if any are in the queue,
-			// otherwise wait for the queue to be filled.
-			while(true)
+			synchronized(workerLock)
 			{
-				if(this.stop)
+				if(this.cancelled)
 				{
-					this.stop = false;
 					return;
 				}
+				this.running = true;
+			}
 
-				ChunkCoordinate coords = null;
-				int sizeLeft;
-				synchronized(workerLock)
+			IChunk cachedChunk = null;
+			try
+			{
+				if(!checkHasVanillaStructureWithoutLoading(serverWorld, chunkGenerator, biomeProvider, dimensionStructuresSettings, this.chunkCoord, otgChunkGenerator.getCachedBiomeProvider(), true))
 				{
-					sizeLeft = this.chunksToLoad.size();
-					if(sizeLeft > 0)
-					{
-						coords = this.chunksToLoad.remove(sizeLeft - 1);
-						this.chunksBeingLoaded[this.index] = coords;
-					}
+					// Generate a chunk without loading/decorating it.
+					cachedChunk = getUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, this.chunkCoord).getChunk();
 				}
-				if(coords != null)
+			} finally {
+				synchronized(workerLock)
 				{
-					if(!checkHasVanillaStructureWithoutLoading(this.serverWorld, this.chunkGenerator, this.biomeProvider, this.dimensionStructuresSettings, coords, this.otgChunkGenerator.getCachedBiomeProvider(), true))
+					if(!this.cancelled)
 					{
-						// Generate a chunk without loading/decorating it.
-						IChunk cachedChunk = getUnloadedChunk(this.otgChunkGenerator, this.worldHeightCap, this.worldRandom, coords).getChunk();
-						synchronized(workerLock)
-						{
-							this.unloadedChunksCache.put(coords, cachedChunk);
-							this.chunksBeingLoaded[this.index] = null;
-						}
-					} else {
-						synchronized(workerLock)
-						{
-							// This chunk should not be shadowgenned, add it
-							// to the unloadedChunksCache as null so workers
-							// avoid it and the worldgen thread takes care
-							// of it in getChunkWithWait().
-							this.unloadedChunksCache.put(coords, null);
-							this.chunksBeingLoaded[this.index] = null;
-						}
-					}
-				} else {
-					try {
-						//OTG.log(LogMarker.INFO, "Worker " + this.index + " idle");
-						Thread.sleep(idleTimeInMS);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
+						// If the chunk should not be shadowgenned, add it
+						// to the unloadedChunksCache as null so workers
+						// avoid it and the worldgen thread takes care
+						// of it in getChunkWithWait().
+						unloadedChunksCache.put(this.chunkCoord, cachedChunk);
+						tasks.remove(this.chunkCoord);
 					}
+					workerLock.notifyAll();
 				}
 			}
 		}
 	}
+
+	private static class WorkerThreadFactory implements ThreadFactory
+	{
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable)
+		{
+			Thread thread = new Thread(runnable, "OTG-Shadowgen-" + this.threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
 }
@@ -22,6 +22,7 @@ import net.minecraftforge.registries.ForgeRegistries;
 
 public class ForgeMaterialReader implements IMaterialReader
 {
+	// Caches are guarded by themselves, see IMaterialReader.
 	// TODO: Smaller caches should be ok, only most frequently used should be cached?
 	private final FifoMap<String, LocalMaterialData> cachedMaterials = new FifoMap<>(4096);
 	private final FifoMap<String, LocalMaterialTag> cachedTags = new FifoMap<>(4096);	
@@ -34,14 +35,18 @@ public class ForgeMaterialReader implements IMaterialReader
 			return null;
 		}
 		
-		LocalMaterialData localMaterial = this.cachedMaterials.get(material);
-		if(localMaterial != null)
+		LocalMaterialData localMaterial;
+		synchronized(this.cachedMaterials)
 		{
-			return localMaterial;
-		}
-		else if(this.cachedMaterials.containsKey(material))
-		{
-			throw new InvalidConfigException("Cannot read block: " + material);
+			localMaterial = this.cachedMaterials.get(material);
+			if(localMaterial != null)
+			{
+				return localMaterial;
+			}
+			else if(this.cachedMaterials.containsKey(material))
+			{
+				throw new InvalidConfigException("Cannot read block: " + material);
+			}
 		}
 
 		try
@@ -57,7 +62,10 @@ public class ForgeMaterialReader implements IMaterialReader
 			}
 		}
 
-		this.cachedMaterials.put(material, localMaterial);
+		synchronized(this.cachedMaterials)
+		{
+			this.cachedMaterials.put(material, localMaterial);
+		}
 		
 		return localMaterial;
 	}
@@ -70,14 +78,21 @@ public class ForgeMaterialReader implements IMaterialReader
 			return null;
 		}
 		
-		LocalMaterialTag localTag = this.cachedTags.get(tag);
-		if(localTag != null)
+		LocalMaterialTag localTag;
+		synchronized(this.cachedTags)
 		{
-			return localTag;
+			localTag = this.cachedTags.get(tag);
+			if(localTag != null)
+			{
+				return localTag;
+			}
 		}
 
 		localTag = ForgeMaterialTag.ofString(tag);
-		this.cachedTags.put(tag, localTag);
+		synchronized(this.cachedTags)
+		{
+			this.cachedTags.put(tag, localTag);
+		}
 		return localTag;
 	}
 
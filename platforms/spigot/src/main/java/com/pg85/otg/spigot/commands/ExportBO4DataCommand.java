@@ -1,7 +1,7 @@
 package com.pg85.otg.spigot.commands;
 
+import java.io.File;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -13,9 +13,8 @@ import com.pg85.otg.OTG;
 import com.pg85.otg.config.ConfigFunction;
 import com.pg85.otg.config.biome.BiomeConfig;
 import com.pg85.otg.constants.SettingsEnums.CustomStructureType;
-import com.pg85.otg.customobject.CustomObject;
 import com.pg85.otg.customobject.bo4.BO4;
-import com.pg85.otg.customobject.bo4.BO4Data;
+import com.pg85.otg.customobject.bo4.BO4DataExporter;
 import com.pg85.otg.customobject.resource.CustomStructureResource;
 import com.pg85.otg.customobject.structures.bo4.BO4CustomStructure;
 import com.pg85.otg.customobject.structures.bo4.BO4CustomStructureCoordinate;
@@ -36,15 +35,14 @@ public class ExportBO4DataCommand extends BaseCommand
 {
 	private static boolean isRunning = false;
 	private static boolean isDone = false;
-	private static int current = 0;
-	private static int total = 0;
+	private static BO4DataExporter currentExporter = null;
 	private static String boName = "";	
 	
 	public ExportBO4DataCommand()
 	{
 		super("exportbo4data");
-		this.helpMessage = "Exports all BO4 files and BO3 files that have isOTGPlus:true as BO4Data files (if none exist already). BO4Data files can significantly reduce filesize and loading times, and should be used by OTG content creators when packaging presets for players.";
-		this.usage = "/otg exportbo4data";
+		this.helpMessage = "Exports all BO4 files and BO3 files that have isOTGPlus:true as BO4Data files (if none exist already, or if the BO4 file has changed). BO4Data files can significantly reduce filesize and loading times, and should be used by OTG content creators when packaging presets for players.";
+		this.usage = "/otg exportbo4data [threads]";
 	}
 
 	public boolean execute(CommandSender sender, String[] args)
@@ -54,6 +52,20 @@ public class ExportBO4DataCommand extends BaseCommand
 			sender.sendMessage("Only players can execute this command");
 			return true;
 		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 1)
+		{
+			try
+			{
+				threads = Math.max(1, Integer.parseInt(args[1]));
+			}
+			catch (NumberFormatException e)
+			{
+				sender.sendMessage("Invalid amount of threads: " + args[1]);
+				return true;
+			}
+		}
+		final int exportThreads = threads;
 		Player player = (Player) sender;
 		WorldServer world = ((CraftWorld) player.getWorld()).getHandle();
 
@@ -73,10 +85,13 @@ public class ExportBO4DataCommand extends BaseCommand
 	        	sender.sendMessage("Exporting .BO4Data files for world, this may take a while.");
 	        	sender.sendMessage("Run this command again to see progress or check the logs.");	        	
         		new Thread(() -> {
-		            OTG.getEngine().getLogger().log(LogLevel.INFO, LogCategory.MAIN, "Initializing and exporting structure starts");		            
+		            OTG.getEngine().getLogger().log(LogLevel.INFO, LogCategory.MAIN, "Initializing and exporting structure starts");
+		            BO4DataExporter exporter = new BO4DataExporter(exportThreads, preset.getFolderName(), OTG.getEngine().getOTGRootFolder(), OTG.getEngine().getLogger(), OTG.getEngine().getCustomObjectManager(), OTG.getEngine().getPresetLoader().getMaterialReader(preset.getFolderName()), OTG.getEngine().getCustomObjectResourcesManager(), OTG.getEngine().getModLoadedChecker());
+		            currentExporter = exporter;
 
 			        // Make sure all structure starts in the world have been initialised
 			        // so that getMinimumSize has been done and its data can be saved with the BO4Data.
+			        // Structure starts need the world, so they're exported one by one.
 			        for(IBiomeConfig biomeConfig : preset.getAllBiomeConfigs())
 			        {
 			        	for(ConfigFunction<IBiomeConfig> res : ((BiomeConfig)biomeConfig).getResourceQueue())
@@ -85,57 +100,55 @@ public class ExportBO4DataCommand extends BaseCommand
 			        		{
 			        			for(IStructuredCustomObject structure : ((CustomStructureResource)res).getObjects(preset.getFolderName(), OTG.getEngine().getOTGRootFolder(), OTG.getEngine().getLogger(), OTG.getEngine().getCustomObjectManager(), OTG.getEngine().getPresetLoader().getMaterialReader(preset.getFolderName()), OTG.getEngine().getCustomObjectResourcesManager(), OTG.getEngine().getModLoadedChecker()))
 			        			{
-			        				if(structure != null) // Structure was in resource list but file could not be found.
+			        				// Structure may have been in resource list but file could not be found.
+			        				File sourceFile = structure instanceof BO4 ? BO4DataExporter.getSourceFile((BO4)structure) : null;
+			        				if(sourceFile != null && !exporter.isUpToDate(sourceFile))
 			        				{
-			        					if(structure instanceof BO4)
+			        					BO4 bo4 = exporter.loadBO4(sourceFile);
+			        					if(bo4 != null)
 			        					{
-			        						if(!BO4Data.bo4DataExists(((BO4)structure).getConfig()))
-			        						{
-				        	        			BO4CustomStructureCoordinate structureCoord = new BO4CustomStructureCoordinate(preset.getFolderName(), structure, null, Rotation.NORTH, 0, (short)0, 0, 0, false, false, null);
-				        	        			BO4CustomStructure structureStart = new BO4CustomStructure(world.getSeed(), structureCoord, OTG.getEngine().getOTGRootFolder(), OTG.getEngine().getLogger(), OTG.getEngine().getCustomObjectManager(), OTG.getEngine().getPresetLoader().getMaterialReader(preset.getFolderName()), OTG.getEngine().getCustomObjectResourcesManager(), OTG.getEngine().getModLoadedChecker());
-				        	        			
-				        	                	// Get minimum size (size if spawned with branchDepth 0)
-				        	                	try {
-				        	                		// World save folder name may not be identical to level name, fetch it.
-				        	                		Path worldSaveFolder = world.getWorld().getWorldFolder().toPath();
-				        	                		IWorldGenRegion worldGenRegion = new SpigotWorldGenRegion(preset.getFolderName(), preset.getWorldConfig(), world, (OTGNoiseChunkGenerator)world.getChunkProvider().getChunkGenerator());
-				        	                		structureStart.getMinimumSize(((OTGNoiseChunkGenerator)world.getChunkProvider().getChunkGenerator()).getStructureCache(worldSaveFolder), worldGenRegion, OTG.getEngine().getOTGRootFolder(), OTG.getEngine().getLogger(), OTG.getEngine().getCustomObjectManager(), OTG.getEngine().getPresetLoader().getMaterialReader(preset.getFolderName()), OTG.getEngine().getCustomObjectResourcesManager(), OTG.getEngine().getModLoadedChecker());
-				        						}
-				        	                	catch (InvalidConfigException e)
-				        	                	{
-				        							((BO4)structure).isInvalidConfig = true;
-				        						}
-				        	                	
-				        	                	OTG.getEngine().getLogger().log(LogLevel.INFO, LogCategory.MAIN, "Exporting .BO4Data for structure start " + ((BO4)structure).getName());
-				        	                	boName = ((BO4)structure).getName();
-				        	                	BO4Data.generateBO4Data(((BO4)structure).getConfig(), preset.getFolderName(), OTG.getEngine().getOTGRootFolder(), OTG.getEngine().getLogger(), OTG.getEngine().getCustomObjectManager(), OTG.getEngine().getPresetLoader().getMaterialReader(preset.getFolderName()), OTG.getEngine().getCustomObjectResourcesManager(), OTG.getEngine().getModLoadedChecker());
-				        	    	            OTG.getEngine().getCustomObjectManager().getGlobalObjects().unloadCustomObjectFiles();
+			        	        			BO4CustomStructureCoordinate structureCoord = new BO4CustomStructureCoordinate(preset.getFolderName(), bo4, null, Rotation.NORTH, 0, (short)0, 0, 0, false, false, null);
+			        	        			BO4CustomStructure structureStart = new BO4CustomStructure(world.getSeed(), structureCoord, OTG.getEngine().getOTGRootFolder(), OTG.getEngine().getLogger(), OTG.getEngine().getCustomObjectManager(), OTG.getEngine().getPresetLoader().getMaterialReader(preset.getFolderName()), OTG.getEngine().getCustomObjectResourcesManager(), OTG.getEngine().getModLoadedChecker());
+			        	        			
+			        	                	// Get minimum size (size if spawned with branchDepth 0)
+			        	                	try {
+			        	                		// World save folder name may not be identical to level name, fetch it.
+			        	                		Path worldSaveFolder = world.getWorld().getWorldFolder().toPath();
+			        	                		IWorldGenRegion worldGenRegion = new SpigotWorldGenRegion(preset.getFolderName(), preset.getWorldConfig(), world, (OTGNoiseChunkGenerator)world.getChunkProvider().getChunkGenerator());
+			        	                		structureStart.getMinimumSize(((OTGNoiseChunkGenerator)world.getChunkProvider().getChunkGenerator()).getStructureCache(worldSaveFolder), worldGenRegion, OTG.getEngine().getOTGRootFolder(), OTG.getEngine().getLogger(), OTG.getEngine().getCustomObjectManager(), OTG.getEngine().getPresetLoader().getMaterialReader(preset.getFolderName()), OTG.getEngine().getCustomObjectResourcesManager(), OTG.getEngine().getModLoadedChecker());
 			        						}
+			        	                	catch (InvalidConfigException e)
+			        	                	{
+			        							bo4.isInvalidConfig = true;
+			        						}
+			        	                	
+			        	                	OTG.getEngine().getLogger().log(LogLevel.INFO, LogCategory.MAIN, "Exporting .BO4Data for structure start " + bo4.getName());
+			        	                	boName = bo4.getName();
+			        	                	exporter.export(bo4, sourceFile);
+			        	    	            OTG.getEngine().getCustomObjectManager().getGlobalObjects().unloadCustomObjectFiles();
 			        					}
 			        				}
 			        			}
 			        		}
 			        	}
 			        }
-		
-			        ArrayList<String> boNames = OTG.getEngine().getCustomObjectManager().getGlobalObjects().getAllBONamesForPreset(preset.getFolderName(), OTG.getEngine().getLogger(), OTG.getEngine().getOTGRootFolder());
-		
-			        current = 0;
-			        total = boNames.size();
-			        for (String boName : boNames)
+
+			        // Export all other BO4's that have changed or have no BO4Data yet, structure starts are up to date now.
+			        List<File> sourceFiles = exporter.getSourceFiles();
+			        OTG.getEngine().getLogger().log(LogLevel.INFO, LogCategory.MAIN, "Exporting .BO4Data for " + sourceFiles.size() + " files using " + exportThreads + " threads");
+			        try
+			        {
+			        	exporter.exportAll(sourceFiles);
+			        }
+			        catch (InterruptedException e)
 			        {
-			        	current++;
-			        	CustomObject bo = OTG.getEngine().getCustomObjectManager().getGlobalObjects().getObjectByName(boName, preset.getFolderName(), OTG.getEngine().getOTGRootFolder(), OTG.getEngine().getLogger(), OTG.getEngine().getCustomObjectManager(), OTG.getEngine().getPresetLoader().getMaterialReader(preset.getFolderName()), OTG.getEngine().getCustomObjectResourcesManager(), OTG.getEngine().getModLoadedChecker());
-			        	if(bo != null && bo instanceof BO4 && !BO4Data.bo4DataExists(((BO4)bo).getConfig()))
-			        	{
-			        		OTG.getEngine().getLogger().log(LogLevel.INFO, LogCategory.MAIN, "Exporting .BO4Data " + current + "/" + total + " " + boName);
-			        		BO4Data.generateBO4Data(((BO4)bo).getConfig(), preset.getFolderName(), OTG.getEngine().getOTGRootFolder(), OTG.getEngine().getLogger(), OTG.getEngine().getCustomObjectManager(), OTG.getEngine().getPresetLoader().getMaterialReader(preset.getFolderName()), OTG.getEngine().getCustomObjectResourcesManager(), OTG.getEngine().getModLoadedChecker());
-				            OTG.getEngine().getCustomObjectManager().getGlobalObjects().unloadCustomObjectFiles();
-			        	}
+			        	OTG.getEngine().getLogger().log(LogLevel.ERROR, LogCategory.MAIN, "Exporting .BO4Data was interrupted");
 			        }
-			        OTG.getEngine().getLogger().log(LogLevel.INFO, LogCategory.MAIN, "Exporting .BO4Data done.");
+			        OTG.getEngine().getCustomObjectManager().getGlobalObjects().unloadCustomObjectFiles();
+			        OTG.getEngine().getCustomObjectManager().getBO4DataCache().clear();
+			        OTG.getEngine().getLogger().log(LogLevel.INFO, LogCategory.MAIN, "Exporting .BO4Data done, exported " + exporter.getExported() + " of " + sourceFiles.size() + " files.");
 			        isDone = true;
-		        }).start();
+        		}).start();
 			} else {
 				if(isDone)
 				{
@@ -143,7 +156,7 @@ public class ExportBO4DataCommand extends BaseCommand
 					isDone = false;
 					sender.sendMessage("OTG exportbo4data is done.");
 				} else {
-					sender.sendMessage("OTG exportbo4data is running, " + (current == 0 ? "exporting structure start " + boName : " exporting " + current + "/" + total));
+					sender.sendMessage("OTG exportbo4data is running, " + (currentExporter == null || currentExporter.getTotal() == 0 ? "exporting structure start " + boName : " exporting " + currentExporter.getCurrent() + "/" + currentExporter.getTotal()));
 				}
 			}        
         } else {
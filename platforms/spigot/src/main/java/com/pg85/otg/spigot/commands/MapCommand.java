@@ -1,28 +1,30 @@
 package com.pg85.otg.spigot.commands;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-
-import javax.imageio.ImageIO;
+import java.util.Random;
 
 import org.bukkit.command.CommandSender;
 import org.bukkit.craftbukkit.v1_16_R3.CraftWorld;
 import org.bukkit.entity.Player;
 import org.bukkit.util.StringUtil;
 
+import com.pg85.otg.OTG;
 import com.pg85.otg.constants.Constants;
-import com.pg85.otg.interfaces.ICachedBiomeProvider;
+import com.pg85.otg.gen.biome.BiomeMapTileSource;
+import com.pg85.otg.interfaces.IMapTileSource;
+import com.pg85.otg.presets.Preset;
 import com.pg85.otg.spigot.biome.OTGBiomeProvider;
 import com.pg85.otg.spigot.gen.OTGNoiseChunkGenerator;
 import com.pg85.otg.spigot.gen.OTGSpigotChunkGen;
 import com.pg85.otg.spigot.gen.SpigotChunkBuffer;
 import com.pg85.otg.spigot.materials.SpigotMaterialData;
+import com.pg85.otg.spigot.presets.SpigotPresetLoader;
 import com.pg85.otg.util.ChunkCoordinate;
+import com.pg85.otg.util.gen.TiledMapRenderer;
 import com.pg85.otg.util.materials.LocalMaterials;
 
 import net.minecraft.server.v1_16_R3.BlockPosition;
@@ -36,15 +38,18 @@ public class MapCommand extends BaseCommand
 	public MapCommand() {
 		super("map");
 		this.helpMessage = "Generates an image of the biome or terrain layout.";
-		this.usage = "/otg map <biomes/terrain> [width] [height] [threads]";
+		this.usage = "/otg map <biomes/terrain> [-s size] [-ox offsetX] [-oz offsetZ] [-n name] [-t threads] [-p preset -seed seed]";
 		this.detailedHelp = new String[] { 
 				"<biomes/terrain>: The type of map to create.",
 				" - biomes: Creates an image using the color specified in each biome's config file.",
 				" - terrain: Creates an image using the colours of the blocks shaded to show the altitude of the terrain.",
-				"[width]: Image width in pixels.",
-				"[height]: Image height in pixels.",
-				"[threads]: The number of threads to use while rendering the image."
-				
+				"-s: Image width and height in pixels.",
+				"-ox, -oz: Start of the map, defaults to your position.",
+				"-n: Name added to the map's folder name.",
+				"-t: The number of threads to use while rendering the image, defaults to all cores.",
+				"-p, -seed: Biomes only, map a preset and seed without creating a world.",
+				"The map is saved as " + TiledMapRenderer.TILE_SIZE + "x" + TiledMapRenderer.TILE_SIZE + " tiles in a zoom/x/z.png folder structure,",
+				"zoom level 0 shows the whole map in a single tile."
 			};
 	}
 	
@@ -72,12 +77,13 @@ public class MapCommand extends BaseCommand
 	
 	private boolean mapBiomes (CommandSender sender, String[] args)
 	{
-		CraftWorld world;
-		Player player;
 		int size = 2048;
 		int offsetX = 0;
 		int offsetZ = 0;
+		int threads = 0;
 		String name = "";
+		String presetName = null;
+		long seed = 0;
 		for (int i = 1; i < args.length-1; i++)
 		{
 			if (args[i].equalsIgnoreCase("-s"))
@@ -88,57 +94,56 @@ public class MapCommand extends BaseCommand
 				offsetZ = Integer.parseInt(args[i+1]);
 			if (args[i].equalsIgnoreCase("-n"))
 				name = args[i+1];
+			if (args[i].equalsIgnoreCase("-t"))
+				threads = Integer.parseInt(args[i+1]);
+			if (args[i].equalsIgnoreCase("-p"))
+				presetName = args[i+1];
+			if (args[i].equalsIgnoreCase("-seed"))
+				seed = Long.parseLong(args[i+1]);
 		}
-		if (sender instanceof Player)
+
+		SpigotPresetLoader presetLoader = (SpigotPresetLoader)OTG.getEngine().getPresetLoader();
+		IMapTileSource tileSource;
+		String fileName;
+		if (presetName != null)
 		{
-			player = (Player) sender;
-			world = (CraftWorld) player.getWorld();
-			if (offsetX == 0 && offsetZ == 0)
+			Preset preset = presetLoader.getPresetByShortNameOrFolderName(presetName);
+			if (preset == null)
 			{
-				offsetX += player.getLocation().getBlockX();
-				offsetZ += player.getLocation().getBlockZ();
+				sender.sendMessage("Could not find preset " + presetName);
+				return true;
 			}
+			// Biome layers are created from the preset, no world needed.
+			tileSource = BiomeMapTileSource.create(seed, presetLoader.getPresetGenerationData().get(preset.getFolderName()), presetLoader.getGlobalIdMapping(preset.getFolderName()), OTG.getEngine().getLogger());
+			fileName = preset.getFolderName() + " " + seed + " " + name + " biomes";
 		} else {
-			sender.sendMessage("Only in-game for now");
-			return true;
-		}
-		if (!(world.getHandle().getChunkProvider().getChunkGenerator() instanceof OTGNoiseChunkGenerator))
-		{
-			sender.sendMessage("This is not an OTG world");
-			return true;
-		}
-
-		ICachedBiomeProvider provider = ((OTGNoiseChunkGenerator)world.getHandle().getChunkProvider().getChunkGenerator()).getCachedBiomeProvider();
-
-		BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
-
-		int progressUpdate = img.getHeight() / 8;
-
-		for (int noiseX = 0; noiseX < img.getHeight(); noiseX++)
-		{
-			for (int noiseZ = 0; noiseZ < img.getWidth(); noiseZ++)
+			CraftWorld world;
+			Player player;
+			if (sender instanceof Player)
 			{
-				// TODO: Fetch biome data per chunk, not per column, probably very slow atm.
-				// TODO: Forge doesn't use an offset, always starts at 0,0?
-				img.setRGB(noiseX, noiseZ, provider.getNoiseBiomeConfig(noiseX + offsetX, noiseZ + offsetZ, true).getBiomeColor());
+				player = (Player) sender;
+				world = (CraftWorld) player.getWorld();
+				if (offsetX == 0 && offsetZ == 0)
+				{
+					offsetX += player.getLocation().getBlockX();
+					offsetZ += player.getLocation().getBlockZ();
+				}
+			} else {
+				sender.sendMessage("Only in-game for now, or use -p <preset> -seed <seed>");
+				return true;
 			}
-			if (noiseX % progressUpdate == 0)
+			if (!(world.getHandle().getChunkProvider().getChunkGenerator() instanceof OTGNoiseChunkGenerator))
 			{
-				sender.sendMessage((((double) noiseX / img.getHeight()) * 100) + "% Done mapping");
+				sender.sendMessage("This is not an OTG world");
+				return true;
 			}
+			OTGNoiseChunkGenerator generator = (OTGNoiseChunkGenerator)world.getHandle().getChunkProvider().getChunkGenerator();
+			tileSource = new BiomeMapTileSource(((OTGBiomeProvider)generator.getWorldChunkManager()).getSampler(), presetLoader.getGlobalIdMapping(generator.getPreset().getFolderName()));
+			fileName = player.getWorld().getName() + " " + name + " biomes";
 		}
 
-		String fileName = player.getWorld().getName()+" "+name+" biomes.png";
-		sender.sendMessage("Finished mapping! The resulting image is located at " + fileName + ".");
-		Path p = Paths.get(fileName);
-		try
-		{
-			ImageIO.write(img, "png", p.toAbsolutePath().toFile());
-		} catch (IOException ex) {
-			ex.printStackTrace();
-		}
-
-		return true;
+		// TODO: Forge doesn't use an offset, always starts at 0,0?
+		return renderMap(sender, tileSource, fileName, offsetX, offsetZ, size, threads);
 	}
 	
 	@SuppressWarnings("resource")
@@ -149,6 +154,7 @@ public class MapCommand extends BaseCommand
 		int size = 2048;
 		int offsetX = 0;
 		int offsetZ = 0;
+		int threads = 0;
 		String name = "";
 		for (int i = 1; i < args.length-1; i++)
 		{
@@ -160,6 +166,8 @@ public class MapCommand extends BaseCommand
 				offsetZ = Integer.parseInt(args[i+1]);
 			if (args[i].equalsIgnoreCase("-n"))
 				name = args[i+1];
+			if (args[i].equalsIgnoreCase("-t"))
+				threads = Integer.parseInt(args[i+1]);
 		}
 		if (sender instanceof Player)
 		{
@@ -179,66 +187,51 @@ public class MapCommand extends BaseCommand
 			sender.sendMessage("This is not an OTG world");
 			return true;
 		}
-	
-		BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
-		int progressUpdate = img.getHeight() / 8;
-		HighestBlockInfo highestBlockInfo;
-		int min = 0;
-		int max = 255;
-		int range = max - min;
-		int distance;
-		float relativeDistance;
-		int shadePercentage;
-		int rgbColor;
-		int progress = 0;
-		for (int chunkX = 0; chunkX < (int)Math.ceil(img.getWidth() / 16f); chunkX++)
-		{
-			for (int chunkZ = 0; chunkZ < (int)Math.ceil(img.getHeight() / 16f); chunkZ++)
+
+		OTGNoiseChunkGenerator generator = ((OTGSpigotChunkGen)world.getHandle().generator).generator;
+		Random random = world.getHandle().getRandom();
+		IMapTileSource tileSource = (colors, startX, startZ, sizeX, sizeZ) -> {
+			for (int chunkX = startX >> 4; chunkX <= (startX + sizeX - 1) >> 4; chunkX++)
 			{
-				SpigotChunkBuffer chunk = ((OTGSpigotChunkGen)world.getHandle().generator).generator.getChunkWithoutLoadingOrCaching(world.getHandle().getRandom(), ChunkCoordinate.fromChunkCoords(chunkX, chunkZ));
-				for(int internalX = 0; internalX < Constants.CHUNK_SIZE; internalX++)
+				for (int chunkZ = startZ >> 4; chunkZ <= (startZ + sizeZ - 1) >> 4; chunkZ++)
 				{
-					for(int internalZ = 0; internalZ < Constants.CHUNK_SIZE; internalZ++)
+					SpigotChunkBuffer chunk = generator.getChunkWithoutLoadingOrCaching(random, ChunkCoordinate.fromChunkCoords(chunkX, chunkZ));
+					for(int internalX = 0; internalX < Constants.CHUNK_SIZE; internalX++)
 					{
-						if(
-							chunkX * Constants.CHUNK_SIZE + internalX < img.getWidth() &&
-							chunkZ * Constants.CHUNK_SIZE + internalZ < img.getHeight()
-						)
+						for(int internalZ = 0; internalZ < Constants.CHUNK_SIZE; internalZ++)
 						{
-							highestBlockInfo = getHighestBlockInfoInUnloadedChunk(chunk, internalX, internalZ);
-			
-							// Color depth relative to waterlevel
-							//int worldHeight = 255;
-							//int worldWaterLevel = 63;
-							//int min = worldWaterLevel - worldHeight;
-							//int max = worldWaterLevel + worldHeight;
-							// Color depth relative to 0-255						
-							distance = -min + highestBlockInfo.y;
-							relativeDistance = (float)distance / (float)range;
-							shadePercentage = (int)Math.floor(relativeDistance * 2 * 100);
-							rgbColor = shadeColor(highestBlockInfo.material.internalBlock().getBlock().s().rgb, shadePercentage);
-							img.setRGB(chunkX * Constants.CHUNK_SIZE + internalX, chunkZ * Constants.CHUNK_SIZE + internalZ, rgbColor);						
+							int x = chunkX * Constants.CHUNK_SIZE + internalX - startX;
+							int z = chunkZ * Constants.CHUNK_SIZE + internalZ - startZ;
+							if(x >= 0 && x < sizeX && z >= 0 && z < sizeZ)
+							{
+								colors[x * sizeZ + z] = getTerrainColor(chunk, internalX, internalZ);
+							}
 						}
 					}
 				}
-				progress++;
-				if (progress % progressUpdate == 0)
-				{
-					sender.sendMessage((((double) chunkX / (int)Math.ceil(img.getWidth() / 16f)) * 100) + "% Done mapping");
-				}				
 			}
-		}
+		};
+		return renderMap(sender, tileSource, player.getWorld().getName() + " " + name + " terrain", offsetX, offsetZ, size, threads);
+	}
 
-		String fileName = player.getWorld().getName()+" " + name + " terrain.png";
-		sender.sendMessage("Finished mapping! The resulting image is located at " + fileName + ".");
-		Path p = Paths.get(fileName);
+	private boolean renderMap (CommandSender sender, IMapTileSource tileSource, String fileName, int offsetX, int offsetZ, int size, int threads)
+	{
 		try
 		{
-			ImageIO.write(img, "png", p.toAbsolutePath().toFile());
+			new TiledMapRenderer(tileSource, size, size).render(Paths.get(fileName).toAbsolutePath(), offsetX, offsetZ, true, threads, 
+				percentage -> {
+					if (percentage % 10 == 0)
+					{
+						sender.sendMessage(percentage + "% Done mapping");
+					}
+				}
+			);
 		} catch (IOException ex) {
 			ex.printStackTrace();
+			sender.sendMessage("Could not write map tiles to " + fileName + ", check the logs for details.");
+			return true;
 		}
-
+		sender.sendMessage("Finished mapping! The resulting tiles are located in " + fileName + ", " + fileName + "/0/0/0.png shows the whole map.");
 		return true;
 	}
 
@@ -258,7 +251,26 @@ public class MapCommand extends BaseCommand
 		return 65536 * red + 256 * green + blue;
 	}
 
-	private HighestBlockInfo getHighestBlockInfoInUnloadedChunk(SpigotChunkBuffer chunk, int internalX, int internalZ)
+	private static int getTerrainColor(SpigotChunkBuffer chunk, int internalX, int internalZ)
+	{
+		HighestBlockInfo highestBlockInfo = getHighestBlockInfoInUnloadedChunk(chunk, internalX, internalZ);
+
+		// Color depth relative to waterlevel
+		//int worldHeight = 255;
+		//int worldWaterLevel = 63;
+		//int min = worldWaterLevel - worldHeight;
+		//int max = worldWaterLevel + worldHeight;
+		// Color depth relative to 0-255
+		int min = 0;
+		int max = 255;
+		int range = max - min;
+		int distance = -min + highestBlockInfo.y;
+		float relativeDistance = (float)distance / (float)range;
+		int shadePercentage = (int)Math.floor(relativeDistance * 2 * 100);
+		return shadeColor(highestBlockInfo.material.internalBlock().getBlock().s().rgb, shadePercentage);
+	}
+
+	private static HighestBlockInfo getHighestBlockInfoInUnloadedChunk(SpigotChunkBuffer chunk, int internalX, int internalZ)
 	{
 		// TODO: Just use heightmaps?
 		IBlockData blockInChunk;
@@ -273,7 +285,7 @@ public class MapCommand extends BaseCommand
 		return new HighestBlockInfo((SpigotMaterialData)LocalMaterials.AIR, 63);
 	}
 	
-	public class HighestBlockInfo
+	public static class HighestBlockInfo
 	{
 		public final SpigotMaterialData material;
 		public final int y;
@@ -3,10 +3,12 @@ package com.pg85.otg.spigot.gen;
 import com.pg85.otg.constants.Constants;
 import com.pg85.otg.interfaces.IBiome;
 import com.pg85.otg.interfaces.IBiomeConfig;
+import com.pg85.otg.interfaces.IChunkView;
 import com.pg85.otg.interfaces.IWorldConfig;
 import com.pg85.otg.spigot.materials.SpigotMaterialData;
 import com.pg85.otg.util.ChunkCoordinate;
 import com.pg85.otg.util.biome.ReplaceBlockMatrix;
+import com.pg85.otg.util.gen.WorldGenRegionChunkView;
 import com.pg85.otg.util.nbt.NamedBinaryTag;
 import com.pg85.otg.util.materials.LocalMaterialData;
 import com.pg85.otg.util.minecraft.TreeType;
@@ -46,6 +48,13 @@ public class MCWorldGenRegion extends SpigotWorldGenRegion
 		throw new NotImplementedException("This method is not available for non-OTG worlds, you're trying to use an unsupported feature.");
 	}
 
+	// Blocks are read and written without a decoration area, forward to this class's per-block methods.
+	@Override
+	public IChunkView getChunkView(int chunkX, int chunkZ)
+	{
+		return new WorldGenRegionChunkView(this, chunkX, chunkZ);
+	}
+
 	@Override
 	public LocalMaterialData getMaterial(int x, int y, int z)
 	{
@@ -491,6 +491,8 @@ public class OTGNoiseChunkGenerator extends ChunkGenerator
 			List<Integer> alreadyDecorated = new ArrayList<>();
 			this.chunkDecorator.decorate(this.preset.getFolderName(), chunkBeingDecorated, spigotWorldGenRegion, biomeConfig, getStructureCache(worldSaveFolder));
 			((SpigotBiome)biome).getBiomeBase().a(structureManager, this, worldGenRegion, decorationSeed, sharedseedrandom, blockpos);
+			// Vanilla decoration doesn't go through the world gen region, so cached heights are outdated.
+			spigotWorldGenRegion.clearHeightCache();
 			alreadyDecorated.add(biome.getBiomeConfig().getOTGBiomeId());
 			// Attempt to decorate other biomes if ImprovedBiomeDecoration - Frank
 			if (getPreset().getWorldConfig().improvedBorderDecoration())
@@ -499,24 +501,28 @@ public class OTGNoiseChunkGenerator extends ChunkGenerator
 				{
 					this.chunkDecorator.decorate(this.preset.getFolderName(), chunkBeingDecorated, spigotWorldGenRegion, biome1.getBiomeConfig(), getStructureCache(worldSaveFolder));
 					((SpigotBiome) biome1).getBiomeBase().a(structureManager, this, worldGenRegion, decorationSeed, sharedseedrandom, blockpos);
+					spigotWorldGenRegion.clearHeightCache();
 					alreadyDecorated.add(biome1.getBiomeConfig().getOTGBiomeId());
 				}
 				if (!alreadyDecorated.contains(biome2.getBiomeConfig().getOTGBiomeId()))
 				{
 					this.chunkDecorator.decorate(this.preset.getFolderName(), chunkBeingDecorated, spigotWorldGenRegion, biome2.getBiomeConfig(), getStructureCache(worldSaveFolder));
 					((SpigotBiome) biome2).getBiomeBase().a(structureManager, this, worldGenRegion, decorationSeed, sharedseedrandom, blockpos);
+					spigotWorldGenRegion.clearHeightCache();
 					alreadyDecorated.add(biome2.getBiomeConfig().getOTGBiomeId());
 				}
 				if (!alreadyDecorated.contains(biome3.getBiomeConfig().getOTGBiomeId()))
 				{
 					this.chunkDecorator.decorate(this.preset.getFolderName(), chunkBeingDecorated, spigotWorldGenRegion, biome3.getBiomeConfig(), getStructureCache(worldSaveFolder));
 					((SpigotBiome) biome3).getBiomeBase().a(structureManager, this, worldGenRegion, decorationSeed, sharedseedrandom, blockpos);
+					spigotWorldGenRegion.clearHeightCache();
 					alreadyDecorated.add(biome3.getBiomeConfig().getOTGBiomeId());
 				}
 				if (!alreadyDecorated.contains(biome4.getBiomeConfig().getOTGBiomeId()))
 				{
 					this.chunkDecorator.decorate(this.preset.getFolderName(), chunkBeingDecorated, spigotWorldGenRegion, biome4.getBiomeConfig(), getStructureCache(worldSaveFolder));
 					((SpigotBiome) biome4).getBiomeBase().a(structureManager, this, worldGenRegion, decorationSeed, sharedseedrandom, blockpos);
+					spigotWorldGenRegion.clearHeightCache();
 				}
 			}
 			this.chunkDecorator.doSnowAndIce(spigotWorldGenRegion, chunkBeingDecorated);
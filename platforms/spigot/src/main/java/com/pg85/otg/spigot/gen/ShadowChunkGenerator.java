@@ -32,7 +32,6 @@ import net.minecraft.server.v1_16_R3.ChunkCoordIntPair;
 import net.minecraft.server.v1_16_R3.ChunkGenerator;
 import net.minecraft.server.v1_16_R3.DefinedStructureManager;
 import net.minecraft.server.v1_16_R3.HeightMap;
-import net.minecraft.server.v1_16_R3.IBlockData;
 import net.minecraft.server.v1_16_R3.IChunkAccess;
 import net.minecraft.server.v1_16_R3.IRegistryCustom;
 import net.minecraft.server.v1_16_R3.ProtoChunk;
@@ -115,7 +114,11 @@ public class ShadowChunkGenerator
 
 	public IChunkAccess getChunkFromCache(ChunkCoordinate chunkCoord)
 	{
-		IChunkAccess cachedChunk = this.unloadedChunksCache.get(chunkCoord);
+		IChunkAccess cachedChunk;
+		synchronized(this.unloadedChunksCache)
+		{
+			cachedChunk = this.unloadedChunksCache.get(chunkCoord);
+		}
 		if(cachedChunk != null)
 		{
 			return cachedChunk;
@@ -150,7 +153,10 @@ public class ShadowChunkGenerator
 		
 		this.cacheHits++;
 		//OTG.log(LogMarker.INFO, "Cache hit " + this.cacheHits);
-		this.unloadedChunksCache.remove(chunkCoord);
+		synchronized(this.unloadedChunksCache)
+		{
+			this.unloadedChunksCache.remove(chunkCoord);
+		}
 	}
 	
 	public void fillWorldGenChunkFromShadowChunk(ChunkCoordinate chunkCoord, IChunkAccess chunk, IChunkAccess cachedChunk)
@@ -182,7 +188,10 @@ public class ShadowChunkGenerator
 		
 		this.cacheHits++;
 		//OTG.log(LogMarker.INFO, "Cache hit " + this.cacheHits);
-		this.unloadedChunksCache.remove(chunkCoord);
+		synchronized(this.unloadedChunksCache)
+		{
+			this.unloadedChunksCache.remove(chunkCoord);
+		}
 	}	
 
 	public void setChunkGenerated(ChunkCoordinate chunkCoord)
@@ -353,47 +362,40 @@ public class ShadowChunkGenerator
 	// BO4's / Smoothing Areas
 
 	// BO4's and smoothing areas may do material and height checks in unloaded chunks during decoration.
-	// Shadowgen is used to do this without causing cascades. Shadowgenned chunks are requested on-demand for the worldgen thread (BO4's).
+	// Shadowgen is used to do this without causing cascades. Shadowgenned columns are requested on-demand for the worldgen thread (BO4's), see OTGChunkGenerator.populateNoiseColumn.
+	// BO4's and smoothing areas may be spawned by several decoration threads at once, so the caches are guarded by themselves.
 
 	private LocalMaterialData[] getBlockColumnInUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random worldRandom, int x, int z)
 	{
 		BlockPos2D blockPos = new BlockPos2D(x, z);
-		ChunkCoordinate chunkCoord = ChunkCoordinate.fromBlockCoords(x, z);
-
-		// Get internal coordinates for block in chunk
-		byte blockX = (byte) (x &= 0xF);
-		byte blockZ = (byte) (z &= 0xF);
-
-		LocalMaterialData[] cachedColumn = this.unloadedBlockColumnsCache.get(blockPos);
-
-		if (cachedColumn != null)
+		LocalMaterialData[] blocksInColumn;
+		synchronized(this.unloadedBlockColumnsCache)
 		{
-			return cachedColumn;
+			blocksInColumn = this.unloadedBlockColumnsCache.get(blockPos);
 		}
-
-		IChunkAccess chunk = getChunkFromCache(chunkCoord);
-		if (chunk == null)
+		if (blocksInColumn != null)
 		{
-			// Generate a chunk without loading/decorating it
-			chunk = getUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, chunkCoord).getChunk();
-			this.unloadedChunksCache.put(chunkCoord, chunk);
+			return blocksInColumn;
 		}
 
-		cachedColumn = new LocalMaterialData[256];
-
-		LocalMaterialData[] blocksInColumn = new LocalMaterialData[256];
-		IBlockData blockInChunk;
-		for (short y = 0; y < 256; y++)
+		blocksInColumn = new LocalMaterialData[256];
+		IChunkAccess chunk = getChunkFromCache(ChunkCoordinate.fromBlockCoords(x, z));
+		if (chunk != null)
 		{
-			blockInChunk = chunk.getType(new BlockPosition(blockX, y, blockZ));
-			if (blockInChunk != null)
+			BlockPosition.MutableBlockPosition pos = new BlockPosition.MutableBlockPosition();
+			for (short y = 0; y < 256; y++)
 			{
-				blocksInColumn[y] = SpigotMaterialData.ofBlockData(blockInChunk);
-			} else {
-				break;
+				blocksInColumn[y] = SpigotMaterialData.ofBlockData(chunk.getType(pos.d(x & 0xF, y, z & 0xF)));
 			}
+		} else {
+			// Only generate the requested column, BO4's probe many columns
+			// in chunks that won't be generated any time soon.
+			otgChunkGenerator.populateNoiseColumn(worldHeightCap, worldRandom, x, z, blocksInColumn);
+		}
+		synchronized(this.unloadedBlockColumnsCache)
+		{
+			this.unloadedBlockColumnsCache.put(blockPos, blocksInColumn);
 		}
-		this.unloadedBlockColumnsCache.put(blockPos, cachedColumn);
 
 		return blocksInColumn;
 	}
@@ -6,6 +6,7 @@ import com.pg85.otg.constants.Constants;
 import com.pg85.otg.interfaces.IBiome;
 import com.pg85.otg.interfaces.IBiomeConfig;
 import com.pg85.otg.interfaces.ICachedBiomeProvider;
+import com.pg85.otg.interfaces.IChunkView;
 import com.pg85.otg.interfaces.IEntityFunction;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.interfaces.IWorldConfig;
@@ -16,6 +17,7 @@ import com.pg85.otg.util.ChunkCoordinate;
 import com.pg85.otg.util.FifoMap;
 import com.pg85.otg.util.biome.ReplaceBlockMatrix;
 import com.pg85.otg.util.nbt.NamedBinaryTag;
+import com.pg85.otg.util.gen.DecorationHeightCache;
 import com.pg85.otg.util.gen.LocalWorldGenRegion;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
@@ -225,11 +227,33 @@ public class SpigotWorldGenRegion extends LocalWorldGenRegion
 			return -1;
 		}
 
+		return getCachedHighestBlockYAt(chunk, x, z, findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);
+	}
+
+	// During decoration, columns are only scanned once until a block is placed in them.
+	private int getCachedHighestBlockYAt(IChunkAccess chunk, int x, int z, boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow, boolean ignoreLeaves)
+	{
+		int key = 0;
+		if (this.decorationHeightCache != null)
+		{
+			key = DecorationHeightCache.getKey(findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);
+			int cachedY = this.decorationHeightCache.get(key, x, z);
+			if (cachedY != DecorationHeightCache.NOT_CACHED)
+			{
+				return cachedY;
+			}
+		}
+
 		// Get internal coordinates for block in chunk
 		int internalX = x & 0xF;
 		int internalZ = z & 0xF;
 		int heightMapY = chunk.getHighestBlock(HeightMap.Type.WORLD_SURFACE, internalX, internalZ);
-		return getHighestBlockYAt(chunk, internalX, heightMapY, internalZ, findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);		
+		int highestY = getHighestBlockYAt(chunk, internalX, heightMapY, internalZ, findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);
+		if (this.decorationHeightCache != null)
+		{
+			this.decorationHeightCache.put(key, x, z, highestY);
+		}
+		return highestY;
 	}
 
 	protected int getHighestBlockYAt(IChunkAccess chunk, int internalX, int heightMapY, int internalZ, boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow, boolean ignoreLeaves)
@@ -239,10 +263,11 @@ public class SpigotWorldGenRegion extends LocalWorldGenRegion
 		boolean isLiquid;
 		IBlockData blockState;
 		Block block;
+		BlockPosition.MutableBlockPosition pos = new BlockPosition.MutableBlockPosition();
 
 		for (int i = heightMapY; i >= 0; i--)
 		{
-			blockState = chunk.getType(new BlockPosition(internalX, i, internalZ));
+			blockState = chunk.getType(pos.d(internalX, i, internalZ));
 			block = blockState.getBlock();
 			material = SpigotMaterialData.ofBlockData(blockState);
 			isLiquid = material.isLiquid();
@@ -304,6 +329,16 @@ public class SpigotWorldGenRegion extends LocalWorldGenRegion
 	@Override
 	public int getHeightMapHeight (int x, int z)
 	{
+		if (this.decorationHeightCache != null && this.decorationArea.isInAreaBeingDecorated(x, z))
+		{
+			int height = this.decorationHeightCache.get(DecorationHeightCache.HEIGHTMAP_KEY, x, z);
+			if (height == DecorationHeightCache.NOT_CACHED)
+			{
+				height = this.worldGenRegion.a(HeightMap.Type.WORLD_SURFACE_WG, x, z);
+				this.decorationHeightCache.put(DecorationHeightCache.HEIGHTMAP_KEY, x, z, height);
+			}
+			return height;
+		}
 		return this.worldGenRegion.a(HeightMap.Type.WORLD_SURFACE_WG, x, z);
 	}
 
@@ -339,6 +374,10 @@ public class SpigotWorldGenRegion extends LocalWorldGenRegion
 			material = material.parseWithBiomeAndHeight(this.getWorldConfig().getBiomeConfigsHaveReplacement(), biomeConfig.getReplaceBlocks(), y);
 		}
 		this.worldGenRegion.setTypeAndData(new BlockPosition(x, y, z), ((SpigotMaterialData)material).internalBlock(), 3);
+		if (this.decorationHeightCache != null)
+		{
+			this.decorationHeightCache.invalidate(x, z);
+		}
 	}
 
 	@Override
@@ -389,6 +428,10 @@ public class SpigotWorldGenRegion extends LocalWorldGenRegion
 			BlockPosition pos = new BlockPosition(x, y, z);
 			// Notify world: (2 | 16) == update client, don't update observers
 			this.worldGenRegion.setTypeAndData(pos, ((SpigotMaterialData) material).internalBlock(), 2 | 16);
+			if (this.decorationHeightCache != null)
+			{
+				this.decorationHeightCache.invalidate(x, z);
+			}
 
 			if (material.isLiquid())
 			{
@@ -406,6 +449,179 @@ public class SpigotWorldGenRegion extends LocalWorldGenRegion
 		}
 	}
 
+	@Override
+	public IChunkView getChunkView(int chunkX, int chunkZ)
+	{
+		// Decoration areas are chunk aligned, so checking one block is enough.
+		// TOOD: Don't use this.decorationArea == null for worldgenregions
+		// doing things outside of population, split up worldgenregion
+		// into separate classes, one for decoration, one for non-decoration.
+		boolean canWrite = this.decorationArea == null || this.decorationArea.isInAreaBeingDecorated(chunkX * Constants.CHUNK_SIZE, chunkZ * Constants.CHUNK_SIZE);
+		IChunkAccess chunk = null;
+		if(canWrite)
+		{
+			chunk = this.worldGenRegion.isChunkLoaded(chunkX, chunkZ) ? this.worldGenRegion.getChunkAt(chunkX, chunkZ) : null;
+		}
+
+		// Unloaded chunks outside the area being decorated can't be read
+		if(chunk != null && !chunk.getChunkStatus().b(ChunkStatus.LIQUID_CARVERS))
+		{
+			chunk = null;
+		}
+		return new SpigotChunkView(chunkX, chunkZ, chunk, canWrite);
+	}
+
+	/**
+	 * Reads blocks straight from the chunk's sections and writes them via the
+	 * region with a single mutable BlockPosition, see IChunkView.
+	 */
+	private class SpigotChunkView implements IChunkView
+	{
+		private final int chunkX;
+		private final int chunkZ;
+		private final int blockX;
+		private final int blockZ;
+		// Null if the chunk can't be read
+		private final IChunkAccess chunk;
+		private final boolean canWrite;
+		private final BlockPosition.MutableBlockPosition pos = new BlockPosition.MutableBlockPosition();
+
+		// Neighbouring blocks are often the same, so remember the last material lookup.
+		private IBlockData lastBlockState;
+		private LocalMaterialData lastMaterial;
+
+		private SpigotChunkView(int chunkX, int chunkZ, IChunkAccess chunk, boolean canWrite)
+		{
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+			this.blockX = chunkX * Constants.CHUNK_SIZE;
+			this.blockZ = chunkZ * Constants.CHUNK_SIZE;
+			this.chunk = chunk;
+			this.canWrite = canWrite;
+		}
+
+		@Override
+		public int getChunkX()
+		{
+			return this.chunkX;
+		}
+
+		@Override
+		public int getChunkZ()
+		{
+			return this.chunkZ;
+		}
+
+		@Override
+		public LocalMaterialData getMaterial(int internalX, int y, int internalZ)
+		{
+			if(this.chunk == null || y >= Constants.WORLD_HEIGHT || y < Constants.WORLD_DEPTH)
+			{
+				return null;
+			}
+			return getMaterial(getBlockState(this.chunk.getSections(), internalX, y, internalZ));
+		}
+
+		@Override
+		public void getMaterialColumn(int internalX, int internalZ, int minY, int maxY, LocalMaterialData[] materials)
+		{
+			ChunkSection[] sections = this.chunk != null ? this.chunk.getSections() : null;
+			for(int y = minY; y <= maxY; y++)
+			{
+				materials[y - minY] = sections == null || y >= Constants.WORLD_HEIGHT || y < Constants.WORLD_DEPTH ? null : getMaterial(getBlockState(sections, internalX, y, internalZ));
+			}
+		}
+
+		private IBlockData getBlockState(ChunkSection[] sections, int internalX, int y, int internalZ)
+		{
+			ChunkSection section = sections[y >> 4];
+			return section == null ? Blocks.AIR.getBlockData() : section.getType(internalX, y & 0xF, internalZ);
+		}
+
+		private LocalMaterialData getMaterial(IBlockData blockState)
+		{
+			if(blockState != this.lastBlockState)
+			{
+				this.lastIBlockData = blockState;
+				this.lastMaterial = SpigotMaterialData.ofBlockState(blockState);
+			}
+			return this.lastMaterial;
+		}
+
+		@Override
+		public void setBlock(int internalX, int y, int internalZ, LocalMaterialData material, NamedBinaryTag nbt, ReplaceBlockMatrix replaceBlocksMatrix)
+		{
+			if(!this.canWrite || y < Constants.WORLD_DEPTH || y >= Constants.WORLD_HEIGHT || material.isEmpty())
+			{
+				return;
+			}
+
+			if(replaceBlocksMatrix != null)
+			{
+				material = material.parseWithBiomeAndHeight(getWorldConfig().getBiomeConfigsHaveReplacement(), replaceBlocksMatrix, y);
+			}
+			setBlock(this.blockX + internalX, y, this.blockZ + internalZ, (SpigotMaterialData)material, nbt);
+		}
+
+		@Override
+		public void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, LocalMaterialData material, ReplaceBlockMatrix replaceBlocksMatrix)
+		{
+			if(!this.canWrite || material.isEmpty())
+			{
+				return;
+			}
+
+			LocalMaterialData layerMaterial;
+			for(int y = Math.max(minY, Constants.WORLD_DEPTH); y <= Math.min(maxY, Constants.WORLD_HEIGHT - 1); y++)
+			{
+				// Replacement only depends on height, so parse once per layer.
+				layerMaterial = replaceBlocksMatrix != null ? material.parseWithBiomeAndHeight(getWorldConfig().getBiomeConfigsHaveReplacement(), replaceBlocksMatrix, y) : material;
+				for(int internalX = minX; internalX <= maxX; internalX++)
+				{
+					for(int internalZ = minZ; internalZ <= maxZ; internalZ++)
+					{
+						setBlock(this.blockX + internalX, y, this.blockZ + internalZ, (SpigotMaterialData)layerMaterial, null);
+					}
+				}
+			}
+		}
+
+		private void setBlock(int x, int y, int z, SpigotMaterialData material, NamedBinaryTag nbt)
+		{
+			this.pos.d(x, y, z);
+			// Notify world: (2 | 16) == update client, don't update observers
+			SpigotWorldGenRegion.this.worldGenRegion.setTypeAndData(this.pos, material.internalBlock(), 2 | 16);
+			if(SpigotWorldGenRegion.this.decorationHeightCache != null)
+			{
+				SpigotWorldGenRegion.this.decorationHeightCache.invalidate(x, z);
+			}
+
+			if (material.isLiquid())
+			{
+				SpigotWorldGenRegion.this.worldGenRegion.getFluidTickList().a(new BlockPosition(x, y, z), material.internalBlock().getFluid().getType(), 0);
+			}
+			else if (material.isMaterial(LocalMaterials.COMMAND_BLOCK))
+			{
+				SpigotWorldGenRegion.this.worldGenRegion.getBlockTickList().a(new BlockPosition(x, y, z), material.internalBlock().getBlock(), 0);
+			}
+
+			if (nbt != null)
+			{
+				attachNBT(x, y, z, nbt, SpigotWorldGenRegion.this.worldGenRegion.getType(this.pos));
+			}
+		}
+
+		@Override
+		public int getHighestBlockY(int internalX, int internalZ, boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow, boolean ignoreLeaves)
+		{
+			if(this.chunk == null)
+			{
+				return -1;
+			}
+			return getCachedHighestBlockYAt(this.chunk, this.blockX + internalX, this.blockZ + internalZ, findSolid, findLiquid, ignoreLiquid, ignoreSnow, ignoreLeaves);
+		}
+	}
+
 	protected void attachNBT(int x, int y, int z, NamedBinaryTag nbt, IBlockData state)
 	{
 		NBTTagCompound nms = SpigotNBTHelper.getNMSFromNBTTagCompound(nbt);
@@ -567,6 +783,9 @@ public class SpigotWorldGenRegion extends LocalWorldGenRegion
 			}
 			// Return true to prevent further attempts.
 			return true;
+		} finally {
+			// Trees are placed directly in the world
+			clearHeightCache();
 		}
 	}
 
@@ -751,12 +970,14 @@ public class SpigotWorldGenRegion extends LocalWorldGenRegion
 	public void placeDungeon (Random random, int x, int y, int z)
 	{
 		WorldGenerator.MONSTER_ROOM.b(WorldGenFeatureConfiguration.k).a(this.worldGenRegion, this.chunkGenerator, random, new BlockPosition(x, y, z));		
+		clearHeightCache();
 	}
 
 	@Override
 	public void placeFossil(Random random, int x, int y, int z)
 	{
 		WorldGenerator.FOSSIL.b(WorldGenFeatureConfiguration.k).a(this.worldGenRegion, this.chunkGenerator, random, new BlockPosition(x, y, z));
+		clearHeightCache();
 	}
 
 	@Override
@@ -778,6 +999,10 @@ public class SpigotWorldGenRegion extends LocalWorldGenRegion
 	public void setBlockState(BlockPosition blockpos, IBlockData blockstate1, int i)
 	{
 		this.worldGenRegion.setTypeAndData(blockpos, blockstate1, i);
+		if (this.decorationHeightCache != null)
+		{
+			this.decorationHeightCache.invalidate(blockpos.getX(), blockpos.getZ());
+		}
 	}
 
 	// Shadowgen
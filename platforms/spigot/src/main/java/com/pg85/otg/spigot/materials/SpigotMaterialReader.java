@@ -23,6 +23,7 @@ import net.minecraft.server.v1_16_R3.ResourceKeyInvalidException;
 
 public class SpigotMaterialReader implements IMaterialReader
 {
+	// Caches are guarded by themselves, see IMaterialReader.
 	// TODO: Smaller caches should be ok, only most frequently used should be cached?
 	private final FifoMap<String, LocalMaterialData> cachedMaterials = new FifoMap<>(4096);
 	private final FifoMap<String, LocalMaterialTag> cachedTags = new FifoMap<>(4096);	
@@ -35,14 +36,18 @@ public class SpigotMaterialReader implements IMaterialReader
 			return null;
 		}
 
-		LocalMaterialData localMaterial = this.cachedMaterials.get(material);
-		if (localMaterial != null)
+		LocalMaterialData localMaterial;
+		synchronized(this.cachedMaterials)
 		{
-			return localMaterial;
-		}
-		else if (this.cachedMaterials.containsKey(material))
-		{
-			throw new InvalidConfigException("Cannot read block: " + material);
+			localMaterial = this.cachedMaterials.get(material);
+			if (localMaterial != null)
+			{
+				return localMaterial;
+			}
+			else if (this.cachedMaterials.containsKey(material))
+			{
+				throw new InvalidConfigException("Cannot read block: " + material);
+			}
 		}
 
 		try
@@ -58,7 +63,10 @@ public class SpigotMaterialReader implements IMaterialReader
 			}
 		}
 
-		this.cachedMaterials.put(material, localMaterial);
+		synchronized(this.cachedMaterials)
+		{
+			this.cachedMaterials.put(material, localMaterial);
+		}
 
 		return localMaterial;
 	}
@@ -71,14 +79,21 @@ public class SpigotMaterialReader implements IMaterialReader
 			return null;
 		}
 		
-		LocalMaterialTag localTag = this.cachedTags.get(tag);
-		if(localTag != null)
+		LocalMaterialTag localTag;
+		synchronized(this.cachedTags)
 		{
-			return localTag;
+			localTag = this.cachedTags.get(tag);
+			if(localTag != null)
+			{
+				return localTag;
+			}
 		}
 
 		localTag = SpigotMaterialTag.ofString(tag);
-		this.cachedTags.put(tag, localTag);	
+		synchronized(this.cachedTags)
+		{
+			this.cachedTags.put(tag, localTag);
+		}
 		return localTag;
 	}
 